@@ -0,0 +1,81 @@
+package org.example.benchmarks;
+
+import org.example.HolidayCalendar.DayType;
+import org.example.analytics.PayAnalytics;
+import org.example.analytics.PayHistogram;
+import org.example.analytics.PayQuery;
+import org.example.analytics.PaySnapshot;
+import org.example.models.PeriodTotals;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link PayAnalytics} queries over several years of a workforce's history with plain loops and with
+ * the Vector API. The fork adds the {@code jdk.incubator.vector} module so both can run.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class AnalyticsBenchmark {
+    @Param({"1000", "10000"})
+    public int employees;
+
+    @Param({"false", "true"})
+    public boolean vectorized;
+
+    private PayAnalytics analytics;
+    private PayQuery lastYear;
+    private PayQuery premiumDays;
+
+    @Setup
+    public void setUp() {
+        PaySnapshot snapshot = PaySnapshot.of(Datasets.workforceHistory(employees, 5));
+        analytics = new PayAnalytics(snapshot, vectorized);
+        if (vectorized && !analytics.isVectorized()) {
+            throw new IllegalStateException("The Vector API is not available");
+        }
+        lastYear = PayQuery.all().inYear(LocalDate.now().getYear() - 1);
+        premiumDays = PayQuery.all().onDayTypes(DayType.HOLIDAY, DayType.WEEKEND);
+    }
+
+    @Benchmark
+    public PeriodTotals premiumDayTotals() {
+        return analytics.totals(premiumDays);
+    }
+
+    @Benchmark
+    public SortedMap<Integer, PeriodTotals> totalsByYear() {
+        return analytics.totalsByYear(PayQuery.all());
+    }
+
+    @Benchmark
+    public PayHistogram overtimeDistribution() {
+        return analytics.overtimeDistribution(lastYear, 200, 4);
+    }
+
+    @Benchmark
+    public List<PayAnalytics.Earner> topEarners() {
+        return analytics.topEarners(lastYear, 10);
+    }
+}
@@ -0,0 +1,162 @@
+package org.example.benchmarks;
+
+import org.example.models.Employee;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates realistic, repeatable datasets for the benchmarks: employee names drawn from common first and
+ * last names, pay rates and shift lengths in the ranges the application accepts, and work dates spread over
+ * the current year.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class Datasets {
+    private static final String[] FIRST_NAMES = {
+            "Olivia", "Liam", "Emma", "Noah", "Charlotte", "Oliver", "Amelia", "William", "Ava", "Benjamin",
+            "Sophia", "Lucas", "Mary-Jane", "Jean-Luc", "Zoe", "Ethan", "Chloe", "Jack", "Grace", "Owen"
+    };
+    private static final String[] LAST_NAMES = {
+            "Smith", "Brown", "Tremblay", "Martin", "Roy", "Wilson", "MacDonald", "Gagnon", "Johnson", "Taylor",
+            "O'Connor", "Campbell", "Anderson", "Lee", "Leblanc", "Cote", "White", "Thompson", "Young", "Singh"
+    };
+    private static final String[] INTERNATIONAL_FIRST_NAMES = {
+            "Zo\u00eb", "Jos\u00e9", "Ren\u00e9e", "\u0141ukasz", "S\u00f8ren", "Fran\u00e7ois", "Bj\u00f6rk",
+            "Ma\u00eflys", "Ji\u0159\u00ed", "H\u00e9l\u00e8ne"
+    };
+    private static final String[] INTERNATIONAL_LAST_NAMES = {
+            "C\u00f4t\u00e9", "N\u00fa\u00f1ez", "W\u00f3jcik", "Nguy\u1ec5n", "M\u00fcller", "Gau\u00dfmann",
+            "D\u2019Amours", "Dvo\u0159\u00e1k", "B\u00e9langer-Roy", "\u00c5str\u00f6m"
+    };
+
+    // Fixed seed so every run benchmarks the same data
+    private static final long SEED = 20240901L;
+
+    private Datasets() {
+    }
+
+    /**
+     * Creates a random generator with the shared seed.
+     *
+     * @return a new {@link Random}
+     */
+    public static Random random() {
+        return new Random(SEED);
+    }
+
+    /**
+     * Generates employee names, including hyphenated and apostrophe names.
+     *
+     * @param count the number of names to generate
+     * @return the generated names
+     */
+    public static String[] names(int count) {
+        Random random = random();
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        }
+        return names;
+    }
+
+    /**
+     * Generates employee names with accented and non-Latin letters and typographic apostrophes.
+     *
+     * @param count the number of names to generate
+     * @return the generated names
+     */
+    public static String[] internationalNames(int count) {
+        Random random = random();
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = INTERNATIONAL_FIRST_NAMES[random.nextInt(INTERNATIONAL_FIRST_NAMES.length)] + " "
+                    + INTERNATIONAL_LAST_NAMES[random.nextInt(INTERNATIONAL_LAST_NAMES.length)];
+        }
+        return names;
+    }
+
+    /**
+     * Generates dates spread over the current year.
+     *
+     * @param count the number of dates to generate
+     * @return the generated dates
+     */
+    public static LocalDate[] dates(int count) {
+        Random random = random();
+        LocalDate first = LocalDate.of(LocalDate.now().getYear(), 1, 1);
+        int days = first.lengthOfYear();
+        LocalDate[] dates = new LocalDate[count];
+        for (int i = 0; i < count; i++) {
+            dates[i] = first.plusDays(random.nextInt(days));
+        }
+        return dates;
+    }
+
+    /**
+     * Generates shift lengths between 1 and 16 hours in quarter-hour steps, weighted towards full days.
+     *
+     * @param count the number of shift lengths to generate
+     * @return the generated hours
+     */
+    public static double[] hours(int count) {
+        Random random = random();
+        double[] hours = new double[count];
+        for (int i = 0; i < count; i++) {
+            double shift = 7.5 + random.nextGaussian() * 2.0;
+            hours[i] = Math.max(1.0, Math.min(16.0, Math.round(shift * 4) / 4.0));
+        }
+        return hours;
+    }
+
+    /**
+     * Creates an employee with one work entry on each of the first {@code entries} days of the current year.
+     *
+     * @param entries the number of work entries to add; at most the number of days in the year
+     * @return the new {@link Employee}
+     */
+    public static Employee employeeWithEntries(int entries) {
+        Random random = random();
+        Employee employee = new Employee(names(1)[0], 15.0 + random.nextInt(8500) / 100.0);
+        LocalDate date = LocalDate.of(LocalDate.now().getYear(), 1, 1);
+        double[] hours = hours(entries);
+        for (int i = 0; i < entries; i++) {
+            employee.addWorkEntry(date.plusDays(i), hours[i]);
+        }
+        return employee;
+    }
+
+    /**
+     * Creates employees with work entries spread over the last {@code years} years, one every one to three
+     * days, each starting at a random rate that rises at the start of every year.
+     *
+     * @param count the number of employees to create
+     * @param years the number of years of history, counting the current one
+     * @return the new employees
+     */
+    public static List<Employee> workforceHistory(int count, int years) {
+        Random random = random();
+        String[] names = names(count);
+        LocalDate first = LocalDate.of(LocalDate.now().getYear() - years + 1, 1, 1);
+        LocalDate end = first.plusYears(years);
+        List<Employee> employees = new ArrayList<>(count);
+        for (int e = 0; e < count; e++) {
+            Employee employee = new Employee(names[e], 15.0 + random.nextInt(8500) / 100.0);
+            for (LocalDate raise = first.plusYears(1); raise.isBefore(end); raise = raise.plusYears(1)) {
+                employee.changeHourlyRate(employee.getHourlyRate() + 0.5, raise);
+            }
+            for (LocalDate date = first.plusDays(random.nextInt(3)); date.isBefore(end);
+                 date = date.plusDays(1 + random.nextInt(3))) {
+                double shift = 7.5 + random.nextGaussian() * 2.0;
+                employee.addWorkEntry(date, Math.max(1.0, Math.min(16.0, Math.round(shift * 4) / 4.0)));
+            }
+            employees.add(employee);
+        }
+        return employees;
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.benchmarks;
+
+import org.example.Validation;
+import org.example.models.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the duplicate-date check done before every new work entry as the number of existing entries grows.
+ * The checked date is the last day of the year, which is never already present, so every check is a miss.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DuplicateDateBenchmark {
+    @Param({"10", "100", "364"})
+    public int entries;
+
+    private Employee employee;
+    private LocalDate newDate;
+
+    @Setup
+    public void setUp() {
+        employee = Datasets.employeeWithEntries(entries);
+        newDate = LocalDate.of(LocalDate.now().getYear(), 12, 31);
+    }
+
+    @Benchmark
+    public boolean isValidDate() {
+        return Validation.isValidDate(newDate, employee);
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.benchmarks;
+
+import org.example.HolidayCalendar;
+import org.example.Validation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures holiday and weekend classification of a work date.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HolidayLookupBenchmark {
+    private static final int DATES = 4096;
+
+    private LocalDate[] dates;
+    private long[] epochDays;
+
+    @Setup
+    public void setUp() {
+        dates = Datasets.dates(DATES);
+        epochDays = new long[DATES];
+        for (int i = 0; i < DATES; i++) {
+            epochDays[i] = dates[i].toEpochDay();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public void isHolidayOrWeekend(Blackhole blackhole) {
+        for (LocalDate date : dates) {
+            blackhole.consume(Validation.isHolidayOrWeekend(date));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATES)
+    public void dayTypeOfEpochDay(Blackhole blackhole) {
+        for (long epochDay : epochDays) {
+            blackhole.consume(HolidayCalendar.dayTypeOf(epochDay));
+        }
+    }
+}
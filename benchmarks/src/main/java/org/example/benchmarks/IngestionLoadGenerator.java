@@ -0,0 +1,133 @@
+package org.example.benchmarks;
+
+import org.example.data.EmployeeDB;
+import org.example.data.EmployeeJournal;
+import org.example.ingest.IngestionServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load generator for {@link IngestionServer}. Starts a server in this process, then has {@code clients}
+ * concurrent clients each post {@code submissions} single-entry timesheets, and reports submissions per second
+ * and latency percentiles. Requests turned away with 503 are retried after a short pause, and their latency
+ * includes the wait.
+ *
+ * Not a JMH benchmark; run it with
+ * {@code java -cp benchmarks.jar org.example.benchmarks.IngestionLoadGenerator [clients] [submissions] [dataDir]}.
+ * With a data directory the server journals every entry and syncs once per committed batch.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class IngestionLoadGenerator {
+    private static final int MAX_IN_FLIGHT = 256;
+    private static final int BATCH_SIZE = 512;
+    private static final long RETRY_PAUSE_MILLIS = 2;
+
+    /**
+     * Runs the load test.
+     *
+     * @param args the number of clients, the number of submissions per client, and an optional data directory
+     * @throws Exception if the server cannot be started or a client fails
+     */
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int submissions = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        EmployeeJournal journal = args.length > 2 ? EmployeeJournal.open(Paths.get(args[2]), Integer.MAX_VALUE) : null;
+
+        try (IngestionServer server = new IngestionServer(new InetSocketAddress("127.0.0.1", 0), MAX_IN_FLIGHT,
+                BATCH_SIZE, journal)) {
+            server.start();
+            URI base = URI.create("http://127.0.0.1:" + server.getPort());
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            long[][] latencies = new long[clients][submissions];
+            AtomicLong retries = new AtomicLong();
+            AtomicLong rejected = new AtomicLong();
+            Thread[] threads = new Thread[clients];
+            long start = System.nanoTime();
+            for (int c = 0; c < clients; c++) {
+                long[] clientLatencies = latencies[c];
+                threads[c] = new Thread(() -> runClient(http, base, clientLatencies, retries, rejected));
+                threads[c].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            long elapsed = System.nanoTime() - start;
+
+            long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+            System.out.printf("%d clients x %d submissions%s%n", clients, submissions,
+                    journal == null ? "" : " (journaled)");
+            System.out.printf("throughput: %.0f submissions/s%n", all.length * 1e9 / elapsed);
+            System.out.printf("latency: p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    percentile(all, 0.50), percentile(all, 0.99), all[all.length - 1] / 1e6);
+            System.out.printf("503 retries: %d, rejected: %d, employees: %d%n", retries.get(), rejected.get(),
+                    EmployeeDB.size());
+        } finally {
+            if (journal != null) {
+                journal.close();
+            }
+        }
+    }
+
+    // Method run by each client: create an employee, then post one entry per day until it runs out of days
+    private static void runClient(HttpClient http, URI base, long[] latencies, AtomicLong retries,
+                                  AtomicLong rejected) {
+        try {
+            LocalDate first = LocalDate.of(LocalDate.now().getYear(), 1, 1);
+            int daysAvailable = LocalDate.now().getDayOfYear();
+            long employeeId = 0;
+            for (int i = 0; i < latencies.length; i++) {
+                int day = i % daysAvailable;
+                if (day == 0) {
+                    employeeId = createEmployee(http, base);
+                }
+                String body = employeeId + "," + first.plusDays(day) + ",8\n";
+                long sent = System.nanoTime();
+                HttpResponse<String> response = post(http, base.resolve("/timesheets"), body, retries);
+                latencies[i] = System.nanoTime() - sent;
+                if (response.statusCode() != 200) {
+                    rejected.incrementAndGet();
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            throw new IllegalStateException("Client failed", e);
+        }
+    }
+
+    private static long createEmployee(HttpClient http, URI base) throws IOException, InterruptedException {
+        String name = Datasets.names(1)[0];
+        HttpResponse<String> response = post(http, base.resolve("/employees"), name + ",27.50\n", new AtomicLong());
+        return Long.parseLong(response.body().trim().substring("OK ".length()));
+    }
+
+    private static HttpResponse<String> post(HttpClient http, URI uri, String body, AtomicLong retries)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        while (true) {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 503) {
+                return response;
+            }
+            retries.incrementAndGet();
+            Thread.sleep(RETRY_PAUSE_MILLIS);
+        }
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.benchmarks;
+
+import org.example.Validation;
+import org.example.metrics.Metrics;
+import org.example.models.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what {@link Metrics} instrumentation costs on two hot paths, pay calculation and name validation.
+ * {@link Metrics#ENABLED} is fixed when the JVM starts, so each case runs in its own fork with instrumentation
+ * off (the default) and with {@code -Dpayroll.metrics=true}. The {@code off} results should match
+ * {@link PayCalculationBenchmark} and {@link NameValidationBenchmark}.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+    private static final int ENTRIES = 4096;
+    private static final int NAMES = 1024;
+    private static final String ENABLED = "-D" + Metrics.ENABLED_PROPERTY + "=true";
+
+    private Employee employee;
+    private int[] epochDays;
+    private double[] hours;
+    private String[] names;
+
+    @Setup
+    public void setUp() {
+        employee = new Employee("Benchmark Employee", 27.50);
+        LocalDate[] dates = Datasets.dates(ENTRIES);
+        hours = Datasets.hours(ENTRIES);
+        epochDays = new int[ENTRIES];
+        for (int i = 0; i < ENTRIES; i++) {
+            epochDays[i] = (int) dates[i].toEpochDay();
+        }
+        names = Datasets.names(NAMES);
+    }
+
+    @Benchmark
+    @Fork(1)
+    @OperationsPerInvocation(ENTRIES)
+    public long calculateDailyPayOff() {
+        return calculateDailyPay();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = ENABLED)
+    @OperationsPerInvocation(ENTRIES)
+    public long calculateDailyPayOn() {
+        return calculateDailyPay();
+    }
+
+    @Benchmark
+    @Fork(1)
+    @OperationsPerInvocation(NAMES)
+    public void isValidNameOff(Blackhole blackhole) {
+        isValidName(blackhole);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = ENABLED)
+    @OperationsPerInvocation(NAMES)
+    public void isValidNameOn(Blackhole blackhole) {
+        isValidName(blackhole);
+    }
+
+    private long calculateDailyPay() {
+        long total = 0;
+        for (int i = 0; i < ENTRIES; i++) {
+            total += employee.calculateDailyPay(epochDays[i], hours[i]);
+        }
+        return total;
+    }
+
+    private void isValidName(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(Validation.isValidName(name));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.benchmarks;
+
+import org.example.Validation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Measures {@link Validation#checkName(CharSequence)} over generated employee names, against the precompiled
+ * regular expression it replaced. The regular expression only accepts ASCII names, so on international names
+ * it stops at the first accented letter and does less work than a full check.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NameValidationBenchmark {
+    private static final int NAMES = 1024;
+    private static final Pattern REGEX = Pattern.compile("^[A-Za-z\\s'-]+$");
+
+    @Param({"ascii", "international"})
+    public String dataset;
+
+    private String[] names;
+
+    @Setup
+    public void setUp() {
+        names = dataset.equals("ascii") ? Datasets.names(NAMES) : Datasets.internationalNames(NAMES);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NAMES)
+    public void isValidName(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(Validation.isValidName(name));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NAMES)
+    public void regex(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(!name.isBlank() && REGEX.matcher(name).matches());
+        }
+    }
+}
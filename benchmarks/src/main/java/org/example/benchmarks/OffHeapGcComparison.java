@@ -0,0 +1,137 @@
+package org.example.benchmarks;
+
+import org.example.data.EmployeeDB;
+import org.example.data.OffHeapEmployeeStore;
+import org.example.models.Employee;
+import org.example.payroll.PayrollEngine;
+import org.example.payroll.PayrollResult;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Compares the heap footprint and garbage-collection pauses of {@link EmployeeDB} and
+ * {@link OffHeapEmployeeStore} holding the same workforce. Loads {@code employees} employees with
+ * {@code entries} work entries each into the chosen store, then runs the payroll {@code runs} times while
+ * another thread churns short-lived garbage, as a service would, and reports:
+ * <ul>
+ *     <li>heap in use after a full collection, and the store's off-heap memory</li>
+ *     <li>the length of that full collection, which grows with the number of live heap objects</li>
+ *     <li>collections and total collection time during the payroll runs, and the payroll throughput</li>
+ * </ul>
+ *
+ * Not a JMH benchmark; run each store in its own JVM with the same heap settings, for example
+ * {@code java -Xmx3g -cp benchmarks.jar org.example.benchmarks.OffHeapGcComparison heap 100000 250} and the same
+ * with {@code offheap}.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class OffHeapGcComparison {
+    private static final int RUNS = 5;
+    private static final int FULL_COLLECTIONS = 3;
+
+    private static volatile Object sink;
+
+    /**
+     * Runs the comparison for one store.
+     *
+     * @param args {@code heap} or {@code offheap}, the number of employees, and the work entries per employee
+     */
+    public static void main(String[] args) {
+        boolean offHeap = args.length > 0 && args[0].equals("offheap");
+        int employees = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int entries = args.length > 2 ? Integer.parseInt(args[2]) : 250;
+
+        LocalDate today = LocalDate.now();
+        int firstDay = (int) today.withDayOfYear(1).toEpochDay();
+        int days = today.getDayOfYear();
+        if (entries > days) {
+            throw new IllegalArgumentException("At most " + days + " entries per employee fit in this year so far");
+        }
+        double[] hours = Datasets.hours(entries);
+        String[] names = Datasets.names(employees);
+
+        long loadStart = System.nanoTime();
+        OffHeapEmployeeStore store = offHeap ? new OffHeapEmployeeStore() : null;
+        for (int e = 0; e < employees; e++) {
+            long id = e + 1;
+            double rate = 15.0 + e % 50;
+            if (offHeap) {
+                store.addEmployee(id, names[e], rate);
+            } else {
+                EmployeeDB.addEmployee(new Employee(id, names[e], rate));
+            }
+            for (int k = 0; k < entries; k++) {
+                // Distinct days for each employee, staggered so employees do not all work the same days
+                int day = firstDay + (k + e) % days;
+                boolean added = offHeap ? store.addWorkEntry(id, day, hours[k])
+                        : EmployeeDB.addWorkEntry(id, LocalDate.ofEpochDay(day), hours[k]);
+                if (!added) {
+                    throw new IllegalStateException("Entry rejected for employee " + id + " on day " + day);
+                }
+            }
+        }
+        System.out.printf("%s store: %,d employees, %,d entries, loaded in %.1f s%n", offHeap ? "Off-heap" : "Heap",
+                employees, (long) employees * entries, (System.nanoTime() - loadStart) / 1e9);
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long fullGcNanos = Long.MAX_VALUE;
+        for (int i = 0; i < FULL_COLLECTIONS; i++) {
+            long start = System.nanoTime();
+            System.gc();
+            fullGcNanos = Math.min(fullGcNanos, System.nanoTime() - start);
+        }
+        System.out.printf("Heap used after full GC: %,d MB; off-heap: %,d MB; full GC: %.0f ms%n",
+                memory.getHeapMemoryUsage().getUsed() >> 20, offHeap ? store.getOffHeapBytes() >> 20 : 0,
+                fullGcNanos / 1e6);
+
+        Thread churn = new Thread(OffHeapGcComparison::churn, "churn");
+        churn.setDaemon(true);
+        churn.start();
+        long gcCountBefore = gcCount();
+        long gcMillisBefore = gcMillis();
+        long runStart = System.nanoTime();
+        long totalPay = 0;
+        for (int run = 0; run < RUNS; run++) {
+            PayrollResult result = offHeap ? store.runPayroll()
+                    : new PayrollEngine().runSequential(EmployeeDB.getAllEmployees());
+            totalPay = result.getTotalPayCents();
+        }
+        double seconds = (System.nanoTime() - runStart) / 1e9;
+        System.out.printf("%d payroll runs in %.1f s (%.0f entries/s), total pay %d cents; during the runs: "
+                        + "%d collections, %d ms collecting%n", RUNS, seconds, (double) employees * entries * RUNS
+                        / seconds, totalPay, gcCount() - gcCountBefore, gcMillis() - gcMillisBefore);
+    }
+
+    // Method run by the churn thread: allocate short-lived objects, as request handling would
+    private static void churn() {
+        while (true) {
+            sink = new byte[256];
+        }
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : collectors()) {
+            count += gc.getCollectionCount();
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : collectors()) {
+            millis += gc.getCollectionTime();
+        }
+        return millis;
+    }
+
+    private static List<GarbageCollectorMXBean> collectors() {
+        return ManagementFactory.getGarbageCollectorMXBeans();
+    }
+}
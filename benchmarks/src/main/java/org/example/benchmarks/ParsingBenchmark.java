@@ -0,0 +1,93 @@
+package org.example.benchmarks;
+
+import org.example.Parsing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing a timesheet row's date and hours with {@link Parsing}, against {@link LocalDate#parse} and
+ * {@link Double#parseDouble} with their exceptions caught, on clean input and on input where a share of the
+ * values are malformed.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParsingBenchmark {
+    private static final int ROWS = 4096;
+    private static final String[] MALFORMED_DATES = {"2024-13-01", "2024/01/05", "Jan 5", "", "2024-02-30"};
+    private static final String[] MALFORMED_HOURS = {"eight", "7,5", "", "8h", "--"};
+
+    @Param({"0", "30"})
+    public int malformedPercent;
+
+    private String[] dates;
+    private String[] hours;
+
+    @Setup
+    public void setUp() {
+        Random random = Datasets.random();
+        LocalDate[] validDates = Datasets.dates(ROWS);
+        double[] validHours = Datasets.hours(ROWS);
+        dates = new String[ROWS];
+        hours = new String[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            boolean malformed = random.nextInt(100) < malformedPercent;
+            dates[i] = malformed && random.nextBoolean()
+                    ? MALFORMED_DATES[random.nextInt(MALFORMED_DATES.length)] : validDates[i].toString();
+            hours[i] = malformed && random.nextBoolean()
+                    ? MALFORMED_HOURS[random.nextInt(MALFORMED_HOURS.length)] : Double.toString(validHours[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long parsing() {
+        long sum = 0;
+        for (int i = 0; i < ROWS; i++) {
+            long epochDay = Parsing.parseEpochDay(dates[i]);
+            long hundredths = Parsing.parseHundredths(hours[i]);
+            if (!Parsing.failed(epochDay) && !Parsing.failed(hundredths)) {
+                sum += epochDay + hundredths;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long exceptions() {
+        long sum = 0;
+        for (int i = 0; i < ROWS; i++) {
+            try {
+                long epochDay = LocalDate.parse(dates[i]).toEpochDay();
+                double hoursWorked = Double.parseDouble(hours[i]);
+                sum += epochDay + Math.round(hoursWorked * 100.0);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                // Skip the row
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.benchmarks;
+
+import org.example.models.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-entry cost of {@link Employee#calculateDailyPay(LocalDate, double)} over a mix of regular
+ * days, weekends, holidays and overtime shifts.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayCalculationBenchmark {
+    private static final int ENTRIES = 4096;
+
+    private Employee employee;
+    private LocalDate[] dates;
+    private int[] epochDays;
+    private double[] hours;
+
+    @Setup
+    public void setUp() {
+        employee = new Employee("Olivia Smith", 27.5);
+        dates = Datasets.dates(ENTRIES);
+        hours = Datasets.hours(ENTRIES);
+        epochDays = new int[ENTRIES];
+        for (int i = 0; i < ENTRIES; i++) {
+            epochDays[i] = (int) dates[i].toEpochDay();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES)
+    public long calculateDailyPay() {
+        long total = 0;
+        for (int i = 0; i < ENTRIES; i++) {
+            total += employee.calculateDailyPay(dates[i], hours[i]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES)
+    public long calculateDailyPayEpochDay() {
+        long total = 0;
+        for (int i = 0; i < ENTRIES; i++) {
+            total += employee.calculateDailyPay(epochDays[i], hours[i]);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.benchmarks;
+
+import org.example.models.Employee;
+import org.example.payroll.PayRuleSet;
+import org.example.payroll.PayRules;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-entry cost of calculating pay under rule sets of increasing complexity: the built-in
+ * Alberta rules, a three-tier union agreement with weekend premiums, and rules with weekly overtime, which
+ * also look up the employee's earlier entries in the same week.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayRuleBenchmark {
+    private static final int ENTRIES = 4096;
+
+    @Param({"alberta", "union", "weekly"})
+    public String ruleSet;
+
+    private Employee employee;
+    private int[] epochDays;
+    private double[] hours;
+
+    @Setup
+    public void setUp() {
+        Properties config = new Properties();
+        config.setProperty("ruleset.union.daily.tiers", "8:1.5,10:1.75,12:2");
+        config.setProperty("ruleset.union.weekend.multiplier", "1.25");
+        config.setProperty("ruleset.union.holiday.multiplier", "2");
+        config.setProperty("ruleset.union.weekend.premium", "1.50");
+        config.setProperty("ruleset.weekly.daily.tiers", "8:1.5");
+        config.setProperty("ruleset.weekly.weekly.threshold", "40");
+        config.setProperty("ruleset.weekly.weekly.multiplier", "1.5");
+        PayRules.load(config);
+
+        PayRuleSet rules = PayRules.get(ruleSet);
+        // A year of entries, so weekly rules have earlier days of the week to look up
+        employee = Datasets.employeeWithEntries(260);
+        employee.changeRuleSet(rules);
+
+        LocalDate[] dates = Datasets.dates(ENTRIES);
+        hours = Datasets.hours(ENTRIES);
+        epochDays = new int[ENTRIES];
+        for (int i = 0; i < ENTRIES; i++) {
+            epochDays[i] = (int) dates[i].toEpochDay();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES)
+    public long calculateDailyPay() {
+        long total = 0;
+        for (int i = 0; i < ENTRIES; i++) {
+            total += employee.calculateDailyPay(epochDays[i], hours[i]);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.benchmarks;
+
+import org.example.WorkEntry;
+import org.example.models.Employee;
+import org.example.models.PeriodTotals;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares period totals from the {@link org.example.models.PayPeriodIndex} with adding up
+ * {@link WorkEntry#getDailyPay()} over {@link Employee#getWorkEntries()}, for a month and for year to date.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PeriodTotalsBenchmark {
+    @Param({"20", "260", "364"})
+    public int entries;
+
+    private Employee employee;
+    private YearMonth month;
+    private LocalDate monthStart;
+    private LocalDate monthEnd;
+    private LocalDate asOf;
+
+    @Setup
+    public void setUp() {
+        employee = Datasets.employeeWithEntries(entries);
+        int year = LocalDate.now().getYear();
+        month = YearMonth.of(year, 1);
+        monthStart = month.atDay(1);
+        monthEnd = month.atEndOfMonth();
+        asOf = LocalDate.of(year, 12, 15);
+    }
+
+    @Benchmark
+    public long monthIndexed() {
+        return employee.getMonthTotals(month).getPayCents();
+    }
+
+    @Benchmark
+    public double monthScan() {
+        return scan(monthStart, monthEnd);
+    }
+
+    @Benchmark
+    public long yearToDateIndexed() {
+        PeriodTotals totals = employee.getYearToDateTotals(asOf);
+        return totals.getPayCents();
+    }
+
+    @Benchmark
+    public double yearToDateScan() {
+        return scan(asOf.withDayOfYear(1), asOf);
+    }
+
+    // The walk the payroll UI did before the index existed
+    private double scan(LocalDate from, LocalDate to) {
+        double total = 0;
+        for (WorkEntry entry : employee.getWorkEntries()) {
+            LocalDate date = entry.getWorkDate();
+            if (!date.isBefore(from) && !date.isAfter(to)) {
+                total += entry.getDailyPay();
+            }
+        }
+        return total;
+    }
+}
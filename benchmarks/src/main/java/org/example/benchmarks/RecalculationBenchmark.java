@@ -0,0 +1,97 @@
+package org.example.benchmarks;
+
+import org.example.HolidayCalendar;
+import org.example.models.Employee;
+import org.example.payroll.PayrollRecalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares keeping pay up to date incrementally with recalculating every work entry, for a holiday being
+ * added and removed across the workforce and for a late-year rate change of one employee.
+ *
+ * Each invocation applies a change and then reverts it, so the state is the same at the start of every
+ * invocation.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecalculationBenchmark {
+    private static final int ENTRIES_PER_EMPLOYEE = 260;
+
+    @Param({"1000", "10000"})
+    public int employees;
+
+    private List<Employee> workforce;
+    private Employee employee;
+    private LocalDate holiday;
+    private LocalDate rateEffectiveFrom;
+    private double rate;
+
+    @Setup
+    public void setUp() {
+        workforce = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            workforce.add(Datasets.employeeWithEntries(ENTRIES_PER_EMPLOYEE));
+        }
+        employee = workforce.get(0);
+        rate = employee.getHourlyRate();
+
+        // A regular working day that every employee has an entry on
+        LocalDate first = LocalDate.of(LocalDate.now().getYear(), 1, 1);
+        holiday = first.plusDays(100);
+        while (HolidayCalendar.dayTypeOf(holiday) != HolidayCalendar.DayType.REGULAR) {
+            holiday = holiday.plusDays(1);
+        }
+        rateEffectiveFrom = first.plusDays(ENTRIES_PER_EMPLOYEE - 30);
+    }
+
+    @Benchmark
+    public long holidayIncremental() {
+        return PayrollRecalculator.addHoliday(holiday, workforce)
+                + PayrollRecalculator.removeHoliday(holiday, workforce);
+    }
+
+    @Benchmark
+    public long holidayFullRecompute() {
+        HolidayCalendar.addHoliday(holiday);
+        long delta = PayrollRecalculator.recalculateAll(workforce);
+        HolidayCalendar.removeHoliday(holiday);
+        return delta + PayrollRecalculator.recalculateAll(workforce);
+    }
+
+    @Benchmark
+    public long rateIncremental() {
+        return employee.changeHourlyRate(rate + 1.0, rateEffectiveFrom)
+                + employee.changeHourlyRate(rate, rateEffectiveFrom);
+    }
+
+    @Benchmark
+    public long rateFullRecompute() {
+        employee.changeHourlyRate(rate + 1.0, rateEffectiveFrom);
+        long delta = PayrollRecalculator.recalculateAll(workforce);
+        employee.changeHourlyRate(rate, rateEffectiveFrom);
+        return delta + PayrollRecalculator.recalculateAll(workforce);
+    }
+}
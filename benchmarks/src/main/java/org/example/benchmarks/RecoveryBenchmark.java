@@ -0,0 +1,100 @@
+package org.example.benchmarks;
+
+import org.example.data.EmployeeDB;
+import org.example.data.EmployeeJournal;
+import org.example.models.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures how long {@link EmployeeJournal#open(Path, int)} takes to rebuild {@link EmployeeDB} from a snapshot
+ * of {@code employees} employees with five work entries each, plus a journal tail of {@code tailRecords}
+ * work entries written after the snapshot.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class RecoveryBenchmark {
+    private static final int ENTRIES_PER_EMPLOYEE = 5;
+
+    @Param({"1000000"})
+    public int employees;
+
+    @Param({"100000"})
+    public int tailRecords;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("recovery-benchmark");
+        Random random = Datasets.random();
+        String[] names = Datasets.names(1024);
+        LocalDate first = LocalDate.of(LocalDate.now().getYear(), 1, 1);
+
+        EmployeeDB.clear();
+        EmployeeJournal journal = EmployeeJournal.open(directory, 4096);
+        long firstId = 0;
+        for (int i = 0; i < employees; i++) {
+            Employee employee = new Employee(names[i & 1023], 15.0 + random.nextInt(8500) / 100.0);
+            if (i == 0) {
+                firstId = employee.getId();
+            }
+            for (int d = 0; d < ENTRIES_PER_EMPLOYEE; d++) {
+                employee.addWorkEntry(first.plusDays(d), 1 + random.nextInt(15));
+            }
+            EmployeeDB.addEmployee(employee);
+        }
+        journal.snapshot();
+
+        for (int i = 0; i < tailRecords; i++) {
+            EmployeeDB.addWorkEntry(firstId + random.nextInt(employees),
+                    first.plusDays(ENTRIES_PER_EMPLOYEE + random.nextInt(300)), 8.0);
+        }
+        journal.close();
+        EmployeeDB.clear();
+    }
+
+    @Benchmark
+    public int recover() throws IOException {
+        EmployeeDB.clear();
+        EmployeeJournal journal = EmployeeJournal.open(directory, 4096);
+        journal.close();
+        return EmployeeDB.size();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        EmployeeDB.clear();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.benchmarks;
+
+import org.example.models.Employee;
+import org.example.report.PayrollReportWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rendering of an employee's pay summary, both as a String with {@link Employee#toString()} and
+ * streamed through {@link PayrollReportWriter} in each format into a writer that discards its output.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportBenchmark {
+    @Param({"20", "260"})
+    public int entries;
+
+    @Param({"TEXT", "CSV", "JSON"})
+    public PayrollReportWriter.Format format;
+
+    private Employee employee;
+    private PayrollReportWriter writer;
+
+    @Setup
+    public void setUp() {
+        employee = Datasets.employeeWithEntries(entries);
+        writer = new PayrollReportWriter(Writer.nullWriter(), format);
+    }
+
+    @Benchmark
+    public String renderEmployee() {
+        return employee.toString();
+    }
+
+    @Benchmark
+    public void streamEmployee() throws IOException {
+        writer.writeEmployee(employee);
+    }
+}
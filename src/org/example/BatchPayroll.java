@@ -0,0 +1,203 @@
+package org.example;
+
+import org.example.metrics.Metrics;
+import org.example.metrics.PayrollRunEvent;
+import org.example.models.Employee;
+import org.example.report.PayrollReportWriter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+
+/**
+ * Non-interactive entry point that reads a timesheet CSV file and writes the pay summary of every employee
+ * to an output file. The report is written as CSV or JSON when the output file name ends in {@code .csv} or
+ * {@code .json}, and as plain text otherwise.
+ *
+ * Each line of the input holds {@code employee,rate,date,hours}, parsed by {@link TimesheetRow}. Rows are
+ * expected to be grouped by employee, as timesheet exports are; only the employee currently being read is kept
+ * in memory, so memory use stays flat no matter how large the input is. Rows that fail the {@link Validation}
+ * rules are skipped and reported on standard error.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class BatchPayroll {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Runs a batch payroll from the command line.
+     *
+     * @param args the input timesheet path followed by the output report path
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: BatchPayroll <timesheet.csv> <report.txt>");
+            return;
+        }
+
+        try {
+            Result result = run(Paths.get(args[0]), Paths.get(args[1]));
+            System.out.println(result);
+            if (Metrics.ENABLED) {
+                Metrics.dump(System.err);
+            }
+        } catch (IOException e) {
+            System.err.println("Batch payroll failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads every row of the timesheet file, feeds it into {@link Employee#addWorkEntry(int, double)}
+     * and writes each employee's pay summary as soon as all of their rows have been read.
+     *
+     * @param input the timesheet CSV file to read
+     * @param output the file to write the pay summaries to
+     * @return the counts of employees, entries and rejected rows processed
+     * @throws IOException if the input cannot be read or the output cannot be written
+     */
+    public static Result run(Path input, Path output) throws IOException {
+        Result result = new Result();
+        long today = LocalDate.now().toEpochDay();
+        PayrollRunEvent event = new PayrollRunEvent();
+        event.begin();
+
+        try (BufferedReader reader = new BufferedReader(
+                     Files.newBufferedReader(input, StandardCharsets.UTF_8), BUFFER_SIZE);
+             BufferedWriter writer = new BufferedWriter(
+                     Files.newBufferedWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+
+            PayrollReportWriter report = new PayrollReportWriter(writer, formatFor(output));
+            TimesheetRow row = new TimesheetRow();
+            Employee current = null;
+            String line;
+            long lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && TimesheetRow.isHeader(line))) {
+                    continue;
+                }
+
+                String problem = row.parse(line);
+                if (problem != null) {
+                    reject(result, lineNumber, problem);
+                    continue;
+                }
+                double rate = row.getRate();
+                long epochDay = row.getEpochDay();
+
+                // A new employee starts whenever the name or rate changes; the current name was validated already
+                if (current == null || !row.isName(current.getName()) || current.getHourlyRate() != rate) {
+                    String name = row.getName();
+                    Validation.NameCheck nameCheck = Validation.checkName(name);
+                    if (nameCheck != Validation.NameCheck.VALID) {
+                        reject(result, lineNumber, nameCheck.getMessage());
+                        continue;
+                    }
+                    flush(current, report, result);
+                    current = new Employee(name, rate);
+                }
+
+                if (epochDay > today || !Validation.isValidDate((int) epochDay, current)) {
+                    reject(result, lineNumber, "invalid or duplicate date");
+                    continue;
+                }
+
+                current.addWorkEntry((int) epochDay, row.getHoursWorked());
+                result.entries++;
+            }
+
+            flush(current, report, result);
+            report.finish();
+        }
+
+        event.finish("batch", 1, result.employees, result.entries, result.totalPayCents);
+        return result;
+    }
+
+    // Method to write a finished employee to the report
+    private static void flush(Employee employee, PayrollReportWriter report, Result result) throws IOException {
+        if (employee == null || employee.getWorkEntryStore().size() == 0) {
+            return;
+        }
+        report.writeEmployee(employee);
+        result.employees++;
+        result.totalPayCents += employee.getTotalPayCents();
+    }
+
+    // Method to pick the report format from the output file name
+    private static PayrollReportWriter.Format formatFor(Path output) {
+        String fileName = output.getFileName().toString().toLowerCase();
+        if (fileName.endsWith(".csv")) {
+            return PayrollReportWriter.Format.CSV;
+        }
+        if (fileName.endsWith(".json")) {
+            return PayrollReportWriter.Format.JSON;
+        }
+        return PayrollReportWriter.Format.TEXT;
+    }
+
+    // Method to report a skipped row
+    private static void reject(Result result, long lineNumber, String reason) {
+        result.rejected++;
+        System.err.println("Line " + lineNumber + " skipped: " + reason);
+    }
+
+    /**
+     * Counts collected during a batch run.
+     */
+    public static class Result {
+        private long employees;
+        private long entries;
+        private long rejected;
+        private long totalPayCents;
+
+        /**
+         * Returns the number of employees written to the report.
+         *
+         * @return the employee count
+         */
+        public long getEmployees() {
+            return employees;
+        }
+
+        /**
+         * Returns the number of work entries accepted.
+         *
+         * @return the entry count
+         */
+        public long getEntries() {
+            return entries;
+        }
+
+        /**
+         * Returns the number of rows skipped because they failed validation.
+         *
+         * @return the rejected row count
+         */
+        public long getRejected() {
+            return rejected;
+        }
+
+        /**
+         * Returns the total pay of the employees written to the report.
+         *
+         * @return the total pay in cents
+         */
+        public long getTotalPayCents() {
+            return totalPayCents;
+        }
+
+        @Override
+        public String toString() {
+            return "Processed " + employees + " employees, " + entries + " entries, " + rejected + " rejected rows.";
+        }
+    }
+}
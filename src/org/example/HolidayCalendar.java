@@ -0,0 +1,292 @@
+package org.example;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed calendar that classifies every day of a year as a regular day, a weekend, or an Alberta holiday.
+ * Each calendar stores one byte per day of the year, so classifying a date is a single array read instead of
+ * a search through a list of holidays.
+ *
+ * Holiday dates come from {@link HolidayRule}s, so movable holidays such as Good Friday and Victoria Day fall
+ * on the right dates in every year. Calendars are generated on demand for any year and cached, so the rules
+ * are evaluated once per year. The years a work date may be in are also laid out in a single table indexed by
+ * epoch day, so the common case does not even need the cache lookup.
+ *
+ * Holidays can be added or removed at run time with {@link #addHoliday(LocalDate)} and
+ * {@link #removeHoliday(LocalDate)}. Both the cached calendar and the epoch-day table are replaced by updated
+ * copies, so threads calculating pay see either the old or the new table, never a torn one. Pay already
+ * calculated for the changed date is not touched; use {@link org.example.payroll.PayrollRecalculator} to
+ * recalculate it, or {@link org.example.data.EmployeeDB#addHoliday(LocalDate)}, which also journals the change.
+ * {@link #getOverrides()} lists the changes so they can be saved and restored.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class HolidayCalendar {
+    /**
+     * Classification of a single day.
+     */
+    public enum DayType {
+        REGULAR("Regular"),
+        WEEKEND("Weekend"),
+        HOLIDAY("Holiday");
+
+        private final String label;
+
+        DayType(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Returns the label shown in pay summaries for this type of day.
+         *
+         * @return the display label
+         */
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * Alberta holidays, evaluated for every generated year.
+     */
+    private static final List<HolidayRule> HOLIDAYS = List.of(
+            HolidayRule.fixed("New Year's Day", Month.JANUARY, 1),
+            HolidayRule.nthWeekday("Alberta Family Day", Month.FEBRUARY, 3, DayOfWeek.MONDAY).since(1990),
+            HolidayRule.easterOffset("Good Friday", -2),
+            HolidayRule.weekdayBefore("Victoria Day", DayOfWeek.MONDAY, Month.MAY, 25),
+            HolidayRule.fixed("Canada Day", Month.JULY, 1),
+            HolidayRule.nthWeekday("Labour Day", Month.SEPTEMBER, 1, DayOfWeek.MONDAY),
+            HolidayRule.nthWeekday("Thanksgiving Day", Month.OCTOBER, 2, DayOfWeek.MONDAY),
+            HolidayRule.fixed("Remembrance Day", Month.NOVEMBER, 11),
+            HolidayRule.fixed("Christmas Day", Month.DECEMBER, 25),
+
+            //OPTIONAL HOLIDAY
+            HolidayRule.easterOffset("Easter Monday", 1),
+            HolidayRule.nthWeekday("Heritage Day", Month.AUGUST, 1, DayOfWeek.MONDAY),
+            HolidayRule.fixed("National Day for Truth and Reconciliation", Month.SEPTEMBER, 30).since(2021),
+            HolidayRule.fixed("Boxing Day", Month.DECEMBER, 26)
+    );
+
+    // Number of years before the current one that are kept in the epoch-day table: every year a work date may be in
+    private static final int WINDOW_YEARS_BACK = Validation.MAX_YEARS_BACK;
+
+    private static final DayType[] DAY_TYPES = DayType.values();
+    private static final ConcurrentHashMap<Integer, HolidayCalendar> CACHE = new ConcurrentHashMap<>();
+
+    // Day types for every day from the start of WINDOW_START_YEAR to the end of next year, indexed by epoch day;
+    // never written once published, changes publish an updated copy
+    private static final long WINDOW_START_EPOCH_DAY;
+    private static volatile byte[] window;
+
+    // Days changed at run time from what the rules give, by epoch day; guarded by the class lock
+    private static final Map<Long, DayType> OVERRIDES = new HashMap<>();
+
+    // Calendar of the last year looked up outside the window, so a batch of older dates skips the cache lookup
+    private static volatile HolidayCalendar lastOutsideWindow;
+
+    static {
+        int currentYear = LocalDate.now().getYear();
+        int firstYear = currentYear - WINDOW_YEARS_BACK;
+        int lastYear = currentYear + 1;
+
+        WINDOW_START_EPOCH_DAY = LocalDate.of(firstYear, 1, 1).toEpochDay();
+        byte[] days = new byte[(int) (LocalDate.of(lastYear + 1, 1, 1).toEpochDay() - WINDOW_START_EPOCH_DAY)];
+        for (int year = firstYear; year <= lastYear; year++) {
+            HolidayCalendar calendar = forYear(year);
+            System.arraycopy(calendar.dayTypes, 0, days,
+                    (int) (calendar.firstEpochDay - WINDOW_START_EPOCH_DAY), calendar.dayTypes.length);
+        }
+        window = days;
+    }
+
+    private final int year;
+    private final long firstEpochDay;
+
+    // Never written once published, like the epoch-day table
+    private volatile byte[] dayTypes;
+
+    private HolidayCalendar(int year) {
+        this.year = year;
+        LocalDate first = LocalDate.of(year, 1, 1);
+        this.firstEpochDay = first.toEpochDay();
+        byte[] dayTypes = new byte[first.lengthOfYear()];
+
+        // Weekends first, starting from the day of week of January 1st
+        int dayOfWeek = first.getDayOfWeek().getValue();
+        for (int i = 0; i < dayTypes.length; i++) {
+            if (dayOfWeek == DayOfWeek.SATURDAY.getValue() || dayOfWeek == DayOfWeek.SUNDAY.getValue()) {
+                dayTypes[i] = (byte) DayType.WEEKEND.ordinal();
+            }
+            dayOfWeek = dayOfWeek == 7 ? 1 : dayOfWeek + 1;
+        }
+
+        // Holidays take precedence over weekends
+        for (HolidayRule rule : HOLIDAYS) {
+            LocalDate holiday = rule.dateIn(year);
+            if (holiday != null) {
+                dayTypes[holiday.getDayOfYear() - 1] = (byte) DayType.HOLIDAY.ordinal();
+            }
+        }
+        this.dayTypes = dayTypes;
+    }
+
+    /**
+     * Returns the calendar for the given year, generating and caching it on first use.
+     *
+     * @param year the calendar year
+     * @return the {@code HolidayCalendar} for that year
+     */
+    public static HolidayCalendar forYear(int year) {
+        return CACHE.computeIfAbsent(year, HolidayCalendar::new);
+    }
+
+    /**
+     * Makes the given date a holiday.
+     *
+     * @param date the date to mark as a holiday
+     * @return {@code true} if the calendar changed; {@code false} if the date was already a holiday
+     */
+    public static boolean addHoliday(LocalDate date) {
+        return setDayType(date, DayType.HOLIDAY);
+    }
+
+    /**
+     * Makes the given date an ordinary day again: a weekend if it falls on Saturday or Sunday, otherwise a
+     * regular day.
+     *
+     * @param date the date that is no longer a holiday
+     * @return {@code true} if the calendar changed; {@code false} if the date was not a holiday
+     */
+    public static synchronized boolean removeHoliday(LocalDate date) {
+        if (dayTypeOf(date) != DayType.HOLIDAY) {
+            return false;
+        }
+        return setDayType(date, ordinaryDayType(date));
+    }
+
+    /**
+     * Returns the days whose type was changed at run time with {@link #addHoliday(LocalDate)} or
+     * {@link #removeHoliday(LocalDate)} and now differs from what the holiday rules give.
+     *
+     * @return the changed dates and their current type, in date order
+     */
+    public static synchronized SortedMap<LocalDate, DayType> getOverrides() {
+        SortedMap<LocalDate, DayType> overrides = new TreeMap<>();
+        for (Map.Entry<Long, DayType> override : OVERRIDES.entrySet()) {
+            overrides.put(LocalDate.ofEpochDay(override.getKey()), override.getValue());
+        }
+        return overrides;
+    }
+
+    // Method to change one day in both the year's calendar and the epoch-day table, publishing updated copies
+    private static synchronized boolean setDayType(LocalDate date, DayType type) {
+        HolidayCalendar calendar = forYear(date.getYear());
+        byte value = (byte) type.ordinal();
+        int dayIndex = date.getDayOfYear() - 1;
+        if (calendar.dayTypes[dayIndex] == value) {
+            return false;
+        }
+        byte[] dayTypes = calendar.dayTypes.clone();
+        dayTypes[dayIndex] = value;
+        calendar.dayTypes = dayTypes;
+
+        long index = date.toEpochDay() - WINDOW_START_EPOCH_DAY;
+        if (index >= 0 && index < window.length) {
+            byte[] days = window.clone();
+            days[(int) index] = value;
+            window = days;
+        }
+
+        if (type == ruleDayType(date)) {
+            OVERRIDES.remove(date.toEpochDay());
+        } else {
+            OVERRIDES.put(date.toEpochDay(), type);
+        }
+        return true;
+    }
+
+    // Method to classify a date by the holiday rules alone, ignoring run-time changes
+    private static DayType ruleDayType(LocalDate date) {
+        for (HolidayRule rule : HOLIDAYS) {
+            if (date.equals(rule.dateIn(date.getYear()))) {
+                return DayType.HOLIDAY;
+            }
+        }
+        return ordinaryDayType(date);
+    }
+
+    private static DayType ordinaryDayType(LocalDate date) {
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        return dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY ? DayType.WEEKEND : DayType.REGULAR;
+    }
+
+    /**
+     * Classifies the given date.
+     *
+     * @param date the date to classify
+     * @return the {@link DayType} of the date
+     */
+    public static DayType dayTypeOf(LocalDate date) {
+        return dayTypeOf(date.toEpochDay());
+    }
+
+    /**
+     * Classifies the date with the given epoch day.
+     *
+     * @param epochDay the number of days since 1970-01-01
+     * @return the {@link DayType} of the date
+     */
+    public static DayType dayTypeOf(long epochDay) {
+        byte[] days = window;
+        long index = epochDay - WINDOW_START_EPOCH_DAY;
+        if (index >= 0 && index < days.length) {
+            return DAY_TYPES[days[(int) index]];
+        }
+        HolidayCalendar calendar = lastOutsideWindow;
+        if (calendar == null || epochDay < calendar.firstEpochDay
+                || epochDay >= calendar.firstEpochDay + calendar.dayTypes.length) {
+            calendar = forYear(LocalDate.ofEpochDay(epochDay).getYear());
+            lastOutsideWindow = calendar;
+        }
+        return DAY_TYPES[calendar.dayTypes[(int) (epochDay - calendar.firstEpochDay)]];
+    }
+
+    /**
+     * Returns the year this calendar covers.
+     *
+     * @return the calendar year
+     */
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * Classifies the given day of this calendar's year.
+     *
+     * @param dayOfYear the day of the year, starting at 1
+     * @return the {@link DayType} of that day
+     */
+    public DayType getDayType(int dayOfYear) {
+        return DAY_TYPES[dayTypes[dayOfYear - 1]];
+    }
+
+    /**
+     * Checks if the given day of this calendar's year is a holiday or falls on a weekend.
+     *
+     * @param dayOfYear the day of the year, starting at 1
+     * @return {@code true} if the day is a holiday or weekend; {@code false} otherwise
+     */
+    public boolean isHolidayOrWeekend(int dayOfYear) {
+        return dayTypes[dayOfYear - 1] != 0;
+    }
+}
@@ -0,0 +1,151 @@
+package org.example;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.temporal.TemporalAdjusters;
+import java.util.function.IntFunction;
+
+/**
+ * Rule that gives the date of a holiday in any year. Fixed holidays fall on the same day every year; movable
+ * ones are defined relative to a weekday of the month or to Easter Sunday, so their dates differ from year to
+ * year.
+ *
+ * Rules are evaluated by {@link HolidayCalendar} once per year when it generates that year's calendar.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public final class HolidayRule {
+    private final String name;
+    private final IntFunction<LocalDate> dateInYear;
+    private final int firstYear;
+
+    private HolidayRule(String name, IntFunction<LocalDate> dateInYear) {
+        this(name, dateInYear, Integer.MIN_VALUE);
+    }
+
+    private HolidayRule(String name, IntFunction<LocalDate> dateInYear, int firstYear) {
+        this.name = name;
+        this.dateInYear = dateInYear;
+        this.firstYear = firstYear;
+    }
+
+    /**
+     * Creates a rule for a holiday on the same date every year, such as Canada Day on July 1st.
+     *
+     * @param name the name of the holiday
+     * @param month the month of the holiday
+     * @param dayOfMonth the day of the month
+     * @return the rule
+     */
+    public static HolidayRule fixed(String name, Month month, int dayOfMonth) {
+        return new HolidayRule(name, year -> LocalDate.of(year, month, dayOfMonth));
+    }
+
+    /**
+     * Creates a rule for a holiday on the nth given weekday of a month, such as Labour Day on the first Monday
+     * of September.
+     *
+     * @param name the name of the holiday
+     * @param month the month of the holiday
+     * @param ordinal which occurrence of the weekday in the month, from 1 to 4
+     * @param dayOfWeek the weekday
+     * @return the rule
+     */
+    public static HolidayRule nthWeekday(String name, Month month, int ordinal, DayOfWeek dayOfWeek) {
+        if (ordinal < 1 || ordinal > 4) {
+            throw new IllegalArgumentException("Weekday ordinal must be between 1 and 4: " + ordinal);
+        }
+        return new HolidayRule(name, year -> LocalDate.of(year, month, 1)
+                .with(TemporalAdjusters.dayOfWeekInMonth(ordinal, dayOfWeek)));
+    }
+
+    /**
+     * Creates a rule for a holiday on the last given weekday before a date, such as Victoria Day on the Monday
+     * before May 25th.
+     *
+     * @param name the name of the holiday
+     * @param dayOfWeek the weekday
+     * @param month the month of the date the holiday comes before
+     * @param dayOfMonth the day of the month of that date
+     * @return the rule
+     */
+    public static HolidayRule weekdayBefore(String name, DayOfWeek dayOfWeek, Month month, int dayOfMonth) {
+        return new HolidayRule(name, year -> LocalDate.of(year, month, dayOfMonth)
+                .with(TemporalAdjusters.previous(dayOfWeek)));
+    }
+
+    /**
+     * Creates a rule for a holiday a fixed number of days from Easter Sunday, such as Good Friday two days
+     * before it.
+     *
+     * @param name the name of the holiday
+     * @param daysAfterEaster the number of days from Easter Sunday; negative for days before it
+     * @return the rule
+     */
+    public static HolidayRule easterOffset(String name, int daysAfterEaster) {
+        return new HolidayRule(name, year -> easterSunday(year).plusDays(daysAfterEaster));
+    }
+
+    /**
+     * Computes the date of Easter Sunday in the Gregorian calendar, using the anonymous Gregorian algorithm
+     * (Meeus/Jones/Butcher).
+     *
+     * @param year the calendar year
+     * @return the date of Easter Sunday in that year
+     */
+    public static LocalDate easterSunday(int year) {
+        int a = year % 19;                          // Position in the 19-year lunar cycle
+        int b = year / 100;
+        int c = year % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;     // Days from March 21st to the paschal full moon, roughly
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;   // Days from the full moon to the following Sunday
+        int m = (a + 11 * h + 22 * l) / 451;
+        int month = (h + l - 7 * m + 114) / 31;
+        int day = (h + l - 7 * m + 114) % 31 + 1;
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * Returns a copy of this rule for a holiday that was introduced in the given year and does not fall in any
+     * earlier year, such as the National Day for Truth and Reconciliation, first observed in 2021.
+     *
+     * @param firstYear the first year the holiday is observed
+     * @return the rule
+     */
+    public HolidayRule since(int firstYear) {
+        return new HolidayRule(name, dateInYear, firstYear);
+    }
+
+    /**
+     * Returns the name of the holiday.
+     *
+     * @return the holiday name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the date of the holiday in the given year.
+     *
+     * @param year the calendar year
+     * @return the date the holiday falls on, or {@code null} if the holiday is not observed in that year
+     */
+    public LocalDate dateIn(int year) {
+        return year < firstYear ? null : dateInYear.apply(year);
+    }
+
+    @Override
+    public String toString() {
+        return "HolidayRule[" + name + "]";
+    }
+}
@@ -1,10 +1,28 @@
 package org.example;
 
+import org.example.HolidayCalendar.DayType;
+import org.example.analytics.PayAnalytics;
+import org.example.analytics.PayQuery;
+import org.example.analytics.PaySnapshot;
+import org.example.cluster.PayrollCoordinator;
+import org.example.cluster.ShardWorker;
 import org.example.data.EmployeeDB;
+import org.example.data.EmployeeJournal;
+import org.example.ingest.IngestionServer;
+import org.example.metrics.Metrics;
 import org.example.models.Employee;
+import org.example.models.PeriodTotals;
+import org.example.payroll.PayrollCheckpoint;
+import org.example.payroll.ResumablePayrollRun;
+import org.example.pipeline.TimesheetPipeline;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
-import java.util.Scanner;
+import java.util.Arrays;
+import java.util.Map;
 
 /**
  * Main class to run the employee work management program.
@@ -16,21 +34,102 @@ import java.util.Scanner;
  * @since 2024-09
  */
 public class Main {
-    private static final double MAX_HOURS_PER_DAY = 16.0;
-    private static final double MIN_HOURS_PER_DAY = 1.0;
-    private static final double MAX_PAY_RATE_PER_HOUR = 100.0;
-    private static final double MIN_PAY_RATE_PER_HOUR = 1.0;
+    // Number of journal records between forced writes to disk
+    private static final int JOURNAL_SYNC_EVERY = 64;
 
-    private static final Scanner scanner = new Scanner(System.in);
+    // Employees paid between checkpoints of a resumable payroll run
+    private static final int RUN_CHECKPOINT_EVERY = 10_000;
+
+    // Ingestion service defaults
+    private static final int DEFAULT_PORT = 8080;
+    private static final int MAX_IN_FLIGHT = 256;
+    private static final int COMMIT_BATCH_SIZE = 512;
+    private static final int MAX_PORT = 65_535;
+
+    // Most threads a pipeline stage may be given on the command line
+    private static final int MAX_PIPELINE_THREADS = 256;
 
     /**
      * The main method serves as the entry point for the program.
      * It handles the main program loop where employees are created, work entries are added,
      * and all employees are displayed after data entry is complete.
      *
-     * @param args command-line arguments (not used in this application)
+     * The first argument can choose another mode instead:
+     * <ul>
+     *     <li>{@code --batch <input.csv> <output.txt>} runs {@link BatchPayroll}</li>
+     *     <li>{@code --serve [port]} runs the {@link IngestionServer} until the process is stopped</li>
+     *     <li>{@code --worker <port> <dataDir>} runs one {@link ShardWorker} of a {@link PayrollCoordinator}</li>
+     *     <li>{@code --run <checkpointFile>} pays every saved employee with a {@link ResumablePayrollRun},
+     *     resuming an interrupted run from its checkpoint</li>
+     *     <li>{@code --pipeline <input.csv> [validateThreads calculateThreads]} loads a timesheet into the
+     *     database with a {@link TimesheetPipeline}</li>
+     *     <li>{@code --analytics} reports pay by year, the share earned on holidays and weekends, and the top
+     *     earners with {@link PayAnalytics}</li>
+     * </ul>
+     *
+     * Setting the {@code payroll.dataDir} system property keeps employees in that directory between runs, and
+     * setting {@code payroll.metrics=true} publishes {@link Metrics} over JMX. The long-running
+     * {@code --serve} and {@code --worker} modes also sync and snapshot their data in the background, at the
+     * intervals set by {@value EmployeeJournal#SYNC_INTERVAL_PROPERTY} and
+     * {@value EmployeeJournal#SNAPSHOT_INTERVAL_PROPERTY}.
+     *
+     * @param args command-line arguments; empty for interactive mode
      */
     public static void main(String[] args) {
+        if (Metrics.ENABLED) {
+            Metrics.registerMBean();
+        }
+        if (args.length > 0 && args[0].equals("--batch")) {
+            BatchPayroll.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--serve")) {
+            int port = args.length == 2 ? parseArgument(args[1], 0, MAX_PORT) : DEFAULT_PORT;
+            if (args.length > 2 || port < 0) {
+                System.out.println("Usage: --serve [port], with a port from 0 to " + MAX_PORT);
+                return;
+            }
+            serve(port);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--run")) {
+            if (args.length != 2) {
+                System.out.println("Usage: --run <checkpointFile>");
+                return;
+            }
+            runPayroll(Paths.get(args[1]));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--pipeline")) {
+            int validateThreads = args.length == 4 ? parseArgument(args[2], 1, MAX_PIPELINE_THREADS) : 0;
+            int calculateThreads = args.length == 4 ? parseArgument(args[3], 1, MAX_PIPELINE_THREADS) : 0;
+            if (args.length != 2 && args.length != 4 || validateThreads < 0 || calculateThreads < 0) {
+                System.out.println("Usage: --pipeline <input.csv> [validateThreads calculateThreads], with 1 to "
+                        + MAX_PIPELINE_THREADS + " threads each");
+                return;
+            }
+            TimesheetPipeline pipeline = args.length == 4
+                    ? new TimesheetPipeline(validateThreads, calculateThreads,
+                    TimesheetPipeline.DEFAULT_BATCH_SIZE, TimesheetPipeline.DEFAULT_QUEUE_CAPACITY)
+                    : new TimesheetPipeline();
+            loadTimesheet(pipeline, Paths.get(args[1]));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--analytics")) {
+            reportAnalytics();
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--worker")) {
+            try {
+                ShardWorker.main(Arrays.copyOfRange(args, 1, args.length));
+            } catch (IOException e) {
+                System.out.println("Could not start the shard worker: " + e.getMessage());
+            }
+            return;
+        }
+
+        EmployeeJournal journal = openJournal();
+
         while (true) {
             // Create a new org.example.models.Employee object
             Employee employee = createEmployee();
@@ -50,7 +149,108 @@ public class Main {
 
         // Display all employee data
         EmployeeDB.displayAllEmployees();
-        scanner.close();
+        closeJournal(journal);
+        Utilities.closeInput();
+    }
+
+    // Method to start the ingestion service; the server's own threads keep the process running
+    private static void serve(int port) {
+        EmployeeJournal journal = openJournal();
+        if (journal != null) {
+            journal.startBackgroundTasks();
+        }
+        try {
+            IngestionServer server = new IngestionServer(new InetSocketAddress(port), MAX_IN_FLIGHT,
+                    COMMIT_BATCH_SIZE, journal);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.close();
+                closeJournal(journal);
+            }));
+            server.start();
+            System.out.println("Accepting timesheets on port " + server.getPort());
+        } catch (IOException e) {
+            System.out.println("Could not start the ingestion service: " + e.getMessage());
+            closeJournal(journal);
+        }
+    }
+
+    // Method to parse a whole-number command-line argument, or return -1 if it is not one from min to max
+    private static int parseArgument(String text, int min, int max) {
+        long value = Parsing.parseWholeNumber(text, 0, text.length());
+        return Parsing.failed(value) || value < min || value > max ? -1 : (int) value;
+    }
+
+    // Method to pay every saved employee, checkpointing so an interrupted run can resume
+    private static void runPayroll(Path checkpointFile) {
+        EmployeeJournal journal = openJournal();
+        try {
+            PayrollCheckpoint result = new ResumablePayrollRun(checkpointFile, RUN_CHECKPOINT_EVERY)
+                    .run(EmployeeDB.getAllEmployees());
+            System.out.println(result);
+        } catch (IOException e) {
+            System.out.println("Payroll run failed, run again to resume: " + e.getMessage());
+        }
+        closeJournal(journal);
+    }
+
+    // Method to load a timesheet into the database, saving it when a data directory is configured
+    private static void loadTimesheet(TimesheetPipeline pipeline, Path input) {
+        EmployeeJournal journal = openJournal();
+        try {
+            System.out.println(pipeline.run(input));
+            if (Metrics.ENABLED) {
+                Metrics.dump(System.err);
+            }
+        } catch (IOException e) {
+            System.out.println("Loading the timesheet failed: " + e.getMessage());
+        }
+        closeJournal(journal);
+    }
+
+    // Method to report workforce-wide pay over every saved employee
+    private static void reportAnalytics() {
+        EmployeeJournal journal = openJournal();
+        PayAnalytics analytics = new PayAnalytics(PaySnapshot.of(EmployeeDB.getAllEmployees()));
+        System.out.println("Pay by year" + (analytics.isVectorized() ? " (vectorized):" : ":"));
+        for (Map.Entry<Integer, PeriodTotals> year : analytics.totalsByYear(PayQuery.all()).entrySet()) {
+            System.out.println("  " + year.getKey() + ": " + year.getValue());
+        }
+        System.out.printf("Share of pay earned on holidays and weekends: %.1f%%%n",
+                analytics.payShare(PayQuery.all(), DayType.HOLIDAY, DayType.WEEKEND) * 100);
+        System.out.println("Top earners:");
+        for (PayAnalytics.Earner earner : analytics.topEarners(PayQuery.all(), 10)) {
+            System.out.println("  " + earner);
+        }
+        closeJournal(journal);
+    }
+
+    // Method to restore saved employees when a data directory is configured
+    private static EmployeeJournal openJournal() {
+        String dataDir = System.getProperty("payroll.dataDir");
+        if (dataDir == null) {
+            return null;
+        }
+        try {
+            EmployeeJournal journal = EmployeeJournal.open(Paths.get(dataDir), JOURNAL_SYNC_EVERY);
+            System.out.println("Loaded " + EmployeeDB.size() + " saved employees.");
+            return journal;
+        } catch (IOException e) {
+            System.out.println("Could not open data directory, continuing without saving: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Method to compact saved data into a snapshot before exiting
+    private static void closeJournal(EmployeeJournal journal) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.snapshot();
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("Could not save employees: " + e.getMessage());
+        }
     }
 
     /**
@@ -62,19 +262,20 @@ public class Main {
     // Method to create a new org.example.models.Employee object
     private static Employee createEmployee() {
         System.out.println("Enter employee name:");
-        String employeeName = scanner.nextLine();
+        String employeeName = Utilities.readLine();
 
         // Validate employee name
-        while (!Validation.isValidName(employeeName)) {
-            System.out.println("Invalid employee name! Only letters, spaces, hyphens, and apostrophes are allowed.");
-            employeeName = scanner.nextLine();
+        Validation.NameCheck nameCheck;
+        while ((nameCheck = Validation.checkName(employeeName)) != Validation.NameCheck.VALID) {
+            System.out.println("Invalid employee name! The " + nameCheck.getMessage() + ".");
+            employeeName = Utilities.readLine();
         }
 
         // Validate pay rate per hour
         double payRate = Utilities.getValidDoubleInput(
                 "Enter pay rate per hour (numeric values only):",
-                MIN_PAY_RATE_PER_HOUR,
-                MAX_PAY_RATE_PER_HOUR
+                Validation.MIN_PAY_RATE_PER_HOUR,
+                Validation.MAX_PAY_RATE_PER_HOUR
         );
 
         return new Employee(employeeName, payRate);
@@ -90,13 +291,13 @@ public class Main {
     private static void collectWorkEntries(Employee employee) {
         while (true) {
             // Get a valid work date
-            LocalDate workDate = Utilities.getValidDate(employee.getWorkEntries());
+            LocalDate workDate = Utilities.getValidDate(employee);
 
             // Get a valid number of hours worked
             double hoursWorked = Utilities.getValidDoubleInput(
                     "Enter hours worked (numeric values only):",
-                    MIN_HOURS_PER_DAY,
-                    MAX_HOURS_PER_DAY
+                    Validation.MIN_HOURS_PER_DAY,
+                    Validation.MAX_HOURS_PER_DAY
             );
 
             // Add the work entry to the employee
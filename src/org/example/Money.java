@@ -0,0 +1,116 @@
+package org.example;
+
+/**
+ * Utility class for exact fixed-point money arithmetic. Amounts are held as {@code long} cents, hours as
+ * {@code long} hundredths of an hour, and pay multipliers as {@code int} hundredths (so time and a half is 150,
+ * and a 1.25 union rate is exact).
+ *
+ * Multiplying hundredths of an hour by cents by hundredths gives an exact product in ten-thousandths of a cent, which
+ * is rounded to cents once, half up, by {@link #roundToCents(long)}. No step allocates, so the methods are safe
+ * to use on the per-entry hot path.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class Money {
+    /**
+     * Multiplier for straight time, in hundredths.
+     */
+    public static final int STRAIGHT_TIME = 100;
+
+    /**
+     * Multiplier for time and a half, in hundredths.
+     */
+    public static final int TIME_AND_A_HALF = 150;
+
+    // Ten-thousandths of a cent per cent, the unit of hundredths x cents x hundredths
+    private static final long UNITS_PER_CENT = 10000;
+
+    private Money() {
+    }
+
+    /**
+     * Converts a dollar amount to cents, rounding the amount as written in decimal half up (away from zero for
+     * negative amounts) to the nearest cent, so 1.005 becomes 101 cents.
+     *
+     * @param dollars the amount in dollars
+     * @return the amount in cents
+     */
+    public static long toCents(double dollars) {
+        return roundToHundredths(dollars);
+    }
+
+    /**
+     * Converts a number of hours to hundredths of an hour, rounding the number as written in decimal half up to
+     * the nearest hundredth, so 0.145 becomes 15.
+     *
+     * @param hours the number of hours
+     * @return the number of hundredths of an hour
+     */
+    public static long toHundredths(double hours) {
+        return roundToHundredths(hours);
+    }
+
+    /**
+     * Converts cents to dollars. Only use the result for display or for APIs that need a {@code double}.
+     *
+     * @param cents the amount in cents
+     * @return the amount in dollars
+     */
+    public static double toDollars(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * Converts a multiplier such as 1.5 to hundredths, rounding half up to the nearest hundredth.
+     *
+     * @param multiplier the pay multiplier
+     * @return the multiplier in hundredths
+     */
+    public static int toMultiplierHundredths(double multiplier) {
+        return Math.toIntExact(roundToHundredths(multiplier));
+    }
+
+    /**
+     * Calculates the exact pay for the given hours, rate and multiplier, in ten-thousandths of a cent.
+     * Add several of these together and call {@link #roundToCents(long)} once to round a whole day's pay.
+     *
+     * @param hundredths the hours worked, in hundredths of an hour
+     * @param rateCents the hourly rate, in cents
+     * @param multiplierHundredths the pay multiplier, in hundredths
+     * @return the pay in ten-thousandths of a cent
+     */
+    public static long payUnits(long hundredths, long rateCents, int multiplierHundredths) {
+        return hundredths * rateCents * multiplierHundredths;
+    }
+
+    /**
+     * Rounds an amount in ten-thousandths of a cent to cents, half up (away from zero for negative amounts).
+     *
+     * @param units the amount in ten-thousandths of a cent
+     * @return the amount in cents
+     */
+    public static long roundToCents(long units) {
+        long half = UNITS_PER_CENT / 2;
+        return units >= 0 ? (units + half) / UNITS_PER_CENT : -((-units + half) / UNITS_PER_CENT);
+    }
+
+    // Method to round a decimal value to hundredths, half up, as BigDecimal.valueOf(value).setScale(2, HALF_UP)
+    // would but without allocating. value * 100 can land just below a half, as 0.145 * 100 = 14.4999..., so the
+    // result is checked against the halfway points either side: a value parsed from "0.145" is the same double
+    // as 29 / 200.0, because both are the double nearest to 0.145.
+    private static long roundToHundredths(double value) {
+        if (value < 0) {
+            return -roundToHundredths(-value);
+        }
+        long rounded = Math.round(value * 100.0);
+        if (value >= (2 * rounded + 1) / 200.0) {
+            return rounded + 1;
+        }
+        if (rounded > 0 && value < (2 * rounded - 1) / 200.0) {
+            return rounded - 1;
+        }
+        return rounded;
+    }
+}
@@ -0,0 +1,335 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Utility class for parsing dates and decimal numbers from user input and bulk files without exceptions or
+ * allocation. Dates in {@code YYYY-MM-DD} form are parsed straight to epoch days, decimals straight to fixed
+ * point and IDs to whole numbers, reading either a {@link CharSequence} or a slice of a {@link ByteBuffer}
+ * holding ASCII or UTF-8 text. Leading and trailing spaces, tabs and line breaks are ignored.
+ *
+ * Every parser returns a {@code long}. A result for which {@link #failed(long)} is {@code true} is not a value
+ * but an error code; {@link #errorOf(long)} says what was wrong. Rejecting a malformed row therefore costs no
+ * more than accepting a good one, unlike {@link java.time.LocalDate#parse(CharSequence)} and
+ * {@link Double#parseDouble(String)}, which throw.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public final class Parsing {
+    /**
+     * Reasons a value could not be parsed.
+     */
+    public enum ParseError {
+        EMPTY("value is empty"),
+        NOT_A_NUMBER("not a number"),
+        TOO_LARGE("number is too large"),
+        NOT_A_DATE("not a date in YYYY-MM-DD format"),
+        NO_SUCH_DATE("no such date");
+
+        private final String message;
+
+        ParseError(String message) {
+            this.message = message;
+        }
+
+        /**
+         * Returns a description of the problem, suitable for showing to the user.
+         *
+         * @return the message
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private static final ParseError[] ERRORS = ParseError.values();
+
+    // Error codes are the smallest longs, far below any value a parser can return
+    private static final long ERROR_BASE = Long.MIN_VALUE;
+
+    // Integer digits accepted by parseFixed and parseWholeNumber, so that scaling by 10^scale cannot overflow
+    private static final int MAX_INTEGER_DIGITS = 15;
+    private static final int MAX_SCALE = 3;
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1000};
+
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private Parsing() {
+    }
+
+    /**
+     * Checks whether a parser result is an error code rather than a value.
+     *
+     * @param result the value returned by a parser
+     * @return {@code true} if parsing failed
+     */
+    public static boolean failed(long result) {
+        return result < ERROR_BASE + ERRORS.length;
+    }
+
+    /**
+     * Returns the reason a parser failed.
+     *
+     * @param result the value returned by a parser, for which {@link #failed(long)} is {@code true}
+     * @return the reason parsing failed
+     * @throws IllegalArgumentException if {@code result} is a parsed value
+     */
+    public static ParseError errorOf(long result) {
+        if (!failed(result)) {
+            throw new IllegalArgumentException("Not an error code: " + result);
+        }
+        return ERRORS[(int) (result - ERROR_BASE)];
+    }
+
+    /**
+     * Parses a {@code YYYY-MM-DD} date to an epoch day.
+     *
+     * @param text the text to parse
+     * @return the number of days since 1970-01-01, or an error code
+     */
+    public static long parseEpochDay(CharSequence text) {
+        return parseEpochDay(text, null, 0, text == null ? 0 : text.length());
+    }
+
+    /**
+     * Parses a {@code YYYY-MM-DD} date in part of a character sequence to an epoch day.
+     *
+     * @param text the text to parse
+     * @param start the index of the first character to parse
+     * @param end the index after the last character to parse
+     * @return the number of days since 1970-01-01, or an error code
+     */
+    public static long parseEpochDay(CharSequence text, int start, int end) {
+        return parseEpochDay(text, null, start, end);
+    }
+
+    /**
+     * Parses a {@code YYYY-MM-DD} date in a slice of a buffer to an epoch day. The buffer's position and limit
+     * are not used or changed.
+     *
+     * @param bytes the buffer holding ASCII or UTF-8 text
+     * @param start the index of the first byte to parse
+     * @param end the index after the last byte to parse
+     * @return the number of days since 1970-01-01, or an error code
+     */
+    public static long parseEpochDay(ByteBuffer bytes, int start, int end) {
+        return parseEpochDay(null, bytes, start, end);
+    }
+
+    /**
+     * Parses a decimal number such as {@code 7.5} or {@code 27.25} to hundredths, rounding half up.
+     *
+     * @param text the text to parse
+     * @return the number in hundredths, or an error code
+     */
+    public static long parseHundredths(CharSequence text) {
+        return parseFixed(text, null, 0, text == null ? 0 : text.length(), 2);
+    }
+
+    /**
+     * Parses a decimal number in part of a character sequence to a fixed-point value with {@code scale} decimal
+     * places, rounding half up. Signs, exponents and grouping separators are not accepted.
+     *
+     * @param text the text to parse
+     * @param start the index of the first character to parse
+     * @param end the index after the last character to parse
+     * @param scale the number of decimal places to keep, from 0 (whole numbers) to 3
+     * @return the number multiplied by 10<sup>scale</sup>, or an error code
+     */
+    public static long parseFixed(CharSequence text, int start, int end, int scale) {
+        return parseFixed(text, null, start, end, scale);
+    }
+
+    /**
+     * Parses a decimal number in a slice of a buffer to a fixed-point value with {@code scale} decimal places,
+     * rounding half up. The buffer's position and limit are not used or changed.
+     *
+     * @param bytes the buffer holding ASCII or UTF-8 text
+     * @param start the index of the first byte to parse
+     * @param end the index after the last byte to parse
+     * @param scale the number of decimal places to keep, from 0 (whole numbers) to 3
+     * @return the number multiplied by 10<sup>scale</sup>, or an error code
+     */
+    public static long parseFixed(ByteBuffer bytes, int start, int end, int scale) {
+        return parseFixed(null, bytes, start, end, scale);
+    }
+
+    /**
+     * Parses a whole number, such as an ID, in part of a character sequence. Unlike
+     * {@link #parseFixed(CharSequence, int, int, int)} with a scale of 0, a decimal point is not accepted, so
+     * {@code 7.0} and {@code 1.5} are rejected rather than read as 7 and 2.
+     *
+     * @param text the text to parse
+     * @param start the index of the first character to parse
+     * @param end the index after the last character to parse
+     * @return the number, or an error code
+     */
+    public static long parseWholeNumber(CharSequence text, int start, int end) {
+        return parseWholeNumber(text, null, start, end);
+    }
+
+    /**
+     * Parses a whole number, such as an ID, in a slice of a buffer. A decimal point is not accepted. The
+     * buffer's position and limit are not used or changed.
+     *
+     * @param bytes the buffer holding ASCII or UTF-8 text
+     * @param start the index of the first byte to parse
+     * @param end the index after the last byte to parse
+     * @return the number, or an error code
+     */
+    public static long parseWholeNumber(ByteBuffer bytes, int start, int end) {
+        return parseWholeNumber(null, bytes, start, end);
+    }
+
+    // Method to parse a date from whichever of text and bytes is not null
+    private static long parseEpochDay(CharSequence text, ByteBuffer bytes, int start, int end) {
+        while (start < end && isBlank(charAt(text, bytes, start))) {
+            start++;
+        }
+        while (end > start && isBlank(charAt(text, bytes, end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return error(ParseError.EMPTY);
+        }
+        if (end - start != 10 || charAt(text, bytes, start + 4) != '-' || charAt(text, bytes, start + 7) != '-') {
+            return error(ParseError.NOT_A_DATE);
+        }
+
+        int year = digits(text, bytes, start, 4);
+        int month = digits(text, bytes, start + 5, 2);
+        int day = digits(text, bytes, start + 8, 2);
+        if (year < 0 || month < 0 || day < 0) {
+            return error(ParseError.NOT_A_DATE);
+        }
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            return error(ParseError.NO_SUCH_DATE);
+        }
+        return epochDay(year, month, day);
+    }
+
+    // Method to parse a fixed-point decimal from whichever of text and bytes is not null
+    private static long parseFixed(CharSequence text, ByteBuffer bytes, int start, int end, int scale) {
+        if (scale < 0 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Scale must be between 0 and " + MAX_SCALE + ": " + scale);
+        }
+        while (start < end && isBlank(charAt(text, bytes, start))) {
+            start++;
+        }
+        while (end > start && isBlank(charAt(text, bytes, end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return error(ParseError.EMPTY);
+        }
+
+        long value = 0;
+        int integerDigits = 0;
+        int fractionDigits = 0;
+        boolean point = false;
+        boolean roundUp = false;
+        for (int i = start; i < end; i++) {
+            int c = charAt(text, bytes, i);
+            if (c == '.' && !point) {
+                point = true;
+            } else if (c < '0' || c > '9') {
+                return error(ParseError.NOT_A_NUMBER);
+            } else if (!point) {
+                if (value == 0 && c == '0') {
+                    continue; // Leading zeros do not count towards the digit limit
+                }
+                if (++integerDigits > MAX_INTEGER_DIGITS) {
+                    return error(ParseError.TOO_LARGE);
+                }
+                value = value * 10 + (c - '0');
+            } else if (fractionDigits < scale) {
+                value = value * 10 + (c - '0');
+                fractionDigits++;
+            } else if (fractionDigits++ == scale) {
+                roundUp = c >= '5'; // Only the first dropped digit decides rounding half up
+            }
+        }
+        // A lone point, or a point with no digits on either side, is not a number
+        if (point && end - start == 1) {
+            return error(ParseError.NOT_A_NUMBER);
+        }
+
+        // Scale the integer part up for any decimal places that were not given
+        long scaled = fractionDigits < scale ? value * POWERS_OF_TEN[scale - fractionDigits] : value;
+        return roundUp ? scaled + 1 : scaled;
+    }
+
+    // Method to parse a whole number from whichever of text and bytes is not null
+    private static long parseWholeNumber(CharSequence text, ByteBuffer bytes, int start, int end) {
+        while (start < end && isBlank(charAt(text, bytes, start))) {
+            start++;
+        }
+        while (end > start && isBlank(charAt(text, bytes, end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return error(ParseError.EMPTY);
+        }
+
+        long value = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            int c = charAt(text, bytes, i);
+            if (c < '0' || c > '9') {
+                return error(ParseError.NOT_A_NUMBER);
+            }
+            if (value == 0 && c == '0') {
+                continue; // Leading zeros do not count towards the digit limit
+            }
+            if (++digits > MAX_INTEGER_DIGITS) {
+                return error(ParseError.TOO_LARGE);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // Method to read the character at an index from whichever of text and bytes is not null
+    private static int charAt(CharSequence text, ByteBuffer bytes, int index) {
+        return text != null ? text.charAt(index) : bytes.get(index) & 0xFF;
+    }
+
+    // Method to read a fixed number of decimal digits, or return -1 if any character is not a digit
+    private static int digits(CharSequence text, ByteBuffer bytes, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int c = charAt(text, bytes, i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isBlank(int c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    private static int daysInMonth(int year, int month) {
+        boolean leap = (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+        return month == 2 && leap ? 29 : DAYS_IN_MONTH[month - 1];
+    }
+
+    // Method to count the days from 1970-01-01 to a date in the proleptic Gregorian calendar, for years 0-9999
+    private static long epochDay(int year, int month, int day) {
+        // Count from March 1st so the leap day falls at the end of the counting year
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    private static long error(ParseError error) {
+        return ERROR_BASE + error.ordinal();
+    }
+}
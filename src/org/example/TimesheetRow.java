@@ -0,0 +1,160 @@
+package org.example;
+
+/**
+ * Parser for the {@code employee,rate,date,hours} rows of a timesheet CSV file, shared by
+ * {@link BatchPayroll} and {@link org.example.pipeline.TimesheetPipeline} so that both accept and reject
+ * exactly the same rows.
+ *
+ * A row is split into its four columns without regex, and the rate, date and hours are parsed in place with
+ * {@link Parsing} and range checked against the {@link Validation} limits. The name is only cut out of the
+ * line when asked for, so a caller that keeps reading rows for the same employee allocates nothing. One
+ * instance is reused for row after row by a single thread; it holds the last row parsed.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public final class TimesheetRow {
+    private String line;
+    private int nameEnd;
+    private long rateCents;
+    private long epochDay;
+    private long hoursHundredths;
+
+    /**
+     * Parses a row and checks its rate and hours, counting any rejection in the validation metrics.
+     *
+     * @param line the row, without its line break
+     * @return {@code null} if the row is usable, otherwise the reason it is not
+     */
+    public String parse(String line) {
+        return parse(line, true);
+    }
+
+    /**
+     * Makes the same checks as {@link #parse(String)} without counting rejections, for looking ahead at a row
+     * that will be parsed again later.
+     *
+     * @param line the row, without its line break
+     * @return {@code true} if the row is usable
+     */
+    public boolean check(String line) {
+        return parse(line, false) == null;
+    }
+
+    // Method to split and parse a row, range checking through Validation only when rejections are counted
+    private String parse(String line, boolean count) {
+        this.line = line;
+        int c1 = line.indexOf(',');
+        int c2 = c1 < 0 ? -1 : line.indexOf(',', c1 + 1);
+        int c3 = c2 < 0 ? -1 : line.indexOf(',', c2 + 1);
+        if (c3 < 0 || line.indexOf(',', c3 + 1) >= 0) {
+            return "expected 4 columns";
+        }
+        nameEnd = c1;
+
+        // Parse the numbers and the date in place, without substrings or exceptions
+        rateCents = Parsing.parseFixed(line, c1 + 1, c2, 2);
+        epochDay = Parsing.parseEpochDay(line, c2 + 1, c3);
+        hoursHundredths = Parsing.parseFixed(line, c3 + 1, line.length(), 2);
+        if (Parsing.failed(rateCents) || Parsing.failed(epochDay) || Parsing.failed(hoursHundredths)) {
+            return "unparseable value";
+        }
+
+        double rate = getRate();
+        double hoursWorked = getHoursWorked();
+        if (count ? !Validation.isValidPayRate(rate)
+                : rate < Validation.MIN_PAY_RATE_PER_HOUR || rate > Validation.MAX_PAY_RATE_PER_HOUR) {
+            return "pay rate out of range";
+        }
+        if (count ? !Validation.isValidHours(hoursWorked)
+                : hoursWorked < Validation.MIN_HOURS_PER_DAY || hoursWorked > Validation.MAX_HOURS_PER_DAY) {
+            return "hours out of range";
+        }
+        return null;
+    }
+
+    /**
+     * Returns the employee name of the last row parsed, trimmed.
+     *
+     * @return the name, not yet validated
+     */
+    public String getName() {
+        return line.substring(0, nameEnd).trim();
+    }
+
+    /**
+     * Checks whether the name of the last row parsed, trimmed as {@link String#trim()} would, is the given
+     * name, without cutting it out of the line.
+     *
+     * @param name the name to compare with
+     * @return {@code true} if the row is for an employee of that name
+     */
+    public boolean isName(String name) {
+        int start = 0;
+        int end = nameEnd;
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end - start == name.length() && line.startsWith(name, start);
+    }
+
+    /**
+     * Returns the hourly rate of the last row parsed.
+     *
+     * @return the rate in cents
+     */
+    public long getRateCents() {
+        return rateCents;
+    }
+
+    /**
+     * Returns the hourly rate of the last row parsed.
+     *
+     * @return the rate in dollars
+     */
+    public double getRate() {
+        return rateCents / 100.0;
+    }
+
+    /**
+     * Returns the work date of the last row parsed.
+     *
+     * @return the number of days since 1970-01-01
+     */
+    public long getEpochDay() {
+        return epochDay;
+    }
+
+    /**
+     * Returns the hours worked in the last row parsed.
+     *
+     * @return the hours
+     */
+    public double getHoursWorked() {
+        return hoursHundredths / 100.0;
+    }
+
+    /**
+     * Recognises a header row: an {@code employee} or {@code name} column followed by a rate column that is
+     * not a number, so a first row for an employee whose name merely starts with either word is still paid.
+     *
+     * @param line the first row of a file
+     * @return {@code true} if the row is a header to skip
+     */
+    public static boolean isHeader(String line) {
+        int c1 = line.indexOf(',');
+        if (c1 < 0) {
+            return false;
+        }
+        String first = line.substring(0, c1).trim();
+        if (!first.equalsIgnoreCase("employee") && !first.equalsIgnoreCase("name")) {
+            return false;
+        }
+        int c2 = line.indexOf(',', c1 + 1);
+        return Parsing.failed(Parsing.parseFixed(line, c1 + 1, c2 < 0 ? line.length() : c2, 2));
+    }
+}
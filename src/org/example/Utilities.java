@@ -1,63 +1,62 @@
 package org.example;
 
+import org.example.models.Employee;
+
+import java.math.BigDecimal;
 import java.text.NumberFormat;
 import java.time.LocalDate;
-import java.time.Month;
-import java.time.format.DateTimeParseException;
-import java.util.ArrayList;
 import java.util.Scanner;
 
 /**
- * Utility class that provides general-purpose methods such as formatting currency, retrieving valid user inputs,
- * and managing holiday dates. It also defines a list of Alberta holidays for date validation purposes.
+ * Utility class that provides general-purpose methods such as formatting currency and retrieving valid user inputs.
+ * Holiday dates are managed by {@link HolidayCalendar}.
  *
  * This class is designed to facilitate user interactions and data validation in the application.
+ * All console input goes through one shared {@link Scanner} on {@code System.in}, so lines buffered by one
+ * prompt are never lost to another.
  *
  * @author Neil Adavan
  * @version 1.0
  * @since 2024-09
  */
 public class Utilities {
-    /**
-     * List of predefined Alberta holidays.
-     */
-    public static final ArrayList<LocalDate> HOLIDAYS = new ArrayList<>();
+    // The only reader of System.in; a second Scanner would steal lines this one has already buffered
     private static final Scanner scanner = new Scanner(System.in);
-    private static final NumberFormat nf = NumberFormat.getCurrencyInstance();
+    // NumberFormat is not thread-safe, so each thread gets its own instance
+    private static final ThreadLocal<NumberFormat> nf = ThreadLocal.withInitial(NumberFormat::getCurrencyInstance);
 
     /**
-     * Formats a given double value as a currency string using the default locale.
+     * Formats an amount in cents as a currency string using the default locale.
+     * The amount is converted to a {@link BigDecimal} so no precision is lost before formatting.
      *
-     * @param value the double value to format
+     * @param cents the amount in cents to format
      * @return the formatted currency string
      */
-    public static String formatCurrency(double value) {
-        return nf.format(value);
+    public static String formatCurrency(long cents) {
+        return nf.get().format(BigDecimal.valueOf(cents, 2));
     }
 
-    // Initialize HOLIDAYS
-    static {
-        int currentYear = LocalDate.now().getYear();
-        HOLIDAYS.add(LocalDate.of(currentYear, Month.JANUARY, 1));   // New Year's Day
-        HOLIDAYS.add(LocalDate.of(currentYear, Month.FEBRUARY, 19));  // Alberta Family Day
-        HOLIDAYS.add(LocalDate.of(currentYear, Month.MARCH, 29));   // Good Friday
-        HOLIDAYS.add(LocalDate.of(currentYear, Month.MAY, 20));  // Victoria Day
-        HOLIDAYS.add(LocalDate.of(currentYear, Month.JULY, 1));   // Canada Day
-        HOLIDAYS.add(LocalDate.of(currentYear, Month.SEPTEMBER, 2));   // Labour Day
-        HOLIDAYS.add(LocalDate.of(currentYear, Month.OCTOBER, 14));  // Thanksgiving Day
-        HOLIDAYS.add(LocalDate.of(currentYear, Month.NOVEMBER, 11)); // Remembrance Day
-        HOLIDAYS.add(LocalDate.of(currentYear, Month.DECEMBER, 25)); // Christmas Day
+    /**
+     * Reads the next line of console input.
+     *
+     * @return the line, without the line terminator
+     */
+    public static String readLine() {
+        return scanner.nextLine();
+    }
 
-        //OPTIONAL HOLIDAY
-        HOLIDAYS.add(LocalDate.of(currentYear, Month.APRIL, 1)); // Easter Monday
-        HOLIDAYS.add(LocalDate.of(currentYear, Month.AUGUST, 5));   // Heritage Day
-        HOLIDAYS.add(LocalDate.of(currentYear, Month.SEPTEMBER, 30));   // National Day for Truth and Recognition
-        HOLIDAYS.add(LocalDate.of(currentYear, Month.DECEMBER, 26)); // Boxing Day
+    /**
+     * Closes console input. Call once, when the program no longer needs to read from the console.
+     */
+    public static void closeInput() {
+        scanner.close();
     }
 
     /**
      * Prompts the user to enter a valid double value within a specified range.
-     * It ensures that the value is between the specified minimum and maximum limits.
+     * It ensures that the value is between the specified minimum and maximum limits. The input is read as a
+     * plain decimal with {@link Parsing} and rounded half up to two decimal places, the precision hours and
+     * rates are paid at.
      *
      * @param promptMessage the message to display when prompting the user
      * @param minValue the minimum allowable value
@@ -65,49 +64,46 @@ public class Utilities {
      * @return the valid double value entered by the user
      */
     public static double getValidDoubleInput(String promptMessage, double minValue, double maxValue) {
-        Scanner scanner = new Scanner(System.in);
-        double value = 0.0;
-        boolean validInput = false;
-
-        while (!validInput) {
+        while (true) {
             System.out.println(promptMessage);
-            try {
-                value = Double.parseDouble(scanner.nextLine());
-                if (value >= minValue && value <= maxValue) {
-                    validInput = true;
-                } else {
-                    System.out.println("Invalid input. Enter a value between " + minValue + " and " + maxValue + ".");
-                }
-            } catch (NumberFormatException e) {
-                System.out.println("Invalid input. Please enter a numeric value.");
+            long hundredths = Parsing.parseHundredths(scanner.nextLine());
+            if (Parsing.failed(hundredths)) {
+                System.out.println("Invalid input. Please enter a numeric value ("
+                        + Parsing.errorOf(hundredths).getMessage() + ").");
+                continue;
+            }
+
+            double value = hundredths / 100.0;
+            if (value >= minValue && value <= maxValue) {
+                return value;
             }
+            System.out.println("Invalid input. Enter a value between " + minValue + " and " + maxValue + ".");
         }
-        return value;
     }
 
     /**
      * Prompts the user to enter a valid date in the YYYY-MM-DD format. The method ensures that the date is not
-     * in the future, is within the current year, and is unique among the provided work entries.
+     * in the future, is no more than {@link Validation#MAX_YEARS_BACK} years back, and is unique among the
+     * employee's work entries.
      *
-     * @param workEntries a list of existing {@link WorkEntry} objects to check for duplicate dates
+     * @param employee the {@link Employee} whose existing work entries are checked for duplicate dates
      * @return the valid {@link LocalDate} entered by the user
      */
-    public static LocalDate getValidDate(ArrayList<WorkEntry> workEntries) {
+    public static LocalDate getValidDate(Employee employee) {
         while (true) {
             System.out.println("Enter Date (YYYY-MM-DD):");
-            String dateInput = scanner.nextLine();
+            long epochDay = Parsing.parseEpochDay(scanner.nextLine());
 
-            try {
-                LocalDate workDate = LocalDate.parse(dateInput);
-                if (workDate.isAfter(LocalDate.now())) {
-                    System.out.println("Invalid date. Work date cannot be a future date.");
-                } else if (!Validation.isValidDate(workDate, workEntries)) {
-                    System.out.println("Date already exists or should be current year.");
-                } else {
-                    return workDate;
-                }
-            } catch (DateTimeParseException e) {
-                System.out.println("Invalid date format! Please enter the date in YYYY-MM-DD format.");
+            if (Parsing.failed(epochDay)) {
+                System.out.println("Invalid date format! Please enter the date in YYYY-MM-DD format ("
+                        + Parsing.errorOf(epochDay).getMessage() + ").");
+            } else if (epochDay > LocalDate.now().toEpochDay()) {
+                System.out.println("Invalid date. Work date cannot be a future date.");
+            } else if (!Validation.isValidDate((int) epochDay, employee)) {
+                System.out.println("Date already exists or is more than " + Validation.MAX_YEARS_BACK
+                        + " years back.");
+            } else {
+                return LocalDate.ofEpochDay(epochDay);
             }
         }
     }
@@ -1,8 +1,10 @@
 package org.example;
 
+import org.example.metrics.Metrics;
+import org.example.models.Employee;
+
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.regex.Pattern;
+import java.time.ZoneId;
 
 /**
  * Utility class that provides methods for validating names, work dates, and determining holidays or weekends.
@@ -14,55 +16,258 @@ import java.util.regex.Pattern;
  * @since 2024-09
  */
 public class Validation {
-    // Regular expression for a valid name
-    private static final String NAME_PATTERN = "^[A-Za-z\\s'-]+$";
+    public static final double MAX_HOURS_PER_DAY = 16.0;
+    public static final double MIN_HOURS_PER_DAY = 1.0;
+    public static final double MAX_PAY_RATE_PER_HOUR = 100.0;
+    public static final double MIN_PAY_RATE_PER_HOUR = 1.0;
+    // Number of full years before the current one that work dates may be in, for back pay
+    public static final int MAX_YEARS_BACK = 6;
+
+    // Range of valid work dates for the current day, replaced once the day is over
+    private static volatile DateRange validDates = DateRange.forToday();
 
     /**
-     * Validates if the provided name is valid according to a specific pattern.
+     * Outcome of checking an employee name with {@link #checkName(CharSequence)}.
+     */
+    public enum NameCheck {
+        VALID("valid"),
+        BLANK("name is empty"),
+        INVALID_CHARACTER("name may only contain letters, spaces, hyphens and apostrophes"),
+        NO_LETTERS("name must contain a letter");
+
+        private final String message;
+
+        NameCheck(String message) {
+            this.message = message;
+        }
+
+        /**
+         * Returns a description of the problem, suitable for showing to the user.
+         *
+         * @return the message
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    // Character classes of ASCII name characters; everything else is classified with Character.getType
+    private static final byte OTHER = 0;
+    private static final byte LETTER = 1;
+    private static final byte SPACE = 2;
+    private static final byte PUNCTUATION = 3;
+    private static final byte[] ASCII_CLASSES = new byte[128];
+
+    static {
+        for (char c = 'A'; c <= 'Z'; c++) {
+            ASCII_CLASSES[c] = LETTER;
+            ASCII_CLASSES[Character.toLowerCase(c)] = LETTER;
+        }
+        for (char c : " \t\n\u000B\f\r".toCharArray()) {
+            ASCII_CLASSES[c] = SPACE;
+        }
+        ASCII_CLASSES['\''] = PUNCTUATION;
+        ASCII_CLASSES['-'] = PUNCTUATION;
+    }
+
+    /**
+     * Validates if the provided name is valid; see {@link #checkName(CharSequence)}.
      *
      * @param name the name to validate
      * @return {@code true} if the name is valid; {@code false} otherwise
      */
     public static boolean isValidName(String name) {
-        if (name == null || name.trim().isEmpty()) {
-            return false; // Name cannot be null or empty
+        return checkName(name) == NameCheck.VALID;
+    }
+
+    /**
+     * Checks an employee name in a single pass over its characters, without regular expressions, allocation
+     * or exceptions. A valid name contains at least one letter, in any script, and otherwise only combining
+     * accents following a letter, spaces, hyphens ({@code -} or U+2010) and apostrophes ({@code '} or U+2019),
+     * so names such as {@code Zoë Côté}, {@code Nguyễn Văn An} and {@code O'Connor} are accepted.
+     *
+     * @param name the name to check
+     * @return {@link NameCheck#VALID}, or the reason the name is not valid
+     */
+    public static NameCheck checkName(CharSequence name) {
+        long start = Metrics.start();
+        NameCheck result = scanName(name);
+        if (Metrics.ENABLED) {
+            Metrics.VALIDATION.recordSince(start);
+            if (result != NameCheck.VALID) {
+                Metrics.NAMES_REJECTED.increment();
+            }
+        }
+        return result;
+    }
+
+    // Method to classify every code point of a name, stopping at the first one that is not allowed
+    private static NameCheck scanName(CharSequence name) {
+        if (name == null) {
+            return NameCheck.BLANK;
+        }
+        boolean letters = false;
+        boolean punctuation = false;
+        boolean afterLetter = false;
+        int length = name.length();
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            byte type;
+            if (c < 128) {
+                type = ASCII_CLASSES[c];
+            } else {
+                int codePoint = c;
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(name.charAt(i + 1))) {
+                    codePoint = Character.toCodePoint(c, name.charAt(++i));
+                }
+                type = classify(codePoint, afterLetter);
+            }
+
+            if (type == OTHER) {
+                return NameCheck.INVALID_CHARACTER;
+            }
+            letters |= type == LETTER;
+            punctuation |= type == PUNCTUATION;
+            afterLetter = type == LETTER;
+        }
+        if (letters) {
+            return NameCheck.VALID;
+        }
+        return punctuation ? NameCheck.NO_LETTERS : NameCheck.BLANK;
+    }
+
+    // Method to classify a non-ASCII code point; a combining accent counts as part of the letter it follows
+    private static byte classify(int codePoint, boolean afterLetter) {
+        switch (Character.getType(codePoint)) {
+            case Character.UPPERCASE_LETTER:
+            case Character.LOWERCASE_LETTER:
+            case Character.TITLECASE_LETTER:
+            case Character.MODIFIER_LETTER:
+            case Character.OTHER_LETTER:
+                return LETTER;
+            case Character.NON_SPACING_MARK:
+            case Character.COMBINING_SPACING_MARK:
+                return afterLetter ? LETTER : OTHER;
+            case Character.SPACE_SEPARATOR:
+                return SPACE;
+            default:
+                return codePoint == '\u2010' || codePoint == '\u2019' ? PUNCTUATION : OTHER;
         }
-        return Pattern.matches(NAME_PATTERN, name);
     }
 
     /**
-     * Validates if the provided work date is valid. The date is considered valid if it is in the current year
-     * and does not duplicate any existing work entry dates.
+     * Validates if the provided number of hours worked is within the allowed range for a single day.
+     *
+     * @param hoursWorked the hours to validate
+     * @return {@code true} if the hours are valid; {@code false} otherwise
+     */
+    public static boolean isValidHours(double hoursWorked) {
+        boolean valid = hoursWorked >= MIN_HOURS_PER_DAY && hoursWorked <= MAX_HOURS_PER_DAY;
+        if (Metrics.ENABLED && !valid) {
+            Metrics.HOURS_REJECTED.increment();
+        }
+        return valid;
+    }
+
+    /**
+     * Validates if the provided hourly pay rate is within the allowed range.
+     *
+     * @param payRate the pay rate to validate
+     * @return {@code true} if the pay rate is valid; {@code false} otherwise
+     */
+    public static boolean isValidPayRate(double payRate) {
+        boolean valid = payRate >= MIN_PAY_RATE_PER_HOUR && payRate <= MAX_PAY_RATE_PER_HOUR;
+        if (Metrics.ENABLED && !valid) {
+            Metrics.RATES_REJECTED.increment();
+        }
+        return valid;
+    }
+
+    /**
+     * Validates if the provided work date is valid. The date is considered valid if it is in the current year or
+     * one of the {@link #MAX_YEARS_BACK} years before it, so back pay can be entered, and the employee does not
+     * already have a work entry on that date. The duplicate check uses the employee's
+     * date index, so it takes constant time however many entries the employee has.
      *
      * @param workDate the date to validate
-     * @param workEntries the list of existing {@link WorkEntry} objects to ensure the date is unique
+     * @param employee the {@link Employee} whose existing work entries must not include the date
+     * @return {@code true} if the date is valid; {@code false} otherwise
+     */
+    public static boolean isValidDate(LocalDate workDate, Employee employee){
+        return isValidDate((int) workDate.toEpochDay(), employee);
+    }
+
+    /**
+     * Validates a work date given as an epoch day, as returned by {@link Parsing#parseEpochDay(CharSequence)};
+     * see {@link #isValidDate(LocalDate, Employee)}.
+     *
+     * @param epochDay the date to validate as the number of days since 1970-01-01
+     * @param employee the {@link Employee} whose existing work entries must not include the date
      * @return {@code true} if the date is valid; {@code false} otherwise
      */
-    public static boolean isValidDate(LocalDate workDate, ArrayList<WorkEntry> workEntries){
-        int currentYear = LocalDate.now().getYear();
+    public static boolean isValidDate(int epochDay, Employee employee) {
+        return isValidDate(epochDay, employee.indexOfWorkEntry(epochDay) >= 0);
+    }
 
-        if (workDate.getYear() != currentYear){
-            return false;
+    /**
+     * Validates a work date given as an epoch day for a store that checks duplicates itself, such as
+     * {@link org.example.data.OffHeapEmployeeStore}; see {@link #isValidDate(LocalDate, Employee)}.
+     *
+     * @param epochDay the date to validate as the number of days since 1970-01-01
+     * @param alreadyWorked whether the employee already has a work entry on that date
+     * @return {@code true} if the date is valid; {@code false} otherwise
+     */
+    public static boolean isValidDate(int epochDay, boolean alreadyWorked) {
+        long start = Metrics.start();
+        DateRange range = validDates;
+        long now = System.currentTimeMillis();
+        if (now < range.dayStartMillis || now >= range.nextDayMillis) {
+            range = DateRange.forToday();
+            validDates = range;
         }
 
-        for (WorkEntry entry : workEntries){
-            if (entry.getWorkDate().equals(workDate)){
-                return false;
+        boolean valid = epochDay >= range.firstValidDay && epochDay < range.endDay && !alreadyWorked;
+        if (Metrics.ENABLED) {
+            Metrics.VALIDATION.recordSince(start);
+            if (!valid) {
+                Metrics.DATES_REJECTED.increment();
             }
         }
-
-        return true;
+        return valid;
     }
 
     /**
      * Checks if the provided work date is a holiday or falls on a weekend.
      *
-     * @param holidays a list of {@link LocalDate} representing holidays
      * @param workDate the date to check
      * @return {@code true} if the date is a holiday or falls on a weekend; {@code false} otherwise
      */
-    public static boolean isHolidayOrWeekend(ArrayList<LocalDate> holidays, LocalDate workDate){
+    public static boolean isHolidayOrWeekend(LocalDate workDate){
         // check if it is holiday or weekend or regular
-        return holidays.contains(workDate) || workDate.getDayOfWeek().getValue() == 6 || workDate.getDayOfWeek().getValue() == 7;
+        return HolidayCalendar.dayTypeOf(workDate) != HolidayCalendar.DayType.REGULAR;
+    }
+
+    /**
+     * The valid work dates as seen on one day: from the first day of the year {@link #MAX_YEARS_BACK} years back
+     * up to the end of the current year. Bulk loaders validate every row, so the range is worked out once a day
+     * rather than from the clock on every call.
+     */
+    private static final class DateRange {
+        final long firstValidDay;
+        final long endDay;
+        final long dayStartMillis;
+        final long nextDayMillis;
+
+        private DateRange(LocalDate today, ZoneId zone) {
+            firstValidDay = today.minusYears(MAX_YEARS_BACK).withDayOfYear(1).toEpochDay();
+            endDay = today.withDayOfYear(1).plusYears(1).toEpochDay();
+            dayStartMillis = today.atStartOfDay(zone).toInstant().toEpochMilli();
+            nextDayMillis = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+
+        static DateRange forToday() {
+            ZoneId zone = ZoneId.systemDefault();
+            return new DateRange(LocalDate.now(zone), zone);
+        }
     }
 }
@@ -14,19 +14,19 @@ import java.time.LocalDate;
 public class WorkEntry {
     private final LocalDate workDate;
     private final double hoursWorked;
-    private final double dailyPay;
+    private final long dailyPayCents;
 
     /**
      * Constructs a new {@code WorkEntry} instance with the specified work date, hours worked, and daily pay.
      *
      * @param workDate the date of work
      * @param hoursWorked the number of hours worked on the specified date
-     * @param dailyPay the amount of pay earned for the work on the specified date
+     * @param dailyPayCents the amount of pay earned for the work on the specified date, in cents
      */
-    public WorkEntry(LocalDate workDate, double hoursWorked, double dailyPay) {
+    public WorkEntry(LocalDate workDate, double hoursWorked, long dailyPayCents) {
         this.workDate = workDate;
         this.hoursWorked = hoursWorked;
-        this.dailyPay = dailyPay;
+        this.dailyPayCents = dailyPayCents;
     }
 
     /**
@@ -50,10 +50,19 @@ public class WorkEntry {
     /**
      * Returns the amount of pay earned for the work on the specified date.
      *
-     * @return the daily pay
+     * @return the daily pay in dollars
      */
     public double getDailyPay() {
-        return dailyPay;
+        return Money.toDollars(dailyPayCents);
+    }
+
+    /**
+     * Returns the exact amount of pay earned for the work on the specified date.
+     *
+     * @return the daily pay in cents
+     */
+    public long getDailyPayCents() {
+        return dailyPayCents;
     }
 
     /**
@@ -62,16 +71,7 @@ public class WorkEntry {
      * @return a string indicating if the work date is a "Holiday", "Weekend", or "Regular"
      */
     public String isHolidayOrWeekend(){
-        // check if it is holiday
-        if (Utilities.HOLIDAYS.contains(workDate)){
-            return "Holiday";
-        }
-
-        // check if it is Saturday(6) or Sunday(7)
-        if (workDate.getDayOfWeek().getValue() == 6 || workDate.getDayOfWeek().getValue() == 7){
-            return "Weekend";
-        }
-
-        return "Regular";
+        // Holidays take precedence over weekends in the calendar
+        return HolidayCalendar.dayTypeOf(workDate).getLabel();
     }
 }
@@ -0,0 +1,50 @@
+package org.example.analytics;
+
+/**
+ * The loops {@link PayAnalytics} runs over a range of a {@link PaySnapshot}'s entries. There is a plain Java
+ * implementation and one written with the Vector API; both give exactly the same results.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+interface AggregationKernel {
+    // Positions of the figures in the totals array
+    int COUNT = 0;
+    int HOURS = 1;
+    int OVERTIME = 2;
+    int PAY = 3;
+
+    /**
+     * Adds up the entries from {@code from} up to {@code to} whose day type is in the mask and, if a column is
+     * given, whose value in that column is between {@code min} and {@code max} inclusive.
+     *
+     * @param snapshot the entries
+     * @param from the first entry to look at
+     * @param to the entry after the last one to look at
+     * @param dayTypeMask the day types to include, as bits {@code 1 << DayType.ordinal()}
+     * @param column a column of the snapshot to filter on, or {@code null} for no filter
+     * @param min the smallest value of the column to include
+     * @param max the largest value of the column to include
+     * @param totals receives the entry count, hours, overtime and pay at {@link #COUNT}, {@link #HOURS},
+     *        {@link #OVERTIME} and {@link #PAY}
+     */
+    void sum(PaySnapshot snapshot, int from, int to, int dayTypeMask, int[] column, int min, int max, long[] totals);
+
+    /**
+     * Counts the entries from {@code from} up to {@code to} whose day type is in the mask into buckets of a
+     * column's values, as described by {@link PayHistogram}, and adds up their hours and pay per bucket.
+     *
+     * @param snapshot the entries
+     * @param from the first entry to look at
+     * @param to the entry after the last one to look at
+     * @param dayTypeMask the day types to include, as bits {@code 1 << DayType.ordinal()}
+     * @param column the column of the snapshot to bucket by
+     * @param width the width of each bucket
+     * @param counts receives the entry count of each bucket
+     * @param hours receives the hours of each bucket
+     * @param pay receives the pay of each bucket
+     */
+    void histogram(PaySnapshot snapshot, int from, int to, int dayTypeMask, int[] column, int width, long[] counts,
+                   long[] hours, long[] pay);
+}
@@ -0,0 +1,347 @@
+package org.example.analytics;
+
+import org.example.HolidayCalendar.DayType;
+import org.example.Money;
+import org.example.models.PeriodTotals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Workforce-wide pay queries over a {@link PaySnapshot}: totals, year-over-year and day-type breakdowns, top
+ * earners, and histograms of overtime and hourly rates, each narrowed by a {@link PayQuery}.
+ *
+ * Each query runs a tight loop over the snapshot's primitive columns, limited to the query's dates by binary
+ * search. When the JVM is started with {@code --add-modules jdk.incubator.vector}, the loops use the Vector API
+ * and work on a whole SIMD register of entries at a time; otherwise they fall back to plain Java loops with the
+ * same results. Setting {@code -Dpayroll.analytics.vector=false} forces the plain loops.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class PayAnalytics {
+    /**
+     * System property that, set to {@code false}, keeps the Vector API from being used.
+     */
+    public static final String VECTOR_PROPERTY = "payroll.analytics.vector";
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final AggregationKernel VECTOR_KERNEL = loadVectorKernel();
+
+    private final PaySnapshot snapshot;
+    private final AggregationKernel kernel;
+
+    /**
+     * Creates a query API over a snapshot, using the Vector API if it is available.
+     *
+     * @param snapshot the work entries to query
+     */
+    public PayAnalytics(PaySnapshot snapshot) {
+        this(snapshot, true);
+    }
+
+    /**
+     * Creates a query API over a snapshot.
+     *
+     * @param snapshot the work entries to query
+     * @param useVectorApi whether to use the Vector API if it is available; {@code false} always runs plain loops
+     */
+    public PayAnalytics(PaySnapshot snapshot, boolean useVectorApi) {
+        this.snapshot = snapshot;
+        this.kernel = useVectorApi && VECTOR_KERNEL != null ? VECTOR_KERNEL : ScalarKernel.INSTANCE;
+    }
+
+    /**
+     * Checks whether the Vector API can be used in this JVM.
+     *
+     * @return {@code true} if the {@code jdk.incubator.vector} module is present and not disabled
+     */
+    public static boolean isVectorApiAvailable() {
+        return VECTOR_KERNEL != null;
+    }
+
+    /**
+     * Checks whether this instance's queries run on the Vector API.
+     *
+     * @return {@code true} if the queries are vectorized
+     */
+    public boolean isVectorized() {
+        return kernel != ScalarKernel.INSTANCE;
+    }
+
+    /**
+     * Returns the snapshot the queries run over.
+     *
+     * @return the snapshot
+     */
+    public PaySnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Adds up the hours, pay and overtime hours of the work entries matching a query.
+     *
+     * @param query the entries to include
+     * @return the totals
+     */
+    public PeriodTotals totals(PayQuery query) {
+        long[] totals = new long[4];
+        kernel.sum(snapshot, start(query), end(query), query.dayTypeMask, null, 0, 0, totals);
+        return toPeriodTotals(totals);
+    }
+
+    /**
+     * Adds up the work entries matching a query separately for each type of day it includes.
+     *
+     * @param query the entries to include
+     * @return the totals by type of day, for every type the query includes
+     */
+    public Map<DayType, PeriodTotals> totalsByDayType(PayQuery query) {
+        int from = start(query);
+        int to = end(query);
+        long[] totals = new long[4];
+        Map<DayType, PeriodTotals> byType = new EnumMap<>(DayType.class);
+        for (DayType type : DayType.values()) {
+            if (query.includes(type)) {
+                kernel.sum(snapshot, from, to, 1 << type.ordinal(), null, 0, 0, totals);
+                byType.put(type, toPeriodTotals(totals));
+            }
+        }
+        return byType;
+    }
+
+    /**
+     * Returns the share of the pay of the work entries matching a query that was earned on the given types of
+     * day, for example the share of holiday and weekend pay.
+     *
+     * @param query the entries to include
+     * @param first a type of day to count
+     * @param more any other types of day to count
+     * @return the share of pay, from 0 to 1, or 0 if no pay matches the query
+     */
+    public double payShare(PayQuery query, DayType first, DayType... more) {
+        long total = totals(query).getPayCents();
+        return total == 0 ? 0 : (double) totals(query.onDayTypes(first, more)).getPayCents() / total;
+    }
+
+    /**
+     * Adds up the work entries matching a query separately for each calendar year, for year-over-year
+     * comparisons.
+     *
+     * @param query the entries to include
+     * @return the totals by year, for every year with matching entries, in ascending order
+     */
+    public SortedMap<Integer, PeriodTotals> totalsByYear(PayQuery query) {
+        int from = start(query);
+        int to = end(query);
+        SortedMap<Integer, PeriodTotals> byYear = new TreeMap<>();
+        if (from >= to) {
+            return byYear;
+        }
+        long[] totals = new long[4];
+        int lastYear = LocalDate.ofEpochDay(snapshot.epochDays[to - 1]).getYear();
+        for (int year = LocalDate.ofEpochDay(snapshot.epochDays[from]).getYear(); year <= lastYear; year++) {
+            int yearFrom = Math.max(from, snapshot.lowerBound(LocalDate.of(year, 1, 1).toEpochDay()));
+            int yearTo = Math.min(to, snapshot.lowerBound(LocalDate.of(year + 1, 1, 1).toEpochDay()));
+            kernel.sum(snapshot, yearFrom, yearTo, query.dayTypeMask, null, 0, 0, totals);
+            if (totals[AggregationKernel.COUNT] > 0) {
+                byYear.put(year, toPeriodTotals(totals));
+            }
+        }
+        return byYear;
+    }
+
+    /**
+     * Returns the employees who earned the most in the work entries matching a query.
+     *
+     * @param query the entries to include
+     * @param limit the most employees to return
+     * @return the top earners, highest pay first, ties in ascending ID order
+     */
+    public List<Earner> topEarners(PayQuery query, int limit) {
+        int from = start(query);
+        int to = end(query);
+        int[] employees = snapshot.employees;
+        int[] dayTypeBits = snapshot.dayTypeBits;
+        int[] hours = snapshot.hours;
+        int[] pay = snapshot.pay;
+        int mask = query.dayTypeMask;
+
+        // Adding into a different slot per entry is a scatter, which vectors do not speed up
+        long[] payByEmployee = new long[snapshot.getEmployeeCount()];
+        long[] hoursByEmployee = new long[snapshot.getEmployeeCount()];
+        boolean[] worked = new boolean[snapshot.getEmployeeCount()];
+        for (int i = from; i < to; i++) {
+            if ((dayTypeBits[i] & mask) != 0) {
+                int e = employees[i];
+                payByEmployee[e] += pay[i];
+                hoursByEmployee[e] += hours[i];
+                worked[e] = true;
+            }
+        }
+
+        // Keep the best so far in a heap whose head is the weakest of them
+        Comparator<Integer> byPay = Comparator.<Integer>comparingLong(e -> payByEmployee[e])
+                .thenComparing(e -> snapshot.ids[e], Comparator.reverseOrder());
+        PriorityQueue<Integer> best = new PriorityQueue<>(byPay);
+        for (int e = 0; e < worked.length && limit > 0; e++) {
+            if (!worked[e]) {
+                continue;
+            }
+            if (best.size() < limit) {
+                best.add(e);
+            } else if (byPay.compare(e, best.peek()) > 0) {
+                best.poll();
+                best.add(e);
+            }
+        }
+
+        List<Earner> earners = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            int e = best.poll();
+            earners.add(new Earner(snapshot.ids[e], snapshot.names[e], payByEmployee[e], hoursByEmployee[e]));
+        }
+        Collections.reverse(earners);
+        return earners;
+    }
+
+    /**
+     * Counts the work entries matching a query by their overtime hours.
+     *
+     * @param query the entries to include
+     * @param bucketHundredths the width of each bucket in hundredths of an hour, for example 100 for one hour
+     * @param buckets the number of buckets; the last holds every larger amount of overtime
+     * @return the histogram; entries without overtime are in the first bucket
+     */
+    public PayHistogram overtimeDistribution(PayQuery query, int bucketHundredths, int buckets) {
+        return histogram(query, snapshot.overtime, "Overtime hours", bucketHundredths, buckets);
+    }
+
+    /**
+     * Counts the work entries matching a query by the hourly rate they were paid at.
+     *
+     * @param query the entries to include
+     * @param bucketCents the width of each bucket in cents, for example 500 for five dollars
+     * @param buckets the number of buckets; the last holds every higher rate
+     * @return the histogram
+     */
+    public PayHistogram rateHistogram(PayQuery query, int bucketCents, int buckets) {
+        return histogram(query, snapshot.rateCents, "Hourly rate", bucketCents, buckets);
+    }
+
+    private PayHistogram histogram(PayQuery query, int[] column, String valueName, int width, int buckets) {
+        if (width < 1 || buckets < 1) {
+            throw new IllegalArgumentException("Bucket width and count must be at least 1");
+        }
+        long[] counts = new long[buckets];
+        long[] hours = new long[buckets];
+        long[] pay = new long[buckets];
+        kernel.histogram(snapshot, start(query), end(query), query.dayTypeMask, column, width, counts, hours, pay);
+        return new PayHistogram(valueName, width, counts, hours, pay);
+    }
+
+    // Method to find the first entry a query includes
+    private int start(PayQuery query) {
+        return snapshot.lowerBound(query.fromEpochDay);
+    }
+
+    // Method to find the entry after the last one a query includes
+    private int end(PayQuery query) {
+        return query.toEpochDay == Long.MAX_VALUE ? snapshot.size() : snapshot.lowerBound(query.toEpochDay + 1);
+    }
+
+    private static PeriodTotals toPeriodTotals(long[] totals) {
+        return new PeriodTotals(totals[AggregationKernel.HOURS], totals[AggregationKernel.PAY],
+                totals[AggregationKernel.OVERTIME]);
+    }
+
+    // Method to create the Vector API kernel, or return null if the module is missing or disabled
+    private static AggregationKernel loadVectorKernel() {
+        if (!Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true"))
+                || ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            return (AggregationKernel) Class.forName(PayAnalytics.class.getPackageName() + ".VectorKernel")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * An employee's pay and hours in the work entries matching a query.
+     */
+    public static final class Earner {
+        private final long id;
+        private final String name;
+        private final long payCents;
+        private final long hoursHundredths;
+
+        Earner(long id, String name, long payCents, long hoursHundredths) {
+            this.id = id;
+            this.name = name;
+            this.payCents = payCents;
+            this.hoursHundredths = hoursHundredths;
+        }
+
+        /**
+         * Returns the employee's ID.
+         *
+         * @return the employee ID
+         */
+        public long getId() {
+            return id;
+        }
+
+        /**
+         * Returns the employee's name.
+         *
+         * @return the employee name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the employee's pay in the matching entries.
+         *
+         * @return the pay in cents
+         */
+        public long getPayCents() {
+            return payCents;
+        }
+
+        /**
+         * Returns the employee's pay in the matching entries.
+         *
+         * @return the pay in dollars
+         */
+        public double getPay() {
+            return Money.toDollars(payCents);
+        }
+
+        /**
+         * Returns the employee's hours in the matching entries.
+         *
+         * @return the hours in hundredths of an hour
+         */
+        public long getHoursHundredths() {
+            return hoursHundredths;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d %s: %.2f pay, %.2f hours", id, name, getPay(), hoursHundredths / 100.0);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.analytics;
+
+/**
+ * Work entries counted into buckets of equal width by one of their values, such as overtime hours or hourly
+ * rate, with the hours and pay of each bucket. Values are in hundredths: hundredths of an hour for hours, cents
+ * for rates. Bucket {@code b} holds the values from {@code b * width} up to but not including
+ * {@code (b + 1) * width}, except that the last bucket also holds every larger value and the first every
+ * smaller one.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public final class PayHistogram {
+    private final String valueName;
+    private final int bucketWidth;
+    private final long[] counts;
+    private final long[] hoursHundredths;
+    private final long[] payCents;
+
+    PayHistogram(String valueName, int bucketWidth, long[] counts, long[] hoursHundredths, long[] payCents) {
+        this.valueName = valueName;
+        this.bucketWidth = bucketWidth;
+        this.counts = counts;
+        this.hoursHundredths = hoursHundredths;
+        this.payCents = payCents;
+    }
+
+    /**
+     * Returns the number of buckets.
+     *
+     * @return the bucket count
+     */
+    public int getBucketCount() {
+        return counts.length;
+    }
+
+    /**
+     * Returns the width of each bucket.
+     *
+     * @return the bucket width in hundredths
+     */
+    public int getBucketWidth() {
+        return bucketWidth;
+    }
+
+    /**
+     * Returns the smallest value that falls in a bucket, other than in the first.
+     *
+     * @param bucket the bucket, from 0
+     * @return the bucket's lower bound in hundredths
+     */
+    public long getLowerBound(int bucket) {
+        return (long) bucket * bucketWidth;
+    }
+
+    /**
+     * Returns the number of work entries in a bucket.
+     *
+     * @param bucket the bucket, from 0
+     * @return the entry count
+     */
+    public long getCount(int bucket) {
+        return counts[bucket];
+    }
+
+    /**
+     * Returns the hours worked in the work entries of a bucket.
+     *
+     * @param bucket the bucket, from 0
+     * @return the hours in hundredths of an hour
+     */
+    public long getHoursHundredths(int bucket) {
+        return hoursHundredths[bucket];
+    }
+
+    /**
+     * Returns the pay earned in the work entries of a bucket.
+     *
+     * @param bucket the bucket, from 0
+     * @return the pay in cents
+     */
+    public long getPayCents(int bucket) {
+        return payCents[bucket];
+    }
+
+    /**
+     * Returns the number of work entries in all buckets.
+     *
+     * @return the total entry count
+     */
+    public long getTotalCount() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(valueName).append(" histogram:");
+        for (int b = 0; b < counts.length; b++) {
+            String bound = String.format("%.2f%s", getLowerBound(b) / 100.0, b == counts.length - 1 ? "+" : "");
+            text.append(System.lineSeparator()).append(String.format("  %-10s %,12d entries %,14.2f hours %,16.2f pay",
+                    bound, counts[b], hoursHundredths[b] / 100.0, payCents[b] / 100.0));
+        }
+        return text.toString();
+    }
+}
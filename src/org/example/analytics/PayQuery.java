@@ -0,0 +1,118 @@
+package org.example.analytics;
+
+import org.example.HolidayCalendar.DayType;
+
+import java.time.LocalDate;
+
+/**
+ * Filter for {@link PayAnalytics} queries: the work entries between two dates, inclusive, that fall on the
+ * chosen types of day. Queries are immutable; each method returns a narrowed copy, so they can be shared and
+ * built up step by step:
+ * <pre>{@code
+ * PayQuery lastYearHolidays = PayQuery.all().inYear(2025).onDayTypes(DayType.HOLIDAY);
+ * }</pre>
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public final class PayQuery {
+    private static final int ALL_DAY_TYPES = (1 << DayType.values().length) - 1;
+    private static final PayQuery ALL = new PayQuery(Long.MIN_VALUE, Long.MAX_VALUE, ALL_DAY_TYPES);
+
+    final long fromEpochDay;
+    final long toEpochDay;
+    final int dayTypeMask;
+
+    private PayQuery(long fromEpochDay, long toEpochDay, int dayTypeMask) {
+        this.fromEpochDay = fromEpochDay;
+        this.toEpochDay = toEpochDay;
+        this.dayTypeMask = dayTypeMask;
+    }
+
+    /**
+     * Returns the query that matches every work entry.
+     *
+     * @return the unfiltered query
+     */
+    public static PayQuery all() {
+        return ALL;
+    }
+
+    /**
+     * Narrows the query to the work entries between two dates, inclusive.
+     *
+     * @param from the first date to include
+     * @param to the last date to include
+     * @return the narrowed query
+     */
+    public PayQuery between(LocalDate from, LocalDate to) {
+        return new PayQuery(Math.max(fromEpochDay, from.toEpochDay()), Math.min(toEpochDay, to.toEpochDay()),
+                dayTypeMask);
+    }
+
+    /**
+     * Narrows the query to the work entries of one calendar year.
+     *
+     * @param year the calendar year
+     * @return the narrowed query
+     */
+    public PayQuery inYear(int year) {
+        return between(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+    }
+
+    /**
+     * Narrows the query to the work entries on the given types of day.
+     *
+     * @param first a type of day to include
+     * @param more any other types of day to include
+     * @return the narrowed query
+     */
+    public PayQuery onDayTypes(DayType first, DayType... more) {
+        int mask = 1 << first.ordinal();
+        for (DayType type : more) {
+            mask |= 1 << type.ordinal();
+        }
+        return new PayQuery(fromEpochDay, toEpochDay, dayTypeMask & mask);
+    }
+
+    /**
+     * Checks whether the query includes work entries on the given type of day.
+     *
+     * @param type the type of day
+     * @return {@code true} if entries on that type of day match
+     */
+    public boolean includes(DayType type) {
+        return (dayTypeMask & 1 << type.ordinal()) != 0;
+    }
+
+    /**
+     * Returns the first date the query includes.
+     *
+     * @return the first date, or {@code null} if the query has no lower bound
+     */
+    public LocalDate getFrom() {
+        return fromEpochDay == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(fromEpochDay);
+    }
+
+    /**
+     * Returns the last date the query includes.
+     *
+     * @return the last date, or {@code null} if the query has no upper bound
+     */
+    public LocalDate getTo() {
+        return toEpochDay == Long.MAX_VALUE ? null : LocalDate.ofEpochDay(toEpochDay);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("PayQuery[");
+        text.append(getFrom() == null ? "..." : getFrom()).append(" to ").append(getTo() == null ? "..." : getTo());
+        for (DayType type : DayType.values()) {
+            if (includes(type)) {
+                text.append(", ").append(type.getLabel());
+            }
+        }
+        return text.append(']').toString();
+    }
+}
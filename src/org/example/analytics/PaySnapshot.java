@@ -0,0 +1,256 @@
+package org.example.analytics;
+
+import org.example.HolidayCalendar;
+import org.example.Money;
+import org.example.models.Employee;
+import org.example.models.RateSchedule;
+import org.example.models.WorkEntryStore;
+import org.example.payroll.PayRuleSet;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Column-oriented copy of the work entries of a set of employees, for {@link PayAnalytics} queries. Each work
+ * entry is one position in a set of parallel {@code int} arrays: the employee, work date, day type, hourly rate,
+ * hours, overtime hours and pay. Queries run tight loops over these arrays instead of calling getters on
+ * {@link Employee} objects, and the loops can be vectorized.
+ *
+ * Entries are sorted by work date, so a query over a date range only reads the entries inside the range, found
+ * by binary search. The snapshot is not updated when employees change; take a new one to see the changes.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public final class PaySnapshot {
+    // Widest range of work dates sorted by counting; wider ranges are sorted by comparison
+    private static final int MAX_COUNTING_SORT_DAYS = 1 << 20;
+
+    // Entry columns, sorted by work date; hours and overtime in hundredths of an hour, rates and pay in cents
+    final int[] employees;
+    final int[] epochDays;
+    final int[] dayTypeBits;
+    final int[] rateCents;
+    final int[] hours;
+    final int[] overtime;
+    final int[] pay;
+
+    // Employee columns, indexed by the values of the employees column
+    final long[] ids;
+    final String[] names;
+
+    // Largest magnitude in the hours, overtime and pay columns, which bounds how many of them an int can add up
+    final int maxValue;
+
+    private PaySnapshot(Columns columns, long[] ids, String[] names) {
+        int size = columns.size;
+        this.ids = ids;
+        this.names = names;
+        this.employees = new int[size];
+        this.epochDays = new int[size];
+        this.dayTypeBits = new int[size];
+        this.rateCents = new int[size];
+        this.hours = new int[size];
+        this.overtime = new int[size];
+        this.pay = new int[size];
+
+        int[] order = sortedByDay(columns.epochDays, size);
+        int max = 0;
+        for (int i = 0; i < size; i++) {
+            int from = order[i];
+            employees[i] = columns.employees[from];
+            epochDays[i] = columns.epochDays[from];
+            dayTypeBits[i] = 1 << HolidayCalendar.dayTypeOf(epochDays[i]).ordinal();
+            rateCents[i] = columns.rateCents[from];
+            hours[i] = columns.hours[from];
+            overtime[i] = columns.overtime[from];
+            pay[i] = columns.pay[from];
+            max = Math.max(max, Math.max(Math.abs(hours[i]), Math.max(Math.abs(overtime[i]), Math.abs(pay[i]))));
+        }
+        this.maxValue = max;
+    }
+
+    /**
+     * Copies the work entries of the given employees, for example those of
+     * {@link org.example.data.EmployeeDB#getAllEmployees()}. Each employee is copied under its lock, so every
+     * employee's entries are consistent with its total pay.
+     *
+     * @param employees the employees to include
+     * @return the snapshot
+     * @throws ArithmeticException if one entry's pay in cents, hours in hundredths or rate in cents does not fit
+     *         in an {@code int}
+     */
+    public static PaySnapshot of(List<Employee> employees) {
+        long estimate = 0;
+        for (Employee employee : employees) {
+            estimate += employee.getWorkEntryStore().size();
+        }
+        Columns columns = new Columns((int) Math.min(estimate, Integer.MAX_VALUE - 8));
+        long[] ids = new long[employees.size()];
+        String[] names = new String[employees.size()];
+
+        for (int e = 0; e < employees.size(); e++) {
+            Employee employee = employees.get(e);
+            ids[e] = employee.getId();
+            names[e] = employee.getName();
+            synchronized (employee) {
+                WorkEntryStore store = employee.getWorkEntryStore();
+                RateSchedule rates = employee.getRateSchedule();
+                PayRuleSet ruleSet = employee.getRuleSet();
+                columns.ensureCapacity(store.size());
+                for (int i = 0; i < store.size(); i++) {
+                    int day = store.getEpochDay(i);
+                    long hundredths = Money.toHundredths(store.getHoursWorked(i));
+                    columns.add(e, day, Math.toIntExact(rates.rateCentsOn(day)), Math.toIntExact(hundredths),
+                            (int) Math.max(0, hundredths - ruleSet.getDailyOvertimeThreshold()),
+                            Math.toIntExact(store.getDailyPayCents(i)));
+                }
+            }
+        }
+        return new PaySnapshot(columns, ids, names);
+    }
+
+    /**
+     * Returns the number of work entries in the snapshot.
+     *
+     * @return the entry count
+     */
+    public int size() {
+        return epochDays.length;
+    }
+
+    /**
+     * Returns the number of employees in the snapshot, including those without work entries.
+     *
+     * @return the employee count
+     */
+    public int getEmployeeCount() {
+        return ids.length;
+    }
+
+    /**
+     * Returns the earliest work date in the snapshot.
+     *
+     * @return the first work date, or {@code null} if there are no work entries
+     */
+    public LocalDate getFirstDate() {
+        return size() == 0 ? null : LocalDate.ofEpochDay(epochDays[0]);
+    }
+
+    /**
+     * Returns the latest work date in the snapshot.
+     *
+     * @return the last work date, or {@code null} if there are no work entries
+     */
+    public LocalDate getLastDate() {
+        return size() == 0 ? null : LocalDate.ofEpochDay(epochDays[size() - 1]);
+    }
+
+    // Method to find the first entry on or after a date, or size() if there is none
+    int lowerBound(long epochDay) {
+        int low = 0;
+        int high = epochDays.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Method to return how many entries a kernel may add up in int lanes of the given count before folding the
+    // lanes together overflows an int, a whole number of vectors, or 0 if not even one vector is safe
+    int blockLength(int lanes) {
+        int entries = Integer.MAX_VALUE / Math.max(1, maxValue);
+        return entries / lanes * lanes;
+    }
+
+    // Method to order entries by work date, keeping entries on the same date in the order they were added
+    private static int[] sortedByDay(int[] days, int size) {
+        int[] order = new int[size];
+        if (size == 0) {
+            return order;
+        }
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, days[i]);
+            max = Math.max(max, days[i]);
+        }
+
+        if ((long) max - min < MAX_COUNTING_SORT_DAYS) {
+            int[] starts = new int[max - min + 2];
+            for (int i = 0; i < size; i++) {
+                starts[days[i] - min + 1]++;
+            }
+            for (int d = 1; d < starts.length; d++) {
+                starts[d] += starts[d - 1];
+            }
+            for (int i = 0; i < size; i++) {
+                order[starts[days[i] - min]++] = i;
+            }
+            return order;
+        }
+
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) days[i] - min) << 32 | i;
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    /**
+     * Entry columns in the order they were copied, before sorting.
+     */
+    private static final class Columns {
+        int[] employees;
+        int[] epochDays;
+        int[] rateCents;
+        int[] hours;
+        int[] overtime;
+        int[] pay;
+        int size;
+
+        Columns(int capacity) {
+            employees = new int[capacity];
+            epochDays = new int[capacity];
+            rateCents = new int[capacity];
+            hours = new int[capacity];
+            overtime = new int[capacity];
+            pay = new int[capacity];
+        }
+
+        // Method to make room for more entries, as employees may have gained entries since they were counted
+        void ensureCapacity(int more) {
+            if (size + more <= epochDays.length) {
+                return;
+            }
+            int capacity = Math.max(size + more, epochDays.length + (epochDays.length >> 1));
+            employees = Arrays.copyOf(employees, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            rateCents = Arrays.copyOf(rateCents, capacity);
+            hours = Arrays.copyOf(hours, capacity);
+            overtime = Arrays.copyOf(overtime, capacity);
+            pay = Arrays.copyOf(pay, capacity);
+        }
+
+        void add(int employee, int epochDay, int rate, int hoursHundredths, int overtimeHundredths, int payCents) {
+            employees[size] = employee;
+            epochDays[size] = epochDay;
+            rateCents[size] = rate;
+            hours[size] = hoursHundredths;
+            overtime[size] = overtimeHundredths;
+            pay[size] = payCents;
+            size++;
+        }
+    }
+}
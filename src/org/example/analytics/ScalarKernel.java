@@ -0,0 +1,56 @@
+package org.example.analytics;
+
+/**
+ * Plain Java {@link AggregationKernel}, used when the Vector API is not available. The loops are simple enough
+ * for the JIT compiler to unroll, and on some hardware to vectorize itself.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+final class ScalarKernel implements AggregationKernel {
+    static final ScalarKernel INSTANCE = new ScalarKernel();
+
+    private ScalarKernel() {
+    }
+
+    @Override
+    public void sum(PaySnapshot snapshot, int from, int to, int dayTypeMask, int[] column, int min, int max,
+                    long[] totals) {
+        int[] dayTypeBits = snapshot.dayTypeBits;
+        int[] hours = snapshot.hours;
+        int[] overtime = snapshot.overtime;
+        int[] pay = snapshot.pay;
+        long count = 0;
+        long hoursSum = 0;
+        long overtimeSum = 0;
+        long paySum = 0;
+        for (int i = from; i < to; i++) {
+            if ((dayTypeBits[i] & dayTypeMask) != 0 && (column == null || column[i] >= min && column[i] <= max)) {
+                count++;
+                hoursSum += hours[i];
+                overtimeSum += overtime[i];
+                paySum += pay[i];
+            }
+        }
+        totals[COUNT] = count;
+        totals[HOURS] = hoursSum;
+        totals[OVERTIME] = overtimeSum;
+        totals[PAY] = paySum;
+    }
+
+    @Override
+    public void histogram(PaySnapshot snapshot, int from, int to, int dayTypeMask, int[] column, int width,
+                          long[] counts, long[] hours, long[] pay) {
+        int[] dayTypeBits = snapshot.dayTypeBits;
+        int last = counts.length - 1;
+        for (int i = from; i < to; i++) {
+            if ((dayTypeBits[i] & dayTypeMask) != 0) {
+                int bucket = Math.max(0, Math.min(last, column[i] / width));
+                counts[bucket]++;
+                hours[bucket] += snapshot.hours[i];
+                pay[bucket] += snapshot.pay[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.analytics;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link AggregationKernel} written with the incubating Vector API, which compiles to SIMD instructions working
+ * on as many entries at once as the hardware's widest vectors hold: 8 with AVX2, 16 with AVX-512.
+ *
+ * Filters become lane masks and the sums masked adds into {@code int} lanes. The lanes are folded into
+ * {@code long} totals after every block of {@link PaySnapshot#blockLength(int)} entries, before their sum can
+ * overflow an {@code int}. Only loaded when the {@code jdk.incubator.vector} module is present, that is when
+ * the JVM is started with {@code --add-modules jdk.incubator.vector}.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+final class VectorKernel implements AggregationKernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    // Above this many buckets, one scalar pass beats a vectorized pass per bucket; with AVX-512 a masked pass
+    // costs about a fifth of the scalar pass
+    private static final int MAX_VECTOR_BUCKETS = 4;
+
+    @Override
+    public void sum(PaySnapshot snapshot, int from, int to, int dayTypeMask, int[] column, int min, int max,
+                    long[] totals) {
+        int[] dayTypeBits = snapshot.dayTypeBits;
+        int[] hours = snapshot.hours;
+        int[] overtime = snapshot.overtime;
+        int[] pay = snapshot.pay;
+        int lanes = SPECIES.length();
+        int block = snapshot.blockLength(lanes);
+        if (block == 0) {
+            ScalarKernel.INSTANCE.sum(snapshot, from, to, dayTypeMask, column, min, max, totals);
+            return;
+        }
+        IntVector zero = IntVector.zero(SPECIES);
+
+        long count = 0;
+        long hoursSum = 0;
+        long overtimeSum = 0;
+        long paySum = 0;
+        int i = from;
+        int upper = from + SPECIES.loopBound(to - from);
+        while (i < upper) {
+            int blockEnd = (int) Math.min(upper, (long) i + block);
+            IntVector hoursLanes = zero;
+            IntVector overtimeLanes = zero;
+            IntVector payLanes = zero;
+            for (; i < blockEnd; i += lanes) {
+                VectorMask<Integer> match = IntVector.fromArray(SPECIES, dayTypeBits, i).and(dayTypeMask)
+                        .compare(VectorOperators.NE, 0);
+                if (column != null) {
+                    IntVector values = IntVector.fromArray(SPECIES, column, i);
+                    match = match.and(values.compare(VectorOperators.GE, min))
+                            .and(values.compare(VectorOperators.LE, max));
+                }
+                count += match.trueCount();
+                hoursLanes = hoursLanes.add(IntVector.fromArray(SPECIES, hours, i), match);
+                overtimeLanes = overtimeLanes.add(IntVector.fromArray(SPECIES, overtime, i), match);
+                payLanes = payLanes.add(IntVector.fromArray(SPECIES, pay, i), match);
+            }
+            hoursSum += hoursLanes.reduceLanesToLong(VectorOperators.ADD);
+            overtimeSum += overtimeLanes.reduceLanesToLong(VectorOperators.ADD);
+            paySum += payLanes.reduceLanesToLong(VectorOperators.ADD);
+        }
+
+        // The entries after the last whole vector
+        for (; i < to; i++) {
+            if ((dayTypeBits[i] & dayTypeMask) != 0 && (column == null || column[i] >= min && column[i] <= max)) {
+                count++;
+                hoursSum += hours[i];
+                overtimeSum += overtime[i];
+                paySum += pay[i];
+            }
+        }
+        totals[COUNT] = count;
+        totals[HOURS] = hoursSum;
+        totals[OVERTIME] = overtimeSum;
+        totals[PAY] = paySum;
+    }
+
+    @Override
+    public void histogram(PaySnapshot snapshot, int from, int to, int dayTypeMask, int[] column, int width,
+                          long[] counts, long[] hours, long[] pay) {
+        if (counts.length > MAX_VECTOR_BUCKETS) {
+            ScalarKernel.INSTANCE.histogram(snapshot, from, to, dayTypeMask, column, width, counts, hours, pay);
+            return;
+        }
+        // One masked pass per bucket; lanes cannot add into different buckets at once
+        long[] totals = new long[4];
+        int last = counts.length - 1;
+        for (int b = 0; b <= last; b++) {
+            long low = b == 0 ? Integer.MIN_VALUE : (long) b * width;
+            long high = b == last ? Integer.MAX_VALUE : (long) (b + 1) * width - 1;
+            if (low > Integer.MAX_VALUE) {
+                break;
+            }
+            sum(snapshot, from, to, dayTypeMask, column, (int) low, (int) Math.min(high, Integer.MAX_VALUE), totals);
+            counts[b] = totals[COUNT];
+            hours[b] = totals[HOURS];
+            pay[b] = totals[PAY];
+        }
+    }
+}
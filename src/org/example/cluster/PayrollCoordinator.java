@@ -0,0 +1,404 @@
+package org.example.cluster;
+
+import org.example.Validation;
+import org.example.models.PeriodTotals;
+import org.example.report.PayrollReportWriter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spreads the employees of a payroll over several {@link ShardWorker} processes and combines their results,
+ * so that a payroll too large for one machine can be held and calculated by many.
+ *
+ * Each employee lives on exactly one shard, chosen by hashing its ID, and employee IDs are handed out here so
+ * they stay unique across shards. Payroll runs and period totals are fanned out to every shard at once and
+ * summed; reports are streamed from each shard in turn, so the employees of a report are ordered by shard and
+ * then by ID. The shard count is fixed by the list of workers, since moving employees between shards is not
+ * supported.
+ *
+ * A worker that goes away is reconnected to for up to {@code retryMillis}. Adding employees and work entries is
+ * retried once the worker is back, and a retried add that finds its employee or date already stored counts as
+ * done, so a request whose reply was lost is not applied twice. Because workers sync their journals before
+ * replying, a worker restarted on the same data directory still holds everything it acknowledged.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class PayrollCoordinator implements Closeable {
+    private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+    private static final long RETRY_PAUSE_MILLIS = 100;
+
+    private final Shard[] shards;
+    private final long retryMillis;
+    private final ExecutorService fanOut;
+    private final AtomicLong nextId;
+
+    /**
+     * Connects to the given workers, waiting up to {@code retryMillis} for any that are not yet listening.
+     *
+     * @param workers the addresses of the workers, one per shard, always in the same order
+     * @param retryMillis how long to keep trying to reach a worker before giving up
+     * @throws IOException if a worker cannot be reached in time
+     */
+    public PayrollCoordinator(List<InetSocketAddress> workers, long retryMillis) throws IOException {
+        if (workers.isEmpty()) {
+            throw new IllegalArgumentException("At least one worker is needed");
+        }
+        this.retryMillis = retryMillis;
+        this.shards = new Shard[workers.size()];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(workers.get(i));
+        }
+        this.fanOut = Executors.newFixedThreadPool(shards.length, runnable -> {
+            Thread thread = new Thread(runnable, "coordinator-fan-out");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long maxId = 0;
+        for (Shard shard : shards) {
+            maxId = Math.max(maxId, shard.call(true, (out, in, resent) -> {
+                out.writeByte(ShardProtocol.MAX_ID);
+                out.flush();
+                return in.readLong();
+            }));
+        }
+        this.nextId = new AtomicLong(maxId + 1);
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return the shard count
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Returns the shard that holds the employee with the given ID.
+     *
+     * @param id the ID of the employee
+     * @return the index of the shard
+     */
+    public int shardOf(long id) {
+        // Mix the bits first, since IDs are sequential and the shard count may share factors with any stride
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(hash ^ (hash >>> 32), (long) shards.length);
+    }
+
+    /**
+     * Adds a new employee to its shard.
+     *
+     * @param name the name of the employee
+     * @param hourlyRate the hourly rate of the employee
+     * @return the ID given to the employee
+     * @throws IllegalArgumentException if the name or rate is not valid
+     * @throws IOException if the shard cannot be reached in time
+     */
+    public long addEmployee(String name, double hourlyRate) throws IOException {
+        Validation.NameCheck check = Validation.checkName(name);
+        if (check != Validation.NameCheck.VALID) {
+            throw new IllegalArgumentException(check.getMessage());
+        }
+        if (!Validation.isValidPayRate(hourlyRate)) {
+            throw new IllegalArgumentException("Pay rate is out of range: " + hourlyRate);
+        }
+        long id = nextId.getAndIncrement();
+        long rateCents = Math.round(hourlyRate * 100.0);
+        byte status = shards[shardOf(id)].call(true, (out, in, resent) -> {
+            out.writeByte(ShardProtocol.ADD_EMPLOYEE);
+            out.writeLong(id);
+            out.writeUTF(name);
+            out.writeLong(rateCents);
+            out.flush();
+            return in.readByte();
+        });
+        if (status != ShardProtocol.OK && status != ShardProtocol.EXISTS) {
+            throw new IllegalArgumentException("Shard rejected employee " + name);
+        }
+        return id;
+    }
+
+    /**
+     * Adds a work entry to a stored employee.
+     *
+     * @param id the ID of the employee
+     * @param workDate the date of the work entry
+     * @param hoursWorked the number of hours worked on the specified date
+     * @return {@code true} if the entry was added; {@code false} if the employee is unknown or the date or hours
+     * are invalid
+     * @throws IOException if the shard cannot be reached in time
+     */
+    public boolean addWorkEntry(long id, LocalDate workDate, double hoursWorked) throws IOException {
+        return addWorkEntries(new long[]{id}, new int[]{(int) workDate.toEpochDay()},
+                new int[]{(int) Math.round(hoursWorked * 100.0)})[0];
+    }
+
+    /**
+     * Adds a batch of work entries, sending each shard its share in one request.
+     *
+     * @param ids the IDs of the employees
+     * @param epochDays the dates of the work entries, as days since 1970-01-01
+     * @param hoursHundredths the hours worked, in hundredths of an hour
+     * @return for each entry, {@code true} if it was added; {@code false} if the employee is unknown or the date
+     * or hours are invalid
+     * @throws IOException if a shard cannot be reached in time
+     */
+    public boolean[] addWorkEntries(long[] ids, int[] epochDays, int[] hoursHundredths) throws IOException {
+        // Group the entries by shard, remembering where each one came from
+        int[][] positions = new int[shards.length][];
+        int[] counts = new int[shards.length];
+        for (long id : ids) {
+            counts[shardOf(id)]++;
+        }
+        for (int s = 0; s < shards.length; s++) {
+            positions[s] = new int[counts[s]];
+            counts[s] = 0;
+        }
+        for (int i = 0; i < ids.length; i++) {
+            int s = shardOf(ids[i]);
+            positions[s][counts[s]++] = i;
+        }
+
+        boolean[] added = new boolean[ids.length];
+        for (int s = 0; s < shards.length; s++) {
+            int[] batch = positions[s];
+            if (batch.length == 0) {
+                continue;
+            }
+            shards[s].call(true, (out, in, resent) -> {
+                out.writeByte(ShardProtocol.ADD_WORK_ENTRIES);
+                out.writeInt(batch.length);
+                for (int i : batch) {
+                    out.writeLong(ids[i]);
+                    out.writeInt(epochDays[i]);
+                    out.writeInt(hoursHundredths[i]);
+                }
+                out.flush();
+                for (int i : batch) {
+                    byte status = in.readByte();
+                    // A resent entry may have been stored before the connection was lost
+                    added[i] = status == ShardProtocol.OK || resent && status == ShardProtocol.DUPLICATE_DATE;
+                }
+                return null;
+            });
+        }
+        return added;
+    }
+
+    /**
+     * Calculates the payroll on every shard at once and sums the results.
+     *
+     * @return the totals of each shard and of the whole payroll
+     * @throws IOException if a shard cannot be reached in time
+     */
+    public ShardedPayrollResult runPayroll() throws IOException {
+        long start = System.nanoTime();
+        List<long[]> replies = fanOut((out, in, resent) -> {
+            out.writeByte(ShardProtocol.RUN_PAYROLL);
+            out.flush();
+            return new long[]{in.readInt(), in.readLong(), in.readLong(), in.readLong()};
+        });
+        int[] employees = new int[shards.length];
+        long[] entries = new long[shards.length];
+        long[] payCents = new long[shards.length];
+        long[] nanos = new long[shards.length];
+        for (int s = 0; s < shards.length; s++) {
+            long[] reply = replies.get(s);
+            employees[s] = (int) reply[0];
+            entries[s] = reply[1];
+            payCents[s] = reply[2];
+            nanos[s] = reply[3];
+        }
+        return new ShardedPayrollResult(employees, entries, payCents, nanos, System.nanoTime() - start);
+    }
+
+    /**
+     * Returns the hours, pay and overtime of every employee on every shard between two dates, both inclusive.
+     *
+     * @param from the first date of the period
+     * @param to the last date of the period
+     * @return the totals for the period
+     * @throws IOException if a shard cannot be reached in time
+     */
+    public PeriodTotals getPeriodTotals(LocalDate from, LocalDate to) throws IOException {
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        List<long[]> replies = fanOut((out, in, resent) -> {
+            out.writeByte(ShardProtocol.PERIOD_TOTALS);
+            out.writeInt(fromDay);
+            out.writeInt(toDay);
+            out.flush();
+            return new long[]{in.readLong(), in.readLong(), in.readLong()};
+        });
+        long hours = 0;
+        long pay = 0;
+        long overtime = 0;
+        for (long[] reply : replies) {
+            hours += reply[0];
+            pay += reply[1];
+            overtime += reply[2];
+        }
+        return new PeriodTotals(hours, pay, overtime);
+    }
+
+    /**
+     * Writes the pay summaries of every employee on every shard as one report, streaming each shard's part
+     * straight through without holding it in memory. The underlying writer is flushed but not closed.
+     *
+     * Reports are not retried, since part of one may already have been written when a worker goes away.
+     *
+     * @param out the writer to send the report to
+     * @param format the output format
+     * @throws IOException if a shard cannot be reached or the report cannot be written
+     */
+    public void writeReport(Writer out, PayrollReportWriter.Format format) throws IOException {
+        PayrollReportWriter report = new PayrollReportWriter(out, format);
+        for (Shard shard : shards) {
+            shard.call(false, (request, in, resent) -> {
+                request.writeByte(ShardProtocol.REPORT);
+                request.writeByte(format.ordinal());
+                request.flush();
+                Reader fragment = new InputStreamReader(new ShardProtocol.ChunkedInputStream(in),
+                        StandardCharsets.UTF_8);
+                report.appendFragment(fragment);
+                return null;
+            });
+        }
+        report.finish();
+    }
+
+    /**
+     * Closes the connections to the workers. The workers keep running.
+     */
+    @Override
+    public void close() {
+        fanOut.shutdownNow();
+        for (Shard shard : shards) {
+            shard.disconnect();
+        }
+    }
+
+    // Method to send the same request to every shard at once and collect the replies in shard order
+    private <T> List<T> fanOut(Exchange<T> exchange) throws IOException {
+        List<Future<T>> futures = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            futures.add(fanOut.submit(() -> shard.call(true, exchange)));
+        }
+        List<T> replies = new ArrayList<>(shards.length);
+        try {
+            for (Future<T> future : futures) {
+                replies.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for the shards");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("Shard request failed", e.getCause());
+        }
+        return replies;
+    }
+
+    /**
+     * One request written to a worker and the reading of its reply.
+     */
+    @FunctionalInterface
+    private interface Exchange<T> {
+        // resent is true when the request is being sent again after the connection was lost
+        T exchange(DataOutputStream out, DataInputStream in, boolean resent) throws IOException;
+    }
+
+    /**
+     * The connection to one worker. Requests on it are sent one at a time.
+     */
+    private class Shard {
+        private final InetSocketAddress address;
+        private Socket socket;
+        private DataInputStream in;
+        private DataOutputStream out;
+
+        Shard(InetSocketAddress address) {
+            this.address = address;
+        }
+
+        // Method to run an exchange, reconnecting and, if allowed, resending it until retryMillis has passed
+        synchronized <T> T call(boolean retry, Exchange<T> exchange) throws IOException {
+            long deadline = System.currentTimeMillis() + retryMillis;
+            boolean sent = false;
+            while (true) {
+                try {
+                    connect();
+                    boolean resent = sent;
+                    sent = true;
+                    return exchange.exchange(out, in, resent);
+                } catch (IOException e) {
+                    disconnect();
+                    if (sent && !retry || System.currentTimeMillis() >= deadline) {
+                        throw new IOException("Shard " + address + " is unavailable", e);
+                    }
+                }
+                try {
+                    Thread.sleep(RETRY_PAUSE_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for shard " + address);
+                }
+            }
+        }
+
+        private void connect() throws IOException {
+            if (socket != null) {
+                return;
+            }
+            Socket connection = new Socket();
+            try {
+                connection.connect(address, CONNECT_TIMEOUT_MILLIS);
+                connection.setTcpNoDelay(true);
+                in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+                out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+            } catch (IOException e) {
+                connection.close();
+                throw e;
+            }
+            socket = connection;
+        }
+
+        synchronized void disconnect() {
+            if (socket != null) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // Closing anyway
+                }
+                socket = null;
+                in = null;
+                out = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.cluster;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Binary request/response protocol spoken between a {@link PayrollCoordinator} and its {@link ShardWorker}s
+ * over a plain socket. Each request is a one-byte command followed by its arguments, written with
+ * {@link DataOutputStream}; the worker answers each request before reading the next one.
+ *
+ * <pre>
+ * PING                                                  -> status
+ * MAX_ID                                                -> long id
+ * ADD_EMPLOYEE      long id, UTF name, long rateCents   -> status
+ * ADD_WORK_ENTRIES  int n, n x (long id, int epochDay, int hoursHundredths)
+ *                                                       -> n x status
+ * RUN_PAYROLL                                           -> int employees, long entries, long payCents, long nanos
+ * PERIOD_TOTALS     int fromEpochDay, int toEpochDay    -> long hoursHundredths, long payCents, long overtime
+ * REPORT            byte format                         -> chunks of (int length, UTF-8 bytes), then int 0
+ * </pre>
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+final class ShardProtocol {
+    static final byte PING = 0;
+    static final byte MAX_ID = 1;
+    static final byte ADD_EMPLOYEE = 2;
+    static final byte ADD_WORK_ENTRIES = 3;
+    static final byte RUN_PAYROLL = 4;
+    static final byte PERIOD_TOTALS = 5;
+    static final byte REPORT = 6;
+
+    // Statuses of a single employee or work entry
+    static final byte OK = 0;
+    static final byte EXISTS = 1;
+    static final byte UNKNOWN_EMPLOYEE = 2;
+    static final byte DUPLICATE_DATE = 3;
+    static final byte REJECTED = 4;
+
+    private static final int CHUNK_SIZE = 1 << 15;
+
+    private ShardProtocol() {
+    }
+
+    /**
+     * Output stream that sends everything written to it as length-prefixed chunks, ending with an empty chunk
+     * when closed, so a response of unknown length can be streamed without closing the connection.
+     */
+    static class ChunkedOutputStream extends OutputStream {
+        private final DataOutputStream out;
+        private final byte[] buffer = new byte[CHUNK_SIZE];
+        private int size;
+
+        ChunkedOutputStream(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (size == buffer.length) {
+                flushChunk();
+            }
+            buffer[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (size == buffer.length) {
+                    flushChunk();
+                }
+                int n = Math.min(length, buffer.length - size);
+                System.arraycopy(bytes, offset, buffer, size, n);
+                size += n;
+                offset += n;
+                length -= n;
+            }
+        }
+
+        /**
+         * Sends the last chunk and the end marker; the underlying stream is flushed but not closed.
+         */
+        @Override
+        public void close() throws IOException {
+            flushChunk();
+            out.writeInt(0);
+            out.flush();
+        }
+
+        private void flushChunk() throws IOException {
+            if (size > 0) {
+                out.writeInt(size);
+                out.write(buffer, 0, size);
+                size = 0;
+            }
+        }
+    }
+
+    /**
+     * Input stream that reads the chunks written by a {@link ChunkedOutputStream} and ends at the end marker,
+     * leaving the connection positioned at the next response.
+     */
+    static class ChunkedInputStream extends InputStream {
+        private final DataInputStream in;
+        private int remaining;
+        private boolean ended;
+
+        ChunkedInputStream(DataInputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!nextChunk()) {
+                return -1;
+            }
+            remaining--;
+            return in.readUnsignedByte();
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!nextChunk()) {
+                return -1;
+            }
+            int n = in.read(bytes, offset, Math.min(length, remaining));
+            if (n < 0) {
+                throw new IOException("Connection closed in the middle of a chunk");
+            }
+            remaining -= n;
+            return n;
+        }
+
+        // Method to move to the next chunk when the current one is used up; false at the end marker
+        private boolean nextChunk() throws IOException {
+            while (remaining == 0 && !ended) {
+                remaining = in.readInt();
+                ended = remaining == 0;
+            }
+            return !ended;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package org.example.cluster;
+
+import org.example.Parsing;
+import org.example.Validation;
+import org.example.data.EmployeeDB;
+import org.example.data.EmployeeJournal;
+import org.example.models.Employee;
+import org.example.models.PeriodTotals;
+import org.example.payroll.PayrollEngine;
+import org.example.payroll.PayrollResult;
+import org.example.report.PayrollReportWriter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One shard of a distributed payroll: a process that holds the employees a {@link PayrollCoordinator} assigns
+ * to it in its own {@link EmployeeDB}, calculates their pay with the usual {@link Employee} and
+ * {@link PayrollEngine} code, and answers the coordinator's requests over a plain socket using
+ * {@link ShardProtocol}.
+ *
+ * Every change is written to the worker's {@link EmployeeJournal}, which is synced before a request is answered,
+ * so a worker that is killed and restarted on the same data directory replays its shard and carries on where it
+ * left off. {@link EmployeeDB} is static, so each worker needs its own JVM.
+ *
+ * Run a worker with {@code java -cp employee-calculator.jar org.example.Main --worker <port> <dataDir>}.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class ShardWorker implements Closeable {
+    private static final int MAX_PORT = 65_535;
+
+    private final ServerSocket serverSocket;
+    private final EmployeeJournal journal;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+    private volatile boolean running;
+
+    /**
+     * Creates a worker bound to the given address. Call {@link #start()} to begin accepting connections.
+     *
+     * @param address the address to listen on; port 0 picks a free port
+     * @param journal the journal holding this shard, already opened, or {@code null} to keep the shard only in
+     *                memory
+     * @throws IOException if the address cannot be bound
+     */
+    public ShardWorker(InetSocketAddress address, EmployeeJournal journal) throws IOException {
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.setReuseAddress(true);
+        this.serverSocket.bind(address);
+        this.journal = journal;
+        // Not a daemon, so a worker started from main keeps the process running until it is closed
+        this.acceptor = new Thread(this::acceptLoop, "shard-acceptor");
+    }
+
+    /**
+     * Runs a worker from the command line until the process is stopped.
+     *
+     * @param args the port to listen on and the directory holding the shard's journal
+     * @throws IOException if the journal cannot be opened or the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        // Check the port before opening the journal, so a bad argument leaves the data directory untouched
+        long port = args.length == 2 ? Parsing.parseWholeNumber(args[0], 0, args[0].length()) : -1;
+        if (args.length != 2 || Parsing.failed(port) || port < 0 || port > MAX_PORT) {
+            System.err.println("Usage: ShardWorker <port> <dataDir>, with a port from 0 to " + MAX_PORT);
+            return;
+        }
+        EmployeeJournal journal = EmployeeJournal.open(Paths.get(args[1]), Integer.MAX_VALUE);
+        ShardWorker worker;
+        try {
+            worker = new ShardWorker(new InetSocketAddress((int) port), journal);
+        } catch (IOException e) {
+            journal.close();
+            throw e;
+        }
+        // Snapshots on a schedule too, as a worker killed outright never reaches the shutdown hook
+        journal.startBackgroundTasks();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            worker.close();
+            try {
+                journal.snapshot();
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Could not save shard: " + e.getMessage());
+            }
+        }));
+        worker.start();
+        System.out.println("Shard worker on port " + worker.getPort() + " holding " + EmployeeDB.size()
+                + " employees");
+    }
+
+    /**
+     * Starts accepting connections.
+     */
+    public void start() {
+        running = true;
+        acceptor.start();
+    }
+
+    /**
+     * Returns the port the worker is listening on.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones. The journal is left open for the caller to close.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+        for (Socket connection : connections) {
+            closeQuietly(connection);
+        }
+        try {
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Method run by the acceptor thread: serve each connection on its own thread
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket connection = serverSocket.accept();
+                connection.setTcpNoDelay(true);
+                connections.add(connection);
+                Thread handler = new Thread(() -> serve(connection), "shard-connection");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Shard worker could not accept a connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Method to answer the requests on one connection until the coordinator hangs up
+    private void serve(Socket connection) {
+        try (connection;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()))) {
+            while (true) {
+                byte command;
+                try {
+                    command = in.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                handle(command, in, out);
+                out.flush();
+            }
+        } catch (SocketException e) {
+            // Closed by close() or by the coordinator
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Shard worker dropped a connection: " + e);
+        } finally {
+            connections.remove(connection);
+        }
+    }
+
+    private void handle(byte command, DataInputStream in, DataOutputStream out) throws IOException {
+        switch (command) {
+            case ShardProtocol.PING:
+                out.writeByte(ShardProtocol.OK);
+                break;
+            case ShardProtocol.MAX_ID:
+                out.writeLong(maxId());
+                break;
+            case ShardProtocol.ADD_EMPLOYEE:
+                out.writeByte(addEmployee(in.readLong(), in.readUTF(), in.readLong()));
+                break;
+            case ShardProtocol.ADD_WORK_ENTRIES:
+                addWorkEntries(in, out);
+                break;
+            case ShardProtocol.RUN_PAYROLL:
+                PayrollResult result = new PayrollEngine().run(EmployeeDB.getAllEmployees());
+                out.writeInt(result.getEmployeeCount());
+                out.writeLong(result.getEntryCount());
+                out.writeLong(result.getTotalPayCents());
+                out.writeLong(result.getElapsedNanos());
+                break;
+            case ShardProtocol.PERIOD_TOTALS:
+                PeriodTotals totals = EmployeeDB.getPeriodTotals(LocalDate.ofEpochDay(in.readInt()),
+                        LocalDate.ofEpochDay(in.readInt()));
+                out.writeLong(totals.getHoursHundredths());
+                out.writeLong(totals.getPayCents());
+                out.writeLong(totals.getOvertimeHundredths());
+                break;
+            case ShardProtocol.REPORT:
+                writeReport(PayrollReportWriter.Format.values()[in.readByte()], out);
+                break;
+            default:
+                throw new IOException("Unknown command " + command);
+        }
+    }
+
+    private static long maxId() {
+        long max = 0;
+        for (Employee employee : EmployeeDB.getAllEmployees()) {
+            max = Math.max(max, employee.getId());
+        }
+        return max;
+    }
+
+    // Method to add an employee; adding one that already exists succeeds, so the coordinator can safely retry
+    private byte addEmployee(long id, String name, long rateCents) throws IOException {
+        Employee existing = EmployeeDB.getEmployee(id);
+        if (existing != null) {
+            return existing.getName().equals(name) ? ShardProtocol.EXISTS : ShardProtocol.REJECTED;
+        }
+        double rate = rateCents / 100.0;
+        if (!Validation.isValidName(name) || !Validation.isValidPayRate(rate)) {
+            return ShardProtocol.REJECTED;
+        }
+        EmployeeDB.addEmployee(new Employee(id, name, rate));
+        sync();
+        return ShardProtocol.OK;
+    }
+
+    // Method to apply a batch of work entries, then sync the journal once before answering
+    private void addWorkEntries(DataInputStream in, DataOutputStream out) throws IOException {
+        int count = in.readInt();
+        byte[] statuses = new byte[count];
+        for (int i = 0; i < count; i++) {
+            long id = in.readLong();
+            int epochDay = in.readInt();
+            double hours = in.readInt() / 100.0;
+
+            Employee employee = EmployeeDB.getEmployee(id);
+            if (employee == null) {
+                statuses[i] = ShardProtocol.UNKNOWN_EMPLOYEE;
+            } else if (employee.indexOfWorkEntry(epochDay) >= 0) {
+                statuses[i] = ShardProtocol.DUPLICATE_DATE;
+            } else if (!Validation.isValidHours(hours)
+                    || !EmployeeDB.addWorkEntry(id, LocalDate.ofEpochDay(epochDay), hours)) {
+                statuses[i] = ShardProtocol.REJECTED;
+            } else {
+                statuses[i] = ShardProtocol.OK;
+            }
+        }
+        sync();
+        out.write(statuses);
+    }
+
+    // Method to stream this shard's part of a report
+    private static void writeReport(PayrollReportWriter.Format format, DataOutputStream out) throws IOException {
+        List<Employee> employees = EmployeeDB.getAllEmployees();
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new ShardProtocol.ChunkedOutputStream(out), StandardCharsets.UTF_8))) {
+            PayrollReportWriter report = PayrollReportWriter.fragment(writer, format);
+            for (Employee employee : employees) {
+                report.writeEmployee(employee);
+            }
+            report.finish();
+        }
+    }
+
+    private void sync() throws IOException {
+        if (journal != null) {
+            journal.sync();
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+}
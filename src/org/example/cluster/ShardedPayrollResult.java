@@ -0,0 +1,139 @@
+package org.example.cluster;
+
+import org.example.Money;
+
+/**
+ * Holds the outcome of a payroll run spread over the shards of a {@link PayrollCoordinator}: the totals of
+ * each shard and of the whole payroll.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class ShardedPayrollResult {
+    private final int[] shardEmployees;
+    private final long[] shardEntries;
+    private final long[] shardPayCents;
+    private final long[] shardNanos;
+    private final long elapsedNanos;
+
+    /**
+     * Constructs a new {@code ShardedPayrollResult}.
+     *
+     * @param shardEmployees the number of employees calculated by each shard
+     * @param shardEntries the number of work entries calculated by each shard
+     * @param shardPayCents the total pay calculated by each shard in cents
+     * @param shardNanos the time each shard spent calculating, in nanoseconds
+     * @param elapsedNanos the wall-clock duration of the whole run as seen by the coordinator, in nanoseconds
+     */
+    public ShardedPayrollResult(int[] shardEmployees, long[] shardEntries, long[] shardPayCents, long[] shardNanos,
+                                long elapsedNanos) {
+        this.shardEmployees = shardEmployees;
+        this.shardEntries = shardEntries;
+        this.shardPayCents = shardPayCents;
+        this.shardNanos = shardNanos;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the number of shards that took part in the run.
+     *
+     * @return the shard count
+     */
+    public int getShardCount() {
+        return shardPayCents.length;
+    }
+
+    /**
+     * Returns the number of employees calculated by one shard.
+     *
+     * @param shard the index of the shard
+     * @return the shard's employee count
+     */
+    public int getShardEmployeeCount(int shard) {
+        return shardEmployees[shard];
+    }
+
+    /**
+     * Returns the total pay calculated by one shard.
+     *
+     * @param shard the index of the shard
+     * @return the shard's total pay in cents
+     */
+    public long getShardPayCents(int shard) {
+        return shardPayCents[shard];
+    }
+
+    /**
+     * Returns the time one shard spent calculating, not counting the network.
+     *
+     * @param shard the index of the shard
+     * @return the shard's calculation time in nanoseconds
+     */
+    public long getShardElapsedNanos(int shard) {
+        return shardNanos[shard];
+    }
+
+    /**
+     * Returns the number of employees calculated by all shards.
+     *
+     * @return the employee count
+     */
+    public int getEmployeeCount() {
+        int total = 0;
+        for (int employees : shardEmployees) {
+            total += employees;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of work entries calculated by all shards.
+     *
+     * @return the work entry count
+     */
+    public long getEntryCount() {
+        long total = 0;
+        for (long entries : shardEntries) {
+            total += entries;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the total pay of all employees on all shards.
+     *
+     * @return the total pay in cents
+     */
+    public long getTotalPayCents() {
+        long total = 0;
+        for (long cents : shardPayCents) {
+            total += cents;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the total pay of all employees on all shards.
+     *
+     * @return the total pay in dollars
+     */
+    public double getTotalPay() {
+        return Money.toDollars(getTotalPayCents());
+    }
+
+    /**
+     * Returns the wall-clock duration of the run, including the network round trips.
+     *
+     * @return the duration in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Sharded payroll run: %d shards, %d employees, %d entries, total %.2f, %.1f ms",
+                getShardCount(), getEmployeeCount(), getEntryCount(), getTotalPay(), elapsedNanos / 1e6);
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.data;
+
+/**
+ * Open-addressing hash map from {@code long} keys to non-negative {@code int} values, with its table kept
+ * off-heap in {@link DirectSegments}. It works like {@link org.example.models.EpochDayIndex}, but a table of
+ * millions of keys costs the garbage collector nothing to trace.
+ *
+ * Values are stored plus one, so the zeroed memory of a fresh table reads as empty slots without being filled.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+final class DirectLongIntMap {
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final int SEGMENT_SHIFT = 16;
+    private static final int KEY = 0;
+    private static final int VALUE = 8;
+    private static final int WIDTH = 16;
+
+    private DirectSegments table;
+    private long capacity;
+    private long size;
+
+    /**
+     * Creates an empty map.
+     */
+    DirectLongIntMap() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Records the value for a key, replacing any previous value.
+     *
+     * @param key the key
+     * @param value the value; must not be negative
+     */
+    void put(long key, int value) {
+        // Keep the load factor at or below one half
+        if ((size + 1) * 2 > capacity) {
+            resize();
+        }
+        long slot = find(key);
+        if (table.getInt(slot, VALUE) == 0) {
+            table.putLong(slot, KEY, key);
+            size++;
+        }
+        table.putInt(slot, VALUE, value + 1);
+    }
+
+    /**
+     * Returns the value for a key.
+     *
+     * @param key the key
+     * @return the value, or {@code -1} if the key is not present
+     */
+    int get(long key) {
+        return table.getInt(find(key), VALUE) - 1;
+    }
+
+    /**
+     * Returns the number of keys in the map.
+     *
+     * @return the key count
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Returns the off-heap memory held by the table.
+     *
+     * @return the table size in bytes
+     */
+    long allocatedBytes() {
+        return table.allocatedBytes();
+    }
+
+    /**
+     * Removes every key.
+     */
+    void clear() {
+        allocate(INITIAL_CAPACITY);
+        size = 0;
+    }
+
+    // Method to find the slot holding the key, or the empty slot where it belongs
+    private long find(long key) {
+        long mask = capacity - 1;
+        long hash = key * 0x9E3779B97F4A7C15L;
+        long slot = (hash ^ (hash >>> 32)) & mask;
+        while (table.getInt(slot, VALUE) != 0 && table.getLong(slot, KEY) != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Method to double the table and re-insert every key
+    private void resize() {
+        DirectSegments old = table;
+        long oldCapacity = capacity;
+        allocate(capacity * 2);
+        for (long i = 0; i < oldCapacity; i++) {
+            int value = old.getInt(i, VALUE);
+            if (value != 0) {
+                long slot = find(old.getLong(i, KEY));
+                table.putLong(slot, KEY, old.getLong(i, KEY));
+                table.putInt(slot, VALUE, value);
+            }
+        }
+    }
+
+    private void allocate(long slots) {
+        table = new DirectSegments(WIDTH, Math.min(SEGMENT_SHIFT, Long.numberOfTrailingZeros(slots)));
+        table.ensureCapacity(slots);
+        capacity = slots;
+    }
+}
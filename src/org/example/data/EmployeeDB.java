@@ -1,13 +1,34 @@
 package org.example.data;
 
+import org.example.HolidayCalendar;
+import org.example.Validation;
 import org.example.models.Employee;
+import org.example.models.PeriodTotals;
+import org.example.payroll.PayRuleSet;
+import org.example.payroll.PayRules;
+import org.example.payroll.PayrollRecalculator;
+import org.example.report.PayrollReportWriter;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class acts as a simple database for storing and managing {@link Employee} objects.
- * It uses a static list to store employee data and provides methods to add employees
- * and display all employees.
+ * Employees are kept in a concurrent map keyed by their ID, with a secondary index by name, so lookups take
+ * constant time and any number of threads may add, update, and remove employees or add work entries at once.
+ * When an {@link EmployeeJournal} is attached, every change made through this class is also written to it.
+ * Adding, replacing or removing an employee updates the map, the name index and the journal together, and a
+ * change to a replaced or removed employee is never applied to the stale copy.
  *
  * @author Neil Adavan
  * @version 1.0
@@ -16,30 +37,478 @@ import java.util.ArrayList;
 public class EmployeeDB {
 
     /**
-     * A static list that stores {@link Employee} objects.
-     * This list simulates an in-memory database of employees.
+     * A static map that stores {@link Employee} objects by their ID.
+     * This map simulates an in-memory database of employees.
      */
-    // Static list to store employees
-    private static final ArrayList<Employee> employees = new ArrayList<>();
+    // Static map to store employees
+    private static final ConcurrentHashMap<Long, Employee> employees = new ConcurrentHashMap<>();
 
     /**
-     * Adds an employee to the employees list.
+     * Secondary index from employee name to the IDs of all employees with that name.
+     */
+    private static final ConcurrentHashMap<String, Set<Long>> idsByName = new ConcurrentHashMap<>();
+
+    // Journal that records changes, or null when the database is not persistent
+    private static volatile EmployeeJournal journal;
+
+    /**
+     * Adds an employee to the database. If an employee with the same ID is already stored, nothing is changed.
+     *
+     * @param employee the {@link Employee} object to add
+     * @return {@code true} if the employee was added; {@code false} if its ID was already present
+     */
+    // Method to add an employee to the database
+    public static boolean addEmployee(Employee employee) {
+        EmployeeJournal j = lockJournal();
+        try {
+            // The journal and name index are updated inside compute, so changes to one ID are seen in one order
+            boolean[] added = new boolean[1];
+            employees.computeIfAbsent(employee.getId(), id -> {
+                journalEmployee(j, employee);
+                indexName(employee);
+                added[0] = true;
+                return employee;
+            });
+            return added[0];
+        } finally {
+            unlockJournal(j);
+        }
+    }
+
+    /**
+     * Returns the employee with the given ID.
+     *
+     * @param id the ID of the employee
+     * @return the matching {@link Employee}, or {@code null} if there is none
+     */
+    public static Employee getEmployee(long id) {
+        return employees.get(id);
+    }
+
+    /**
+     * Returns all employees with the given name, ordered by ID.
+     *
+     * @param name the name to look up
+     * @return a list of matching {@link Employee} objects; empty if there are none
+     */
+    public static List<Employee> findByName(String name) {
+        Set<Long> ids = idsByName.get(name);
+        List<Employee> result = new ArrayList<>();
+        if (ids == null) {
+            return result;
+        }
+        for (Long id : ids) {
+            Employee employee = employees.get(id);
+            if (employee != null) {
+                result.add(employee);
+            }
+        }
+        result.sort(Comparator.comparingLong(Employee::getId));
+        return result;
+    }
+
+    /**
+     * Replaces the stored employee that has the same ID as the given one.
+     *
+     * @param employee the new {@link Employee} object
+     * @return {@code true} if an employee was replaced; {@code false} if no employee has that ID
+     */
+    public static boolean updateEmployee(Employee employee) {
+        EmployeeJournal j = lockJournal();
+        try {
+            boolean[] replaced = new boolean[1];
+            employees.computeIfPresent(employee.getId(), (id, previous) -> {
+                journalEmployee(j, employee);  // replayed as a replacement because the ID already exists
+                if (!previous.getName().equals(employee.getName())) {
+                    unindexName(previous);
+                    indexName(employee);
+                }
+                replaced[0] = true;
+                return employee;
+            });
+            return replaced[0];
+        } finally {
+            unlockJournal(j);
+        }
+    }
+
+    /**
+     * Removes the employee with the given ID.
+     *
+     * @param id the ID of the employee to remove
+     * @return the removed {@link Employee}, or {@code null} if there was none
+     */
+    public static Employee removeEmployee(long id) {
+        EmployeeJournal j = lockJournal();
+        try {
+            Employee[] removed = new Employee[1];
+            employees.computeIfPresent(id, (key, previous) -> {
+                if (j != null) {
+                    try {
+                        j.appendRemoval(id);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Could not journal removal of employee " + id, e);
+                    }
+                }
+                unindexName(previous);
+                removed[0] = previous;
+                return null;
+            });
+            return removed[0];
+        } finally {
+            unlockJournal(j);
+        }
+    }
+
+    /**
+     * Adds a work entry to the stored employee with the given ID. The duplicate-date check and the insert are
+     * done under the employee's lock, so two threads cannot add the same date twice.
+     *
+     * @param id the ID of the employee
+     * @param workDate the date of the work entry
+     * @param hoursWorked the number of hours worked on the specified date
+     * @return {@code true} if the entry was added; {@code false} if the employee is unknown or the date is invalid
+     */
+    public static boolean addWorkEntry(long id, LocalDate workDate, double hoursWorked) {
+        EmployeeJournal j = lockJournal();
+        try {
+            while (true) {
+                Employee employee = employees.get(id);
+                if (employee == null) {
+                    return false;
+                }
+                synchronized (employee) {
+                    if (!isStored(employee)) {
+                        continue;
+                    }
+                    if (!Validation.isValidDate(workDate, employee)) {
+                        return false;
+                    }
+                    // Journaled first, so an entry that could not be recorded is not kept in memory either
+                    if (j != null) {
+                        j.appendWorkEntry(id, (int) workDate.toEpochDay(), hoursWorked);
+                    }
+                    employee.addWorkEntry(workDate, hoursWorked);
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not journal work entry for employee " + id, e);
+        } finally {
+            unlockJournal(j);
+        }
+    }
+
+    /**
+     * Changes the hourly rate of the stored employee with the given ID from the given date onwards. Only the
+     * work entries on or after that date are recalculated, and the employee's total pay is adjusted by the
+     * difference.
+     *
+     * @param id the ID of the employee
+     * @param hourlyRate the new hourly rate
+     * @param effectiveFrom the first date the new rate applies to
+     * @return {@code true} if the rate was changed; {@code false} if the employee is unknown
+     */
+    public static boolean changeHourlyRate(long id, double hourlyRate, LocalDate effectiveFrom) {
+        EmployeeJournal j = lockJournal();
+        try {
+            while (true) {
+                Employee employee = employees.get(id);
+                if (employee == null) {
+                    return false;
+                }
+                synchronized (employee) {
+                    if (!isStored(employee)) {
+                        continue;
+                    }
+                    if (j != null) {
+                        j.appendRateChange(id, (int) effectiveFrom.toEpochDay(), hourlyRate);
+                    }
+                    employee.changeHourlyRate(hourlyRate, effectiveFrom);
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not journal rate change for employee " + id, e);
+        } finally {
+            unlockJournal(j);
+        }
+    }
+
+    /**
+     * Returns the employees whose IDs fall in the given range, ordered by ID.
+     *
+     * @param fromId the lowest ID to include
+     * @param toId the highest ID to include
+     * @return a list of {@link Employee} objects in the range
+     */
+    public static List<Employee> getEmployeesInRange(long fromId, long toId) {
+        List<Employee> result = new ArrayList<>();
+        for (Employee employee : employees.values()) {
+            if (employee.getId() >= fromId && employee.getId() <= toId) {
+                result.add(employee);
+            }
+        }
+        result.sort(Comparator.comparingLong(Employee::getId));
+        return result;
+    }
+
+    /**
+     * Returns a snapshot of all employees currently stored, ordered by ID.
+     *
+     * @return a list of {@link Employee} objects
+     */
+    // Method to get all employees
+    public static List<Employee> getAllEmployees() {
+        List<Employee> result = new ArrayList<>(employees.values());
+        result.sort(Comparator.comparingLong(Employee::getId));
+        return result;
+    }
+
+    /**
+     * Moves the stored employee with the given ID to different pay rules, recalculating all of its work entries.
+     * The rule set must be registered with {@link PayRules} so the change can be replayed after a restart.
+     *
+     * @param id the ID of the employee
+     * @param ruleSet the new pay rules
+     * @return {@code true} if the rules were changed; {@code false} if the employee is unknown
+     */
+    public static boolean changeRuleSet(long id, PayRuleSet ruleSet) {
+        EmployeeJournal j = lockJournal();
+        try {
+            while (true) {
+                Employee employee = employees.get(id);
+                if (employee == null) {
+                    return false;
+                }
+                synchronized (employee) {
+                    if (!isStored(employee)) {
+                        continue;
+                    }
+                    if (j != null) {
+                        j.appendRuleSetChange(id, ruleSet.getName());
+                    }
+                    employee.changeRuleSet(ruleSet);
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not journal rule change for employee " + id, e);
+        } finally {
+            unlockJournal(j);
+        }
+    }
+
+    /**
+     * Makes the given date a holiday and recalculates the pay of every stored employee who worked that day.
+     * The change is journaled, so the calendar and the recalculated pay survive a restart.
+     *
+     * @param date the new holiday
+     * @return the change in total pay across all employees, in cents
+     */
+    public static long addHoliday(LocalDate date) {
+        return changeHoliday(date, true);
+    }
+
+    /**
+     * Makes the given date an ordinary day again and recalculates the pay of every stored employee who worked
+     * that day. The change is journaled, so the calendar and the recalculated pay survive a restart.
+     *
+     * @param date the date that is no longer a holiday
+     * @return the change in total pay across all employees, in cents
+     */
+    public static long removeHoliday(LocalDate date) {
+        return changeHoliday(date, false);
+    }
+
+    /**
+     * Adds up the hours, pay and overtime hours of every stored employee between two dates, inclusive.
+     * Each employee answers from its {@link org.example.models.PayPeriodIndex}, so the cost grows with the
+     * number of employees but not with the number of work entries.
+     *
+     * @param from the first date of the period
+     * @param to the last date of the period
+     * @return the workforce-wide totals for the period
+     */
+    public static PeriodTotals getPeriodTotals(LocalDate from, LocalDate to) {
+        long hours = 0;
+        long pay = 0;
+        long overtime = 0;
+        for (Employee employee : employees.values()) {
+            PeriodTotals totals = employee.getPeriodTotals(from, to);
+            hours += totals.getHoursHundredths();
+            pay += totals.getPayCents();
+            overtime += totals.getOvertimeHundredths();
+        }
+        return new PeriodTotals(hours, pay, overtime);
+    }
+
+    /**
+     * Adds up the work of every stored employee in the week (Monday to Sunday) containing the given date.
+     *
+     * @param date any date in the week
+     * @return the workforce-wide totals for the week
+     */
+    public static PeriodTotals getWeekTotals(LocalDate date) {
+        LocalDate monday = date.minusDays(date.getDayOfWeek().getValue() - 1);
+        return getPeriodTotals(monday, monday.plusDays(6));
+    }
+
+    /**
+     * Adds up the work of every stored employee in the given month.
      *
-     * @param employee the {@link Employee} object to add to the list
+     * @param month the month
+     * @return the workforce-wide totals for the month
      */
-    // Method to add an employee to the list
-    public static void addEmployee(Employee employee) {
-        employees.add(employee);
+    public static PeriodTotals getMonthTotals(YearMonth month) {
+        return getPeriodTotals(month.atDay(1), month.atEndOfMonth());
     }
 
     /**
-     * Displays all the employees currently stored in the employees list.
-     * This method iterates over the list and prints out each employee's information.
+     * Adds up the work of every stored employee from the start of the year up to and including the given date.
+     *
+     * @param asOf the last date to include
+     * @return the workforce-wide year-to-date totals
+     */
+    public static PeriodTotals getYearToDateTotals(LocalDate asOf) {
+        return getPeriodTotals(asOf.withDayOfYear(1), asOf);
+    }
+
+    /**
+     * Returns the number of employees currently stored.
+     *
+     * @return the employee count
+     */
+    public static int size() {
+        return employees.size();
+    }
+
+    /**
+     * Removes all employees from the database.
+     */
+    public static void clear() {
+        employees.clear();
+        idsByName.clear();
+    }
+
+    /**
+     * Displays all the employees currently stored, ordered by ID.
+     * This method streams each employee's information to standard output through a {@link PayrollReportWriter}.
      */
     // Method to display all employees
     public static void displayAllEmployees() {
-        for (Employee emp : employees) {
-            System.out.println(emp);
+        try {
+            writeAllEmployees(new BufferedWriter(new OutputStreamWriter(System.out)), PayrollReportWriter.Format.TEXT);
+        } catch (IOException e) {
+            System.err.println("Could not display employees: " + e.getMessage());
         }
     }
+
+    /**
+     * Streams the pay summaries of all employees currently stored, ordered by ID, to the given writer.
+     * The writer is flushed but not closed.
+     *
+     * @param out the writer to send the report to
+     * @param format the report format
+     * @throws IOException if the report cannot be written
+     */
+    public static void writeAllEmployees(Writer out, PayrollReportWriter.Format format) throws IOException {
+        new PayrollReportWriter(out, format).writeAll(getAllEmployees());
+    }
+
+    /**
+     * Makes the given journal record every later change. Called by
+     * {@link EmployeeJournal#open(java.nio.file.Path, int)}.
+     *
+     * @param attached the journal to attach
+     */
+    static void attachJournal(EmployeeJournal attached) {
+        if (journal != null) {
+            throw new IllegalStateException("A journal is already attached");
+        }
+        journal = attached;
+    }
+
+    /**
+     * Stops recording changes to the given journal, if it is the one attached.
+     *
+     * @param detached the journal to detach
+     */
+    static void detachJournal(EmployeeJournal detached) {
+        if (journal == detached) {
+            journal = null;
+        }
+    }
+
+    // Method to take the journal's shared lock before any employee lock, so snapshots see a consistent state
+    private static EmployeeJournal lockJournal() {
+        EmployeeJournal j = journal;
+        if (j != null) {
+            j.lockShared();
+        }
+        return j;
+    }
+
+    private static void unlockJournal(EmployeeJournal j) {
+        if (j != null) {
+            j.unlockShared();
+        }
+    }
+
+    // Method to change the calendar, journal the change and recalculate the affected entries; holding the journal
+    // lock throughout keeps a snapshot from seeing the new calendar with pay that is not yet recalculated
+    private static long changeHoliday(LocalDate date, boolean holiday) {
+        EmployeeJournal j = lockJournal();
+        try {
+            if ((HolidayCalendar.dayTypeOf(date) == HolidayCalendar.DayType.HOLIDAY) == holiday) {
+                return 0;
+            }
+            // Journaled before the calendar changes; replaying a change that turned out to be a no-op is harmless
+            if (j != null) {
+                j.appendHolidayChange((int) date.toEpochDay(), holiday);
+            }
+            boolean changed = holiday ? HolidayCalendar.addHoliday(date) : HolidayCalendar.removeHoliday(date);
+            return changed ? PayrollRecalculator.recalculateDate(date, employees.values()) : 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not journal holiday change on " + date, e);
+        } finally {
+            unlockJournal(j);
+        }
+    }
+
+    // Method to check, under the employee's lock, that it was not replaced or removed while the lock was awaited;
+    // a change made to a replaced employee would be lost
+    private static boolean isStored(Employee employee) {
+        return employees.get(employee.getId()) == employee;
+    }
+
+    // Method to journal an added or replaced employee from inside a map update
+    private static void journalEmployee(EmployeeJournal j, Employee employee) {
+        if (j == null) {
+            return;
+        }
+        try {
+            j.appendEmployee(employee);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not journal employee " + employee.getId(), e);
+        }
+    }
+
+    private static void indexName(Employee employee) {
+        // The set is updated inside compute so a concurrent unindexName cannot drop it in between
+        idsByName.compute(employee.getName(), (k, ids) -> {
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+            }
+            ids.add(employee.getId());
+            return ids;
+        });
+    }
+
+    private static void unindexName(Employee employee) {
+        idsByName.computeIfPresent(employee.getName(), (k, ids) -> {
+            ids.remove(employee.getId());
+            return ids.isEmpty() ? null : ids;
+        });
+    }
 }
@@ -0,0 +1,567 @@
+package org.example.data;
+
+import org.example.HolidayCalendar;
+import org.example.models.Employee;
+import org.example.models.RateSchedule;
+import org.example.models.WorkEntryStore;
+import org.example.payroll.PayRuleSet;
+import org.example.payroll.PayRules;
+import org.example.payroll.PayrollRecalculator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary journal that makes {@link EmployeeDB} survive restarts.
+ *
+ * Every employee added, updated or removed, every rate or pay rule change, every work entry and every holiday
+ * added or removed through {@link EmployeeDB} is appended to the current journal file. Records are buffered
+ * and the file is forced to disk once every {@code syncEvery} records, on {@link #sync()}, and on
+ * {@link #close()}. Each record carries a CRC, so a record torn by a crash is detected and dropped on recovery.
+ *
+ * {@link #snapshot()} writes all employees to an {@link EmployeeSnapshot} and starts a new journal generation,
+ * after which older files are deleted. {@link #open(Path, int)} loads the latest snapshot and replays only the
+ * journal written after it.
+ *
+ * Files in the data directory are {@code snapshot-<generation>.bin} and {@code journal-<generation>.bin}.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class EmployeeJournal implements Closeable {
+    private static final byte ADD_EMPLOYEE = 1;
+    private static final byte ADD_WORK_ENTRY = 2;
+    private static final byte REMOVE_EMPLOYEE = 3;
+    private static final byte CHANGE_RATE = 4;
+    private static final byte CHANGE_RULES = 5;
+    private static final byte CHANGE_HOLIDAY = 6;
+
+    /**
+     * System property holding the milliseconds between background syncs started by
+     * {@link #startBackgroundTasks()}; 0 disables them.
+     */
+    public static final String SYNC_INTERVAL_PROPERTY = "payroll.syncIntervalMillis";
+
+    /**
+     * System property holding the milliseconds between background snapshots started by
+     * {@link #startBackgroundTasks()}; 0 disables them.
+     */
+    public static final String SNAPSHOT_INTERVAL_PROPERTY = "payroll.snapshotIntervalMillis";
+
+    private static final long DEFAULT_SYNC_INTERVAL_MILLIS = 1_000;
+    private static final long DEFAULT_SNAPSHOT_INTERVAL_MILLIS = 10 * 60 * 1_000;
+
+    // Record layout: int payload length, byte type, payload, int CRC of type and payload
+    private static final int RECORD_OVERHEAD = 4 + 1 + 4;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Journals are replayed through mapped windows of this size, so they may be larger than 2 GB
+    private static final long WINDOW_SIZE = 256L << 20;
+
+    private final Path directory;
+    private final int syncEvery;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CRC32 crc = new CRC32();
+
+    // Writers to EmployeeDB hold the read lock; snapshots hold the write lock so they see a consistent state
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long generation;
+    private FileChannel channel;
+    private ByteBuffer current;
+    private int recordStart;
+    private int unsyncedRecords;
+    private ScheduledExecutorService scheduler;
+
+    private EmployeeJournal(Path directory, int syncEvery) {
+        this.directory = directory;
+        this.syncEvery = syncEvery;
+    }
+
+    /**
+     * Recovers {@link EmployeeDB} from the data directory and attaches a journal so that later changes are
+     * recorded. The latest snapshot is loaded first, then the journal written after it is replayed.
+     *
+     * @param directory the data directory; created if missing
+     * @param syncEvery the number of records appended between forced writes to disk
+     * @return the open journal, already attached to {@link EmployeeDB}
+     * @throws IOException if the data cannot be read or the journal cannot be opened
+     */
+    public static EmployeeJournal open(Path directory, int syncEvery) throws IOException {
+        if (syncEvery < 1) {
+            throw new IllegalArgumentException("syncEvery must be at least 1: " + syncEvery);
+        }
+        Files.createDirectories(directory);
+        EmployeeJournal journal = new EmployeeJournal(directory, syncEvery);
+
+        long snapshotGeneration = latestGeneration(directory, "snapshot-");
+        if (snapshotGeneration >= 0) {
+            journal.generation = EmployeeSnapshot.read(snapshotFile(directory, snapshotGeneration));
+        } else {
+            journal.generation = Math.max(0, latestGeneration(directory, "journal-"));
+        }
+
+        Path journalFile = journalFile(directory, journal.generation);
+        long validLength = Files.exists(journalFile) ? replay(journalFile) : 0;
+
+        journal.channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        journal.channel.truncate(validLength);  // drop a torn record left by a crash
+        journal.channel.position(validLength);
+
+        EmployeeDB.attachJournal(journal);
+        return journal;
+    }
+
+    /**
+     * Starts the background sync and snapshot tasks with the intervals given by the
+     * {@value #SYNC_INTERVAL_PROPERTY} and {@value #SNAPSHOT_INTERVAL_PROPERTY} system properties, by default
+     * every second and every ten minutes. Long-running processes call this so the journal is compacted into a
+     * snapshot regularly rather than only when the process shuts down cleanly.
+     */
+    public void startBackgroundTasks() {
+        startBackgroundTasks(Long.getLong(SYNC_INTERVAL_PROPERTY, DEFAULT_SYNC_INTERVAL_MILLIS),
+                Long.getLong(SNAPSHOT_INTERVAL_PROPERTY, DEFAULT_SNAPSHOT_INTERVAL_MILLIS));
+    }
+
+    /**
+     * Forces buffered records to disk on a fixed schedule, in addition to every {@code syncEvery} records, and
+     * writes a snapshot on a second, usually much longer, schedule.
+     *
+     * @param syncIntervalMillis milliseconds between forced writes; 0 to disable
+     * @param snapshotIntervalMillis milliseconds between snapshots; 0 to disable
+     */
+    public synchronized void startBackgroundTasks(long syncIntervalMillis, long snapshotIntervalMillis) {
+        if (scheduler != null) {
+            throw new IllegalStateException("Background tasks already started");
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "employee-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (syncIntervalMillis > 0) {
+            scheduler.scheduleWithFixedDelay(this::syncQuietly, syncIntervalMillis, syncIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+        if (snapshotIntervalMillis > 0) {
+            scheduler.scheduleWithFixedDelay(this::snapshotQuietly, snapshotIntervalMillis, snapshotIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Acquires the lock that {@link EmployeeDB} holds while it changes data and appends the matching record.
+     * It must be taken before any employee's lock, never after.
+     */
+    void lockShared() {
+        lock.readLock().lock();
+    }
+
+    /**
+     * Releases the lock acquired by {@link #lockShared()}.
+     */
+    void unlockShared() {
+        lock.readLock().unlock();
+    }
+
+    /**
+     * Appends an employee with its pay rules, rate history and all of its current work entries.
+     *
+     * @param employee the employee to record
+     * @throws IOException if the record cannot be written
+     */
+    void appendEmployee(Employee employee) throws IOException {
+        byte[] name = employee.getName().getBytes(StandardCharsets.UTF_8);
+        synchronized (employee) {
+            byte[] rules = employee.getRuleSet().getName().getBytes(StandardCharsets.UTF_8);
+            RateSchedule rates = employee.getRateSchedule();
+            WorkEntryStore entries = employee.getWorkEntryStore();
+            synchronized (this) {
+                ByteBuffer out = begin(ADD_EMPLOYEE, 8 + 8 + 4 + name.length + 4 + rules.length
+                        + 4 + (rates.size() - 1) * 12 + 4 + entries.size() * 12);
+                out.putLong(employee.getId()).putDouble(rates.getRate(0)).putInt(name.length).put(name);
+                out.putInt(rules.length).put(rules);
+                // Later rates come before the entries so that replayed entries are paid at the right rate
+                out.putInt(rates.size() - 1);
+                for (int i = 1; i < rates.size(); i++) {
+                    out.putInt(rates.getEffectiveDay(i)).putDouble(rates.getRate(i));
+                }
+                out.putInt(entries.size());
+                for (int i = 0; i < entries.size(); i++) {
+                    out.putInt(entries.getEpochDay(i)).putDouble(entries.getHoursWorked(i));
+                }
+                end();
+            }
+        }
+    }
+
+    /**
+     * Appends one work entry of an employee that is already recorded.
+     *
+     * @param id the ID of the employee
+     * @param epochDay the work date as the number of days since 1970-01-01
+     * @param hoursWorked the number of hours worked on that date
+     * @throws IOException if the record cannot be written
+     */
+    synchronized void appendWorkEntry(long id, int epochDay, double hoursWorked) throws IOException {
+        begin(ADD_WORK_ENTRY, 8 + 4 + 8).putLong(id).putInt(epochDay).putDouble(hoursWorked);
+        end();
+    }
+
+    /**
+     * Appends a change to an employee's hourly rate.
+     *
+     * @param id the ID of the employee
+     * @param effectiveEpochDay the first date the rate applies to, as the number of days since 1970-01-01
+     * @param hourlyRate the new hourly rate
+     * @throws IOException if the record cannot be written
+     */
+    synchronized void appendRateChange(long id, int effectiveEpochDay, double hourlyRate) throws IOException {
+        begin(CHANGE_RATE, 8 + 4 + 8).putLong(id).putInt(effectiveEpochDay).putDouble(hourlyRate);
+        end();
+    }
+
+    /**
+     * Appends a change to the pay rules an employee is paid under.
+     *
+     * @param id the ID of the employee
+     * @param ruleSet the name of the new rule set
+     * @throws IOException if the record cannot be written
+     */
+    synchronized void appendRuleSetChange(long id, String ruleSet) throws IOException {
+        byte[] rules = ruleSet.getBytes(StandardCharsets.UTF_8);
+        begin(CHANGE_RULES, 8 + 4 + rules.length).putLong(id).putInt(rules.length).put(rules);
+        end();
+    }
+
+    /**
+     * Appends a holiday added to or removed from the {@link HolidayCalendar}.
+     *
+     * @param epochDay the changed date as the number of days since 1970-01-01
+     * @param holiday {@code true} if the date became a holiday, {@code false} if it stopped being one
+     * @throws IOException if the record cannot be written
+     */
+    synchronized void appendHolidayChange(int epochDay, boolean holiday) throws IOException {
+        begin(CHANGE_HOLIDAY, 4 + 1).putInt(epochDay).put((byte) (holiday ? 1 : 0));
+        end();
+    }
+
+    /**
+     * Appends the removal of an employee.
+     *
+     * @param id the ID of the removed employee
+     * @throws IOException if the record cannot be written
+     */
+    synchronized void appendRemoval(long id) throws IOException {
+        begin(REMOVE_EMPLOYEE, 8).putLong(id);
+        end();
+    }
+
+    /**
+     * Writes buffered records to the journal file and forces them to disk.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    public synchronized void sync() throws IOException {
+        flushBuffer();
+        channel.force(false);
+        unsyncedRecords = 0;
+    }
+
+    /**
+     * Writes a snapshot of every employee and starts a new journal generation, then deletes the files of older
+     * generations. Changes through {@link EmployeeDB} wait while the snapshot is written.
+     *
+     * @throws IOException if the snapshot or the new journal cannot be written
+     */
+    public void snapshot() throws IOException {
+        lock.writeLock().lock();
+        try {
+            // Appenders are held off by the write lock, so the journal monitor is not needed while the
+            // snapshot takes employee locks
+            sync();
+            long next = generation + 1;
+            EmployeeSnapshot.write(snapshotFile(directory, next), next, EmployeeDB.getAllEmployees());
+
+            synchronized (this) {
+                FileChannel nextChannel = FileChannel.open(journalFile(directory, next),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                channel.close();
+                channel = nextChannel;
+                generation = next;
+                deleteOlderThan(next);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the current journal generation.
+     *
+     * @return the generation number
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Stops background tasks, forces all records to disk and detaches the journal from {@link EmployeeDB}.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        EmployeeDB.detachJournal(this);
+        synchronized (this) {
+            if (channel.isOpen()) {
+                sync();
+                channel.close();
+            }
+        }
+    }
+
+    // Method to reserve buffer space for a record and write its header
+    private ByteBuffer begin(byte type, int payloadLength) throws IOException {
+        int recordLength = RECORD_OVERHEAD + payloadLength;
+        if (buffer.remaining() < recordLength) {
+            flushBuffer();
+        }
+        // Records larger than the whole journal buffer get a one-off buffer of their own
+        current = buffer.capacity() >= recordLength ? buffer : ByteBuffer.allocate(recordLength);
+        recordStart = current.position();
+        current.putInt(payloadLength).put(type);
+        return current;
+    }
+
+    // Method to write the CRC of the record started by begin and count it towards the next sync
+    private void end() throws IOException {
+        ByteBuffer body = current.duplicate();
+        body.position(recordStart + 4).limit(current.position());
+        crc.reset();
+        crc.update(body);
+        current.putInt((int) crc.getValue());
+
+        if (current != buffer) {
+            current.flip();
+            while (current.hasRemaining()) {
+                channel.write(current);
+            }
+        }
+        current = null;
+
+        if (++unsyncedRecords >= syncEvery) {
+            sync();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            System.err.println("Journal sync failed: " + e.getMessage());
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException e) {
+            System.err.println("Snapshot failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replays every complete record of a journal file into {@link EmployeeDB}.
+     *
+     * @return the length of the valid part of the file
+     */
+    private static long replay(Path file) throws IOException {
+        return replay(file, WINDOW_SIZE);
+    }
+
+    /**
+     * Replays every complete record of a journal file into {@link EmployeeDB}, mapping the file a window at a
+     * time. The window is moved forward at record boundaries, and grown for a record larger than the window.
+     *
+     * @param file the journal file
+     * @param windowSize the number of bytes to map at a time
+     * @return the length of the valid part of the file
+     * @throws IOException if the file cannot be read
+     */
+    static long replay(Path file, long windowSize) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = in.size();
+            CRC32 check = new CRC32();
+            MappedByteBuffer window = null;
+            long windowStart = 0;
+            long position = 0;
+
+            while (size - position >= RECORD_OVERHEAD) {
+                if (window == null || position + 4 > windowStart + window.limit()) {
+                    windowStart = position;
+                    window = in.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+                }
+                int payloadLength = window.getInt((int) (position - windowStart));
+                long recordLength = RECORD_OVERHEAD + (long) payloadLength;
+                if (payloadLength < 0 || recordLength > Integer.MAX_VALUE || size - position < recordLength) {
+                    return position;  // a torn record, or garbage where its length should be
+                }
+                if (position + recordLength > windowStart + window.limit()) {
+                    windowStart = position;
+                    window = in.map(FileChannel.MapMode.READ_ONLY, position,
+                            Math.min(Math.max(windowSize, recordLength), size - position));
+                }
+
+                int start = (int) (position - windowStart);
+                ByteBuffer body = window.slice(start + 4, 1 + payloadLength);
+                check.reset();
+                check.update(body.duplicate());
+                if (window.getInt(start + 4 + 1 + payloadLength) != (int) check.getValue()) {
+                    return position;
+                }
+                apply(body);
+                position += recordLength;
+            }
+            return position;
+        }
+    }
+
+    // Method to apply one journal record to EmployeeDB
+    private static void apply(ByteBuffer record) {
+        byte type = record.get();
+        switch (type) {
+            case ADD_EMPLOYEE: {
+                long id = record.getLong();
+                double hourlyRate = record.getDouble();
+                byte[] name = new byte[record.getInt()];
+                record.get(name);
+                Employee employee = new Employee(id, new String(name, StandardCharsets.UTF_8), hourlyRate,
+                        ruleSet(record));
+                int rateChanges = record.getInt();
+                for (int i = 0; i < rateChanges; i++) {
+                    int effectiveEpochDay = record.getInt();
+                    employee.changeHourlyRate(record.getDouble(), effectiveEpochDay);
+                }
+                int entries = record.getInt();
+                for (int i = 0; i < entries; i++) {
+                    employee.addWorkEntry(record.getInt(), record.getDouble());
+                }
+                if (!EmployeeDB.addEmployee(employee)) {
+                    EmployeeDB.updateEmployee(employee);
+                }
+                break;
+            }
+            case ADD_WORK_ENTRY: {
+                Employee employee = EmployeeDB.getEmployee(record.getLong());
+                if (employee != null) {
+                    employee.addWorkEntry(record.getInt(), record.getDouble());
+                }
+                break;
+            }
+            case CHANGE_RATE: {
+                Employee employee = EmployeeDB.getEmployee(record.getLong());
+                if (employee != null) {
+                    int effectiveEpochDay = record.getInt();
+                    employee.changeHourlyRate(record.getDouble(), effectiveEpochDay);
+                }
+                break;
+            }
+            case CHANGE_RULES: {
+                Employee employee = EmployeeDB.getEmployee(record.getLong());
+                PayRuleSet ruleSet = ruleSet(record);
+                if (employee != null) {
+                    employee.changeRuleSet(ruleSet);
+                }
+                break;
+            }
+            case CHANGE_HOLIDAY: {
+                // Entries replayed so far were paid under the old calendar, as they were before the change
+                LocalDate date = LocalDate.ofEpochDay(record.getInt());
+                if (record.get() != 0) {
+                    PayrollRecalculator.addHoliday(date, EmployeeDB.getAllEmployees());
+                } else {
+                    PayrollRecalculator.removeHoliday(date, EmployeeDB.getAllEmployees());
+                }
+                break;
+            }
+            case REMOVE_EMPLOYEE:
+                EmployeeDB.removeEmployee(record.getLong());
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal record type: " + type);
+        }
+    }
+
+    // Method to read a rule set name and look it up; journals must be replayed with the same rules configured
+    private static PayRuleSet ruleSet(ByteBuffer record) {
+        byte[] name = new byte[record.getInt()];
+        record.get(name);
+        String ruleSetName = new String(name, StandardCharsets.UTF_8);
+        PayRuleSet ruleSet = PayRules.get(ruleSetName);
+        if (ruleSet == null) {
+            throw new IllegalStateException("Journal refers to unknown pay rule set: " + ruleSetName);
+        }
+        return ruleSet;
+    }
+
+    private static Path snapshotFile(Path directory, long generation) {
+        return directory.resolve("snapshot-" + generation + ".bin");
+    }
+
+    private static Path journalFile(Path directory, long generation) {
+        return directory.resolve("journal-" + generation + ".bin");
+    }
+
+    // Method to find the highest generation of files with the given prefix, or -1 if there are none
+    private static long latestGeneration(Path directory, String prefix) throws IOException {
+        long latest = -1;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*.bin")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    latest = Math.max(latest, Long.parseLong(name.substring(prefix.length(), name.length() - 4)));
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        return latest;
+    }
+
+    private void deleteOlderThan(long keep) throws IOException {
+        for (long g = keep - 1; g >= 0; g--) {
+            boolean deleted = Files.deleteIfExists(snapshotFile(directory, g));
+            deleted |= Files.deleteIfExists(journalFile(directory, g));
+            if (!deleted && g < keep - 1) {
+                break;  // older generations were already cleaned up
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.data;
+
+import org.example.Money;
+import org.example.models.Employee;
+import org.example.payroll.PayRuleSet;
+
+/**
+ * Flyweight view of one employee in an {@link OffHeapEmployeeStore}. A single view is moved from employee to
+ * employee, so walking a whole workforce creates no objects; only {@link #getName()} and {@link #toEmployee()}
+ * allocate.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public final class EmployeeRecord {
+    private final OffHeapEmployeeStore store;
+    private int record = -1;
+
+    EmployeeRecord(OffHeapEmployeeStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Points the view at the employee with the given position in the store.
+     *
+     * @param record the position of the employee, from 0 to {@link OffHeapEmployeeStore#size()} - 1
+     * @return this view
+     */
+    public EmployeeRecord moveTo(int record) {
+        this.record = record;
+        return this;
+    }
+
+    /**
+     * Returns the position in the store of the employee the view points at.
+     *
+     * @return the position of the employee
+     */
+    public int getRecord() {
+        return record;
+    }
+
+    /**
+     * Gets the unique ID of the employee.
+     *
+     * @return the employee's ID
+     */
+    public long getId() {
+        return store.employeeLong(record, OffHeapEmployeeStore.ID);
+    }
+
+    /**
+     * Gets the name of the employee, decoding it into a new string.
+     *
+     * @return the employee's name
+     */
+    public String getName() {
+        return store.nameOf(record);
+    }
+
+    /**
+     * Gets the hourly rate of the employee.
+     *
+     * @return the employee's hourly rate in cents
+     */
+    public long getHourlyRateCents() {
+        return store.employeeLong(record, OffHeapEmployeeStore.RATE_CENTS);
+    }
+
+    /**
+     * Gets the hourly rate of the employee.
+     *
+     * @return the employee's hourly rate
+     */
+    public double getHourlyRate() {
+        return Money.toDollars(getHourlyRateCents());
+    }
+
+    /**
+     * Gets the pay rules the employee is paid under.
+     *
+     * @return the employee's {@link PayRuleSet}
+     */
+    public PayRuleSet getRuleSet() {
+        return store.ruleSetOf(record);
+    }
+
+    /**
+     * Gets the exact total pay accumulated by the employee.
+     *
+     * @return the employee's total pay in cents
+     */
+    public long getTotalPayCents() {
+        return store.employeeLong(record, OffHeapEmployeeStore.TOTAL_PAY_CENTS);
+    }
+
+    /**
+     * Gets the number of work entries the employee has.
+     *
+     * @return the work entry count
+     */
+    public int getWorkEntryCount() {
+        return store.employeeInt(record, OffHeapEmployeeStore.ENTRY_COUNT);
+    }
+
+    /**
+     * Points a work-entry view at the employee's first work entry, in the order the entries were added.
+     * Move on with {@link WorkEntryRecord#next()}.
+     *
+     * @param entry the view to move
+     * @return {@code true} if the employee has any work entries; {@code false} if it has none
+     */
+    public boolean firstWorkEntry(WorkEntryRecord entry) {
+        return entry.moveTo(store.employeeInt(record, OffHeapEmployeeStore.FIRST_ROW));
+    }
+
+    /**
+     * Copies the employee and its work entries to a new heap {@link Employee}, for code that works with
+     * {@link Employee} objects. The copy's pay is calculated again and matches the stored pay.
+     *
+     * @return a new employee holding the same data
+     */
+    public Employee toEmployee() {
+        Employee employee = new Employee(getId(), getName(), getHourlyRate(), getRuleSet());
+        WorkEntryRecord entry = store.newWorkEntryRecord();
+        for (boolean more = firstWorkEntry(entry); more; more = entry.next()) {
+            employee.addWorkEntry(entry.getEpochDay(), entry.getHoursWorked());
+        }
+        return employee;
+    }
+
+    @Override
+    public String toString() {
+        return record < 0 ? "EmployeeRecord[]" : "EmployeeRecord[id=" + getId() + ", name=" + getName() + "]";
+    }
+}
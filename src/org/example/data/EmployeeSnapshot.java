@@ -0,0 +1,245 @@
+package org.example.data;
+
+import org.example.HolidayCalendar;
+import org.example.models.Employee;
+import org.example.models.RateSchedule;
+import org.example.models.WorkEntryStore;
+import org.example.payroll.PayRuleSet;
+import org.example.payroll.PayRules;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Reads and writes compact binary snapshots of every employee and work entry, through memory-mapped files.
+ *
+ * A snapshot starts with a header (magic number, format version, journal generation and employee count) and
+ * the holidays added or removed at run time ({@link HolidayCalendar#getOverrides()}), followed by one record
+ * per employee: ID, initial hourly rate, name, pay rule set name, the effective epoch day and rate of every
+ * later rate change, and the epoch day and hours of every work entry. Pay is not stored; it is recalculated
+ * when the snapshot is loaded, after the holiday changes are restored. Snapshots are written to a temporary
+ * file that is forced to disk and then renamed, so a snapshot file is either complete or absent.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class EmployeeSnapshot {
+    private static final int MAGIC = 0x454D5053;  // "EMPS"
+    private static final int VERSION = 4;
+    private static final int VERSION_WITHOUT_HOLIDAYS = 3;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8;
+    private static final int FOOTER_SIZE = 4;
+    private static final int MAX_NAME_BYTES = 0xFFFF;
+
+    // Files are mapped in windows of this size, so snapshots may be larger than 2 GB
+    private static final long WINDOW_SIZE = 256L << 20;
+
+    private EmployeeSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of the given employees.
+     *
+     * @param file the snapshot file to create or replace
+     * @param generation the journal generation that continues from this snapshot
+     * @param employees the employees to write
+     * @throws IOException if the snapshot cannot be written
+     */
+    public static void write(Path file, long generation, List<Employee> employees) throws IOException {
+        // First pass: work out the exact file size
+        SortedMap<LocalDate, HolidayCalendar.DayType> holidays = HolidayCalendar.getOverrides();
+        long size = HEADER_SIZE + 4 + holidays.size() * 5L + FOOTER_SIZE;
+        for (Employee employee : employees) {
+            synchronized (employee) {
+                size += recordSize(employee);
+            }
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Window out = new Window(channel, FileChannel.MapMode.READ_WRITE, size);
+            out.ensure(HEADER_SIZE);
+            out.buffer.putInt(MAGIC).putInt(VERSION).putLong(generation).putLong(employees.size());
+            out.ensure(4 + holidays.size() * 5L);
+            out.buffer.putInt(holidays.size());
+            for (Map.Entry<LocalDate, HolidayCalendar.DayType> holiday : holidays.entrySet()) {
+                out.buffer.putInt((int) holiday.getKey().toEpochDay())
+                        .put((byte) (holiday.getValue() == HolidayCalendar.DayType.HOLIDAY ? 1 : 0));
+            }
+
+            for (Employee employee : employees) {
+                synchronized (employee) {
+                    byte[] name = employee.getName().getBytes(StandardCharsets.UTF_8);
+                    byte[] rules = employee.getRuleSet().getName().getBytes(StandardCharsets.UTF_8);
+                    if (name.length > MAX_NAME_BYTES || rules.length > MAX_NAME_BYTES) {
+                        throw new IOException("Employee or rule set name too long for snapshot: " + employee.getId());
+                    }
+                    RateSchedule rates = employee.getRateSchedule();
+                    WorkEntryStore entries = employee.getWorkEntryStore();
+                    out.ensure(recordSize(name.length, rules.length, rates.size(), entries.size()));
+                    out.buffer.putLong(employee.getId())
+                            .putDouble(rates.getRate(0))
+                            .putShort((short) name.length)
+                            .put(name)
+                            .putShort((short) rules.length)
+                            .put(rules)
+                            .putInt(rates.size() - 1);
+                    for (int i = 1; i < rates.size(); i++) {
+                        out.buffer.putInt(rates.getEffectiveDay(i)).putDouble(rates.getRate(i));
+                    }
+                    out.buffer.putInt(entries.size());
+                    for (int i = 0; i < entries.size(); i++) {
+                        out.buffer.putInt(entries.getEpochDay(i)).putDouble(entries.getHoursWorked(i));
+                    }
+                }
+            }
+
+            out.ensure(FOOTER_SIZE);
+            out.buffer.putInt(MAGIC);
+            out.buffer.force();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads a snapshot into {@link EmployeeDB}, restoring the holiday changes it holds to the
+     * {@link HolidayCalendar} and then recalculating the pay of every work entry.
+     *
+     * @param file the snapshot file to read
+     * @return the journal generation that continues from this snapshot
+     * @throws IOException if the snapshot cannot be read or is corrupt
+     */
+    public static long read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Window in = new Window(channel, FileChannel.MapMode.READ_ONLY, channel.size());
+            in.ensure(HEADER_SIZE);
+            int magic = in.buffer.getInt();
+            int version = in.buffer.getInt();
+            if (magic != MAGIC || version != VERSION && version != VERSION_WITHOUT_HOLIDAYS) {
+                throw new IOException("Not a version " + VERSION + " employee snapshot: " + file);
+            }
+            long generation = in.buffer.getLong();
+            long count = in.buffer.getLong();
+
+            // Holidays first, so entries are paid under the calendar they were last calculated with
+            if (version == VERSION) {
+                in.ensure(4);
+                int holidays = in.buffer.getInt();
+                in.ensure(holidays * 5L);
+                for (int i = 0; i < holidays; i++) {
+                    LocalDate date = LocalDate.ofEpochDay(in.buffer.getInt());
+                    if (in.buffer.get() != 0) {
+                        HolidayCalendar.addHoliday(date);
+                    } else {
+                        HolidayCalendar.removeHoliday(date);
+                    }
+                }
+            }
+
+            byte[] name = new byte[MAX_NAME_BYTES];
+            for (long e = 0; e < count; e++) {
+                in.ensure(8 + 8 + 2);
+                long id = in.buffer.getLong();
+                double hourlyRate = in.buffer.getDouble();
+                int nameLength = in.buffer.getShort() & 0xFFFF;
+                in.ensure(nameLength + 2);
+                in.buffer.get(name, 0, nameLength);
+                String employeeName = new String(name, 0, nameLength, StandardCharsets.UTF_8);
+                int rulesLength = in.buffer.getShort() & 0xFFFF;
+                in.ensure(rulesLength + 4);
+                in.buffer.get(name, 0, rulesLength);
+                String ruleSetName = new String(name, 0, rulesLength, StandardCharsets.UTF_8);
+                PayRuleSet ruleSet = PayRules.get(ruleSetName);
+                if (ruleSet == null) {
+                    throw new IOException("Snapshot refers to unknown pay rule set " + ruleSetName + ": " + file);
+                }
+                Employee employee = new Employee(id, employeeName, hourlyRate, ruleSet);
+
+                // Rate changes are restored before the entries, so entries are paid at the right rate once
+                int rateChanges = in.buffer.getInt();
+                in.ensure(rateChanges * 12L + 4);
+                for (int i = 0; i < rateChanges; i++) {
+                    int effectiveEpochDay = in.buffer.getInt();
+                    employee.changeHourlyRate(in.buffer.getDouble(), effectiveEpochDay);
+                }
+
+                int entryCount = in.buffer.getInt();
+                in.ensure(entryCount * 12L);
+                for (int i = 0; i < entryCount; i++) {
+                    int epochDay = in.buffer.getInt();
+                    employee.addWorkEntry(epochDay, in.buffer.getDouble());
+                }
+                EmployeeDB.addEmployee(employee);
+            }
+
+            in.ensure(FOOTER_SIZE);
+            if (in.buffer.getInt() != MAGIC) {
+                throw new IOException("Truncated employee snapshot: " + file);
+            }
+            return generation;
+        }
+    }
+
+    private static long recordSize(Employee employee) {
+        return recordSize(employee.getName().getBytes(StandardCharsets.UTF_8).length,
+                employee.getRuleSet().getName().getBytes(StandardCharsets.UTF_8).length,
+                employee.getRateSchedule().size(), employee.getWorkEntryStore().size());
+    }
+
+    private static long recordSize(int nameLength, int rulesLength, int rateCount, int entryCount) {
+        return 8 + 8 + 2 + nameLength + 2 + rulesLength + 4 + (rateCount - 1) * 12L + 4 + entryCount * 12L;
+    }
+
+    /**
+     * Sliding memory-mapped window over a file. {@link #ensure(long)} remaps the window at the current position
+     * whenever the next read or write would run past its end.
+     */
+    private static class Window {
+        private final FileChannel channel;
+        private final FileChannel.MapMode mode;
+        private final long fileSize;
+        private long windowStart;
+        private MappedByteBuffer buffer;
+
+        Window(FileChannel channel, FileChannel.MapMode mode, long fileSize) throws IOException {
+            this.channel = channel;
+            this.mode = mode;
+            this.fileSize = fileSize;
+            map(0);
+        }
+
+        void ensure(long bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            long position = windowStart + buffer.position();
+            if (position + bytes > fileSize) {
+                throw new IOException("Snapshot ends unexpectedly at byte " + position);
+            }
+            if (mode == FileChannel.MapMode.READ_WRITE) {
+                buffer.force();
+            }
+            map(position);
+            if (buffer.remaining() < bytes) {
+                throw new IOException("Snapshot record of " + bytes + " bytes is larger than the mapping window");
+            }
+        }
+
+        private void map(long position) throws IOException {
+            windowStart = position;
+            buffer = channel.map(mode, position, Math.min(WINDOW_SIZE, fileSize - position));
+        }
+    }
+}
@@ -0,0 +1,465 @@
+package org.example.data;
+
+import org.example.HolidayCalendar;
+import org.example.Money;
+import org.example.Validation;
+import org.example.metrics.Metrics;
+import org.example.models.PeriodTotals;
+import org.example.payroll.PayRuleSet;
+import org.example.payroll.PayRules;
+import org.example.payroll.PayrollResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Employee and work-entry store for very large workforces that keeps its data outside the Java heap, as an
+ * alternative to {@link EmployeeDB} for batch payrolls. With {@link EmployeeDB} every employee is a graph of
+ * heap objects, and the collector has to trace millions of them on every full collection; here employees and
+ * work entries are fixed-width records in direct {@link java.nio.ByteBuffer} segments, so the heap holds only a
+ * few hundred buffer objects however many records there are.
+ *
+ * <ul>
+ *     <li>Employees are {@value #EMPLOYEE_WIDTH}-byte records: ID, hourly rate in cents, total pay in cents,
+ *     the position and length of the UTF-8 name in a name area, the entry count, the pay rule set, and the
+ *     first and last rows of the employee's work entries.</li>
+ *     <li>Work entries are rows of five columns: the employee's record, the epoch day, the hours in
+ *     hundredths, the row of the employee's next entry, and the daily pay in cents.</li>
+ *     <li>IDs and (employee, date) pairs are looked up through hash tables kept off-heap as well, so adding an
+ *     employee or an entry, and the duplicate-date check, take constant time.</li>
+ * </ul>
+ *
+ * Records are read through the flyweights {@link EmployeeRecord} and {@link WorkEntryRecord}, which are moved
+ * from record to record instead of being created per record. Pay is calculated straight from the columns with
+ * the same {@link PayRuleSet} arithmetic as {@link org.example.models.Employee}, so both stores produce the same
+ * pay to the cent. {@link EmployeeRecord#toEmployee()} copies a record to the heap for code that needs an
+ * {@link org.example.models.Employee}, such as {@link org.example.report.PayrollReportWriter}.
+ *
+ * Each employee has one hourly rate and one rule set for the life of the store, and employees cannot be
+ * removed. Every method is synchronized, so the store is safe to share between threads but serves one at a
+ * time. Unlike {@link EmployeeDB} it is not static, and it is not journaled.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class OffHeapEmployeeStore {
+    // Employee record layout
+    static final int EMPLOYEE_WIDTH = 56;
+    static final int ID = 0;
+    static final int RATE_CENTS = 8;
+    static final int TOTAL_PAY_CENTS = 16;
+    static final int NAME_OFFSET = 24;
+    static final int NAME_LENGTH = 32;
+    static final int ENTRY_COUNT = 36;
+    static final int RULE_SET = 40;
+    static final int FIRST_ROW = 44;
+    static final int LAST_ROW = 48;
+
+    // Marks the end of an employee's chain of work entries
+    static final int NO_ROW = -1;
+
+    private static final int EMPLOYEE_SEGMENT_SHIFT = 14;
+    private static final int COLUMN_SEGMENT_SHIFT = 16;
+    private static final int NAME_SEGMENT_SHIFT = 20;
+
+    // Weeks run Monday to Sunday; 1970-01-01 was a Thursday
+    private static final int MONDAY_OFFSET = 3;
+
+    private final DirectSegments employees = new DirectSegments(EMPLOYEE_WIDTH, EMPLOYEE_SEGMENT_SHIFT);
+    private final DirectSegments names = new DirectSegments(1, NAME_SEGMENT_SHIFT);
+    private final DirectSegments employeeColumn = new DirectSegments(Integer.BYTES, COLUMN_SEGMENT_SHIFT);
+    private final DirectSegments dayColumn = new DirectSegments(Integer.BYTES, COLUMN_SEGMENT_SHIFT);
+    private final DirectSegments hoursColumn = new DirectSegments(Integer.BYTES, COLUMN_SEGMENT_SHIFT);
+    private final DirectSegments nextColumn = new DirectSegments(Integer.BYTES, COLUMN_SEGMENT_SHIFT);
+    private final DirectSegments payColumn = new DirectSegments(Long.BYTES, COLUMN_SEGMENT_SHIFT);
+    private final DirectLongIntMap recordsById = new DirectLongIntMap();
+    private final DirectLongIntMap rowsByDay = new DirectLongIntMap();
+
+    // Rule sets in use, referred to by position from the employee records
+    private final List<PayRuleSet> ruleSets = new ArrayList<>();
+
+    private int employeeCount;
+    private int rowCount;
+    private long namesSize;
+
+    /**
+     * Adds an employee paid under the default pay rules. If an employee with the same ID is already stored,
+     * nothing is changed.
+     *
+     * @param id the unique ID of the employee
+     * @param name the name of the employee
+     * @param hourlyRate the hourly pay rate of the employee
+     * @return {@code true} if the employee was added; {@code false} if its ID was already present
+     */
+    public boolean addEmployee(long id, String name, double hourlyRate) {
+        return addEmployee(id, name, hourlyRate, PayRules.getDefault());
+    }
+
+    /**
+     * Adds an employee paid under the given rules. If an employee with the same ID is already stored, nothing
+     * is changed.
+     *
+     * @param id the unique ID of the employee
+     * @param name the name of the employee
+     * @param hourlyRate the hourly pay rate of the employee
+     * @param ruleSet the pay rules the employee is paid under
+     * @return {@code true} if the employee was added; {@code false} if its ID was already present
+     */
+    public synchronized boolean addEmployee(long id, String name, double hourlyRate, PayRuleSet ruleSet) {
+        if (recordsById.get(id) >= 0) {
+            return false;
+        }
+        byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length > names.recordsPerSegment()) {
+            throw new IllegalArgumentException("Name is too long: " + utf8.length + " bytes");
+        }
+        // A name never straddles two segments of the name area
+        long segmentEnd = (namesSize | (names.recordsPerSegment() - 1)) + 1;
+        if (namesSize + utf8.length > segmentEnd) {
+            namesSize = segmentEnd;
+        }
+        names.ensureCapacity(namesSize + utf8.length);
+        names.putBytes(namesSize, utf8);
+
+        int record = employeeCount;
+        employees.ensureCapacity(record + 1L);
+        employees.putLong(record, ID, id);
+        employees.putLong(record, RATE_CENTS, Money.toCents(hourlyRate));
+        employees.putLong(record, TOTAL_PAY_CENTS, 0);
+        employees.putLong(record, NAME_OFFSET, namesSize);
+        employees.putInt(record, NAME_LENGTH, utf8.length);
+        employees.putInt(record, ENTRY_COUNT, 0);
+        employees.putInt(record, RULE_SET, ruleSetIndex(ruleSet));
+        employees.putInt(record, FIRST_ROW, NO_ROW);
+        employees.putInt(record, LAST_ROW, NO_ROW);
+        namesSize += utf8.length;
+        employeeCount++;
+        recordsById.put(id, record);
+        return true;
+    }
+
+    /**
+     * Adds a work entry to the stored employee with the given ID, calculating its daily pay. The date must
+     * pass {@link Validation#isValidDate(int, boolean)}.
+     *
+     * @param id the ID of the employee
+     * @param workDate the date of the work entry
+     * @param hoursWorked the number of hours worked on the specified date
+     * @return {@code true} if the entry was added; {@code false} if the employee is unknown or the date is invalid
+     */
+    public boolean addWorkEntry(long id, LocalDate workDate, double hoursWorked) {
+        return addWorkEntry(id, (int) workDate.toEpochDay(), hoursWorked);
+    }
+
+    /**
+     * Adds a work entry for a date given as an epoch day. See {@link #addWorkEntry(long, LocalDate, double)}.
+     *
+     * @param id the ID of the employee
+     * @param epochDay the date of the work entry as the number of days since 1970-01-01
+     * @param hoursWorked the number of hours worked on the specified date
+     * @return {@code true} if the entry was added; {@code false} if the employee is unknown or the date is invalid
+     */
+    public synchronized boolean addWorkEntry(long id, int epochDay, double hoursWorked) {
+        int record = recordsById.get(id);
+        if (record < 0 || !Validation.isValidDate(epochDay, rowOn(record, epochDay) >= 0)) {
+            return false;
+        }
+        long hours = Money.toHundredths(hoursWorked);
+        PayRuleSet rules = ruleSets.get(employees.getInt(record, RULE_SET));
+        long pay = dailyPay(record, rules, epochDay, hours);
+
+        int row = rowCount;
+        ensureRows(row + 1L);
+        employeeColumn.putInt(row, 0, record);
+        dayColumn.putInt(row, 0, epochDay);
+        hoursColumn.putInt(row, 0, (int) hours);
+        nextColumn.putInt(row, 0, NO_ROW);
+        payColumn.putLong(row, 0, pay);
+        rowCount++;
+
+        // Chain the row to the employee's entries and index its date
+        int last = employees.getInt(record, LAST_ROW);
+        if (last == NO_ROW) {
+            employees.putInt(record, FIRST_ROW, row);
+        } else {
+            nextColumn.putInt(last, 0, row);
+        }
+        employees.putInt(record, LAST_ROW, row);
+        employees.putInt(record, ENTRY_COUNT, employees.getInt(record, ENTRY_COUNT) + 1);
+        addTotalPay(record, pay);
+        rowsByDay.put(dayKey(record, epochDay), row);
+        if (Metrics.ENABLED) {
+            Metrics.ENTRIES_ADDED.increment();
+        }
+
+        if (rules.hasWeeklyOvertime()) {
+            // Later days of the same week may now pass the weekly overtime threshold
+            int sunday = epochDay - Math.floorMod(epochDay + MONDAY_OFFSET, 7) + 6;
+            for (int day = epochDay + 1; day <= sunday; day++) {
+                int later = rowOn(record, day);
+                if (later >= 0) {
+                    recalculateRow(later, record, rules);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Points a flyweight at the stored employee with the given ID.
+     *
+     * @param id the ID of the employee
+     * @param view the flyweight to move
+     * @return {@code true} if the employee was found; {@code false} if it is unknown, leaving the view unchanged
+     */
+    public synchronized boolean find(long id, EmployeeRecord view) {
+        int record = recordsById.get(id);
+        if (record < 0) {
+            return false;
+        }
+        view.moveTo(record);
+        return true;
+    }
+
+    /**
+     * Creates a flyweight for reading employees of this store. Move it with {@link EmployeeRecord#moveTo(int)}
+     * or {@link #find(long, EmployeeRecord)}.
+     *
+     * @return a new view, not yet pointing at any employee
+     */
+    public EmployeeRecord newEmployeeRecord() {
+        return new EmployeeRecord(this);
+    }
+
+    /**
+     * Creates a flyweight for reading work entries of this store. Move it with
+     * {@link EmployeeRecord#firstWorkEntry(WorkEntryRecord)} and {@link WorkEntryRecord#next()}.
+     *
+     * @return a new view, not yet pointing at any entry
+     */
+    public WorkEntryRecord newWorkEntryRecord() {
+        return new WorkEntryRecord(this);
+    }
+
+    /**
+     * Returns the number of employees stored. Employees are numbered from 0 in the order they were added, and
+     * that number is what {@link EmployeeRecord#moveTo(int)} takes.
+     *
+     * @return the employee count
+     */
+    public synchronized int size() {
+        return employeeCount;
+    }
+
+    /**
+     * Returns the number of work entries stored across all employees.
+     *
+     * @return the work entry count
+     */
+    public synchronized int getWorkEntryCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the memory the store has allocated outside the heap.
+     *
+     * @return the allocated size in bytes
+     */
+    public synchronized long getOffHeapBytes() {
+        return employees.allocatedBytes() + names.allocatedBytes() + employeeColumn.allocatedBytes()
+                + dayColumn.allocatedBytes() + hoursColumn.allocatedBytes() + nextColumn.allocatedBytes()
+                + payColumn.allocatedBytes() + recordsById.allocatedBytes() + rowsByDay.allocatedBytes();
+    }
+
+    /**
+     * Calculates the pay of every work entry again, in one pass down the columns, and adds it up per employee
+     * and overall. Like {@link org.example.payroll.PayrollEngine}, this does not change the stored pay.
+     *
+     * @return the result of the payroll run, with employee totals in the order the employees were added
+     */
+    public synchronized PayrollResult runPayroll() {
+        long start = System.nanoTime();
+        long[] totals = new long[employeeCount];
+        long totalPay = 0;
+        for (int row = 0; row < rowCount; row++) {
+            int record = employeeColumn.getInt(row, 0);
+            PayRuleSet rules = ruleSets.get(employees.getInt(record, RULE_SET));
+            long pay = dailyPay(record, rules, dayColumn.getInt(row, 0), hoursColumn.getInt(row, 0));
+            totals[record] += pay;
+            totalPay += pay;
+        }
+        PayrollResult result = new PayrollResult(totals, totalPay, employeeCount, rowCount, System.nanoTime() - start);
+        if (Metrics.ENABLED) {
+            Metrics.PAYROLL_RUN.record(result.getElapsedNanos());
+        }
+        return result;
+    }
+
+    /**
+     * Adds up the hours, pay and overtime hours of every stored employee between two dates, inclusive.
+     * This scans the date column once, so the cost grows with the number of work entries.
+     *
+     * @param from the first date of the period
+     * @param to the last date of the period
+     * @return the workforce-wide totals for the period
+     */
+    public synchronized PeriodTotals getPeriodTotals(LocalDate from, LocalDate to) {
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        long hours = 0;
+        long pay = 0;
+        long overtime = 0;
+        for (int row = 0; row < rowCount; row++) {
+            int day = dayColumn.getInt(row, 0);
+            if (day < fromDay || day > toDay) {
+                continue;
+            }
+            int rowHours = hoursColumn.getInt(row, 0);
+            long threshold = ruleSets.get(employees.getInt(employeeColumn.getInt(row, 0), RULE_SET))
+                    .getDailyOvertimeThreshold();
+            hours += rowHours;
+            pay += payColumn.getLong(row, 0);
+            overtime += Math.max(0, rowHours - threshold);
+        }
+        return new PeriodTotals(hours, pay, overtime);
+    }
+
+    /**
+     * Removes every employee and work entry and releases the off-heap memory.
+     */
+    public synchronized void clear() {
+        employees.clear();
+        names.clear();
+        employeeColumn.clear();
+        dayColumn.clear();
+        hoursColumn.clear();
+        nextColumn.clear();
+        payColumn.clear();
+        recordsById.clear();
+        rowsByDay.clear();
+        ruleSets.clear();
+        employeeCount = 0;
+        rowCount = 0;
+        namesSize = 0;
+    }
+
+    // Accessors for the flyweights, which lock the store themselves
+
+    synchronized long employeeLong(int record, int field) {
+        checkRecord(record);
+        return employees.getLong(record, field);
+    }
+
+    synchronized int employeeInt(int record, int field) {
+        checkRecord(record);
+        return employees.getInt(record, field);
+    }
+
+    synchronized PayRuleSet ruleSetOf(int record) {
+        checkRecord(record);
+        return ruleSets.get(employees.getInt(record, RULE_SET));
+    }
+
+    synchronized String nameOf(int record) {
+        checkRecord(record);
+        byte[] utf8 = new byte[employees.getInt(record, NAME_LENGTH)];
+        names.getBytes(employees.getLong(record, NAME_OFFSET), utf8, utf8.length);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    synchronized int rowInt(int row, int column) {
+        checkRow(row);
+        switch (column) {
+            case WorkEntryRecord.EMPLOYEE:
+                return employeeColumn.getInt(row, 0);
+            case WorkEntryRecord.DAY:
+                return dayColumn.getInt(row, 0);
+            case WorkEntryRecord.HOURS:
+                return hoursColumn.getInt(row, 0);
+            case WorkEntryRecord.NEXT:
+                return nextColumn.getInt(row, 0);
+            default:
+                throw new IllegalArgumentException("Unknown column " + column);
+        }
+    }
+
+    synchronized long rowPayCents(int row) {
+        checkRow(row);
+        return payColumn.getLong(row, 0);
+    }
+
+    // Method to calculate one day's pay the way Employee.calculateDailyPay does, from the stored columns
+    private long dailyPay(int record, PayRuleSet rules, int epochDay, long hours) {
+        long start = Metrics.start();
+        long straightHoursBefore = 0;
+        if (rules.hasWeeklyOvertime()) {
+            for (int day = epochDay - Math.floorMod(epochDay + MONDAY_OFFSET, 7); day < epochDay; day++) {
+                int row = rowOn(record, day);
+                if (row >= 0) {
+                    straightHoursBefore += rules.straightTimeHours(hoursColumn.getInt(row, 0));
+                }
+            }
+        }
+        long pay = rules.dailyPay(HolidayCalendar.dayTypeOf(epochDay), employees.getLong(record, RATE_CENTS), hours,
+                straightHoursBefore);
+        if (Metrics.ENABLED) {
+            Metrics.PAY_CALCULATION.recordSince(start);
+        }
+        return pay;
+    }
+
+    // Method to recalculate a stored row's pay and adjust its employee's total by the difference
+    private void recalculateRow(int row, int record, PayRuleSet rules) {
+        long oldPay = payColumn.getLong(row, 0);
+        long newPay = dailyPay(record, rules, dayColumn.getInt(row, 0), hoursColumn.getInt(row, 0));
+        if (newPay != oldPay) {
+            payColumn.putLong(row, 0, newPay);
+            addTotalPay(record, newPay - oldPay);
+        }
+    }
+
+    private void addTotalPay(int record, long payCents) {
+        employees.putLong(record, TOTAL_PAY_CENTS, employees.getLong(record, TOTAL_PAY_CENTS) + payCents);
+    }
+
+    private int rowOn(int record, int epochDay) {
+        return rowsByDay.get(dayKey(record, epochDay));
+    }
+
+    private static long dayKey(int record, int epochDay) {
+        return (long) record << 32 | (epochDay & 0xFFFFFFFFL);
+    }
+
+    private void ensureRows(long rows) {
+        employeeColumn.ensureCapacity(rows);
+        dayColumn.ensureCapacity(rows);
+        hoursColumn.ensureCapacity(rows);
+        nextColumn.ensureCapacity(rows);
+        payColumn.ensureCapacity(rows);
+    }
+
+    private int ruleSetIndex(PayRuleSet ruleSet) {
+        for (int i = 0; i < ruleSets.size(); i++) {
+            if (ruleSets.get(i) == ruleSet) {
+                return i;
+            }
+        }
+        ruleSets.add(ruleSet);
+        return ruleSets.size() - 1;
+    }
+
+    private void checkRecord(int record) {
+        if (record < 0 || record >= employeeCount) {
+            throw new IndexOutOfBoundsException("Employee " + record + " out of bounds for size " + employeeCount);
+        }
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Work entry " + row + " out of bounds for size " + rowCount);
+        }
+    }
+}
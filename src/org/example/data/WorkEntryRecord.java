@@ -0,0 +1,113 @@
+package org.example.data;
+
+import org.example.Money;
+import org.example.WorkEntry;
+
+import java.time.LocalDate;
+
+/**
+ * Flyweight view of one work entry in an {@link OffHeapEmployeeStore}, the off-heap counterpart of
+ * {@link WorkEntry}. A single view is moved along an employee's entries with {@link #next()}.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public final class WorkEntryRecord {
+    // Integer columns of a work-entry row
+    static final int EMPLOYEE = 0;
+    static final int DAY = 1;
+    static final int HOURS = 2;
+    static final int NEXT = 3;
+
+    private final OffHeapEmployeeStore store;
+    private int row = OffHeapEmployeeStore.NO_ROW;
+
+    WorkEntryRecord(OffHeapEmployeeStore store) {
+        this.store = store;
+    }
+
+    // Method to point the view at a row; false at the end of a chain
+    boolean moveTo(int row) {
+        this.row = row;
+        return row != OffHeapEmployeeStore.NO_ROW;
+    }
+
+    /**
+     * Moves the view to the next work entry of the same employee.
+     *
+     * @return {@code true} if there is one; {@code false} if this was the employee's last entry
+     */
+    public boolean next() {
+        return moveTo(store.rowInt(row, NEXT));
+    }
+
+    /**
+     * Returns the position in the store of the employee the entry belongs to.
+     *
+     * @return the employee's position, as taken by {@link EmployeeRecord#moveTo(int)}
+     */
+    public int getEmployeeRecord() {
+        return store.rowInt(row, EMPLOYEE);
+    }
+
+    /**
+     * Returns the date of the work entry.
+     *
+     * @return the work date as the number of days since 1970-01-01
+     */
+    public int getEpochDay() {
+        return store.rowInt(row, DAY);
+    }
+
+    /**
+     * Returns the date of the work entry, creating a {@link LocalDate}.
+     *
+     * @return the work date
+     */
+    public LocalDate getWorkDate() {
+        return LocalDate.ofEpochDay(getEpochDay());
+    }
+
+    /**
+     * Returns the number of hours worked.
+     *
+     * @return the hours worked, in hundredths of an hour
+     */
+    public int getHoursHundredths() {
+        return store.rowInt(row, HOURS);
+    }
+
+    /**
+     * Returns the number of hours worked.
+     *
+     * @return the hours worked
+     */
+    public double getHoursWorked() {
+        return getHoursHundredths() / 100.0;
+    }
+
+    /**
+     * Returns the pay earned for the work entry.
+     *
+     * @return the daily pay in cents
+     */
+    public long getDailyPayCents() {
+        return store.rowPayCents(row);
+    }
+
+    /**
+     * Copies the entry to a new heap {@link WorkEntry}.
+     *
+     * @return a new {@code WorkEntry} holding the entry's values
+     */
+    public WorkEntry toWorkEntry() {
+        return new WorkEntry(getWorkDate(), getHoursWorked(), getDailyPayCents());
+    }
+
+    @Override
+    public String toString() {
+        return row == OffHeapEmployeeStore.NO_ROW ? "WorkEntryRecord[]"
+                : "WorkEntryRecord[date=" + getWorkDate() + ", hours=" + getHoursWorked() + "]";
+    }
+}
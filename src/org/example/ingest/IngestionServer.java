@@ -0,0 +1,455 @@
+package org.example.ingest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.Parsing;
+import org.example.Validation;
+import org.example.data.EmployeeDB;
+import org.example.data.EmployeeJournal;
+import org.example.metrics.Metrics;
+import org.example.models.Employee;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless HTTP service that accepts timesheet submissions from many clients at once and stores them in
+ * {@link EmployeeDB}.
+ *
+ * Endpoints, all taking a plain-text body with one item per line:
+ * <ul>
+ *     <li>{@code POST /employees} - lines of {@code name,rate}; each response line is {@code OK <id>}, or
+ *     {@code OK <id> not yet saved: <reason>} if the employee was added but the journal could not be synced,
+ *     so the client keeps the ID rather than retrying and creating a duplicate</li>
+ *     <li>{@code POST /timesheets} - lines of {@code employeeId,YYYY-MM-DD,hours}; each response line is
+ *     {@code OK}</li>
+ *     <li>{@code GET /metrics} - the {@link Metrics} text dump</li>
+ * </ul>
+ * A line that fails the {@link Validation} rules gets {@code ERROR <reason>} instead. The status is 200 when
+ * every line was accepted, 422 when any was rejected, and 503 with {@code Retry-After} when the server is at
+ * capacity.
+ *
+ * Each request runs on its own virtual thread when the JVM supports them, and on a pool of at most
+ * {@code maxInFlight} platform threads otherwise. At most {@code maxInFlight} requests are handled at once;
+ * later requests wait briefly for a permit and are then turned away, and when every pooled thread is busy the
+ * server's dispatcher thread answers straight away, so overload shows up as fast 503s rather than growing
+ * queues or threads. Work entries
+ * are applied by a single committer thread in batches of up to {@code batchSize}, with one journal sync per
+ * batch, and a request is answered only once its batch has been committed.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class IngestionServer implements Closeable {
+    private static final int MAX_BODY_BYTES = 1 << 16;
+    private static final long PERMIT_WAIT_MILLIS = 50;
+    private static final long POLL_MILLIS = 100;
+    private static final long IDLE_THREAD_SECONDS = 60;
+
+    // Set while the dispatcher thread runs a request itself because every pooled handler thread is busy
+    private static final ThreadLocal<Boolean> OVERFLOW = new ThreadLocal<>();
+
+    static {
+        // Responses are written as headers then body; without TCP_NODELAY the body waits ~40 ms for the
+        // client's delayed ACK. The JDK server reads this property once, when the first server is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final Semaphore permits;
+    private final BlockingQueue<Submission> queue = new LinkedBlockingQueue<>();
+    private final int batchSize;
+    private final EmployeeJournal journal;
+    private final Thread committer;
+    private volatile boolean running;
+
+    /**
+     * Creates a server bound to the given address. Call {@link #start()} to begin accepting requests.
+     *
+     * @param address the address to listen on; port 0 picks a free port
+     * @param maxInFlight the maximum number of requests handled at once
+     * @param batchSize the maximum number of work entries committed together
+     * @param journal the journal to sync after each batch, or {@code null} if the database is not persistent
+     * @throws IOException if the address cannot be bound
+     */
+    public IngestionServer(InetSocketAddress address, int maxInFlight, int batchSize, EmployeeJournal journal)
+            throws IOException {
+        if (maxInFlight < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("maxInFlight and batchSize must be at least 1");
+        }
+        this.permits = new Semaphore(maxInFlight);
+        this.batchSize = batchSize;
+        this.journal = journal;
+        this.handlers = newHandlerExecutor(maxInFlight);
+        this.server = HttpServer.create(address, maxInFlight);
+        this.server.setExecutor(handlers);
+        this.server.createContext("/employees", exchange -> handle(exchange, true));
+        this.server.createContext("/timesheets", exchange -> handle(exchange, false));
+        this.server.createContext("/metrics", IngestionServer::handleMetrics);
+        this.committer = new Thread(this::commitLoop, "ingestion-committer");
+        this.committer.setDaemon(true);
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        running = true;
+        committer.start();
+        server.start();
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, commits the work entries already queued and stops the committer.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        running = false;
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        handlers.shutdown();
+    }
+
+    // Method to handle one request, holding a permit for its whole duration
+    private void handle(HttpExchange exchange, boolean employees) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "ERROR use POST\n");
+                return;
+            }
+            long start = Metrics.start();
+            if (OVERFLOW.get() != null || !acquirePermit()) {
+                if (Metrics.ENABLED) {
+                    Metrics.INGEST_BUSY.increment();
+                }
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 503, "ERROR server busy\n");
+                return;
+            }
+            try {
+                String body = readBody(exchange.getRequestBody());
+                if (body == null) {
+                    respond(exchange, 413, "ERROR request body larger than " + MAX_BODY_BYTES + " bytes\n");
+                    return;
+                }
+                String[] lines = body.split("\r?\n");
+                String[] results = employees ? addEmployees(lines) : addWorkEntries(lines);
+
+                StringBuilder response = new StringBuilder(results.length * 4);
+                int rejected = 0;
+                for (String result : results) {
+                    if (!result.startsWith("OK")) {
+                        rejected++;
+                    }
+                    response.append(result).append('\n');
+                }
+                respond(exchange, rejected == 0 ? 200 : 422, response.toString());
+                if (Metrics.ENABLED) {
+                    Metrics.INGEST_LINES_REJECTED.add(rejected);
+                    Metrics.INGEST_REQUEST.recordSince(start);
+                }
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    // Method to serve the metrics dump; it needs no permit, so it stays readable under overload
+    private static void handleMetrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "ERROR use GET\n");
+                return;
+            }
+            respond(exchange, 200, Metrics.dump());
+        }
+    }
+
+    private boolean acquirePermit() {
+        try {
+            return permits.tryAcquire(PERMIT_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Method to validate and add employees; creating an employee is cheap, so it is not batched, but the journal
+    // is synced once for the whole request before any ID is handed back
+    private String[] addEmployees(String[] lines) {
+        String[] results = new String[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            int comma = line.indexOf(',');
+            if (comma < 0 || line.indexOf(',', comma + 1) >= 0) {
+                results[i] = "ERROR expected name,rate";
+                continue;
+            }
+            long rateCents = Parsing.parseFixed(line, comma + 1, line.length(), 2);
+            if (Parsing.failed(rateCents)) {
+                results[i] = "ERROR rate: " + Parsing.errorOf(rateCents).getMessage();
+                continue;
+            }
+            String name = line.substring(0, comma).trim();
+            double rate = rateCents / 100.0;
+            Validation.NameCheck nameCheck = Validation.checkName(name);
+            if (nameCheck != Validation.NameCheck.VALID) {
+                results[i] = "ERROR " + nameCheck.getMessage();
+            } else if (!Validation.isValidPayRate(rate)) {
+                results[i] = "ERROR rate out of range";
+            } else {
+                Employee employee = new Employee(name, rate);
+                EmployeeDB.addEmployee(employee);
+                results[i] = "OK " + employee.getId();
+            }
+        }
+        if (journal != null) {
+            try {
+                journal.sync();
+            } catch (IOException e) {
+                // The employees stay stored and buffered for the next sync; an error would make clients retry
+                // and add them again under new IDs
+                for (int i = 0; i < results.length; i++) {
+                    if (results[i].startsWith("OK")) {
+                        results[i] += " not yet saved: " + e.getMessage();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    // Method to validate work entries, queue the valid ones and wait until their batches are committed
+    private String[] addWorkEntries(String[] lines) {
+        Submission[] submissions = new Submission[lines.length];
+        String[] results = new String[lines.length];
+        long today = LocalDate.now().toEpochDay();
+        int queued = 0;
+        for (int i = 0; i < lines.length; i++) {
+            results[i] = parse(lines[i], today, i, submissions);
+            if (results[i] == null) {
+                queued++;
+            }
+        }
+
+        CountDownLatch committed = new CountDownLatch(queued);
+        for (Submission submission : submissions) {
+            if (submission != null) {
+                submission.committed = committed;
+                queue.add(submission);
+            }
+        }
+        try {
+            // Entries still queued when the committer stops keep their "server stopped" result
+            while (!committed.await(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!committer.isAlive()) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (int i = 0; i < lines.length; i++) {
+            if (submissions[i] != null) {
+                results[i] = submissions[i].result;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Parses one timesheet line into {@code submissions[index]}.
+     *
+     * @return {@code null} if the line was queued for commit, otherwise the error to report
+     */
+    private static String parse(String line, long today, int index, Submission[] submissions) {
+        int c1 = line.indexOf(',');
+        int c2 = c1 < 0 ? -1 : line.indexOf(',', c1 + 1);
+        if (c2 < 0 || line.indexOf(',', c2 + 1) >= 0) {
+            return "ERROR expected employeeId,date,hours";
+        }
+        long id = Parsing.parseWholeNumber(line, 0, c1);
+        if (Parsing.failed(id)) {
+            return "ERROR employee ID: " + Parsing.errorOf(id).getMessage();
+        }
+        long epochDay = Parsing.parseEpochDay(line, c1 + 1, c2);
+        if (Parsing.failed(epochDay)) {
+            return "ERROR date: " + Parsing.errorOf(epochDay).getMessage();
+        }
+        long hundredths = Parsing.parseFixed(line, c2 + 1, line.length(), 2);
+        if (Parsing.failed(hundredths)) {
+            return "ERROR hours: " + Parsing.errorOf(hundredths).getMessage();
+        }
+
+        double hours = hundredths / 100.0;
+        if (!Validation.isValidHours(hours)) {
+            return "ERROR hours out of range";
+        }
+        if (epochDay > today) {
+            return "ERROR date is in the future";
+        }
+        submissions[index] = new Submission(id, LocalDate.ofEpochDay(epochDay), hours);
+        return null;
+    }
+
+    // Method run by the committer thread: apply queued entries in batches, one journal sync per batch
+    private void commitLoop() {
+        List<Submission> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Submission first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                for (Submission submission : batch) {
+                    submission.committed.countDown();
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Submission> batch) {
+        long start = Metrics.start();
+        for (Submission submission : batch) {
+            try {
+                if (EmployeeDB.getEmployee(submission.id) == null) {
+                    submission.result = "ERROR unknown employee";
+                } else if (EmployeeDB.addWorkEntry(submission.id, submission.date, submission.hours)) {
+                    submission.result = "OK";
+                } else {
+                    submission.result = "ERROR date already entered or too far back";
+                }
+            } catch (RuntimeException e) {
+                submission.result = "ERROR " + e.getMessage();
+            }
+        }
+        if (journal != null) {
+            try {
+                journal.sync();
+            } catch (IOException e) {
+                for (Submission submission : batch) {
+                    if (submission.result.equals("OK")) {
+                        submission.result = "ERROR not saved: " + e.getMessage();
+                    }
+                }
+            }
+        }
+        if (Metrics.ENABLED) {
+            Metrics.INGEST_COMMIT.recordSince(start);
+        }
+    }
+
+    // Method to read the request body, or return null if it is too large
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (body.size() + read > MAX_BODY_BYTES) {
+                return null;
+            }
+            body.write(buffer, 0, read);
+        }
+        return body.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Creates the executor that runs request handlers: one virtual thread per request when the JVM has
+     * {@code Executors.newVirtualThreadPerTaskExecutor()} (Java 21 and later), otherwise a pool of at most
+     * {@code maxInFlight} daemon platform threads. A request that arrives while every pooled thread is busy is
+     * run on the dispatcher thread with {@link #OVERFLOW} set, which only answers 503, so a flood of requests
+     * cannot start a thread per request.
+     */
+    private static ExecutorService newHandlerExecutor(int maxInFlight) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(maxInFlight, maxInFlight, IDLE_THREAD_SECONDS,
+                    TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+                        Thread thread = new Thread(r, "ingestion-handler");
+                        thread.setDaemon(true);
+                        return thread;
+                    }, (task, executor) -> {
+                        OVERFLOW.set(Boolean.TRUE);
+                        try {
+                            task.run();
+                        } finally {
+                            OVERFLOW.remove();
+                        }
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    /**
+     * A validated work entry waiting to be committed, and the outcome once it has been.
+     */
+    private static class Submission {
+        private final long id;
+        private final LocalDate date;
+        private final double hours;
+        private CountDownLatch committed;
+        private volatile String result = "ERROR server stopped";
+
+        Submission(long id, LocalDate date, double hours) {
+            this.id = id;
+            this.date = date;
+            this.hours = hours;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.example.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent latency histogram with HDR-style log-linear buckets, recording durations in nanoseconds.
+ *
+ * Values below {@code 2 * SUB_BUCKETS} get a bucket each; above that, every power of two is split into
+ * {@code SUB_BUCKETS} equal buckets, so a recorded value is reported to within about 3% however large it is,
+ * with a fixed 15 KB of counts. Recording is a few shifts and two atomic additions, and never allocates.
+ *
+ * Percentiles are read from a copy of the counts and may miss values recorded while they are computed.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (63 - SUB_BUCKET_BITS) * SUB_BUCKETS + 2 * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Creates an empty histogram.
+     *
+     * @param name the name the histogram is reported under
+     */
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name the histogram is reported under.
+     *
+     * @return the histogram name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos the duration in nanoseconds; negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.getAndIncrement(bucketOf(value));
+        sum.add(value);
+        // A new maximum is rare, so the compare-and-set is almost never attempted
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // Another thread raised the maximum; check again
+        }
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos}, as returned by {@link Metrics#start()}.
+     *
+     * @param startNanos the {@link System#nanoTime()} at which the operation started
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns the number of durations recorded.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the mean of the recorded durations.
+     *
+     * @return the mean in nanoseconds, or 0 if nothing has been recorded
+     */
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Returns the longest recorded duration.
+     *
+     * @return the maximum in nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the duration that the given fraction of recorded durations do not exceed, to within the
+     * bucket resolution.
+     *
+     * @param fraction the percentile as a fraction, e.g. {@code 0.99}
+     * @return the percentile in nanoseconds, or 0 if nothing has been recorded
+     */
+    public long getPercentile(double fraction) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Clears all recorded durations.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        sum.reset();
+        max.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s count=%d mean=%.3fus p50=%.3fus p90=%.3fus p99=%.3fus p999=%.3fus max=%.3fus",
+                name, getCount(), getMean() / 1e3, getPercentile(0.50) / 1e3, getPercentile(0.90) / 1e3,
+                getPercentile(0.99) / 1e3, getPercentile(0.999) / 1e3, getMax() / 1e3);
+    }
+
+    // Method to find the bucket of a non-negative value: exact below 2 * SUB_BUCKETS, log-linear above
+    private static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    // Method to find the largest value that falls in a bucket
+    private static long highestValueIn(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = (bucket & (SUB_BUCKETS - 1)) + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,242 @@
+package org.example.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters, gauges and latency histograms for the hot paths of the program: ingestion, validation, pay calculation,
+ * reporting and payroll runs.
+ *
+ * Instrumentation is off unless the JVM is started with {@code -Dpayroll.metrics=true}. {@link #ENABLED} is a
+ * static final constant, so when it is off the JIT compiler removes the instrumented branches entirely and the
+ * hot paths run as if they were not instrumented. Call sites follow one pattern:
+ * <pre>{@code
+ * long start = Metrics.start();
+ * ...
+ * if (Metrics.ENABLED) {
+ *     Metrics.PAY_CALCULATION.recordSince(start);
+ * }
+ * }</pre>
+ *
+ * The values can be read as text with {@link #dump(Appendable)}, over JMX after {@link #registerMBean()}, or
+ * from {@code GET /metrics} on the ingestion service. Payroll runs are also recorded as
+ * {@link PayrollRunEvent} JFR events, which cost nothing unless a flight recording is running.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public final class Metrics {
+    /**
+     * System property that turns instrumentation on.
+     */
+    public static final String ENABLED_PROPERTY = "payroll.metrics";
+
+    /**
+     * Whether instrumentation is on; fixed for the life of the JVM.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    private static final String MBEAN_NAME = "org.example:type=PayrollMetrics";
+
+    // Registered instruments in declaration order; must be initialised before the fields below
+    private static final Map<String, LongAdder> COUNTERS = new LinkedHashMap<>();
+    private static final List<LatencyHistogram> HISTOGRAMS = new ArrayList<>();
+    // Values read when the metrics are, such as queue depths, registered and removed at run time
+    private static final Map<String, LongSupplier> GAUGES = new ConcurrentHashMap<>();
+
+    /** Work entries added to any employee, including those replayed from the journal. */
+    public static final LongAdder ENTRIES_ADDED = counter("entries.added");
+    /** Names rejected by {@link org.example.Validation#checkName(CharSequence)}. */
+    public static final LongAdder NAMES_REJECTED = counter("validation.rejected.name");
+    /** Hours rejected by {@link org.example.Validation#isValidHours(double)}. */
+    public static final LongAdder HOURS_REJECTED = counter("validation.rejected.hours");
+    /** Pay rates rejected by {@link org.example.Validation#isValidPayRate(double)}. */
+    public static final LongAdder RATES_REJECTED = counter("validation.rejected.rate");
+    /** Dates rejected by {@link org.example.Validation#isValidDate}. */
+    public static final LongAdder DATES_REJECTED = counter("validation.rejected.date");
+    /** Lines of ingestion requests answered with an error. */
+    public static final LongAdder INGEST_LINES_REJECTED = counter("ingest.lines.rejected");
+    /** Ingestion requests turned away with 503 because the service was at capacity. */
+    public static final LongAdder INGEST_BUSY = counter("ingest.busy");
+
+    /** Time to handle one ingestion request, including waiting for its entries to be committed. */
+    public static final LatencyHistogram INGEST_REQUEST = histogram("ingest.request");
+    /** Time to apply and sync one batch of submitted work entries. */
+    public static final LatencyHistogram INGEST_COMMIT = histogram("ingest.commit");
+    /** Time to validate a name or a work date. */
+    public static final LatencyHistogram VALIDATION = histogram("validation");
+    /** Time to calculate one day's pay. */
+    public static final LatencyHistogram PAY_CALCULATION = histogram("pay.calculate");
+    /** Time to write one employee's pay summary to a report. */
+    public static final LatencyHistogram REPORT_EMPLOYEE = histogram("report.employee");
+    /** Time to calculate a whole payroll run. */
+    public static final LatencyHistogram PAYROLL_RUN = histogram("payroll.run");
+    /** Time for the ingest stage of a {@link org.example.pipeline.TimesheetPipeline} to read one batch. */
+    public static final LatencyHistogram PIPELINE_INGEST = histogram("pipeline.ingest.batch");
+    /** Time for the validate stage of a pipeline to parse and validate one batch. */
+    public static final LatencyHistogram PIPELINE_VALIDATE = histogram("pipeline.validate.batch");
+    /** Time for the calculate stage of a pipeline to calculate the pay of one batch. */
+    public static final LatencyHistogram PIPELINE_CALCULATE = histogram("pipeline.calculate.batch");
+    /** Time for the persist stage of a pipeline to store one batch. */
+    public static final LatencyHistogram PIPELINE_PERSIST = histogram("pipeline.persist.batch");
+
+    private static boolean registered;
+
+    private Metrics() {
+    }
+
+    /**
+     * Returns the start time to pass to {@link LatencyHistogram#recordSince(long)}, without reading the clock
+     * when instrumentation is off.
+     *
+     * @return {@link System#nanoTime()}, or 0 when instrumentation is off
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Writes every counter, gauge and histogram, one per line, as {@code name value} for counters and gauges and
+     * {@code name count=... mean=... p50=...} in microseconds for histograms.
+     *
+     * @param out where to write the metrics
+     * @throws IOException if {@code out} cannot be written
+     */
+    public static void dump(Appendable out) throws IOException {
+        out.append("# payroll metrics ").append(ENABLED ? "enabled" : "disabled; start with -D"
+                + ENABLED_PROPERTY + "=true").append('\n');
+        for (Map.Entry<String, LongAdder> counter : COUNTERS.entrySet()) {
+            out.append(counter.getKey()).append(' ').append(Long.toString(counter.getValue().sum())).append('\n');
+        }
+        for (Map.Entry<String, LongSupplier> gauge : new TreeMap<>(GAUGES).entrySet()) {
+            out.append(gauge.getKey()).append(' ').append(Long.toString(gauge.getValue().getAsLong())).append('\n');
+        }
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            out.append(histogram.toString()).append('\n');
+        }
+    }
+
+    /**
+     * Returns the text written by {@link #dump(Appendable)}.
+     *
+     * @return every counter and histogram, one per line
+     */
+    public static String dump() {
+        StringBuilder text = new StringBuilder();
+        try {
+            dump(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Registers a value that is read whenever the metrics are, such as the depth of a queue. It is listed with
+     * the counters until it is removed with {@link #removeGauge(String, LongSupplier)}; a gauge registered under a name
+     * already in use replaces the earlier one.
+     *
+     * @param name the name to list the value under
+     * @param value supplies the current value
+     */
+    public static void registerGauge(String name, LongSupplier value) {
+        GAUGES.put(name, value);
+    }
+
+    /**
+     * Removes a gauge registered with {@link #registerGauge(String, LongSupplier)}.
+     *
+     * @param name the name of the gauge
+     * @param value the supplier it was registered with; a gauge since replaced by another is left alone
+     */
+    public static void removeGauge(String name, LongSupplier value) {
+        GAUGES.remove(name, value);
+    }
+
+    /**
+     * Clears every counter and histogram.
+     */
+    public static void reset() {
+        COUNTERS.values().forEach(LongAdder::reset);
+        HISTOGRAMS.forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server as {@code org.example:type=PayrollMetrics}, so that
+     * JConsole and other JMX clients can read them. Calling this more than once has no further effect.
+     */
+    public static synchronized void registerMBean() {
+        if (registered) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MBean(), new ObjectName(MBEAN_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Registered by another class loader; its view is as good as ours
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register " + MBEAN_NAME, e);
+        }
+        registered = true;
+    }
+
+    private static LongAdder counter(String name) {
+        LongAdder counter = new LongAdder();
+        COUNTERS.put(name, counter);
+        return counter;
+    }
+
+    private static LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = new LatencyHistogram(name);
+        HISTOGRAMS.add(histogram);
+        return histogram;
+    }
+
+    /**
+     * JMX view of the metrics.
+     */
+    private static class MBean implements MetricsMXBean {
+        @Override
+        public boolean isEnabled() {
+            return ENABLED;
+        }
+
+        @Override
+        public Map<String, Long> getCounters() {
+            Map<String, Long> values = new LinkedHashMap<>();
+            COUNTERS.forEach((name, counter) -> values.put(name, counter.sum()));
+            new TreeMap<>(GAUGES).forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+            HISTOGRAMS.forEach(histogram -> values.put(histogram.getName() + ".count", histogram.getCount()));
+            return values;
+        }
+
+        @Override
+        public Map<String, Double> getPercentilesMicros(double fraction) {
+            Map<String, Double> values = new LinkedHashMap<>();
+            HISTOGRAMS.forEach(histogram -> values.put(histogram.getName(), histogram.getPercentile(fraction) / 1e3));
+            return values;
+        }
+
+        @Override
+        public String getReport() {
+            return dump();
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+}
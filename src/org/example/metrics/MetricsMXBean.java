@@ -0,0 +1,46 @@
+package org.example.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface through which {@link Metrics} are published over JMX.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public interface MetricsMXBean {
+    /**
+     * Checks whether instrumentation is on.
+     *
+     * @return {@code true} if the JVM was started with {@code -Dpayroll.metrics=true}
+     */
+    boolean isEnabled();
+
+    /**
+     * Returns every counter and gauge, and the number of values recorded by every histogram.
+     *
+     * @return counter values by name
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * Returns a percentile of every histogram.
+     *
+     * @param fraction the percentile as a fraction, e.g. {@code 0.99}
+     * @return the percentile in microseconds by histogram name
+     */
+    Map<String, Double> getPercentilesMicros(double fraction);
+
+    /**
+     * Returns the text metrics dump.
+     *
+     * @return every counter and histogram, one per line
+     */
+    String getReport();
+
+    /**
+     * Clears every counter and histogram.
+     */
+    void reset();
+}
@@ -0,0 +1,62 @@
+package org.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event recorded for each payroll run, so that runs show up alongside GC pauses and thread activity in
+ * a flight recording. Enable it with {@code -XX:StartFlightRecording} or {@code jcmd <pid> JFR.start}; when no
+ * recording is running, creating and committing the event costs next to nothing.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+@Name("org.example.PayrollRun")
+@Label("Payroll Run")
+@Category("Payroll")
+@Description("Calculation of the pay of a group of employees")
+@StackTrace(false)
+public class PayrollRunEvent extends Event {
+    @Label("Kind")
+    @Description("parallel, sequential or batch")
+    String kind;
+
+    @Label("Parallelism")
+    int parallelism;
+
+    @Label("Employees")
+    long employees;
+
+    @Label("Work Entries")
+    long entries;
+
+    @Label("Total Pay")
+    @Description("Total pay of the run in cents")
+    long totalPayCents;
+
+    /**
+     * Ends the event and commits it if a recording wants it.
+     *
+     * @param kind how the run was executed: {@code parallel}, {@code sequential} or {@code batch}
+     * @param parallelism the number of worker threads used
+     * @param employees the number of employees paid
+     * @param entries the number of work entries paid
+     * @param totalPayCents the total pay of the run, in cents
+     */
+    public void finish(String kind, int parallelism, long employees, long entries, long totalPayCents) {
+        end();
+        if (shouldCommit()) {
+            this.kind = kind;
+            this.parallelism = parallelism;
+            this.employees = employees;
+            this.entries = entries;
+            this.totalPayCents = totalPayCents;
+            commit();
+        }
+    }
+}
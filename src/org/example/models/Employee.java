@@ -1,25 +1,49 @@
 package org.example.models;
 
-import org.example.Utilities;
-import org.example.Validation;
+import org.example.HolidayCalendar;
+import org.example.Money;
 import org.example.WorkEntry;
+import org.example.metrics.Metrics;
+import org.example.payroll.PayRuleSet;
+import org.example.payroll.PayRules;
+import org.example.report.PayrollReportWriter;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class represents an employee, including their name, hourly rate, work entries, and total pay.
  * It provides methods for adding work entries, calculating daily pay, and retrieving employee information.
+ * Every employee has a unique numeric ID, and its work entries may be added from several threads at once.
+ * The hourly rate can change from a given date; only the entries affected by a change are recalculated, and
+ * total pay is adjusted by the difference. Totals of hours, pay and overtime over any range of dates come from a
+ * {@link PayPeriodIndex} that is kept current as entries are added or recalculated. Each employee is paid under a
+ * {@link PayRuleSet}, the built-in Alberta rules unless another is chosen.
  *
  * @author Neil Adavan
  * @version 1.0
  * @since 2024-09
  */
 public class Employee {
+    // Source of IDs for newly created employees
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    // Weeks run Monday to Sunday; 1970-01-01 was a Thursday
+    private static final int MONDAY_OFFSET = 3;
+
+    private final long id;
     private final String name;
-    private final double hourlyRate;
-    private ArrayList<WorkEntry> workEntries;
-    private double totalPay;
+    private final RateSchedule rates;
+    private PayRuleSet ruleSet;
+    private WorkEntryStore workEntries;
+    private EpochDayIndex dateIndex;
+    private PayPeriodIndex periodIndex;
+    private long totalPayCents;
 
     /**
      * Constructor for creating an {@code Employee} object.
@@ -28,10 +52,60 @@ public class Employee {
      * @param hourlyRate the hourly pay rate of the employee
      */
     public Employee(String name, double hourlyRate) {
+        this(NEXT_ID.incrementAndGet(), name, hourlyRate, PayRules.getDefault());
+    }
+
+    /**
+     * Constructor for creating an {@code Employee} object paid under the given rules.
+     *
+     * @param name the name of the employee
+     * @param hourlyRate the hourly pay rate of the employee
+     * @param ruleSet the pay rules the employee is paid under
+     */
+    public Employee(String name, double hourlyRate, PayRuleSet ruleSet) {
+        this(NEXT_ID.incrementAndGet(), name, hourlyRate, ruleSet);
+    }
+
+    /**
+     * Constructor for creating an {@code Employee} object with a known ID, such as one restored from storage.
+     * IDs handed out to employees created afterwards are always greater than {@code id}.
+     *
+     * @param id the unique ID of the employee
+     * @param name the name of the employee
+     * @param hourlyRate the hourly pay rate of the employee
+     */
+    public Employee(long id, String name, double hourlyRate) {
+        this(id, name, hourlyRate, PayRules.getDefault());
+    }
+
+    /**
+     * Constructor for creating an {@code Employee} object with a known ID, paid under the given rules.
+     * IDs handed out to employees created afterwards are always greater than {@code id}.
+     *
+     * @param id the unique ID of the employee
+     * @param name the name of the employee
+     * @param hourlyRate the hourly pay rate of the employee
+     * @param ruleSet the pay rules the employee is paid under
+     */
+    public Employee(long id, String name, double hourlyRate, PayRuleSet ruleSet) {
+        this.id = id;
+        NEXT_ID.accumulateAndGet(id, Math::max);
         this.name = name;
-        this.hourlyRate = hourlyRate;
-        this.workEntries = new ArrayList<>();
-        this.totalPay = 0.0;
+        this.rates = new RateSchedule(hourlyRate);
+        this.ruleSet = ruleSet;
+        this.workEntries = new WorkEntryStore();
+        this.dateIndex = new EpochDayIndex();
+        this.periodIndex = new PayPeriodIndex(ruleSet.getDailyOvertimeThreshold());
+        this.totalPayCents = 0;
+    }
+
+    /**
+     * Gets the unique ID of the employee.
+     *
+     * @return the employee's ID
+     */
+    public long getId() {
+        return id;
     }
 
     /**
@@ -44,12 +118,111 @@ public class Employee {
     }
 
     /**
-     * Gets the hourly rate of the employee.
+     * Gets the hourly rate of the employee. If the rate has changed, this is the most recently effective rate.
      *
      * @return the employee's hourly rate
      */
-    public double getHourlyRate() {
-        return hourlyRate;
+    public synchronized double getHourlyRate() {
+        return rates.getLatestRate();
+    }
+
+    /**
+     * Gets the history of the employee's hourly rate.
+     * Callers reading the schedule while other threads change the rate must synchronize on this employee.
+     *
+     * @return the employee's {@link RateSchedule}
+     */
+    public synchronized RateSchedule getRateSchedule() {
+        return rates;
+    }
+
+    /**
+     * Gets the pay rules the employee is paid under.
+     *
+     * @return the employee's {@link PayRuleSet}
+     */
+    public synchronized PayRuleSet getRuleSet() {
+        return ruleSet;
+    }
+
+    /**
+     * Moves the employee to different pay rules and recalculates every work entry under them, adjusting total
+     * pay by the difference.
+     *
+     * @param ruleSet the new pay rules
+     * @return the change in total pay, in cents
+     */
+    public synchronized long changeRuleSet(PayRuleSet ruleSet) {
+        this.ruleSet = ruleSet;
+        long delta = recalculateWorkEntries();
+        periodIndex = new PayPeriodIndex(ruleSet.getDailyOvertimeThreshold());
+        periodIndex.rebuild(workEntries);
+        return delta;
+    }
+
+    /**
+     * Changes the hourly rate from the given date onwards and recalculates the work entries on or after that
+     * date. Earlier entries keep their pay, and total pay is adjusted by the difference.
+     *
+     * @param hourlyRate the new hourly rate
+     * @param effectiveFrom the first date the new rate applies to
+     * @return the change in total pay, in cents
+     */
+    public synchronized long changeHourlyRate(double hourlyRate, LocalDate effectiveFrom) {
+        return changeHourlyRate(hourlyRate, (int) effectiveFrom.toEpochDay());
+    }
+
+    /**
+     * Changes the hourly rate from a date given as an epoch day onwards. See
+     * {@link #changeHourlyRate(double, LocalDate)}.
+     *
+     * @param hourlyRate the new hourly rate
+     * @param effectiveEpochDay the first date the new rate applies to, as the number of days since 1970-01-01
+     * @return the change in total pay, in cents
+     */
+    public synchronized long changeHourlyRate(double hourlyRate, int effectiveEpochDay) {
+        rates.set(effectiveEpochDay, hourlyRate);
+
+        // Entries are not kept in date order, so scan the date column and recalculate only the affected rows
+        long delta = 0;
+        for (int i = 0; i < workEntries.size(); i++) {
+            if (workEntries.getEpochDay(i) >= effectiveEpochDay) {
+                delta += recalculateWorkEntry(i);
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Recalculates the pay of one work entry with the current rate and holiday calendar, and adjusts total pay
+     * by the difference.
+     *
+     * @param index the position of the entry in the {@link WorkEntryStore}
+     * @return the change in the entry's pay, in cents
+     */
+    public synchronized long recalculateWorkEntry(int index) {
+        long oldPay = workEntries.getDailyPayCents(index);
+        long newPay = calculateDailyPay(workEntries.getEpochDay(index), workEntries.getHoursWorked(index));
+        if (newPay == oldPay) {
+            return 0;
+        }
+        workEntries.setDailyPayCents(index, newPay);
+        periodIndex.addPay(workEntries.getEpochDay(index), newPay - oldPay);
+        setTotalPay(newPay - oldPay);
+        return newPay - oldPay;
+    }
+
+    /**
+     * Recalculates the pay of every work entry and adjusts total pay by the difference.
+     *
+     * @return the change in total pay, in cents
+     */
+    public synchronized long recalculateWorkEntries() {
+        long delta = 0;
+        for (int i = 0; i < workEntries.size(); i++) {
+            delta += recalculateWorkEntry(i);
+        }
+        return delta;
     }
 
     /**
@@ -58,21 +231,59 @@ public class Employee {
      * @param workDate the date of the work entry
      * @param hoursWorked the number of hours worked on the specified date
      */
-    public void addWorkEntry(LocalDate workDate, double hoursWorked) {
-        double dailyPay = calculateDailyPay(workDate, hoursWorked);  // Calculate daily pay
+    public synchronized void addWorkEntry(LocalDate workDate, double hoursWorked) {
+        addWorkEntry((int) workDate.toEpochDay(), hoursWorked);
+    }
 
-        WorkEntry newEntry = new WorkEntry(workDate, hoursWorked, dailyPay);  // Create org.example.WorkEntry
-        workEntries.add(newEntry);  // Add to workEntries list
+    /**
+     * Adds a work entry for a date given as an epoch day, without creating a {@link LocalDate}.
+     *
+     * @param epochDay the date of the work entry as the number of days since 1970-01-01
+     * @param hoursWorked the number of hours worked on the specified date
+     */
+    public synchronized void addWorkEntry(int epochDay, double hoursWorked) {
+        long dailyPay = calculateDailyPay(epochDay, hoursWorked);  // Calculate daily pay in cents
+
+        dateIndex.put(epochDay, workEntries.size());  // Index the date for duplicate checks
+        workEntries.add(epochDay, hoursWorked, dailyPay);  // Add to workEntries columns
+        periodIndex.add(epochDay, Money.toHundredths(hoursWorked), dailyPay, workEntries);  // Keep period totals
         //totalPay += dailyPay;
         setTotalPay(dailyPay); // Update total pay
+        if (Metrics.ENABLED) {
+            Metrics.ENTRIES_ADDED.increment();
+        }
+
+        if (ruleSet.hasWeeklyOvertime()) {
+            // Later days of the same week may now pass the weekly overtime threshold
+            int sunday = epochDay - Math.floorMod(epochDay + MONDAY_OFFSET, 7) + 6;
+            for (int day = epochDay + 1; day <= sunday; day++) {
+                int row = dateIndex.get(day);
+                if (row >= 0) {
+                    recalculateWorkEntry(row);
+                }
+            }
+        }
     }
 
     /**
      * Gets the list of work entries for the employee.
+     * The list is a read-only view over the columnar store; a {@link WorkEntry} is created for each element read.
+     * Callers iterating the list while other threads add entries must synchronize on this employee.
      *
      * @return a list of {@link WorkEntry} objects representing the employee's work entries
      */
-    public ArrayList<WorkEntry> getWorkEntries() {
+    public synchronized List<WorkEntry> getWorkEntries() {
+        return workEntries.asList();
+    }
+
+    /**
+     * Gets the columnar store holding the employee's work entries, for reading entries without creating
+     * {@link WorkEntry} objects.
+     * Callers reading the store while other threads add entries must synchronize on this employee.
+     *
+     * @return the employee's {@link WorkEntryStore}
+     */
+    public synchronized WorkEntryStore getWorkEntryStore() {
         return workEntries;
     }
 
@@ -81,87 +292,173 @@ public class Employee {
      *
      * @param workEntries the new list of {@link WorkEntry} objects to set
      */
-    public void setWorkEntries(ArrayList<WorkEntry> workEntries) {
-        this.workEntries = workEntries;
+    public synchronized void setWorkEntries(List<WorkEntry> workEntries) {
+        WorkEntryStore store = new WorkEntryStore();
+        EpochDayIndex index = new EpochDayIndex();
+        for (WorkEntry entry : workEntries) {
+            int epochDay = (int) entry.getWorkDate().toEpochDay();
+            index.put(epochDay, store.size());
+            store.add(epochDay, entry.getHoursWorked(), entry.getDailyPayCents());
+        }
+        this.workEntries = store;
+        this.dateIndex = index;
+        this.periodIndex = new PayPeriodIndex(ruleSet.getDailyOvertimeThreshold());
+        this.periodIndex.rebuild(store);
+    }
+
+    /**
+     * Checks if the employee already has a work entry on the given date. This is a constant-time index lookup.
+     *
+     * @param workDate the date to check
+     * @return {@code true} if there is a work entry on that date; {@code false} otherwise
+     */
+    public synchronized boolean hasWorkEntryOn(LocalDate workDate) {
+        return dateIndex.contains((int) workDate.toEpochDay());
+    }
+
+    /**
+     * Returns the position in the {@link WorkEntryStore} of the work entry on the given date.
+     *
+     * @param epochDay the date as the number of days since 1970-01-01
+     * @return the position of the entry, or {@code -1} if there is no entry on that date
+     */
+    public synchronized int indexOfWorkEntry(int epochDay) {
+        return dateIndex.get(epochDay);
+    }
+
+    /**
+     * Adds up the hours, pay and overtime hours of the work entries between two dates, inclusive.
+     * This takes logarithmic time in the number of weeks worked, however many entries fall in the range.
+     *
+     * @param from the first date of the period
+     * @param to the last date of the period
+     * @return the totals for the period
+     */
+    public synchronized PeriodTotals getPeriodTotals(LocalDate from, LocalDate to) {
+        return periodIndex.sum((int) from.toEpochDay(), (int) to.toEpochDay(), workEntries, dateIndex);
+    }
+
+    /**
+     * Adds up the work entries of the week (Monday to Sunday) containing the given date.
+     *
+     * @param date any date in the week
+     * @return the totals for the week
+     */
+    public PeriodTotals getWeekTotals(LocalDate date) {
+        LocalDate monday = date.minusDays(date.getDayOfWeek().getValue() - 1);
+        return getPeriodTotals(monday, monday.plusDays(6));
+    }
+
+    /**
+     * Adds up the work entries of the given month.
+     *
+     * @param month the month
+     * @return the totals for the month
+     */
+    public PeriodTotals getMonthTotals(YearMonth month) {
+        return getPeriodTotals(month.atDay(1), month.atEndOfMonth());
+    }
+
+    /**
+     * Adds up the work entries from the start of the year up to and including the given date.
+     *
+     * @param asOf the last date to include
+     * @return the year-to-date totals
+     */
+    public PeriodTotals getYearToDateTotals(LocalDate asOf) {
+        return getPeriodTotals(asOf.withDayOfYear(1), asOf);
     }
 
     /**
      * Gets the total pay accumulated by the employee.
      *
-     * @return the employee's total pay
+     * @return the employee's total pay in dollars
+     */
+    public synchronized double getTotalPay() {
+        return Money.toDollars(totalPayCents);
+    }
+
+    /**
+     * Gets the exact total pay accumulated by the employee.
+     *
+     * @return the employee's total pay in cents
      */
-    public double getTotalPay() {
-        return totalPay;
+    public synchronized long getTotalPayCents() {
+        return totalPayCents;
     }
 
     /**
      * Updates the total pay by adding the given amount.
      *
-     * @param totalPay the amount to add to the current total pay
+     * @param payCents the amount in cents to add to the current total pay
      */
-    public void setTotalPay(double totalPay) {
-        this.totalPay += totalPay;
+    public synchronized void setTotalPay(long payCents) {
+        this.totalPayCents += payCents;
     }
 
     /**
-     * Calculates the daily pay for the employee, including potential overtime or holiday pay.
+     * Calculates the daily pay for the employee, including potential overtime or holiday pay, under the
+     * employee's {@link PayRuleSet} and the rate in effect on the work date. If the rules include weekly
+     * overtime, the employee's entries earlier in the same week are taken into account.
+     * Pay is calculated exactly in fixed point and rounded half up to the cent once per day.
      *
      * @param workDate the date of the work entry
      * @param hoursWorked the number of hours worked on the specified date
-     * @return the calculated daily pay for the given work date and hours worked
+     * @return the calculated daily pay in cents for the given work date and hours worked
      */
-    public double calculateDailyPay(LocalDate workDate, double hoursWorked) {
-        double pay;
-        double overtimeHours = 0.0;
-
-        // Constants
-        final double OVERTIME_THRESHOLD = 7.5;
-        final double OVERTIME_RATE = 1.5;
-
-        // Check if it's holiday or weekend
-        boolean isHolidayWeekend = Validation.isHolidayOrWeekend(Utilities.HOLIDAYS, workDate);
+    public synchronized long calculateDailyPay(LocalDate workDate, double hoursWorked) {
+        return calculateDailyPay((int) workDate.toEpochDay(), hoursWorked);
+    }
 
-        // Pay "time and a half" for hours over 7.5 or if it's a weekend/holiday
-        if (hoursWorked > OVERTIME_THRESHOLD){
-            overtimeHours = hoursWorked - OVERTIME_THRESHOLD;
-            hoursWorked = OVERTIME_THRESHOLD;
+    /**
+     * Calculates the daily pay for the employee for a work date given as an epoch day, without creating
+     * a {@link LocalDate}.
+     *
+     * @param epochDay the date of the work entry as the number of days since 1970-01-01
+     * @param hoursWorked the number of hours worked on the specified date
+     * @return the calculated daily pay in cents for the given work date and hours worked
+     */
+    public synchronized long calculateDailyPay(int epochDay, double hoursWorked) {
+        long start = Metrics.start();
+        long hours = Money.toHundredths(hoursWorked);
+        long straightHoursBefore = ruleSet.hasWeeklyOvertime() ? straightHoursBefore(epochDay) : 0;
+        long pay = ruleSet.dailyPay(HolidayCalendar.dayTypeOf(epochDay), rates.rateCentsOn(epochDay), hours,
+                straightHoursBefore);
+        if (Metrics.ENABLED) {
+            Metrics.PAY_CALCULATION.recordSince(start);
         }
+        return pay;
+    }
 
-        if (isHolidayWeekend){
-            pay = (hoursWorked + overtimeHours) * hourlyRate * OVERTIME_RATE;
+    // Method to add up the straight-time hours worked earlier in the same week, through the date index
+    private long straightHoursBefore(int epochDay) {
+        long total = 0;
+        for (int day = epochDay - Math.floorMod(epochDay + MONDAY_OFFSET, 7); day < epochDay; day++) {
+            int row = dateIndex.get(day);
+            if (row >= 0) {
+                total += ruleSet.straightTimeHours(Money.toHundredths(workEntries.getHoursWorked(row)));
+            }
         }
-        else {
-            pay = hoursWorked * hourlyRate;
-            pay += overtimeHours * hourlyRate * OVERTIME_RATE; // Overtime hours at time and a half
-        }
-
-        return pay;
+        return total;
     }
 
     /**
      * Returns a string representation of the employee's work entries and total pay.
      * Includes details such as the date, weekend/holiday status, hours worked, and daily pay.
+     * The text is rendered by {@link PayrollReportWriter}; use it directly to stream large reports.
      *
      * @return a formatted string summarizing the employee's work entries and total pay
      */
     @Override
-    public String toString() {
-        StringBuilder result = new StringBuilder();
-        result.append(String.format("Detailed pay summary for %s:\n", name));
-        result.append(String.format("Hourly Rate %.2f:\n", hourlyRate));
-        result.append(String.format("%-12s %-16s %-14s %-12s\n", "Date", "Weekend/Holiday", "Hours Worked", "Pay ($)"));
-
-        for (WorkEntry entry : getWorkEntries()) {
-            String indicator = entry.isHolidayOrWeekend();
-            result.append(String.format("%-12s %-16s %-14.2f %-12.2f\n",
-                    entry.getWorkDate(),
-                    indicator,
-                    entry.getHoursWorked(),
-                    entry.getDailyPay()));
+    public synchronized String toString() {
+        StringWriter result = new StringWriter();
+        try {
+            new PayrollReportWriter(result, PayrollReportWriter.Format.TEXT).writeEmployee(this);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // StringWriter never throws
         }
-
-        // Add total pay at the end
-        result.append(String.format("Total pay for %s: $%s", name, Utilities.formatCurrency(totalPay)));
-        return result.toString();
+        // Drop the trailing newline so callers can println the result
+        String text = result.toString();
+        return text.substring(0, text.length() - 1);
     }
 }
@@ -0,0 +1,108 @@
+package org.example.models;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from a work date, given as an epoch day, to the position of the work entry for that
+ * date in a {@link WorkEntryStore}. Keys and values are kept in primitive arrays, so lookups and inserts take
+ * constant time and do not allocate.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class EpochDayIndex {
+    // Marks an unused slot; no valid LocalDate has this epoch day
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    /**
+     * Creates an empty index.
+     */
+    public EpochDayIndex() {
+        keys = new int[INITIAL_CAPACITY];
+        values = new int[INITIAL_CAPACITY];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Records the position of the entry for the given date, replacing any previous position.
+     *
+     * @param epochDay the work date as the number of days since 1970-01-01
+     * @param row the position of the entry in the store
+     */
+    public void put(int epochDay, int row) {
+        // Keep the load factor at or below one half
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int slot = find(keys, epochDay);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = epochDay;
+            size++;
+        }
+        values[slot] = row;
+    }
+
+    /**
+     * Returns the position of the entry for the given date.
+     *
+     * @param epochDay the work date as the number of days since 1970-01-01
+     * @return the position of the entry, or {@code -1} if there is no entry for that date
+     */
+    public int get(int epochDay) {
+        int slot = find(keys, epochDay);
+        return keys[slot] == EMPTY ? -1 : values[slot];
+    }
+
+    /**
+     * Checks if there is an entry for the given date.
+     *
+     * @param epochDay the work date as the number of days since 1970-01-01
+     * @return {@code true} if the date is present; {@code false} otherwise
+     */
+    public boolean contains(int epochDay) {
+        return keys[find(keys, epochDay)] != EMPTY;
+    }
+
+    /**
+     * Returns the number of dates in the index.
+     *
+     * @return the date count
+     */
+    public int size() {
+        return size;
+    }
+
+    // Method to find the slot holding the key, or the empty slot where it belongs
+    private static int find(int[] keys, int epochDay) {
+        int mask = keys.length - 1;
+        // Consecutive days are common, so spread them with a multiplicative hash
+        int hash = epochDay * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != epochDay) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Method to double the table and re-insert every key
+    private void resize() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
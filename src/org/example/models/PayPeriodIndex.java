@@ -0,0 +1,214 @@
+package org.example.models;
+
+import org.example.Money;
+
+/**
+ * Aggregation index that answers date-range totals of hours, pay and overtime hours for one employee in
+ * logarithmic time.
+ *
+ * Work entries are bucketed by week (Monday to Sunday), and each of the three quantities is kept in a Fenwick
+ * tree over the weeks, so a change to one entry updates O(log w) nodes for w weeks. A range total adds up the
+ * whole weeks inside the range from the trees and looks up the at most twelve days at the partial weeks on
+ * either end through the employee's {@link EpochDayIndex}. Weekly buckets keep the trees small: a year of work
+ * takes 53 buckets rather than 366.
+ *
+ * The trees cover a contiguous range of weeks that doubles whenever an entry falls outside it, rebuilding the
+ * trees from the {@link WorkEntryStore} in linear time.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class PayPeriodIndex {
+    private static final int INITIAL_WEEKS = 8;
+
+    // 1970-01-01 was a Thursday, so weeks starting on Monday begin at epoch day -3 + 7n
+    private static final int MONDAY_OFFSET = 3;
+
+    private final long overtimeThreshold;
+    private int baseWeek;
+    private int capacity;
+
+    // Fenwick trees, 1-based: node i covers the (i & -i) weeks ending at week baseWeek + i - 1
+    private int[] hours;
+    private long[] pay;
+    private int[] overtime;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param overtimeThreshold the hours per day, in hundredths, beyond which hours count as overtime
+     */
+    public PayPeriodIndex(long overtimeThreshold) {
+        this.overtimeThreshold = overtimeThreshold;
+    }
+
+    /**
+     * Adds a work entry that has just been appended to the store.
+     *
+     * @param epochDay the work date as the number of days since 1970-01-01
+     * @param hoursHundredths the hours worked, in hundredths of an hour
+     * @param payCents the daily pay in cents
+     * @param store the store the entry was appended to, used if the index has to grow
+     */
+    public void add(int epochDay, long hoursHundredths, long payCents, WorkEntryStore store) {
+        int week = weekOf(epochDay);
+        if (hours == null || week < baseWeek || week >= baseWeek + capacity) {
+            grow(week, store);  // the rebuild includes the new entry
+            return;
+        }
+        update(week - baseWeek + 1, (int) hoursHundredths, payCents, (int) overtimeOf(hoursHundredths));
+    }
+
+    /**
+     * Adjusts the pay recorded for an existing entry.
+     *
+     * @param epochDay the work date of the entry
+     * @param deltaCents the change in the entry's pay, in cents
+     */
+    public void addPay(int epochDay, long deltaCents) {
+        update(weekOf(epochDay) - baseWeek + 1, 0, deltaCents, 0);
+    }
+
+    /**
+     * Rebuilds the index from every entry in the store.
+     *
+     * @param store the entries to index
+     */
+    public void rebuild(WorkEntryStore store) {
+        hours = null;
+        if (store.size() > 0) {
+            grow(weekOf(store.getEpochDay(0)), store);
+        }
+    }
+
+    /**
+     * Adds up the entries between two dates, inclusive.
+     *
+     * @param fromEpochDay the first date of the range
+     * @param toEpochDay the last date of the range
+     * @param store the store holding the entries
+     * @param dates the date index of the same entries
+     * @return the totals for the range
+     */
+    public PeriodTotals sum(int fromEpochDay, int toEpochDay, WorkEntryStore store, EpochDayIndex dates) {
+        if (hours == null || fromEpochDay > toEpochDay) {
+            return new PeriodTotals(0, 0, 0);
+        }
+        long[] totals = new long[3];
+
+        int firstWeek = weekOf(fromEpochDay);
+        if (weekStart(firstWeek) < fromEpochDay) {
+            firstWeek++;
+        }
+        int lastWeek = weekOf(toEpochDay);
+        if (weekStart(lastWeek) + 6 > toEpochDay) {
+            lastWeek--;
+        }
+
+        if (firstWeek > lastWeek) {
+            sumDays(fromEpochDay, toEpochDay, store, dates, totals);
+        } else {
+            sumDays(fromEpochDay, weekStart(firstWeek) - 1, store, dates, totals);
+            sumDays(weekStart(lastWeek + 1), toEpochDay, store, dates, totals);
+            int from = Math.max(firstWeek, baseWeek) - baseWeek;
+            int to = Math.min(lastWeek, baseWeek + capacity - 1) - baseWeek + 1;
+            if (from < to) {
+                totals[0] += prefix(hours, to) - prefix(hours, from);
+                totals[1] += prefix(pay, to) - prefix(pay, from);
+                totals[2] += prefix(overtime, to) - prefix(overtime, from);
+            }
+        }
+        return new PeriodTotals(totals[0], totals[1], totals[2]);
+    }
+
+    // Method to widen the covered weeks so they include the given week, then rebuild the trees
+    private void grow(int week, WorkEntryStore store) {
+        int low = week;
+        int high = week;
+        if (hours != null) {
+            low = Math.min(low, baseWeek);
+            high = Math.max(high, baseWeek + capacity - 1);
+        }
+        for (int i = 0; i < store.size(); i++) {
+            int w = weekOf(store.getEpochDay(i));
+            low = Math.min(low, w);
+            high = Math.max(high, w);
+        }
+
+        int needed = high - low + 1;
+        int newCapacity = Math.max(hours == null ? INITIAL_WEEKS : capacity * 2, needed);
+        // Leave the spare room on the side the index is growing towards
+        baseWeek = hours != null && week < baseWeek ? high - newCapacity + 1 : low;
+        capacity = newCapacity;
+
+        hours = new int[capacity + 1];
+        pay = new long[capacity + 1];
+        overtime = new int[capacity + 1];
+        for (int i = 0; i < store.size(); i++) {
+            int node = weekOf(store.getEpochDay(i)) - baseWeek + 1;
+            long entryHours = Money.toHundredths(store.getHoursWorked(i));
+            hours[node] += (int) entryHours;
+            pay[node] += store.getDailyPayCents(i);
+            overtime[node] += (int) overtimeOf(entryHours);
+        }
+        // Turn the weekly sums into Fenwick trees in linear time
+        for (int i = 1; i <= capacity; i++) {
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                hours[parent] += hours[i];
+                pay[parent] += pay[i];
+                overtime[parent] += overtime[i];
+            }
+        }
+    }
+
+    private void update(int node, int hoursDelta, long payDelta, int overtimeDelta) {
+        for (int i = node; i <= capacity; i += i & -i) {
+            hours[i] += hoursDelta;
+            pay[i] += payDelta;
+            overtime[i] += overtimeDelta;
+        }
+    }
+
+    // Method to add up the given days one at a time through the date index
+    private void sumDays(int fromEpochDay, int toEpochDay, WorkEntryStore store, EpochDayIndex dates, long[] totals) {
+        for (int day = fromEpochDay; day <= toEpochDay; day++) {
+            int row = dates.get(day);
+            if (row >= 0) {
+                long entryHours = Money.toHundredths(store.getHoursWorked(row));
+                totals[0] += entryHours;
+                totals[1] += store.getDailyPayCents(row);
+                totals[2] += overtimeOf(entryHours);
+            }
+        }
+    }
+
+    private long overtimeOf(long hoursHundredths) {
+        return Math.max(0, hoursHundredths - overtimeThreshold);
+    }
+
+    private static long prefix(int[] tree, int node) {
+        long sum = 0;
+        for (int i = node; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private static long prefix(long[] tree, int node) {
+        long sum = 0;
+        for (int i = node; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private static int weekOf(int epochDay) {
+        return Math.floorDiv(epochDay + MONDAY_OFFSET, 7);
+    }
+
+    private static int weekStart(int week) {
+        return week * 7 - MONDAY_OFFSET;
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.models;
+
+import org.example.Money;
+
+/**
+ * Hours, pay and overtime hours added up over a range of dates, for one employee or the whole workforce.
+ * Overtime hours are the hours worked each day beyond the first daily overtime tier of the employee's
+ * {@link org.example.payroll.PayRuleSet}.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class PeriodTotals {
+    private final long hoursHundredths;
+    private final long payCents;
+    private final long overtimeHundredths;
+
+    /**
+     * Constructs a new {@code PeriodTotals}.
+     *
+     * @param hoursHundredths the hours worked, in hundredths of an hour
+     * @param payCents the pay earned, in cents
+     * @param overtimeHundredths the overtime hours worked, in hundredths of an hour
+     */
+    public PeriodTotals(long hoursHundredths, long payCents, long overtimeHundredths) {
+        this.hoursHundredths = hoursHundredths;
+        this.payCents = payCents;
+        this.overtimeHundredths = overtimeHundredths;
+    }
+
+    /**
+     * Returns the hours worked in the period.
+     *
+     * @return the hours worked
+     */
+    public double getHours() {
+        return hoursHundredths / 100.0;
+    }
+
+    /**
+     * Returns the exact hours worked in the period.
+     *
+     * @return the hours worked, in hundredths of an hour
+     */
+    public long getHoursHundredths() {
+        return hoursHundredths;
+    }
+
+    /**
+     * Returns the pay earned in the period.
+     *
+     * @return the pay in dollars
+     */
+    public double getPay() {
+        return Money.toDollars(payCents);
+    }
+
+    /**
+     * Returns the exact pay earned in the period.
+     *
+     * @return the pay in cents
+     */
+    public long getPayCents() {
+        return payCents;
+    }
+
+    /**
+     * Returns the overtime hours worked in the period.
+     *
+     * @return the overtime hours worked
+     */
+    public double getOvertimeHours() {
+        return overtimeHundredths / 100.0;
+    }
+
+    /**
+     * Returns the exact overtime hours worked in the period.
+     *
+     * @return the overtime hours worked, in hundredths of an hour
+     */
+    public long getOvertimeHundredths() {
+        return overtimeHundredths;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.2f hours (%.2f overtime), pay %.2f", getHours(), getOvertimeHours(), getPay());
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.models;
+
+import org.example.Money;
+
+import java.util.Arrays;
+
+/**
+ * History of an employee's hourly rate. The first rate applies from the beginning of time; each later rate
+ * applies from its effective date (an epoch day) onwards. Rates are kept in cents in primitive arrays sorted
+ * by effective date.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class RateSchedule {
+    private int[] effectiveDays = new int[1];
+    private double[] rates = new double[1];
+    private long[] rateCents = new long[1];
+    private int size;
+
+    /**
+     * Creates a schedule with a single rate that applies to every date.
+     *
+     * @param initialRate the hourly rate in dollars
+     */
+    public RateSchedule(double initialRate) {
+        effectiveDays[0] = Integer.MIN_VALUE;
+        rates[0] = initialRate;
+        rateCents[0] = Money.toCents(initialRate);
+        size = 1;
+    }
+
+    /**
+     * Sets the rate that applies from the given date onwards. Any later change stays in effect from its own date;
+     * a change on the same date as an existing one replaces it.
+     *
+     * @param effectiveDay the first date the rate applies to, as an epoch day
+     * @param rate the hourly rate in dollars
+     */
+    public void set(int effectiveDay, double rate) {
+        int position = Arrays.binarySearch(effectiveDays, 0, size, effectiveDay);
+        if (position < 0) {
+            position = -position - 1;
+            if (size == effectiveDays.length) {
+                effectiveDays = Arrays.copyOf(effectiveDays, size * 2);
+                rates = Arrays.copyOf(rates, size * 2);
+                rateCents = Arrays.copyOf(rateCents, size * 2);
+            }
+            System.arraycopy(effectiveDays, position, effectiveDays, position + 1, size - position);
+            System.arraycopy(rates, position, rates, position + 1, size - position);
+            System.arraycopy(rateCents, position, rateCents, position + 1, size - position);
+            size++;
+        }
+        effectiveDays[position] = effectiveDay;
+        rates[position] = rate;
+        rateCents[position] = Money.toCents(rate);
+    }
+
+    /**
+     * Returns the rate in cents that applies on the given date.
+     *
+     * @param epochDay the date as the number of days since 1970-01-01
+     * @return the hourly rate in cents
+     */
+    public long rateCentsOn(int epochDay) {
+        // Rate changes are rare, so a backwards scan beats a binary search
+        int i = size - 1;
+        while (effectiveDays[i] > epochDay) {
+            i--;
+        }
+        return rateCents[i];
+    }
+
+    /**
+     * Returns the most recently effective rate, which is the rate shown in pay summaries.
+     *
+     * @return the latest hourly rate in dollars
+     */
+    public double getLatestRate() {
+        return rates[size - 1];
+    }
+
+    /**
+     * Returns the number of rates in the schedule, including the initial one.
+     *
+     * @return the number of rates
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the date from which the rate at the given position applies.
+     *
+     * @param index the position in the schedule; 0 is the initial rate
+     * @return the effective date as an epoch day, or {@link Integer#MIN_VALUE} for the initial rate
+     */
+    public int getEffectiveDay(int index) {
+        return effectiveDays[index];
+    }
+
+    /**
+     * Returns the rate at the given position.
+     *
+     * @param index the position in the schedule; 0 is the initial rate
+     * @return the hourly rate in dollars
+     */
+    public double getRate(int index) {
+        return rates[index];
+    }
+}
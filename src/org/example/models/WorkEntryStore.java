@@ -0,0 +1,175 @@
+package org.example.models;
+
+import org.example.WorkEntry;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Columnar storage for an employee's work entries. Instead of one {@link WorkEntry} object per shift, the
+ * work date (as an epoch day), hours worked and daily pay (in cents) are kept in primitive column arrays.
+ *
+ * Columns are split into fixed-size chunks so that growing the store never copies more than one chunk.
+ * The first chunk starts small and doubles until it reaches full size, which keeps employees with only a
+ * few entries cheap. {@link WorkEntry} objects are only created when an entry is read through {@link #get(int)}
+ * or {@link #asList()}.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class WorkEntryStore {
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int INITIAL_CAPACITY = 8;
+
+    private int[][] epochDays = new int[1][INITIAL_CAPACITY];
+    private double[][] hours = new double[1][INITIAL_CAPACITY];
+    private long[][] payCents = new long[1][INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Appends a work entry to the store.
+     *
+     * @param epochDay the work date as the number of days since 1970-01-01
+     * @param hoursWorked the number of hours worked on that date
+     * @param dailyPayCents the pay earned for that date, in cents
+     */
+    public void add(int epochDay, double hoursWorked, long dailyPayCents) {
+        int chunk = size >>> CHUNK_SHIFT;
+        int offset = size & CHUNK_MASK;
+        if (chunk == 0 && offset == epochDays[0].length) {
+            growFirstChunk();
+        } else if (offset == 0 && chunk > 0) {
+            addChunk(chunk);
+        }
+        epochDays[chunk][offset] = epochDay;
+        hours[chunk][offset] = hoursWorked;
+        payCents[chunk][offset] = dailyPayCents;
+        size++;
+    }
+
+    /**
+     * Returns the number of entries in the store.
+     *
+     * @return the entry count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the work date of the entry at the given index.
+     *
+     * @param index the position of the entry
+     * @return the work date as the number of days since 1970-01-01
+     */
+    public int getEpochDay(int index) {
+        checkIndex(index);
+        return epochDays[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    /**
+     * Returns the hours worked for the entry at the given index.
+     *
+     * @param index the position of the entry
+     * @return the hours worked
+     */
+    public double getHoursWorked(int index) {
+        checkIndex(index);
+        return hours[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    /**
+     * Returns the daily pay of the entry at the given index.
+     *
+     * @param index the position of the entry
+     * @return the daily pay in cents
+     */
+    public long getDailyPayCents(int index) {
+        checkIndex(index);
+        return payCents[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    /**
+     * Replaces the daily pay of the entry at the given index, for example after the employee's rate or the
+     * holiday calendar changed.
+     *
+     * @param index the position of the entry
+     * @param dailyPayCents the new daily pay in cents
+     */
+    public void setDailyPayCents(int index, long dailyPayCents) {
+        checkIndex(index);
+        payCents[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = dailyPayCents;
+    }
+
+    /**
+     * Creates a {@link WorkEntry} view of the entry at the given index.
+     *
+     * @param index the position of the entry
+     * @return a new {@code WorkEntry} holding the entry's values
+     */
+    public WorkEntry get(int index) {
+        checkIndex(index);
+        int chunk = index >>> CHUNK_SHIFT;
+        int offset = index & CHUNK_MASK;
+        return new WorkEntry(LocalDate.ofEpochDay(epochDays[chunk][offset]), hours[chunk][offset],
+                payCents[chunk][offset]);
+    }
+
+    /**
+     * Returns a read-only list view of the store. Each call to {@link List#get(int)} creates a new
+     * {@link WorkEntry}; changes to the store are visible through the view.
+     *
+     * @return a list view of the entries
+     */
+    public List<WorkEntry> asList() {
+        return new EntryList();
+    }
+
+    // Method to double the first chunk until it reaches full size
+    private void growFirstChunk() {
+        int capacity = Math.min(epochDays[0].length * 2, CHUNK_SIZE);
+        epochDays[0] = Arrays.copyOf(epochDays[0], capacity);
+        hours[0] = Arrays.copyOf(hours[0], capacity);
+        payCents[0] = Arrays.copyOf(payCents[0], capacity);
+    }
+
+    // Method to allocate a new full-size chunk at the given position
+    private void addChunk(int chunk) {
+        if (chunk == epochDays.length) {
+            int chunks = chunk * 2;
+            epochDays = Arrays.copyOf(epochDays, chunks);
+            hours = Arrays.copyOf(hours, chunks);
+            payCents = Arrays.copyOf(payCents, chunks);
+        }
+        epochDays[chunk] = new int[CHUNK_SIZE];
+        hours[chunk] = new double[CHUNK_SIZE];
+        payCents[chunk] = new long[CHUNK_SIZE];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    /**
+     * List view that materializes {@link WorkEntry} objects on access.
+     */
+    private class EntryList extends AbstractList<WorkEntry> implements RandomAccess {
+        @Override
+        public WorkEntry get(int index) {
+            return WorkEntryStore.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.example.payroll;
+
+import org.example.HolidayCalendar;
+import org.example.Money;
+
+import java.util.Properties;
+
+/**
+ * A compiled set of pay rules for one jurisdiction or agreement: daily overtime tiers, weekly overtime,
+ * weekend and holiday multipliers, and per-hour premiums.
+ *
+ * Rule sets are declared in {@link Properties} (see {@link #parse(String, Properties)}) and compiled once into
+ * small per-day-type tables, so calculating a day's pay is an array lookup for the type of day followed by a
+ * short loop over the tiers, all in exact fixed point. Each hour is paid at the higher of its overtime tier's
+ * multiplier and the day type's multiplier, so a holiday multiplier never lowers overtime pay.
+ *
+ * Weekly overtime applies to straight-time hours (those below the first daily tier) once the straight-time
+ * hours worked earlier in the same Monday-to-Sunday week reach the weekly threshold.
+ *
+ * Rule sets are immutable.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public final class PayRuleSet {
+    private static final HolidayCalendar.DayType[] DAY_TYPES = HolidayCalendar.DayType.values();
+
+    private final String name;
+    private final long straightTimeLimit;
+    private final long weeklyThreshold;
+
+    // Indexed by DayType ordinal: where each tier starts (hundredths of an hour), and its effective multiplier
+    private final long[][] tierStarts;
+    private final int[][] tierMultipliers;
+    private final int[] weeklyMultipliers;
+    private final long[] premiumCents;
+
+    private PayRuleSet(String name, long[] tierThresholds, int[] tierRates, long weeklyThreshold, int weeklyRate,
+                       int[] dayTypeRates, long[] premiumCents) {
+        this.name = name;
+        this.straightTimeLimit = tierThresholds.length > 0 ? tierThresholds[0] : Long.MAX_VALUE;
+        this.weeklyThreshold = weeklyThreshold;
+        this.premiumCents = premiumCents;
+
+        int tiers = tierThresholds.length + 1;
+        tierStarts = new long[DAY_TYPES.length][tiers];
+        tierMultipliers = new int[DAY_TYPES.length][tiers];
+        weeklyMultipliers = new int[DAY_TYPES.length];
+        for (int t = 0; t < DAY_TYPES.length; t++) {
+            tierMultipliers[t][0] = dayTypeRates[t];
+            for (int i = 1; i < tiers; i++) {
+                tierStarts[t][i] = tierThresholds[i - 1];
+                tierMultipliers[t][i] = Math.max(tierRates[i - 1], dayTypeRates[t]);
+            }
+            weeklyMultipliers[t] = Math.max(weeklyRate, dayTypeRates[t]);
+        }
+    }
+
+    /**
+     * Compiles the rule set with the given name from configuration. Keys are prefixed with
+     * {@code ruleset.<name>.}; all are optional:
+     * <ul>
+     *     <li>{@code daily.tiers} - comma-separated {@code hours:multiplier} pairs in ascending order of hours;
+     *     hours beyond each threshold are paid at its multiplier, e.g. {@code 7.5:1.5,10:2}</li>
+     *     <li>{@code weekly.threshold} and {@code weekly.multiplier} - straight-time hours per week beyond which
+     *     the weekly multiplier applies</li>
+     *     <li>{@code weekend.multiplier} and {@code holiday.multiplier} - multipliers for every hour worked on
+     *     those days (default 1)</li>
+     *     <li>{@code regular.premium}, {@code weekend.premium} and {@code holiday.premium} - a flat amount in
+     *     dollars added for every hour worked on that type of day (default 0)</li>
+     * </ul>
+     *
+     * @param name the name of the rule set
+     * @param config the configuration to read
+     * @return the compiled rule set
+     * @throws IllegalArgumentException if a value is malformed or the tiers are not in ascending order
+     */
+    public static PayRuleSet parse(String name, Properties config) {
+        String prefix = "ruleset." + name + ".";
+
+        String tierList = config.getProperty(prefix + "daily.tiers", "").trim();
+        String[] tiers = tierList.isEmpty() ? new String[0] : tierList.split(",");
+        long[] thresholds = new long[tiers.length];
+        int[] rates = new int[tiers.length];
+        for (int i = 0; i < tiers.length; i++) {
+            String[] parts = tiers[i].trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Tier must be hours:multiplier in " + prefix + "daily.tiers: "
+                        + tiers[i]);
+            }
+            thresholds[i] = Money.toHundredths(number(prefix + "daily.tiers", parts[0]));
+            rates[i] = Money.toMultiplierHundredths(number(prefix + "daily.tiers", parts[1]));
+            if (thresholds[i] <= 0 || (i > 0 && thresholds[i] <= thresholds[i - 1])) {
+                throw new IllegalArgumentException("Tiers must be positive and ascending in " + prefix + "daily.tiers");
+            }
+        }
+
+        String weeklyValue = config.getProperty(prefix + "weekly.threshold");
+        long weeklyThreshold = weeklyValue == null ? Long.MAX_VALUE
+                : Money.toHundredths(number(prefix + "weekly.threshold", weeklyValue));
+        int weeklyRate = multiplier(config, prefix + "weekly.multiplier");
+
+        int[] dayTypeRates = new int[DAY_TYPES.length];
+        long[] premiums = new long[DAY_TYPES.length];
+        for (HolidayCalendar.DayType type : DAY_TYPES) {
+            String key = type.name().toLowerCase();
+            dayTypeRates[type.ordinal()] = type == HolidayCalendar.DayType.REGULAR
+                    ? Money.STRAIGHT_TIME : multiplier(config, prefix + key + ".multiplier");
+            String premium = config.getProperty(prefix + key + ".premium");
+            premiums[type.ordinal()] = premium == null ? 0 : Money.toCents(number(prefix + key + ".premium", premium));
+        }
+
+        return new PayRuleSet(name, thresholds, rates, weeklyThreshold, weeklyRate, dayTypeRates, premiums);
+    }
+
+    /**
+     * Returns the name the rule set is registered under.
+     *
+     * @return the rule set name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Checks whether this rule set pays weekly overtime, in which case a day's pay depends on the other days
+     * of its week.
+     *
+     * @return {@code true} if a weekly threshold is configured
+     */
+    public boolean hasWeeklyOvertime() {
+        return weeklyThreshold != Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the hours per day beyond which daily overtime starts.
+     *
+     * @return the first daily tier threshold in hundredths of an hour, or {@link Long#MAX_VALUE} if there are no
+     *         daily tiers
+     */
+    public long getDailyOvertimeThreshold() {
+        return straightTimeLimit;
+    }
+
+    /**
+     * Returns the part of a day's hours that counts towards the weekly overtime threshold.
+     *
+     * @param hours the hours worked that day, in hundredths of an hour
+     * @return the straight-time hours, in hundredths of an hour
+     */
+    public long straightTimeHours(long hours) {
+        return Math.min(hours, straightTimeLimit);
+    }
+
+    /**
+     * Calculates one day's pay, rounded half up to the cent.
+     *
+     * @param dayType the type of the day worked
+     * @param rateCents the hourly rate in cents
+     * @param hours the hours worked, in hundredths of an hour
+     * @param straightHoursBefore the straight-time hours already worked earlier in the same week, in hundredths
+     *                            of an hour; ignored unless the rule set has weekly overtime
+     * @return the day's pay in cents
+     */
+    public long dailyPay(HolidayCalendar.DayType dayType, long rateCents, long hours, long straightHoursBefore) {
+        int t = dayType.ordinal();
+        long[] starts = tierStarts[t];
+        int[] multipliers = tierMultipliers[t];
+
+        // Straight time, part of which may be weekly overtime
+        long straight = Math.min(hours, straightTimeLimit);
+        long weeklyOvertime = Math.max(0, straight - Math.max(0, weeklyThreshold - straightHoursBefore));
+        long units = Money.payUnits(straight - weeklyOvertime, rateCents, multipliers[0])
+                + Money.payUnits(weeklyOvertime, rateCents, weeklyMultipliers[t]);
+
+        // Daily overtime tiers
+        for (int i = 1; i < starts.length && hours > starts[i]; i++) {
+            long end = i + 1 < starts.length ? Math.min(hours, starts[i + 1]) : hours;
+            units += Money.payUnits(end - starts[i], rateCents, multipliers[i]);
+        }
+
+        units += Money.payUnits(hours, premiumCents[t], Money.STRAIGHT_TIME);
+        return Money.roundToCents(units);
+    }
+
+    @Override
+    public String toString() {
+        return "PayRuleSet[" + name + "]";
+    }
+
+    private static int multiplier(Properties config, String key) {
+        String value = config.getProperty(key);
+        return value == null ? Money.STRAIGHT_TIME : Money.toMultiplierHundredths(number(key, value));
+    }
+
+    private static double number(String key, String value) {
+        try {
+            double number = Double.parseDouble(value.trim());
+            if (number < 0 || Double.isNaN(number) || Double.isInfinite(number)) {
+                throw new NumberFormatException();
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a valid non-negative number for " + key + ": " + value);
+        }
+    }
+}
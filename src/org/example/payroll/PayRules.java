@@ -0,0 +1,114 @@
+package org.example.payroll;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the pay rule sets employees can be paid under, looked up by name.
+ *
+ * The Alberta rules the calculator has always used are built in as {@value #DEFAULT_NAME}. More rule sets are
+ * loaded from a properties file named by the {@code payroll.rules} system property, or at run time through
+ * {@link #load(Properties)}. See {@link PayRuleSet#parse(String, Properties)} for the keys.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class PayRules {
+    /**
+     * Name of the built-in Alberta rule set used when an employee does not choose one.
+     */
+    public static final String DEFAULT_NAME = "alberta";
+
+    // 7.5 hours a day at straight time, then time and a half; every hour on weekends and holidays at time and a half
+    private static final String BUILT_IN =
+            "ruleset.alberta.daily.tiers=7.5:1.5\n"
+                    + "ruleset.alberta.weekend.multiplier=1.5\n"
+                    + "ruleset.alberta.holiday.multiplier=1.5\n";
+
+    private static final String PREFIX = "ruleset.";
+    private static final ConcurrentHashMap<String, PayRuleSet> RULE_SETS = new ConcurrentHashMap<>();
+    private static final PayRuleSet DEFAULT;
+
+    static {
+        Properties builtIn = new Properties();
+        try {
+            builtIn.load(new StringReader(BUILT_IN));
+            load(builtIn);
+            String file = System.getProperty("payroll.rules");
+            if (file != null) {
+                load(Paths.get(file));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load pay rules", e);
+        }
+        DEFAULT = RULE_SETS.get(DEFAULT_NAME);
+    }
+
+    private PayRules() {
+    }
+
+    /**
+     * Returns the built-in Alberta rule set.
+     *
+     * @return the default {@link PayRuleSet}
+     */
+    public static PayRuleSet getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the rule set registered under the given name.
+     *
+     * @param name the rule set name
+     * @return the matching {@link PayRuleSet}, or {@code null} if there is none
+     */
+    public static PayRuleSet get(String name) {
+        return RULE_SETS.get(name);
+    }
+
+    /**
+     * Compiles and registers every rule set declared in the given configuration, replacing rule sets with the
+     * same names. Employees already paid under a replaced rule set keep the old rules until they are given the
+     * new one.
+     *
+     * @param config the configuration to read
+     * @return the number of rule sets registered
+     * @throws IllegalArgumentException if a rule set is malformed; no rule set is registered in that case
+     */
+    public static int load(Properties config) {
+        ConcurrentHashMap<String, PayRuleSet> parsed = new ConcurrentHashMap<>();
+        for (String key : config.stringPropertyNames()) {
+            int end = key.indexOf('.', PREFIX.length());
+            if (key.startsWith(PREFIX) && end > PREFIX.length()) {
+                String name = key.substring(PREFIX.length(), end);
+                parsed.computeIfAbsent(name, n -> PayRuleSet.parse(n, config));
+            }
+        }
+        RULE_SETS.putAll(parsed);
+        return parsed.size();
+    }
+
+    /**
+     * Compiles and registers every rule set declared in the given properties file.
+     *
+     * @param file the properties file to read
+     * @return the number of rule sets registered
+     * @throws IOException if the file cannot be read
+     */
+    public static int load(Path file) throws IOException {
+        Properties config = new Properties();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            config.load(in);
+        }
+        return load(config);
+    }
+}
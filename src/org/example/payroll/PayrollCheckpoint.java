@@ -0,0 +1,283 @@
+package org.example.payroll;
+
+import org.example.Money;
+import org.example.models.Employee;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Progress of a {@link ResumablePayrollRun}: how many employees have been paid, the last of them, and the
+ * totals so far. A finished run's checkpoint is its result.
+ *
+ * Besides the totals, a checkpoint carries a digest chained over the ID and total pay of every employee paid
+ * so far, in order. Two runs over the same employees end with the same digest only if every employee was paid
+ * the same amount, so comparing digests verifies that a resumed run matches an uninterrupted one. It also
+ * carries a fingerprint of the employees the run is over, so a checkpoint is never resumed against different
+ * data.
+ *
+ * Checkpoints are written to a temporary file that is forced to disk and then renamed, so a checkpoint file is
+ * either complete or absent, and a CRC catches any other damage.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public final class PayrollCheckpoint {
+    private static final int MAGIC = 0x50434B50;  // "PCKP"
+    private static final int VERSION = 1;
+    // Magic, version, fingerprint, employee count, position, last ID, entries, pay, digest, CRC
+    private static final int SIZE = 4 + 4 + 8 + 4 + 4 + 8 + 8 + 8 + 8 + 4;
+
+    // Odd 64-bit constants for the chained digest and fingerprint
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+
+    private final long fingerprint;
+    private final int employeeCount;
+    private final int position;
+    private final long lastEmployeeId;
+    private final long entryCount;
+    private final long totalPayCents;
+    private final long digest;
+    private final int resumedAt;
+
+    private PayrollCheckpoint(long fingerprint, int employeeCount, int position, long lastEmployeeId,
+                              long entryCount, long totalPayCents, long digest, int resumedAt) {
+        this.fingerprint = fingerprint;
+        this.employeeCount = employeeCount;
+        this.position = position;
+        this.lastEmployeeId = lastEmployeeId;
+        this.entryCount = entryCount;
+        this.totalPayCents = totalPayCents;
+        this.digest = digest;
+        this.resumedAt = resumedAt;
+    }
+
+    /**
+     * Creates the checkpoint of a run over the given employees that has not paid anyone yet.
+     *
+     * @param employees the employees of the run, in the order they are paid
+     * @return the starting checkpoint
+     */
+    static PayrollCheckpoint start(List<Employee> employees) {
+        return new PayrollCheckpoint(fingerprint(employees), employees.size(), 0, 0, 0, 0, SEED, 0);
+    }
+
+    /**
+     * Returns the fingerprint of a list of employees: their number, and the ID, work entry count and stored
+     * total pay of each, in order. Adding an employee or a work entry, or anything that recalculates pay,
+     * changes it.
+     *
+     * @param employees the employees of a run
+     * @return the fingerprint
+     */
+    static long fingerprint(List<Employee> employees) {
+        long hash = mix(SEED, employees.size());
+        for (Employee employee : employees) {
+            synchronized (employee) {
+                hash = mix(mix(mix(hash, employee.getId()), employee.getWorkEntryStore().size()),
+                        employee.getTotalPayCents());
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the checkpoint after paying one more employee.
+     *
+     * @param id the ID of the employee
+     * @param entries the number of the employee's work entries that were paid
+     * @param payCents the employee's total pay in cents
+     * @return the new checkpoint
+     */
+    PayrollCheckpoint advance(long id, long entries, long payCents) {
+        return new PayrollCheckpoint(fingerprint, employeeCount, position + 1, id, entryCount + entries,
+                totalPayCents + payCents, mix(mix(digest, id), payCents), resumedAt);
+    }
+
+    /**
+     * Returns a copy of this checkpoint recording that the run was resumed from it.
+     *
+     * @return the copy
+     */
+    PayrollCheckpoint resumed() {
+        return new PayrollCheckpoint(fingerprint, employeeCount, position, lastEmployeeId, entryCount, totalPayCents,
+                digest, position);
+    }
+
+    /**
+     * Writes the checkpoint to a file, replacing it atomically.
+     *
+     * @param file the checkpoint file
+     * @throws IOException if the file cannot be written
+     */
+    void write(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(fingerprint).putInt(employeeCount).putInt(position)
+                .putLong(lastEmployeeId).putLong(entryCount).putLong(totalPayCents).putLong(digest);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue()).flip();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a checkpoint file. A file that is truncated, damaged or not a checkpoint at all cannot be resumed
+     * from, so it is reported on standard error and treated as if there were no checkpoint.
+     *
+     * @param file the checkpoint file
+     * @return the checkpoint, or {@code null} if there is no such file or it is not an intact checkpoint
+     * @throws IOException if the file cannot be read
+     */
+    static PayrollCheckpoint read(Path file) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length != SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return discard(file, "not a version " + VERSION + " payroll checkpoint");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, SIZE - 4);
+        PayrollCheckpoint checkpoint = new PayrollCheckpoint(buffer.getLong(), buffer.getInt(), buffer.getInt(),
+                buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong(), 0);
+        if (buffer.getInt() != (int) crc.getValue()) {
+            return discard(file, "the checksum does not match");
+        }
+        if (checkpoint.position < 0 || checkpoint.position > checkpoint.employeeCount) {
+            return discard(file, "position " + checkpoint.position + " is outside the run");
+        }
+        return checkpoint;
+    }
+
+    // Method to report a checkpoint file that cannot be resumed from, so the run starts from the beginning
+    private static PayrollCheckpoint discard(Path file, String reason) {
+        System.err.println("Discarding payroll checkpoint " + file + ": " + reason);
+        return null;
+    }
+
+    /**
+     * Returns the fingerprint of the employees the run is over.
+     *
+     * @return the fingerprint
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Returns the number of employees in the run.
+     *
+     * @return the employee count
+     */
+    public int getEmployeeCount() {
+        return employeeCount;
+    }
+
+    /**
+     * Returns the number of employees paid so far. Employees are paid in list order, so these are the first
+     * employees of the run.
+     *
+     * @return the number of employees paid
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Returns the ID of the last employee paid.
+     *
+     * @return the employee ID, or 0 if nobody has been paid yet
+     */
+    public long getLastEmployeeId() {
+        return lastEmployeeId;
+    }
+
+    /**
+     * Checks whether every employee of the run has been paid.
+     *
+     * @return {@code true} if the run is finished
+     */
+    public boolean isComplete() {
+        return position == employeeCount;
+    }
+
+    /**
+     * Returns the number of work entries paid so far.
+     *
+     * @return the entry count
+     */
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Returns the total pay of the employees paid so far.
+     *
+     * @return the total pay in cents
+     */
+    public long getTotalPayCents() {
+        return totalPayCents;
+    }
+
+    /**
+     * Returns the total pay of the employees paid so far.
+     *
+     * @return the total pay in dollars
+     */
+    public double getTotalPay() {
+        return Money.toDollars(totalPayCents);
+    }
+
+    /**
+     * Returns the digest of the ID and total pay of every employee paid so far, in order.
+     *
+     * @return the digest
+     */
+    public long getDigest() {
+        return digest;
+    }
+
+    /**
+     * Returns how many employees had already been paid when this run was resumed.
+     *
+     * @return the position the run resumed from, or 0 if it started from the beginning
+     */
+    public int getResumedAt() {
+        return resumedAt;
+    }
+
+    // Method to fold one value into a chained hash; the multiply and shifts spread every input bit
+    private static long mix(long hash, long value) {
+        long h = (hash ^ value) * MULTIPLIER;
+        return h ^ (h >>> 29) ^ (h >>> 47);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Payroll run: %d of %d employees, %d entries, total %.2f, digest %016x%s",
+                position, employeeCount, entryCount, getTotalPay(), digest,
+                resumedAt > 0 ? ", resumed after " + resumedAt + " employees" : "");
+    }
+}
@@ -0,0 +1,168 @@
+package org.example.payroll;
+
+import org.example.metrics.Metrics;
+import org.example.metrics.PayrollRunEvent;
+import org.example.models.Employee;
+import org.example.models.WorkEntryStore;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes a payroll run over a list of employees, spreading the daily pay calculation across cores
+ * with a {@link ForkJoinPool}.
+ *
+ * The employee list is split into ranges that are processed in parallel. Pay is added up in whole cents, so
+ * a parallel run produces exactly the same totals as {@link #runSequential(List)} regardless of how the work
+ * is split.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class PayrollEngine {
+    // Number of employees below which a range is processed without splitting further
+    private static final int SPLIT_THRESHOLD = 256;
+
+    private final int parallelism;
+
+    /**
+     * Creates an engine that uses all available processors.
+     */
+    public PayrollEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an engine with the given level of parallelism.
+     *
+     * @param parallelism the number of worker threads to use; must be at least 1
+     */
+    public PayrollEngine(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns the number of worker threads this engine uses.
+     *
+     * @return the parallelism level
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Calculates the pay of every employee in parallel.
+     *
+     * @param employees the employees to include in the run
+     * @return the result of the payroll run
+     */
+    public PayrollResult run(List<Employee> employees) {
+        PayrollRunEvent event = new PayrollRunEvent();
+        event.begin();
+        long start = System.nanoTime();
+        long[] totals = new long[employees.size()];
+        long[] entryCounts = new long[employees.size()];
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new PayTask(employees, totals, entryCounts, 0, employees.size()));
+        } finally {
+            pool.shutdown();
+        }
+
+        return record(event, "parallel", parallelism, combine(totals, entryCounts, System.nanoTime() - start));
+    }
+
+    /**
+     * Calculates the pay of every employee on the calling thread.
+     *
+     * @param employees the employees to include in the run
+     * @return the result of the payroll run
+     */
+    public PayrollResult runSequential(List<Employee> employees) {
+        PayrollRunEvent event = new PayrollRunEvent();
+        event.begin();
+        long start = System.nanoTime();
+        long[] totals = new long[employees.size()];
+        long[] entryCounts = new long[employees.size()];
+
+        calculateRange(employees, totals, entryCounts, 0, employees.size());
+
+        return record(event, "sequential", 1, combine(totals, entryCounts, System.nanoTime() - start));
+    }
+
+    // Method to publish a finished run to JFR and the run histogram
+    private static PayrollResult record(PayrollRunEvent event, String kind, int parallelism, PayrollResult result) {
+        event.finish(kind, parallelism, result.getEmployeeCount(), result.getEntryCount(), result.getTotalPayCents());
+        if (Metrics.ENABLED) {
+            Metrics.PAYROLL_RUN.record(result.getElapsedNanos());
+        }
+        return result;
+    }
+
+    // Method to calculate the totals for employees in [from, to)
+    private static void calculateRange(List<Employee> employees, long[] totals, long[] entryCounts, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Employee employee = employees.get(i);
+            long total = 0;
+            long count = 0;
+            synchronized (employee) {
+                WorkEntryStore entries = employee.getWorkEntryStore();
+                for (int e = 0; e < entries.size(); e++) {
+                    total += employee.calculateDailyPay(entries.getEpochDay(e), entries.getHoursWorked(e));
+                }
+                count = entries.size();
+            }
+            totals[i] = total;
+            entryCounts[i] = count;
+        }
+    }
+
+    // Method to add up the per-employee totals in list order
+    private static PayrollResult combine(long[] totals, long[] entryCounts, long elapsedNanos) {
+        long totalPay = 0;
+        long entries = 0;
+        for (int i = 0; i < totals.length; i++) {
+            totalPay += totals[i];
+            entries += entryCounts[i];
+        }
+        return new PayrollResult(totals, totalPay, totals.length, entries, elapsedNanos);
+    }
+
+    /**
+     * Fork/join task that splits an employee range in half until it is small enough to process directly.
+     */
+    private static class PayTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Employee> employees;
+        private final long[] totals;
+        private final long[] entryCounts;
+        private final int from;
+        private final int to;
+
+        PayTask(List<Employee> employees, long[] totals, long[] entryCounts, int from, int to) {
+            this.employees = employees;
+            this.totals = totals;
+            this.entryCounts = entryCounts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                calculateRange(employees, totals, entryCounts, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new PayTask(employees, totals, entryCounts, from, mid),
+                    new PayTask(employees, totals, entryCounts, mid, to));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.payroll;
+
+import org.example.HolidayCalendar;
+import org.example.data.EmployeeDB;
+import org.example.models.Employee;
+
+import java.time.LocalDate;
+
+/**
+ * Keeps calculated pay up to date when the holiday calendar changes, without recalculating every work entry.
+ *
+ * A holiday change only affects entries on that one date, and every employee indexes its entries by date, so
+ * each employee costs a single index lookup and at most one entry is recalculated per employee. Total pay is
+ * adjusted by the difference. Rate changes are handled by {@link Employee#changeHourlyRate(double, LocalDate)}
+ * and {@link EmployeeDB#changeHourlyRate(long, double, LocalDate)}, which recalculate only the entries on or
+ * after the effective date.
+ *
+ * The methods that work on the stored employees go through {@link EmployeeDB#addHoliday(LocalDate)} and
+ * {@link EmployeeDB#removeHoliday(LocalDate)}, which journal the change so it survives a restart. The methods
+ * that take their own employees only change the calendar in memory.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class PayrollRecalculator {
+
+    private PayrollRecalculator() {
+    }
+
+    /**
+     * Makes the given date a holiday and recalculates the pay of every stored employee who worked that day.
+     *
+     * @param date the new holiday
+     * @return the change in total pay across all employees, in cents
+     */
+    public static long addHoliday(LocalDate date) {
+        return EmployeeDB.addHoliday(date);
+    }
+
+    /**
+     * Makes the given date a holiday and recalculates the pay of the given employees who worked that day.
+     *
+     * @param date the new holiday
+     * @param employees the employees whose pay should be kept up to date
+     * @return the change in total pay across the given employees, in cents
+     */
+    public static long addHoliday(LocalDate date, Iterable<Employee> employees) {
+        if (!HolidayCalendar.addHoliday(date)) {
+            return 0;
+        }
+        return recalculateDate(date, employees);
+    }
+
+    /**
+     * Makes the given date an ordinary day again and recalculates the pay of every stored employee who worked
+     * that day.
+     *
+     * @param date the date that is no longer a holiday
+     * @return the change in total pay across all employees, in cents
+     */
+    public static long removeHoliday(LocalDate date) {
+        return EmployeeDB.removeHoliday(date);
+    }
+
+    /**
+     * Makes the given date an ordinary day again and recalculates the pay of the given employees who worked
+     * that day.
+     *
+     * @param date the date that is no longer a holiday
+     * @param employees the employees whose pay should be kept up to date
+     * @return the change in total pay across the given employees, in cents
+     */
+    public static long removeHoliday(LocalDate date, Iterable<Employee> employees) {
+        if (!HolidayCalendar.removeHoliday(date)) {
+            return 0;
+        }
+        return recalculateDate(date, employees);
+    }
+
+    /**
+     * Recalculates every work entry of the given employees. This is the full recompute that the incremental
+     * methods avoid; it is useful after changes this class does not track.
+     *
+     * @param employees the employees to recalculate
+     * @return the change in total pay across the given employees, in cents
+     */
+    public static long recalculateAll(Iterable<Employee> employees) {
+        long delta = 0;
+        for (Employee employee : employees) {
+            delta += employee.recalculateWorkEntries();
+        }
+        return delta;
+    }
+
+    /**
+     * Recalculates the work entry on one date for each of the given employees that has one, after that date's
+     * type changed in the {@link HolidayCalendar}.
+     *
+     * @param date the changed date
+     * @param employees the employees whose pay should be kept up to date
+     * @return the change in total pay across the given employees, in cents
+     */
+    public static long recalculateDate(LocalDate date, Iterable<Employee> employees) {
+        int epochDay = (int) date.toEpochDay();
+        long delta = 0;
+        for (Employee employee : employees) {
+            // The lookup and the recalculation share the employee's lock, so an entry added concurrently is
+            // either seen here or calculated with the changed calendar
+            synchronized (employee) {
+                int index = employee.indexOfWorkEntry(epochDay);
+                if (index >= 0) {
+                    delta += employee.recalculateWorkEntry(index);
+                }
+            }
+        }
+        return delta;
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.payroll;
+
+import org.example.Money;
+
+/**
+ * Holds the outcome of a payroll run: the total pay of each employee, the overall total and
+ * the throughput of the run.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class PayrollResult {
+    private final long[] employeeTotals;
+    private final long totalPayCents;
+    private final int employeeCount;
+    private final long entryCount;
+    private final long elapsedNanos;
+
+    /**
+     * Constructs a new {@code PayrollResult}.
+     *
+     * @param employeeTotals the total pay of each employee in cents, in the order the employees were given
+     * @param totalPayCents the total pay of all employees in cents
+     * @param employeeCount the number of employees in the run
+     * @param entryCount the number of work entries calculated
+     * @param elapsedNanos the wall-clock duration of the run in nanoseconds
+     */
+    public PayrollResult(long[] employeeTotals, long totalPayCents, int employeeCount, long entryCount,
+                         long elapsedNanos) {
+        this.employeeTotals = employeeTotals;
+        this.totalPayCents = totalPayCents;
+        this.employeeCount = employeeCount;
+        this.entryCount = entryCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the total pay of the employee at the given position in the run.
+     *
+     * @param index the position of the employee in the list passed to the engine
+     * @return the employee's total pay in cents
+     */
+    public long getEmployeeTotalCents(int index) {
+        return employeeTotals[index];
+    }
+
+    /**
+     * Returns the total pay of all employees.
+     *
+     * @return the total pay in cents
+     */
+    public long getTotalPayCents() {
+        return totalPayCents;
+    }
+
+    /**
+     * Returns the total pay of all employees.
+     *
+     * @return the total pay in dollars
+     */
+    public double getTotalPay() {
+        return Money.toDollars(totalPayCents);
+    }
+
+    /**
+     * Returns the number of employees in the run.
+     *
+     * @return the employee count
+     */
+    public int getEmployeeCount() {
+        return employeeCount;
+    }
+
+    /**
+     * Returns the number of work entries calculated.
+     *
+     * @return the entry count
+     */
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Returns the wall-clock duration of the run.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the throughput of the run.
+     *
+     * @return the number of work entries calculated per second
+     */
+    public double getEntriesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : entryCount * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Payroll run: %d employees, %d entries, total %.2f, %.0f entries/s",
+                employeeCount, entryCount, getTotalPay(), getEntriesPerSecond());
+    }
+}
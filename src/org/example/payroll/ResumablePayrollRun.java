@@ -0,0 +1,106 @@
+package org.example.payroll;
+
+import org.example.models.Employee;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Payroll run over a large list of employees that records its progress in a checkpoint file, so that a run
+ * that is interrupted, for example by a crash or a killed process, picks up where it left off instead of
+ * starting again.
+ *
+ * Employees are paid in list order, in partitions of {@code checkpointEvery} employees, each calculated by a
+ * {@link PayrollEngine}. After each partition the {@link PayrollCheckpoint} holding the position and the
+ * totals so far is written to the checkpoint file. When a run starts and the file holds a checkpoint for the
+ * same employees, the run skips the employees it has already paid. A checkpoint for different employees, or a
+ * file that is truncated, damaged or not a checkpoint, is reported and discarded and the run starts from the
+ * beginning. The file is deleted once the run is finished.
+ *
+ * Pay is added up in whole cents and the checkpoint's digest is chained over every employee in order, so a
+ * resumed run ends with exactly the totals and digest of an uninterrupted one. Pass the employees in the same
+ * order every time, as {@link org.example.data.EmployeeDB#getAllEmployees()} returns them.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class ResumablePayrollRun {
+    private final Path checkpointFile;
+    private final int checkpointEvery;
+    private final PayrollEngine engine;
+
+    /**
+     * Creates a run that uses all available processors.
+     *
+     * @param checkpointFile the file to keep the checkpoint in
+     * @param checkpointEvery the number of employees to pay between checkpoints
+     */
+    public ResumablePayrollRun(Path checkpointFile, int checkpointEvery) {
+        this(checkpointFile, checkpointEvery, new PayrollEngine());
+    }
+
+    /**
+     * Creates a run that calculates each partition with the given engine.
+     *
+     * @param checkpointFile the file to keep the checkpoint in
+     * @param checkpointEvery the number of employees to pay between checkpoints; must be at least 1
+     * @param engine the engine to calculate pay with
+     */
+    public ResumablePayrollRun(Path checkpointFile, int checkpointEvery, PayrollEngine engine) {
+        if (checkpointEvery < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be at least 1: " + checkpointEvery);
+        }
+        this.checkpointFile = checkpointFile;
+        this.checkpointEvery = checkpointEvery;
+        this.engine = engine;
+    }
+
+    /**
+     * Pays every employee not yet paid according to the checkpoint file, checkpointing as it goes.
+     *
+     * @param employees the employees to include in the run, in the same order on every attempt
+     * @return the final checkpoint, holding the totals and digest of the whole run
+     * @throws IOException if the checkpoint file cannot be read or written
+     */
+    public PayrollCheckpoint run(List<Employee> employees) throws IOException {
+        PayrollCheckpoint checkpoint = PayrollCheckpoint.start(employees);
+        PayrollCheckpoint saved = PayrollCheckpoint.read(checkpointFile);
+        if (saved != null) {
+            if (saved.getFingerprint() == checkpoint.getFingerprint() && saved.getEmployeeCount() == employees.size()) {
+                checkpoint = saved.resumed();
+            } else {
+                System.err.println("Discarding payroll checkpoint " + checkpointFile + ": the employees have changed");
+            }
+        }
+
+        while (!checkpoint.isComplete()) {
+            int from = checkpoint.getPosition();
+            int to = (int) Math.min((long) from + checkpointEvery, employees.size());
+            PayrollResult partition = engine.run(employees.subList(from, to));
+            for (int i = from; i < to; i++) {
+                Employee employee = employees.get(i);
+                long entries;
+                synchronized (employee) {
+                    entries = employee.getWorkEntryStore().size();
+                }
+                checkpoint = checkpoint.advance(employee.getId(), entries, partition.getEmployeeTotalCents(i - from));
+            }
+            checkpoint.write(checkpointFile);
+        }
+
+        Files.deleteIfExists(checkpointFile);
+        return checkpoint;
+    }
+
+    /**
+     * Returns the file the checkpoint is kept in.
+     *
+     * @return the checkpoint file
+     */
+    public Path getCheckpointFile() {
+        return checkpointFile;
+    }
+}
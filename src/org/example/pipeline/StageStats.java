@@ -0,0 +1,183 @@
+package org.example.pipeline;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Throughput and queue figures for one stage of a {@link TimesheetPipeline}, for choosing the number of threads
+ * of each stage and the size of the queues between them.
+ *
+ * A stage's time is split three ways. Busy time is spent working on batches. Blocked time is spent waiting for
+ * room in the next stage's queue, which means a later stage is the bottleneck. The rest is idle time waiting for
+ * work, which means an earlier stage is. The queue figures are for the stage's own input queue: a queue that is
+ * often full belongs to a stage that needs more threads.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public final class StageStats {
+    private final String name;
+    private final String unit;
+    private final int threads;
+    private final int queueCapacity;
+    private final IntSupplier queueDepth;
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder items = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+    private final LongAdder blockedNanos = new LongAdder();
+    private final LongAccumulator maxQueueDepth = new LongAccumulator(Math::max, 0);
+
+    StageStats(String name, String unit, int threads, int queueCapacity, IntSupplier queueDepth) {
+        this.name = name;
+        this.unit = unit;
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        this.queueDepth = queueDepth;
+    }
+
+    // Method to record one finished batch; the time spent blocked is not counted as busy
+    void recordBatch(int batchItems, long nanos, long blocked) {
+        batches.increment();
+        items.add(batchItems);
+        busyNanos.add(nanos - blocked);
+        blockedNanos.add(blocked);
+    }
+
+    // Method to note the depth of the input queue after a batch was put in it
+    void sampleQueueDepth(int depth) {
+        maxQueueDepth.accumulate(depth);
+    }
+
+    /**
+     * Returns the name of the stage.
+     *
+     * @return {@code ingest}, {@code validate}, {@code calculate} or {@code persist}
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns what the stage counts as items, such as rows or employees.
+     *
+     * @return the item unit
+     */
+    public String getUnit() {
+        return unit;
+    }
+
+    /**
+     * Returns the number of threads working in the stage.
+     *
+     * @return the thread count
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Returns the number of batches the stage has finished.
+     *
+     * @return the batch count
+     */
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * Returns the number of items the stage has handled, counted in {@link #getUnit()}.
+     *
+     * @return the item count
+     */
+    public long getItems() {
+        return items.sum();
+    }
+
+    /**
+     * Returns the time the stage's threads spent working on batches, summed over the threads.
+     *
+     * @return the busy time in nanoseconds
+     */
+    public long getBusyNanos() {
+        return busyNanos.sum();
+    }
+
+    /**
+     * Returns the time the stage's threads spent waiting for room in the next stage's queue, summed over the
+     * threads.
+     *
+     * @return the blocked time in nanoseconds
+     */
+    public long getBlockedNanos() {
+        return blockedNanos.sum();
+    }
+
+    /**
+     * Returns the number of items one thread of the stage handles per second of busy time. Multiplied by the
+     * number of threads, this is the most the stage can handle if it never waits.
+     *
+     * @return items per busy second of one thread
+     */
+    public double getItemsPerBusySecond() {
+        long busy = getBusyNanos();
+        return busy == 0 ? 0 : getItems() * 1e9 / busy;
+    }
+
+    /**
+     * Returns the share of the stage's threads' time that was spent busy over a run of the given length.
+     *
+     * @param elapsedNanos the length of the run in nanoseconds
+     * @return the busy share, from 0 to 1
+     */
+    public double getUtilization(long elapsedNanos) {
+        return elapsedNanos <= 0 ? 0 : Math.min(1, (double) getBusyNanos() / ((double) elapsedNanos * threads));
+    }
+
+    /**
+     * Returns the capacity of the stage's input queue, in batches.
+     *
+     * @return the queue capacity, or 0 for the ingest stage, which has no input queue
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Returns the number of batches waiting in the stage's input queue now.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return queueDepth.getAsInt();
+    }
+
+    /**
+     * Returns the largest number of batches seen waiting in the stage's input queue.
+     *
+     * @return the maximum queue depth
+     */
+    public long getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * Describes the stage's figures over a run of the given length.
+     *
+     * @param elapsedNanos the length of the run in nanoseconds
+     * @return one line of text
+     */
+    public String describe(long elapsedNanos) {
+        return String.format("%-9s x%d: %,d %s in %,d batches, %,.0f %s/s per thread, busy %.0f%%, blocked %.0f%%,"
+                        + " queue max %d/%d", name, threads, getItems(), unit, getBatches(), getItemsPerBusySecond(),
+                unit, getUtilization(elapsedNanos) * 100,
+                elapsedNanos <= 0 ? 0 : getBlockedNanos() * 100.0 / ((double) elapsedNanos * threads),
+                getMaxQueueDepth(), queueCapacity);
+    }
+
+    @Override
+    public String toString() {
+        return "StageStats[" + name + ", threads=" + threads + ", items=" + getItems() + "]";
+    }
+}
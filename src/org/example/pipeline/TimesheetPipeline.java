@@ -0,0 +1,672 @@
+package org.example.pipeline;
+
+import org.example.TimesheetRow;
+import org.example.Validation;
+import org.example.data.EmployeeDB;
+import org.example.metrics.LatencyHistogram;
+import org.example.metrics.Metrics;
+import org.example.models.Employee;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Loads a timesheet CSV file into {@link EmployeeDB} in four stages that run at the same time, each on its own
+ * threads, so that reading the file, validating rows, calculating pay and storing employees overlap instead of
+ * taking turns on one thread:
+ * <ol>
+ *     <li>ingest, one thread: reads lines and cuts them into batches</li>
+ *     <li>validate: parses and validates rows, as {@link org.example.BatchPayroll} does</li>
+ *     <li>calculate: creates the employees and calculates the pay of their work entries</li>
+ *     <li>persist, one thread: stores the employees, journaling them when the database is persistent</li>
+ * </ol>
+ *
+ * Rows travel between stages in batches, through bounded queues backed by ring buffers. A stage that falls
+ * behind fills its input queue and the stage before it waits for room, so memory use is bounded by the queue
+ * capacities however large the input is. The figures in {@link StageStats} show which stage holds the others
+ * up; with {@code -Dpayroll.metrics=true} the queue depths and the time per batch of each stage are also
+ * published as {@link Metrics}.
+ *
+ * The input has the {@code employee,rate,date,hours} rows of {@link org.example.BatchPayroll}, and as there, a
+ * new employee starts whenever the name or rate changes from one row to the next. Batches are only cut before
+ * a row that starts a new employee, so each employee's rows are in one batch and the calculate stage is
+ * partitioned by employee: no two threads ever work on the same employee. Rows that fail validation are
+ * skipped and reported on standard error.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class TimesheetPipeline {
+    /**
+     * Number of rows per batch unless another is chosen.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /**
+     * Number of batches each queue holds unless another is chosen.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Marks the end of the input in a queue; one is queued for each thread of the stage reading the queue
+    private static final Object END = new Object();
+
+    private final int validateThreads;
+    private final int calculateThreads;
+    private final int batchSize;
+    private final int queueCapacity;
+
+    /**
+     * Creates a pipeline that splits the available processors between the validate and calculate stages.
+     */
+    public TimesheetPipeline() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2), DEFAULT_BATCH_SIZE,
+                DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates a pipeline with the given number of threads per stage and the given batch and queue sizes.
+     *
+     * @param validateThreads the number of threads validating rows
+     * @param calculateThreads the number of threads calculating pay
+     * @param batchSize the number of rows per batch; a batch may hold more to keep an employee's rows together
+     * @param queueCapacity the number of batches each queue between stages holds
+     */
+    public TimesheetPipeline(int validateThreads, int calculateThreads, int batchSize, int queueCapacity) {
+        if (validateThreads < 1 || calculateThreads < 1 || batchSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Thread counts, batch size and queue capacity must be at least 1");
+        }
+        this.validateThreads = validateThreads;
+        this.calculateThreads = calculateThreads;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Reads every row of the timesheet file and stores the resulting employees in {@link EmployeeDB}. If a
+     * stage fails, the pipeline stops reading, lets the batches already queued drain without working on them
+     * and throws; employees stored before the failure stay stored.
+     *
+     * @param input the timesheet CSV file to read
+     * @return the counts of employees, entries and rejected rows, and the figures of each stage
+     * @throws IOException if the input cannot be read, the employees cannot be journaled, or the run is
+     *         interrupted
+     */
+    public Result run(Path input) throws IOException {
+        return new Run(input).execute();
+    }
+
+    /**
+     * One pass of the pipeline over an input file, with its own stages, threads and counts.
+     */
+    private final class Run {
+        private final Path input;
+        private final long today = LocalDate.now().toEpochDay();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private final LongAdder rejected = new LongAdder();
+
+        private final Ingest ingest = new Ingest();
+        private final Validate validate = new Validate();
+        private final Calculate calculate = new Calculate();
+        private final Persist persist = new Persist();
+        private final List<Stage<?>> stages = List.of(ingest, validate, calculate, persist);
+
+        // Written only by the persist thread, and read once it has finished
+        private long employees;
+        private long entries;
+        private long totalPayCents;
+
+        Run(Path input) {
+            this.input = input;
+            ingest.next = validate;
+            validate.next = calculate;
+            calculate.next = persist;
+        }
+
+        Result execute() throws IOException {
+            List<LongSupplier> gauges = new ArrayList<>();
+            for (Stage<?> stage : stages) {
+                LongSupplier depth = stage.stats::getQueueDepth;
+                gauges.add(depth);
+                if (stage.queue != null) {
+                    Metrics.registerGauge("pipeline.queue." + stage.stats.getName(), depth);
+                }
+            }
+
+            long start = System.nanoTime();
+            try {
+                for (int i = stages.size() - 1; i >= 0; i--) {
+                    stages.get(i).start();
+                }
+                awaitFinished();
+            } finally {
+                for (int i = 0; i < stages.size(); i++) {
+                    stages.get(i).pool.shutdown();
+                    Metrics.removeGauge("pipeline.queue." + stages.get(i).stats.getName(), gauges.get(i));
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+
+            Throwable t = failure.get();
+            if (t instanceof IOException) {
+                throw (IOException) t;
+            }
+            if (t instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) t).getCause();
+            }
+            if (t instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Timesheet pipeline interrupted");
+            }
+            if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            }
+            if (t instanceof Error) {
+                throw (Error) t;
+            }
+
+            List<StageStats> stats = new ArrayList<>();
+            stages.forEach(stage -> stats.add(stage.stats));
+            return new Result(employees, entries, rejected.sum(), totalPayCents, elapsed, stats);
+        }
+
+        // Method to wait for the last stage; an interrupt stops the run early, but the stages still drain
+        private void awaitFinished() {
+            while (true) {
+                try {
+                    finished.await();
+                    return;
+                } catch (InterruptedException e) {
+                    fail(e);
+                }
+            }
+        }
+
+        private void fail(Throwable t) {
+            failure.compareAndSet(null, t);
+        }
+
+        // Method to report a skipped row
+        private void reject(long lineNumber, String reason) {
+            rejected.increment();
+            System.err.println("Line " + lineNumber + " skipped: " + reason);
+        }
+
+        /**
+         * A stage of the pipeline: a pool of threads taking batches from an input queue and handing each result
+         * to the next stage.
+         *
+         * @param <I> the type of batch the stage takes
+         */
+        private abstract class Stage<I> {
+            final StageStats stats;
+            final ArrayBlockingQueue<Object> queue;
+            final ExecutorService pool;
+            private final int threads;
+            private final LatencyHistogram histogram;
+            private final AtomicInteger running;
+            Stage<?> next;
+
+            Stage(String name, String unit, int threads, int capacity, LatencyHistogram histogram) {
+                this.threads = threads;
+                this.histogram = histogram;
+                this.running = new AtomicInteger(threads);
+                this.queue = capacity > 0 ? new ArrayBlockingQueue<>(capacity) : null;
+                this.stats = new StageStats(name, unit, threads, capacity, queue != null ? queue::size : () -> 0);
+                AtomicInteger count = new AtomicInteger();
+                this.pool = Executors.newFixedThreadPool(threads, r -> {
+                    Thread thread = new Thread(r, "pipeline-" + name + "-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+
+            void start() {
+                for (int i = 0; i < threads; i++) {
+                    pool.execute(this::work);
+                }
+            }
+
+            // Method run by each thread of the stage until it takes the end marker
+            void work() {
+                try {
+                    Object batch;
+                    while ((batch = queue.take()) != END) {
+                        if (failure.get() != null) {
+                            // Keep draining so that no earlier stage stays blocked on a full queue
+                            continue;
+                        }
+                        long start = System.nanoTime();
+                        try {
+                            @SuppressWarnings("unchecked")
+                            I in = (I) batch;
+                            Object out = process(in);
+                            long blocked = out != null ? next.put(out) : 0;
+                            record(items(in), start, blocked);
+                        } catch (RuntimeException | Error e) {
+                            fail(e);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    fail(e);
+                } finally {
+                    finishThread();
+                }
+            }
+
+            // Method to work on one batch; returns the batch for the next stage, or null if there is none
+            abstract Object process(I batch);
+
+            // Method to count the items of a batch for the stage's figures
+            abstract int items(I batch);
+
+            // Method to record a finished batch in the stage's figures
+            void record(int items, long start, long blocked) {
+                long nanos = System.nanoTime() - start;
+                stats.recordBatch(items, nanos, blocked);
+                if (Metrics.ENABLED) {
+                    histogram.record(nanos - blocked);
+                }
+            }
+
+            // Method to queue a batch for this stage, waiting for room; returns the time spent waiting
+            long put(Object batch) throws InterruptedException {
+                long start = System.nanoTime();
+                queue.put(batch);
+                long blocked = System.nanoTime() - start;
+                stats.sampleQueueDepth(queue.size());
+                return blocked;
+            }
+
+            // Method to let the next stage finish once the last thread of this one has
+            void finishThread() {
+                if (running.decrementAndGet() > 0) {
+                    return;
+                }
+                if (next == null) {
+                    finished.countDown();
+                    return;
+                }
+                boolean interrupted = false;
+                for (int i = 0; i < next.threads; i++) {
+                    while (true) {
+                        try {
+                            next.queue.put(END);
+                            break;
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        }
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        /**
+         * Reads the input file and cuts it into batches of whole employees.
+         */
+        private final class Ingest extends Stage<Void> {
+            Ingest() {
+                super("ingest", "rows", 1, 0, Metrics.PIPELINE_INGEST);
+            }
+
+            // Method run by the ingest thread: the file takes the place of an input queue
+            @Override
+            void work() {
+                try (BufferedReader reader = new BufferedReader(
+                        Files.newBufferedReader(input, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                    LineBatch batch = new LineBatch(batchSize);
+                    String line;
+                    long lineNumber = 0;
+                    long start = System.nanoTime();
+
+                    while ((line = reader.readLine()) != null && failure.get() == null) {
+                        lineNumber++;
+                        if (line.isBlank() || (lineNumber == 1 && TimesheetRow.isHeader(line))) {
+                            continue;
+                        }
+                        if (batch.size >= batchSize && startsEmployee(batch, line)) {
+                            record(batch.size, start, next.put(batch));
+                            batch = new LineBatch(batchSize);
+                            start = System.nanoTime();
+                        }
+                        batch.add(line, lineNumber);
+                    }
+                    if (batch.size > 0 && failure.get() == null) {
+                        record(batch.size, start, next.put(batch));
+                    }
+                } catch (IOException | InterruptedException | RuntimeException | Error e) {
+                    fail(e);
+                } finally {
+                    finishThread();
+                }
+            }
+
+            @Override
+            Object process(Void batch) {
+                throw new IllegalStateException("The ingest stage has no input queue");
+            }
+
+            @Override
+            int items(Void batch) {
+                return 0;
+            }
+        }
+
+        /**
+         * Parses and validates rows and groups them into employees.
+         */
+        private final class Validate extends Stage<LineBatch> {
+            Validate() {
+                super("validate", "rows", validateThreads, queueCapacity, Metrics.PIPELINE_VALIDATE);
+            }
+
+            @Override
+            Object process(LineBatch batch) {
+                ParsedBatch out = new ParsedBatch(batch.size);
+                TimesheetRow row = new TimesheetRow();
+                String currentName = null;
+                long currentRateCents = -1;
+
+                for (int i = 0; i < batch.size; i++) {
+                    String line = batch.lines[i];
+                    long lineNumber = batch.lineNumbers[i];
+
+                    String problem = row.parse(line);
+                    if (problem != null) {
+                        reject(lineNumber, problem);
+                        continue;
+                    }
+                    long rateCents = row.getRateCents();
+                    long epochDay = row.getEpochDay();
+
+                    // A new employee starts whenever the name or rate changes
+                    if (currentName == null || !row.isName(currentName) || currentRateCents != rateCents) {
+                        String name = row.getName();
+                        Validation.NameCheck nameCheck = Validation.checkName(name);
+                        if (nameCheck != Validation.NameCheck.VALID) {
+                            reject(lineNumber, nameCheck.getMessage());
+                            continue;
+                        }
+                        out.startEmployee(name, row.getRate());
+                        currentName = name;
+                        currentRateCents = rateCents;
+                    }
+
+                    // Duplicates are left to the calculate stage, which has the employee's entries
+                    if (epochDay > today || !Validation.isValidDate((int) epochDay, false)) {
+                        reject(lineNumber, "invalid or duplicate date");
+                        continue;
+                    }
+                    out.addRow((int) epochDay, row.getHoursWorked(), lineNumber);
+                }
+                return out.employees > 0 ? out : null;
+            }
+
+            @Override
+            int items(LineBatch batch) {
+                return batch.size;
+            }
+        }
+
+        /**
+         * Creates the employees of a batch and calculates the pay of their work entries.
+         */
+        private final class Calculate extends Stage<ParsedBatch> {
+            Calculate() {
+                super("calculate", "rows", calculateThreads, queueCapacity, Metrics.PIPELINE_CALCULATE);
+            }
+
+            @Override
+            Object process(ParsedBatch batch) {
+                List<Employee> done = new ArrayList<>(batch.employees);
+                for (int e = 0; e < batch.employees; e++) {
+                    Employee employee = null;
+                    for (int row = batch.firstRows[e]; row < batch.firstRows[e + 1]; row++) {
+                        if (employee == null) {
+                            employee = new Employee(batch.names[e], batch.rates[e]);
+                        } else if (employee.indexOfWorkEntry(batch.epochDays[row]) >= 0) {
+                            if (Metrics.ENABLED) {
+                                Metrics.DATES_REJECTED.increment();
+                            }
+                            reject(batch.lineNumbers[row], "invalid or duplicate date");
+                            continue;
+                        }
+                        employee.addWorkEntry(batch.epochDays[row], batch.hours[row]);
+                    }
+                    if (employee != null) {
+                        done.add(employee);
+                    }
+                }
+                return done.isEmpty() ? null : done;
+            }
+
+            @Override
+            int items(ParsedBatch batch) {
+                return batch.rows;
+            }
+        }
+
+        /**
+         * Stores finished employees; one thread, as the journal records changes one at a time anyway.
+         */
+        private final class Persist extends Stage<List<Employee>> {
+            Persist() {
+                super("persist", "employees", 1, queueCapacity, Metrics.PIPELINE_PERSIST);
+            }
+
+            @Override
+            Object process(List<Employee> batch) {
+                for (Employee employee : batch) {
+                    if (!EmployeeDB.addEmployee(employee)) {
+                        throw new IllegalStateException("Employee ID " + employee.getId() + " is already stored");
+                    }
+                    employees++;
+                    entries += employee.getWorkEntryStore().size();
+                    totalPayCents += employee.getTotalPayCents();
+                }
+                return null;
+            }
+
+            @Override
+            int items(List<Employee> batch) {
+                return batch.size();
+            }
+        }
+    }
+
+    // Method to check whether a batch may be cut before a row: only where the row starts a new employee
+    private static boolean startsEmployee(LineBatch batch, String line) {
+        TimesheetRow row = new TimesheetRow();
+        if (!startsAnyEmployee(row, line)) {
+            return false;
+        }
+        // The current employee is that of the last row that was not rejected before its date was looked at
+        TimesheetRow previous = new TimesheetRow();
+        for (int i = batch.size - 1; i >= 0; i--) {
+            if (startsAnyEmployee(previous, batch.lines[i])) {
+                return previous.getRateCents() != row.getRateCents() || !row.isName(previous.getName());
+            }
+        }
+        return true;
+    }
+
+    // Method to check whether a row passes the checks made before its date, without counting rejections
+    private static boolean startsAnyEmployee(TimesheetRow row, String line) {
+        return row.check(line) && Validation.checkName(row.getName()) == Validation.NameCheck.VALID;
+    }
+
+    /**
+     * Lines read by the ingest stage, with their line numbers for reporting rejected rows.
+     */
+    private static final class LineBatch {
+        String[] lines;
+        long[] lineNumbers;
+        int size;
+
+        LineBatch(int capacity) {
+            lines = new String[capacity];
+            lineNumbers = new long[capacity];
+        }
+
+        // Method to append a line, growing past the batch size to keep an employee's rows together
+        void add(String line, long lineNumber) {
+            if (size == lines.length) {
+                lines = Arrays.copyOf(lines, size * 2);
+                lineNumbers = Arrays.copyOf(lineNumbers, size * 2);
+            }
+            lines[size] = line;
+            lineNumbers[size] = lineNumber;
+            size++;
+        }
+    }
+
+    /**
+     * Validated rows grouped by employee: the rows of employee {@code e} are {@code firstRows[e]} up to
+     * {@code firstRows[e + 1]}.
+     */
+    private static final class ParsedBatch {
+        final String[] names;
+        final double[] rates;
+        final int[] firstRows;
+        final int[] epochDays;
+        final double[] hours;
+        final long[] lineNumbers;
+        int employees;
+        int rows;
+
+        ParsedBatch(int capacity) {
+            names = new String[capacity];
+            rates = new double[capacity];
+            firstRows = new int[capacity + 1];
+            epochDays = new int[capacity];
+            hours = new double[capacity];
+            lineNumbers = new long[capacity];
+        }
+
+        void startEmployee(String name, double rate) {
+            names[employees] = name;
+            rates[employees] = rate;
+            employees++;
+            firstRows[employees] = rows;
+        }
+
+        void addRow(int epochDay, double hoursWorked, long lineNumber) {
+            epochDays[rows] = epochDay;
+            hours[rows] = hoursWorked;
+            lineNumbers[rows] = lineNumber;
+            rows++;
+            firstRows[employees] = rows;
+        }
+    }
+
+    /**
+     * Counts and stage figures of a pipeline run.
+     */
+    public static class Result {
+        private final long employees;
+        private final long entries;
+        private final long rejected;
+        private final long totalPayCents;
+        private final long elapsedNanos;
+        private final List<StageStats> stages;
+
+        Result(long employees, long entries, long rejected, long totalPayCents, long elapsedNanos,
+               List<StageStats> stages) {
+            this.employees = employees;
+            this.entries = entries;
+            this.rejected = rejected;
+            this.totalPayCents = totalPayCents;
+            this.elapsedNanos = elapsedNanos;
+            this.stages = List.copyOf(stages);
+        }
+
+        /**
+         * Returns the number of employees stored.
+         *
+         * @return the employee count
+         */
+        public long getEmployees() {
+            return employees;
+        }
+
+        /**
+         * Returns the number of work entries accepted.
+         *
+         * @return the entry count
+         */
+        public long getEntries() {
+            return entries;
+        }
+
+        /**
+         * Returns the number of rows skipped because they failed validation.
+         *
+         * @return the rejected row count
+         */
+        public long getRejected() {
+            return rejected;
+        }
+
+        /**
+         * Returns the total pay of the employees stored.
+         *
+         * @return the total pay in cents
+         */
+        public long getTotalPayCents() {
+            return totalPayCents;
+        }
+
+        /**
+         * Returns how long the run took, from starting the stages until the last employee was stored.
+         *
+         * @return the run time in nanoseconds
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Returns the figures of each stage, in pipeline order.
+         *
+         * @return the ingest, validate, calculate and persist figures
+         */
+        public List<StageStats> getStages() {
+            return stages;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(String.format(
+                    "Processed %d employees, %d entries, %d rejected rows in %.2f s.", employees, entries, rejected,
+                    elapsedNanos / 1e9));
+            for (StageStats stage : stages) {
+                text.append(System.lineSeparator()).append("  ").append(stage.describe(elapsedNanos));
+            }
+            return text.toString();
+        }
+    }
+}
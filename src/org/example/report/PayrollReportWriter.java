@@ -0,0 +1,381 @@
+package org.example.report;
+
+import org.example.HolidayCalendar;
+import org.example.Money;
+import org.example.metrics.Metrics;
+import org.example.models.Employee;
+import org.example.models.WorkEntryStore;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * Streams employee pay summaries straight into a {@link Writer} as plain text, CSV or JSON.
+ *
+ * Rows are written one at a time from the employee's {@link WorkEntryStore} columns, and numbers and dates are
+ * formatted by hand into a reusable character buffer instead of through {@code String.format} or
+ * {@link java.text.NumberFormat}, so writing a row does not allocate and memory use does not grow with the size
+ * of the report. Wrap the target in a {@link java.io.BufferedWriter} for file or console output.
+ *
+ * A report can also be assembled from fragments written elsewhere, such as by the shard workers of a
+ * {@link org.example.cluster.PayrollCoordinator}: each source writes its employees with a writer from
+ * {@link #fragment(Writer, Format)}, and {@link #appendFragment(Reader)} joins the fragments into one report.
+ *
+ * A writer is not thread-safe; use one per thread.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+public class PayrollReportWriter {
+    /**
+     * Output formats supported by the writer.
+     */
+    public enum Format {
+        TEXT,
+        CSV,
+        JSON
+    }
+
+    private static final String CSV_HEADER = "employee_id,employee,hourly_rate,date,day_type,hours,pay";
+    private static final char[] SPACES = "                ".toCharArray();
+
+    private final Writer out;
+    private final Format format;
+    private final boolean fragment;
+    private final char[] buffer = new char[32];
+    private boolean started;
+    private boolean firstEmployee = true;
+
+    /**
+     * Creates a report writer.
+     *
+     * @param out the writer to send the report to
+     * @param format the output format
+     */
+    public PayrollReportWriter(Writer out, Format format) {
+        this(out, format, false);
+    }
+
+    private PayrollReportWriter(Writer out, Format format, boolean fragment) {
+        this.out = out;
+        this.format = format;
+        this.fragment = fragment;
+    }
+
+    /**
+     * Creates a writer for part of a report: employees are written as usual, but without the CSV header or
+     * the JSON array brackets, so the output can be passed to {@link #appendFragment(Reader)}.
+     *
+     * @param out the writer to send the fragment to
+     * @param format the output format of the report the fragment is for
+     * @return the fragment writer
+     */
+    public static PayrollReportWriter fragment(Writer out, Format format) {
+        return new PayrollReportWriter(out, format, true);
+    }
+
+    /**
+     * Appends a fragment written by a {@link #fragment(Writer, Format)} writer of the same format, as though
+     * its employees had been written by this writer. An empty fragment adds nothing.
+     *
+     * @param in the fragment to copy; read to the end but not closed
+     * @throws IOException if the fragment cannot be read or the report cannot be written
+     */
+    public void appendFragment(Reader in) throws IOException {
+        char[] chunk = new char[8192];
+        int read = in.read(chunk);
+        if (read < 0) {
+            return;
+        }
+        start();
+        if (!firstEmployee) {
+            // The fragment's first employee was written as a first employee; separate it from ours
+            if (format == Format.JSON) {
+                out.write(',');
+            } else if (format == Format.TEXT) {
+                out.write('\n');
+            }
+        }
+        do {
+            out.write(chunk, 0, read);
+        } while ((read = in.read(chunk)) >= 0);
+        firstEmployee = false;
+    }
+
+    /**
+     * Writes the pay summaries of all the given employees and finishes the report.
+     *
+     * @param employees the employees to include
+     * @throws IOException if the report cannot be written
+     */
+    public void writeAll(Iterable<Employee> employees) throws IOException {
+        for (Employee employee : employees) {
+            writeEmployee(employee);
+        }
+        finish();
+    }
+
+    /**
+     * Writes the pay summary of one employee: one row per work entry and, for text and JSON, the employee's
+     * total pay.
+     *
+     * @param employee the employee to write
+     * @throws IOException if the report cannot be written
+     */
+    public void writeEmployee(Employee employee) throws IOException {
+        long startNanos = Metrics.start();
+        start();
+        synchronized (employee) {
+            switch (format) {
+                case TEXT:
+                    writeText(employee);
+                    break;
+                case CSV:
+                    writeCsv(employee);
+                    break;
+                case JSON:
+                    writeJson(employee);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown format: " + format);
+            }
+        }
+        firstEmployee = false;
+        if (Metrics.ENABLED) {
+            Metrics.REPORT_EMPLOYEE.recordSince(startNanos);
+        }
+    }
+
+    /**
+     * Writes anything the format needs after the last employee and flushes the underlying writer.
+     * The underlying writer is not closed.
+     *
+     * @throws IOException if the report cannot be written
+     */
+    public void finish() throws IOException {
+        start();
+        if (format == Format.JSON && !fragment) {
+            out.write(firstEmployee ? "]\n" : "\n]\n");
+        }
+        out.flush();
+    }
+
+    // Method to write the header the format needs before the first employee
+    private void start() throws IOException {
+        if (started) {
+            return;
+        }
+        started = true;
+        if (fragment) {
+            return;
+        }
+        if (format == Format.CSV) {
+            out.write(CSV_HEADER);
+            out.write('\n');
+        } else if (format == Format.JSON) {
+            out.write('[');
+        }
+    }
+
+    private void writeText(Employee employee) throws IOException {
+        if (!firstEmployee) {
+            out.write('\n');
+        }
+        out.write("Detailed pay summary for ");
+        out.write(employee.getName());
+        out.write(":\nHourly Rate ");
+        writeFixed2(Money.toCents(employee.getHourlyRate()), false);
+        out.write(":\n");
+        out.write("Date         Weekend/Holiday  Hours Worked   Pay ($)     \n");
+
+        WorkEntryStore entries = employee.getWorkEntryStore();
+        for (int i = 0; i < entries.size(); i++) {
+            int epochDay = entries.getEpochDay(i);
+            pad(writeDate(epochDay), 12);
+            out.write(' ');
+            String label = HolidayCalendar.dayTypeOf(epochDay).getLabel();
+            out.write(label);
+            pad(label.length(), 16);
+            out.write(' ');
+            pad(writeFixed2(Money.toHundredths(entries.getHoursWorked(i)), false), 14);
+            out.write(' ');
+            pad(writeFixed2(entries.getDailyPayCents(i), false), 12);
+            out.write('\n');
+        }
+
+        out.write("Total pay for ");
+        out.write(employee.getName());
+        out.write(": $");
+        writeFixed2(employee.getTotalPayCents(), true);
+        out.write('\n');
+    }
+
+    private void writeCsv(Employee employee) throws IOException {
+        WorkEntryStore entries = employee.getWorkEntryStore();
+        for (int i = 0; i < entries.size(); i++) {
+            int epochDay = entries.getEpochDay(i);
+            writeLong(employee.getId());
+            out.write(',');
+            writeCsvString(employee.getName());
+            out.write(',');
+            writeFixed2(Money.toCents(employee.getHourlyRate()), false);
+            out.write(',');
+            writeDate(epochDay);
+            out.write(',');
+            out.write(HolidayCalendar.dayTypeOf(epochDay).getLabel());
+            out.write(',');
+            writeFixed2(Money.toHundredths(entries.getHoursWorked(i)), false);
+            out.write(',');
+            writeFixed2(entries.getDailyPayCents(i), false);
+            out.write('\n');
+        }
+    }
+
+    private void writeJson(Employee employee) throws IOException {
+        out.write(firstEmployee ? "\n" : ",\n");
+        out.write("{\"id\":");
+        writeLong(employee.getId());
+        out.write(",\"name\":");
+        writeJsonString(employee.getName());
+        out.write(",\"hourlyRate\":");
+        writeFixed2(Money.toCents(employee.getHourlyRate()), false);
+        out.write(",\"totalPay\":");
+        writeFixed2(employee.getTotalPayCents(), false);
+        out.write(",\"entries\":[");
+
+        WorkEntryStore entries = employee.getWorkEntryStore();
+        for (int i = 0; i < entries.size(); i++) {
+            int epochDay = entries.getEpochDay(i);
+            out.write(i == 0 ? "{\"date\":\"" : ",{\"date\":\"");
+            writeDate(epochDay);
+            out.write("\",\"dayType\":\"");
+            out.write(HolidayCalendar.dayTypeOf(epochDay).getLabel());
+            out.write("\",\"hours\":");
+            writeFixed2(Money.toHundredths(entries.getHoursWorked(i)), false);
+            out.write(",\"pay\":");
+            writeFixed2(entries.getDailyPayCents(i), false);
+            out.write('}');
+        }
+        out.write("]}");
+    }
+
+    // Method to write spaces after a value so it fills the given width
+    private void pad(int written, int width) throws IOException {
+        if (written < width) {
+            out.write(SPACES, 0, width - written);
+        }
+    }
+
+    /**
+     * Writes a value held in hundredths with exactly two decimal places, optionally with thousands separators.
+     *
+     * @return the number of characters written
+     */
+    private int writeFixed2(long hundredths, boolean grouping) throws IOException {
+        int pos = buffer.length;
+        long value = Math.abs(hundredths);
+
+        buffer[--pos] = (char) ('0' + value % 10);
+        value /= 10;
+        buffer[--pos] = (char) ('0' + value % 10);
+        value /= 10;
+        buffer[--pos] = '.';
+
+        int digits = 0;
+        do {
+            if (grouping && digits > 0 && digits % 3 == 0) {
+                buffer[--pos] = ',';
+            }
+            buffer[--pos] = (char) ('0' + value % 10);
+            value /= 10;
+            digits++;
+        } while (value > 0);
+
+        if (hundredths < 0) {
+            buffer[--pos] = '-';
+        }
+        out.write(buffer, pos, buffer.length - pos);
+        return buffer.length - pos;
+    }
+
+    private void writeLong(long value) throws IOException {
+        int pos = buffer.length;
+        long remaining = Math.abs(value);
+        do {
+            buffer[--pos] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+        if (value < 0) {
+            buffer[--pos] = '-';
+        }
+        out.write(buffer, pos, buffer.length - pos);
+    }
+
+    /**
+     * Writes an epoch day as an ISO date (YYYY-MM-DD) without creating a {@link java.time.LocalDate}, using the
+     * civil-from-days conversion over 400-year eras.
+     *
+     * @return the number of characters written
+     */
+    private int writeDate(int epochDay) throws IOException {
+        long days = epochDay + 719468L;  // shift the epoch to 0000-03-01
+        long era = Math.floorDiv(days, 146097);
+        long dayOfEra = days - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+        int month = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+        buffer[0] = (char) ('0' + year / 1000 % 10);
+        buffer[1] = (char) ('0' + year / 100 % 10);
+        buffer[2] = (char) ('0' + year / 10 % 10);
+        buffer[3] = (char) ('0' + year % 10);
+        buffer[4] = '-';
+        buffer[5] = (char) ('0' + month / 10);
+        buffer[6] = (char) ('0' + month % 10);
+        buffer[7] = '-';
+        buffer[8] = (char) ('0' + day / 10);
+        buffer[9] = (char) ('0' + day % 10);
+        out.write(buffer, 0, 10);
+        return 10;
+    }
+
+    private void writeCsvString(String value) throws IOException {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0;
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    private void writeJsonString(String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c < 0x20) {
+                out.write("\\u00");
+                out.write(Character.forDigit(c >> 4, 16));
+                out.write(Character.forDigit(c & 0xF, 16));
+            } else {
+                out.write(c);
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,75 @@
+package org.example;
+
+import org.example.HolidayCalendar.DayType;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks the movable holiday rules of {@link HolidayRule} against known dates, and that the rules
+ * {@link HolidayCalendar} is built from reproduce the fixed 2024 holiday list they replaced.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+class HolidayRuleTest {
+
+    @Test
+    void easterSundayMatchesKnownDates() {
+        assertEquals(LocalDate.of(1818, 3, 22), HolidayRule.easterSunday(1818));  // Earliest possible date
+        assertEquals(LocalDate.of(2000, 4, 23), HolidayRule.easterSunday(2000));
+        assertEquals(LocalDate.of(2019, 4, 21), HolidayRule.easterSunday(2019));
+        assertEquals(LocalDate.of(2024, 3, 31), HolidayRule.easterSunday(2024));
+        assertEquals(LocalDate.of(2025, 4, 20), HolidayRule.easterSunday(2025));
+        assertEquals(LocalDate.of(2026, 4, 5), HolidayRule.easterSunday(2026));
+        assertEquals(LocalDate.of(2027, 3, 28), HolidayRule.easterSunday(2027));
+        assertEquals(LocalDate.of(2038, 4, 25), HolidayRule.easterSunday(2038));  // Latest possible date
+        assertEquals(LocalDate.of(2285, 3, 22), HolidayRule.easterSunday(2285));
+    }
+
+    @Test
+    void victoriaDayIsTheMondayBeforeMay25() {
+        HolidayRule victoriaDay = HolidayRule.weekdayBefore("Victoria Day", DayOfWeek.MONDAY, Month.MAY, 25);
+        assertEquals(LocalDate.of(2024, 5, 20), victoriaDay.dateIn(2024));
+        assertEquals(LocalDate.of(2025, 5, 19), victoriaDay.dateIn(2025));
+        assertEquals(LocalDate.of(2026, 5, 18), victoriaDay.dateIn(2026));
+        assertEquals(LocalDate.of(2027, 5, 24), victoriaDay.dateIn(2027));  // May 24 is itself a Monday
+    }
+
+    @Test
+    void holidaysAreNotObservedBeforeTheirFirstYear() {
+        HolidayRule truthAndReconciliation =
+                HolidayRule.fixed("National Day for Truth and Reconciliation", Month.SEPTEMBER, 30).since(2021);
+        assertNull(truthAndReconciliation.dateIn(2020));
+        assertEquals(LocalDate.of(2021, 9, 30), truthAndReconciliation.dateIn(2021));
+
+        HolidayRule familyDay = HolidayRule.nthWeekday("Alberta Family Day", Month.FEBRUARY, 3, DayOfWeek.MONDAY)
+                .since(1990);
+        assertNull(familyDay.dateIn(1989));
+        assertEquals(LocalDate.of(1990, 2, 19), familyDay.dateIn(1990));
+        assertEquals(DayType.REGULAR, HolidayCalendar.dayTypeOf(LocalDate.of(2020, 9, 30)));
+        assertEquals(DayType.HOLIDAY, HolidayCalendar.dayTypeOf(LocalDate.of(2021, 9, 30)));
+    }
+
+    @Test
+    void rulesReproduceTheOld2024List() {
+        Set<LocalDate> old = Set.of(
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 19), LocalDate.of(2024, 3, 29),
+                LocalDate.of(2024, 4, 1), LocalDate.of(2024, 5, 20), LocalDate.of(2024, 7, 1),
+                LocalDate.of(2024, 8, 5), LocalDate.of(2024, 9, 2), LocalDate.of(2024, 9, 30),
+                LocalDate.of(2024, 10, 14), LocalDate.of(2024, 11, 11), LocalDate.of(2024, 12, 25),
+                LocalDate.of(2024, 12, 26));
+        for (LocalDate date = LocalDate.of(2024, 1, 1); date.getYear() == 2024; date = date.plusDays(1)) {
+            assertEquals(old.contains(date), HolidayCalendar.dayTypeOf(date) == DayType.HOLIDAY, date.toString());
+            assertEquals(HolidayCalendar.dayTypeOf(date), HolidayCalendar.dayTypeOf(date.toEpochDay()),
+                    "epoch-day lookup of " + date);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.example;
+
+import org.example.HolidayCalendar.DayType;
+import org.example.models.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the fixed-point pay arithmetic of {@link Money} and {@link Employee#calculateDailyPay(int, double)}
+ * against a {@link BigDecimal} reference, including half-up rounding at the cent boundaries.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+class MoneyTest {
+    private static final BigDecimal STRAIGHT_TIME_HOURS = new BigDecimal("7.5");
+    private static final BigDecimal TIME_AND_A_HALF = new BigDecimal("1.5");
+
+    // A regular Wednesday, a Saturday and Christmas Day (a Thursday)
+    private static final LocalDate REGULAR_DAY = LocalDate.of(2025, 3, 12);
+    private static final LocalDate WEEKEND_DAY = LocalDate.of(2025, 3, 15);
+    private static final LocalDate HOLIDAY = LocalDate.of(2025, 12, 25);
+
+    @Test
+    void roundToCentsRoundsHalfUpAwayFromZero() {
+        assertEquals(0, Money.roundToCents(4_999));
+        assertEquals(1, Money.roundToCents(5_000));
+        assertEquals(1, Money.roundToCents(14_999));
+        assertEquals(2, Money.roundToCents(15_000));
+        assertEquals(0, Money.roundToCents(-4_999));
+        assertEquals(-1, Money.roundToCents(-5_000));
+        assertEquals(-2, Money.roundToCents(-15_000));
+
+        for (long units = -100_000; units <= 100_000; units++) {
+            assertEquals(reference(units), Money.roundToCents(units), "units " + units);
+        }
+        Random random = new Random(8);
+        for (int i = 0; i < 100_000; i++) {
+            long units = random.nextLong() % 1_000_000_000_000_000L;
+            assertEquals(reference(units), Money.roundToCents(units), "units " + units);
+        }
+    }
+
+    @Test
+    void conversionsRoundTheDecimalHalfUp() {
+        assertEquals(101, Money.toCents(1.005));
+        assertEquals(-101, Money.toCents(-1.005));
+        assertEquals(15, Money.toHundredths(0.145));
+        assertEquals(14, Money.toHundredths(0.1449));
+        assertEquals(150, Money.toMultiplierHundredths(1.5));
+
+        // Every amount with three decimals up to 1,000, as it would be typed or parsed
+        for (long thousandths = -1_000_000; thousandths <= 1_000_000; thousandths++) {
+            BigDecimal exact = BigDecimal.valueOf(thousandths, 3);
+            double value = exact.doubleValue();
+            long expected = exact.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            assertEquals(expected, Money.toCents(value), exact.toPlainString());
+            assertEquals(expected, Money.toHundredths(value), exact.toPlainString());
+        }
+    }
+
+    @Test
+    void dailyPayMatchesReferenceAtTheCentBoundaries() {
+        // Tiny hours and rates put the exact pay on and around half a cent, for example 0.01 h x 0.50 = 0.005
+        for (int rateCents = 1; rateCents <= 200; rateCents++) {
+            for (int hundredths = 1; hundredths <= 40; hundredths++) {
+                for (LocalDate date : new LocalDate[]{REGULAR_DAY, WEEKEND_DAY, HOLIDAY}) {
+                    assertPay(rateCents / 100.0, hundredths / 100.0, date);
+                }
+            }
+        }
+        // Around the 7.5 hour overtime threshold
+        for (int hundredths = 740; hundredths <= 760; hundredths++) {
+            assertPay(33.33, hundredths / 100.0, REGULAR_DAY);
+        }
+    }
+
+    @Test
+    void dailyPayMatchesReferenceOnRandomEntries() {
+        Random random = new Random(2024);
+        LocalDate first = LocalDate.of(2020, 1, 1);
+        long totalCents = 0;
+        BigDecimal referenceTotal = BigDecimal.ZERO;
+        for (int i = 0; i < 200_000; i++) {
+            double rate = (1_500 + random.nextInt(18_501)) / 100.0;
+            double hours = (1 + random.nextInt(2_400)) / 100.0;
+            LocalDate date = first.plusDays(random.nextInt(2_500));
+            long cents = assertPay(rate, hours, date);
+            totalCents += cents;
+            referenceTotal = referenceTotal.add(referencePay(rate, hours, HolidayCalendar.dayTypeOf(date)));
+        }
+        assertEquals(referenceTotal.movePointRight(2).longValueExact(), totalCents);
+    }
+
+    // Method to check one day's pay against the reference and return it in cents
+    private static long assertPay(double rate, double hours, LocalDate date) {
+        Employee employee = new Employee(1, "Reference Check", rate);
+        long cents = employee.calculateDailyPay((int) date.toEpochDay(), hours);
+        BigDecimal expected = referencePay(rate, hours, HolidayCalendar.dayTypeOf(date));
+        assertEquals(expected.movePointRight(2).longValueExact(), cents, rate + " x " + hours + " h on " + date);
+        return cents;
+    }
+
+    // Method to calculate a day's pay under the built-in Alberta rules in BigDecimal, rounded half up to the cent
+    private static BigDecimal referencePay(double rate, double hours, DayType dayType) {
+        BigDecimal hourly = BigDecimal.valueOf(rate).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal worked = BigDecimal.valueOf(hours).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal pay;
+        if (dayType != DayType.REGULAR) {
+            pay = worked.multiply(hourly).multiply(TIME_AND_A_HALF);
+        } else {
+            BigDecimal straight = worked.min(STRAIGHT_TIME_HOURS);
+            pay = straight.multiply(hourly)
+                    .add(worked.subtract(straight).multiply(hourly).multiply(TIME_AND_A_HALF));
+        }
+        return pay.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static long reference(long units) {
+        return BigDecimal.valueOf(units, 4).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
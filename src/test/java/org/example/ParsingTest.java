@@ -0,0 +1,62 @@
+package org.example;
+
+import org.example.Parsing.ParseError;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Checks that {@link Parsing#parseWholeNumber(CharSequence, int, int)} accepts only whole numbers, so an ID such
+ * as {@code 1.5} is rejected instead of being rounded to another employee's ID.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+class ParsingTest {
+
+    @Test
+    void wholeNumbersAreParsed() {
+        assertEquals(0, parse("0"));
+        assertEquals(7, parse("7"));
+        assertEquals(42, parse(" 42\t"));
+        assertEquals(123, parse("000123"));
+        assertEquals(999_999_999_999_999L, parse("999999999999999"));
+    }
+
+    @Test
+    void fractionsAndOtherTextAreRejected() {
+        assertError(ParseError.NOT_A_NUMBER, "1.5");
+        assertError(ParseError.NOT_A_NUMBER, "7.0");
+        assertError(ParseError.NOT_A_NUMBER, "7.");
+        assertError(ParseError.NOT_A_NUMBER, ".");
+        assertError(ParseError.NOT_A_NUMBER, "-7");
+        assertError(ParseError.NOT_A_NUMBER, "+7");
+        assertError(ParseError.NOT_A_NUMBER, "1e3");
+        assertError(ParseError.NOT_A_NUMBER, "1 000");
+        assertError(ParseError.EMPTY, "  ");
+        assertError(ParseError.TOO_LARGE, "1000000000000000");
+    }
+
+    @Test
+    void bufferSlicesParseLikeText() {
+        ByteBuffer bytes = ByteBuffer.wrap("17,2.5,x".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(17, Parsing.parseWholeNumber(bytes, 0, 2));
+        assertEquals(ParseError.NOT_A_NUMBER, Parsing.errorOf(Parsing.parseWholeNumber(bytes, 3, 6)));
+    }
+
+    private static long parse(String text) {
+        long result = Parsing.parseWholeNumber(text, 0, text.length());
+        assertFalse(Parsing.failed(result), text);
+        return result;
+    }
+
+    private static void assertError(ParseError expected, String text) {
+        long result = Parsing.parseWholeNumber(text, 0, text.length());
+        assertEquals(expected, Parsing.failed(result) ? Parsing.errorOf(result) : null, text);
+    }
+}
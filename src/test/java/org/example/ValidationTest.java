@@ -0,0 +1,42 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the bounds of the work dates {@link Validation#isValidDate(int, boolean)} accepts, which are worked
+ * out once a day rather than on every call.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+class ValidationTest {
+
+    @Test
+    void acceptsTheCurrentYearAndTheYearsOfBackPay() {
+        LocalDate today = LocalDate.now();
+        LocalDate firstValid = today.minusYears(Validation.MAX_YEARS_BACK).withDayOfYear(1);
+        LocalDate lastValid = today.withDayOfYear(today.lengthOfYear());
+
+        assertTrue(isValid(today));
+        assertTrue(isValid(firstValid));
+        assertTrue(isValid(lastValid));
+        assertFalse(isValid(firstValid.minusDays(1)));
+        assertFalse(isValid(lastValid.plusDays(1)));
+        assertFalse(Validation.isValidDate((int) today.toEpochDay(), true), "a date already worked is rejected");
+
+        // Repeated calls answer from the cached range the same way
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(isValid(today.minusDays(i)));
+        }
+    }
+
+    private static boolean isValid(LocalDate date) {
+        return Validation.isValidDate((int) date.toEpochDay(), false);
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.cluster;
+
+import org.example.data.EmployeeDB;
+import org.example.data.EmployeeJournal;
+import org.example.models.PeriodTotals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that a {@link ShardWorker} closed and reopened on the same data directory gives a
+ * {@link PayrollCoordinator} the same totals as before, and that a batch of work entries resent after the
+ * restart counts the entries the worker had already stored as added.
+ *
+ * {@link EmployeeDB} is static, so only one journaled worker can run in a JVM; the coordinator here has a single
+ * shard.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+class ShardWorkerRestartTest {
+    private static final long RETRY_MILLIS = 5_000;
+    private static final int EMPLOYEES = 6;
+    private static final int DAYS = 10;
+
+    @TempDir
+    Path directory;
+
+    private EmployeeJournal journal;
+    private ShardWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        EmployeeDB.clear();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (worker != null) {
+            worker.close();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        EmployeeDB.clear();
+    }
+
+    @Test
+    void restartedWorkerKeepsTotalsAndAcceptsResentEntries() throws IOException {
+        startWorker(0);
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), worker.getPort());
+        LocalDate today = LocalDate.now();
+
+        try (PayrollCoordinator coordinator = new PayrollCoordinator(List.of(address), RETRY_MILLIS)) {
+            long[] ids = new long[EMPLOYEES * DAYS];
+            int[] epochDays = new int[ids.length];
+            int[] hours = new int[ids.length];
+            for (int e = 0; e < EMPLOYEES; e++) {
+                long id = coordinator.addEmployee("Worker Number", 20.0 + e);
+                for (int d = 0; d < DAYS; d++) {
+                    int i = e * DAYS + d;
+                    ids[i] = id;
+                    epochDays[i] = (int) today.minusDays(1 + d).toEpochDay();
+                    hours[i] = 600 + 75 * ((e + d) % 8);  // 6 to 11.25 hours, so some days have overtime
+                }
+            }
+            assertArrayEquals(allTrue(ids.length), coordinator.addWorkEntries(ids, epochDays, hours));
+
+            ShardedPayrollResult before = coordinator.runPayroll();
+            PeriodTotals periodBefore = coordinator.getPeriodTotals(today.minusDays(DAYS), today);
+
+            // Restart the worker from its journal alone, on the same port the coordinator knows
+            restartWorker(address.getPort());
+
+            // The coordinator's connection died with the old worker, so this batch is resent: the entries the
+            // worker already holds come back as duplicates and count as added, like a reply lost in transit
+            int last = ids.length - 1;
+            long[] retryIds = {ids[0], ids[last], ids[last]};
+            int[] retryDays = {epochDays[0], epochDays[last], (int) today.toEpochDay()};
+            int[] retryHours = {hours[0], hours[last], 800};
+            assertArrayEquals(allTrue(3), coordinator.addWorkEntries(retryIds, retryDays, retryHours));
+
+            // Sent once on a live connection, a duplicate date is rejected as usual
+            assertArrayEquals(new boolean[]{false}, coordinator.addWorkEntries(
+                    new long[]{ids[0]}, new int[]{epochDays[0]}, new int[]{hours[0]}));
+
+            ShardedPayrollResult after = coordinator.runPayroll();
+            assertEquals(before.getEmployeeCount(), after.getEmployeeCount());
+            assertEquals(before.getEntryCount() + 1, after.getEntryCount());
+            PeriodTotals periodAfter = coordinator.getPeriodTotals(today.minusDays(DAYS), today.minusDays(1));
+            assertEquals(periodBefore.getHoursHundredths(), periodAfter.getHoursHundredths());
+            assertEquals(periodBefore.getPayCents(), periodAfter.getPayCents());
+            assertEquals(periodBefore.getOvertimeHundredths(), periodAfter.getOvertimeHundredths());
+
+            // The whole payroll grew by exactly the one new entry's pay
+            PeriodTotals newDay = coordinator.getPeriodTotals(today, today);
+            assertEquals(800, newDay.getHoursHundredths());
+            assertEquals(before.getTotalPayCents() + newDay.getPayCents(), after.getTotalPayCents());
+        }
+    }
+
+    // Method to open the journal in the data directory and start a worker on it
+    private void startWorker(int port) throws IOException {
+        journal = EmployeeJournal.open(directory, Integer.MAX_VALUE);
+        worker = new ShardWorker(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), journal);
+        worker.start();
+    }
+
+    // Method to stop the worker, forget everything in memory and start it again from the data directory
+    private void restartWorker(int port) throws IOException {
+        worker.close();
+        journal.close();
+        worker = null;
+        journal = null;
+        EmployeeDB.clear();
+        startWorker(port);
+    }
+
+    private static boolean[] allTrue(int length) {
+        boolean[] values = new boolean[length];
+        Arrays.fill(values, true);
+        return values;
+    }
+}
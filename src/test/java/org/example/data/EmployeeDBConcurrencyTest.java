@@ -0,0 +1,298 @@
+package org.example.data;
+
+import org.example.models.Employee;
+import org.example.models.WorkEntryStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress tests for {@link EmployeeDB} under concurrent adds, work entries, updates and removals. Each test
+ * starts its threads together on a latch so the operations overlap, then checks that no update was lost and
+ * that the ID and name indexes still agree.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+class EmployeeDBConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final long FIRST_ID = 1_000_000L;
+    private static final String[] NAMES = {
+            "Olivia Smith", "Liam Brown", "Emma Tremblay", "Noah Martin", "Ava Roy", "Jean-Luc Gagnon"
+    };
+
+    @BeforeEach
+    void setUp() {
+        EmployeeDB.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        EmployeeDB.clear();
+    }
+
+    @Test
+    void concurrentWorkEntriesAreNotLost() throws Exception {
+        int employees = 50;
+        int daysPerThread = 20;
+        LocalDate contested = LocalDate.now();
+        for (int e = 0; e < employees; e++) {
+            assertTrue(EmployeeDB.addEmployee(new Employee(FIRST_ID + e, NAMES[e % NAMES.length], 25.0)));
+        }
+
+        AtomicLongArray contestedWins = new AtomicLongArray(employees);
+        runConcurrently(thread -> {
+            for (int e = 0; e < employees; e++) {
+                // Each thread owns its own dates, and every thread also races for the same date
+                for (int d = 0; d < daysPerThread; d++) {
+                    LocalDate date = contested.minusDays(1 + (long) d * THREADS + thread);
+                    assertTrue(EmployeeDB.addWorkEntry(FIRST_ID + e, date, 8.0));
+                }
+                if (EmployeeDB.addWorkEntry(FIRST_ID + e, contested, 4.0)) {
+                    contestedWins.incrementAndGet(e);
+                }
+            }
+        });
+
+        for (int e = 0; e < employees; e++) {
+            Employee employee = EmployeeDB.getEmployee(FIRST_ID + e);
+            WorkEntryStore store = employee.getWorkEntryStore();
+            assertEquals(1, contestedWins.get(e), "exactly one thread adds the contested date");
+            assertEquals(THREADS * daysPerThread + 1, store.size());
+            long payCents = 0;
+            double hours = 0;
+            for (int i = 0; i < store.size(); i++) {
+                payCents += store.getDailyPayCents(i);
+                hours += store.getHoursWorked(i);
+            }
+            assertEquals(THREADS * daysPerThread * 8.0 + 4.0, hours, 1e-9);
+            assertEquals(payCents, employee.getTotalPayCents(), "total pay matches the entries");
+        }
+    }
+
+    @Test
+    void concurrentAddsOfOneIdKeepExactlyOne() throws Exception {
+        int ids = 200;
+        AtomicLongArray wins = new AtomicLongArray(ids);
+        runConcurrently(thread -> {
+            for (int i = 0; i < ids; i++) {
+                if (EmployeeDB.addEmployee(new Employee(FIRST_ID + i, NAMES[thread % NAMES.length], 20.0))) {
+                    wins.incrementAndGet(i);
+                }
+            }
+        });
+
+        for (int i = 0; i < ids; i++) {
+            assertEquals(1, wins.get(i));
+        }
+        assertEquals(ids, EmployeeDB.size());
+        assertIndexesAgree();
+    }
+
+    @Test
+    void churnKeepsIndexesConsistent() throws Exception {
+        int ids = 16;
+        int operations = 100_000;
+        AtomicLongArray adds = new AtomicLongArray(ids);
+        AtomicLongArray removals = new AtomicLongArray(ids);
+        LocalDate today = LocalDate.now();
+
+        runConcurrently(thread -> {
+            Random random = new Random(thread);
+            for (int op = 0; op < operations; op++) {
+                int i = random.nextInt(ids);
+                long id = FIRST_ID + i;
+                String name = NAMES[random.nextInt(NAMES.length)];
+                switch (random.nextInt(4)) {
+                    case 0:
+                        if (EmployeeDB.addEmployee(new Employee(id, name, 20.0))) {
+                            adds.incrementAndGet(i);
+                        }
+                        break;
+                    case 1:
+                        EmployeeDB.updateEmployee(new Employee(id, name, 30.0));
+                        break;
+                    case 2:
+                        if (EmployeeDB.removeEmployee(id) != null) {
+                            removals.incrementAndGet(i);
+                        }
+                        break;
+                    default:
+                        EmployeeDB.addWorkEntry(id, today.minusDays(random.nextInt(365)), 7.5);
+                        break;
+                }
+            }
+        });
+
+        // Adds only succeed while the ID is absent and removals while it is present, so they alternate
+        int present = 0;
+        for (int i = 0; i < ids; i++) {
+            long difference = adds.get(i) - removals.get(i);
+            assertTrue(difference == 0 || difference == 1, "adds and removals of ID " + i + " alternate");
+            assertEquals(difference == 1, EmployeeDB.getEmployee(FIRST_ID + i) != null, "ID " + i + " stored");
+            present += (int) difference;
+        }
+        assertEquals(present, EmployeeDB.size());
+        assertIndexesAgree();
+    }
+
+    @Test
+    void workEntriesSurviveChurnOnOtherEmployees() throws Exception {
+        int stable = 20;
+        int churned = 32;
+        for (int e = 0; e < stable; e++) {
+            EmployeeDB.addEmployee(new Employee(FIRST_ID + e, NAMES[e % NAMES.length], 22.0));
+        }
+        LocalDate today = LocalDate.now();
+
+        // Half the threads add entries to the stable employees, the other half churn the IDs after them
+        runConcurrently(thread -> {
+            Random random = new Random(thread);
+            if (thread % 2 == 0) {
+                for (int d = 0; d < 100; d++) {
+                    LocalDate date = today.minusDays((long) d * THREADS / 2 + thread / 2);
+                    for (int e = 0; e < stable; e++) {
+                        assertTrue(EmployeeDB.addWorkEntry(FIRST_ID + e, date, 6.0));
+                    }
+                }
+            } else {
+                for (int op = 0; op < 10_000; op++) {
+                    long id = FIRST_ID + stable + random.nextInt(churned);
+                    String name = NAMES[random.nextInt(NAMES.length)];
+                    if (random.nextBoolean()) {
+                        EmployeeDB.addEmployee(new Employee(id, name, 20.0));
+                    } else if (random.nextBoolean()) {
+                        EmployeeDB.updateEmployee(new Employee(id, name, 21.0));
+                    } else {
+                        EmployeeDB.removeEmployee(id);
+                    }
+                }
+            }
+        });
+
+        for (int e = 0; e < stable; e++) {
+            assertEquals(100 * THREADS / 2, EmployeeDB.getEmployee(FIRST_ID + e).getWorkEntryStore().size());
+        }
+        assertIndexesAgree();
+    }
+
+    @Test
+    void workEntryWaitingOnAReplacedEmployeeGoesToTheReplacement() throws Exception {
+        long id = FIRST_ID;
+        Employee original = new Employee(id, NAMES[0], 20.0);
+        Employee replacement = new Employee(id, NAMES[1], 20.0);
+        EmployeeDB.addEmployee(original);
+        LocalDate date = LocalDate.now().minusDays(1);
+
+        // Hold the original's lock so the add waits on it while the employee is replaced
+        boolean[] added = new boolean[1];
+        Thread adder = new Thread(() -> added[0] = EmployeeDB.addWorkEntry(id, date, 8.0));
+        synchronized (original) {
+            adder.start();
+            awaitBlocked(adder);
+            assertTrue(EmployeeDB.updateEmployee(replacement));
+        }
+        adder.join();
+
+        assertTrue(added[0]);
+        assertEquals(0, original.getWorkEntryStore().size());
+        assertTrue(replacement.hasWorkEntryOn(date), "the entry is not lost on the replaced employee");
+        assertIndexesAgree();
+    }
+
+    @Test
+    void workEntryWaitingOnARemovedEmployeeIsRefused() throws Exception {
+        long id = FIRST_ID;
+        Employee original = new Employee(id, NAMES[0], 20.0);
+        EmployeeDB.addEmployee(original);
+
+        boolean[] added = {true};
+        Thread adder = new Thread(() -> added[0] = EmployeeDB.addWorkEntry(id, LocalDate.now(), 8.0));
+        synchronized (original) {
+            adder.start();
+            awaitBlocked(adder);
+            assertSame(original, EmployeeDB.removeEmployee(id));
+        }
+        adder.join();
+
+        assertFalse(added[0], "an entry for a removed employee is refused rather than silently dropped");
+        assertEquals(0, original.getWorkEntryStore().size());
+    }
+
+    // Method to wait until a thread is blocked on a monitor
+    private static void awaitBlocked(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (thread.getState() != Thread.State.BLOCKED) {
+            assertTrue(System.nanoTime() < deadline, "thread did not block");
+            Thread.sleep(1);
+        }
+    }
+
+    // Method to check that every stored employee is found by its name, and every name lookup only finds
+    // stored employees with that name
+    private static void assertIndexesAgree() {
+        for (Employee employee : EmployeeDB.getAllEmployees()) {
+            assertTrue(EmployeeDB.findByName(employee.getName()).contains(employee),
+                    "employee " + employee.getId() + " is indexed under " + employee.getName());
+        }
+        int indexed = 0;
+        for (String name : NAMES) {
+            for (Employee employee : EmployeeDB.findByName(name)) {
+                assertEquals(name, employee.getName(), "employee " + employee.getId() + " indexed under " + name);
+                Employee stored = EmployeeDB.getEmployee(employee.getId());
+                assertNotNull(stored);
+                assertSame(stored, employee);
+                indexed++;
+            }
+        }
+        assertEquals(EmployeeDB.size(), indexed, "every employee is indexed under exactly one name");
+    }
+
+    // Method to run the same work on every thread, started together, and rethrow the first failure
+    private static void runConcurrently(ThreadBody body) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    body.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * The work one test thread does.
+     */
+    private interface ThreadBody {
+        void run(int thread) throws Exception;
+    }
+}
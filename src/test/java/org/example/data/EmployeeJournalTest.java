@@ -0,0 +1,116 @@
+package org.example.data;
+
+import org.example.models.Employee;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Checks that {@link EmployeeJournal} replays a journal through mapped windows much smaller than the file, and
+ * than some of its records, exactly as it does in one piece, and still stops at a torn last record.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+class EmployeeJournalTest {
+    private static final long FIRST_ID = 3_000_000L;
+    private static final int EMPLOYEES = 40;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        EmployeeDB.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        EmployeeDB.clear();
+    }
+
+    @Test
+    void replayThroughSmallWindowsMatchesTheOriginal() throws IOException {
+        Path file = writeJournal();
+        List<Employee> original = EmployeeDB.getAllEmployees();
+        long length = Files.size(file);
+
+        // One window, windows smaller than an employee record, and windows barely larger than a record header
+        for (long windowSize : new long[]{length, 97, 13}) {
+            EmployeeDB.clear();
+            assertEquals(length, EmployeeJournal.replay(file, windowSize), "window of " + windowSize);
+            assertSameEmployees(original);
+        }
+    }
+
+    @Test
+    void replayStopsAtATornRecord() throws IOException {
+        Path file = writeJournal();
+        long length = Files.size(file);
+        EmployeeDB.clear();
+        LocalDate today = LocalDate.now();
+        try (EmployeeJournal ignored = EmployeeJournal.open(directory, 1)) {
+            EmployeeDB.addWorkEntry(FIRST_ID, today, 5.0);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 3);
+        }
+
+        EmployeeDB.clear();
+        assertEquals(length, EmployeeJournal.replay(file, 64));
+        assertEquals(EMPLOYEES, EmployeeDB.size());
+        assertFalse(EmployeeDB.getEmployee(FIRST_ID).hasWorkEntryOn(today), "the torn entry is dropped");
+    }
+
+    // Method to journal employees with work entries, rate changes and removals, returning the journal file
+    private Path writeJournal() throws IOException {
+        LocalDate first = LocalDate.now().minusDays(300);
+        try (EmployeeJournal journal = EmployeeJournal.open(directory, 8)) {
+            for (int e = 0; e < EMPLOYEES; e++) {
+                Employee employee = new Employee(FIRST_ID + e, "Employee Number", 20.0 + e);
+                // Every fifth employee brings its entries along, so its record is larger than the small windows
+                if (e % 5 == 0) {
+                    for (int d = 0; d < 30; d++) {
+                        employee.addWorkEntry(first.plusDays(d), 7.5);
+                    }
+                }
+                EmployeeDB.addEmployee(employee);
+            }
+            for (int d = 100; d < 130; d++) {
+                for (int e = 0; e < EMPLOYEES; e++) {
+                    EmployeeDB.addWorkEntry(FIRST_ID + e, first.plusDays(d), 6.0 + (d + e) % 5);
+                }
+            }
+            EmployeeDB.changeHourlyRate(FIRST_ID + 1, 31.0, first.plusDays(120));
+            EmployeeDB.removeEmployee(FIRST_ID + 2);
+            EmployeeDB.addEmployee(new Employee(FIRST_ID + 2, "Employee Returned", 25.0));
+        }
+        return directory.resolve("journal-0.bin");
+    }
+
+    private static void assertSameEmployees(List<Employee> expected) {
+        List<Employee> actual = EmployeeDB.getAllEmployees();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Employee want = expected.get(i);
+            Employee got = actual.get(i);
+            assertEquals(want.getId(), got.getId());
+            assertEquals(want.getName(), got.getName());
+            assertEquals(want.getWorkEntryStore().size(), got.getWorkEntryStore().size());
+            assertEquals(want.getTotalPayCents(), got.getTotalPayCents(), "pay of employee " + want.getId());
+        }
+    }
+}
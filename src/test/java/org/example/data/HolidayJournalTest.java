@@ -0,0 +1,118 @@
+package org.example.data;
+
+import org.example.HolidayCalendar;
+import org.example.HolidayCalendar.DayType;
+import org.example.models.Employee;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that holidays added or removed through {@link EmployeeDB} survive a restart, both when the change is
+ * replayed from the journal and when it is restored from a snapshot, with the recalculated pay intact.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+class HolidayJournalTest {
+    private static final long ID = 2_000_000L;
+
+    @TempDir
+    Path directory;
+
+    private LocalDate regularDay;
+    private LocalDate holiday;
+
+    @BeforeEach
+    void setUp() {
+        EmployeeDB.clear();
+        regularDay = LocalDate.now().withDayOfYear(1).plusDays(9);
+        while (HolidayCalendar.dayTypeOf(regularDay) != DayType.REGULAR) {
+            regularDay = regularDay.plusDays(1);
+        }
+        holiday = LocalDate.of(LocalDate.now().getYear() - 1, 12, 25);
+    }
+
+    @AfterEach
+    void tearDown() {
+        EmployeeDB.clear();
+        HolidayCalendar.removeHoliday(regularDay);
+        HolidayCalendar.addHoliday(holiday);
+    }
+
+    @Test
+    void holidayChangesAreReplayedFromTheJournal() throws IOException {
+        long expectedPay = changeHolidays(false);
+        restart();
+        try (EmployeeJournal ignored = EmployeeJournal.open(directory, 1)) {
+            assertRestored(expectedPay);
+        }
+    }
+
+    @Test
+    void holidayChangesAreRestoredFromTheSnapshot() throws IOException {
+        long expectedPay = changeHolidays(true);
+        restart();
+        try (EmployeeJournal ignored = EmployeeJournal.open(directory, 1)) {
+            assertRestored(expectedPay);
+        }
+    }
+
+    @Test
+    void entriesAddedAfterTheChangeArePaidUnderTheNewCalendar() throws IOException {
+        try (EmployeeJournal ignored = EmployeeJournal.open(directory, 1)) {
+            EmployeeDB.addEmployee(new Employee(ID, "Holiday Check", 20.0));
+            EmployeeDB.addHoliday(regularDay);
+            EmployeeDB.addWorkEntry(ID, regularDay, 8.0);
+        }
+        long expectedPay = EmployeeDB.getEmployee(ID).getTotalPayCents();
+        restart();
+        try (EmployeeJournal ignored = EmployeeJournal.open(directory, 1)) {
+            assertEquals(expectedPay, EmployeeDB.getEmployee(ID).getTotalPayCents());
+            assertEquals(DayType.HOLIDAY, HolidayCalendar.dayTypeOf(regularDay));
+        }
+    }
+
+    // Method to record work on both dates, move the holiday, and return the recalculated total pay
+    private long changeHolidays(boolean snapshot) throws IOException {
+        try (EmployeeJournal journal = EmployeeJournal.open(directory, 1)) {
+            EmployeeDB.addEmployee(new Employee(ID, "Holiday Check", 20.0));
+            EmployeeDB.addWorkEntry(ID, regularDay, 8.0);
+            EmployeeDB.addWorkEntry(ID, holiday, 6.0);
+            long before = EmployeeDB.getEmployee(ID).getTotalPayCents();
+
+            assertTrue(EmployeeDB.addHoliday(regularDay) > 0);
+            assertTrue(EmployeeDB.removeHoliday(holiday) < 0);
+            assertNotEquals(before, EmployeeDB.getEmployee(ID).getTotalPayCents());
+            if (snapshot) {
+                journal.snapshot();
+            }
+            return EmployeeDB.getEmployee(ID).getTotalPayCents();
+        }
+    }
+
+    // Method to forget everything a restarted process would not have: the employees and the calendar changes
+    private void restart() {
+        EmployeeDB.clear();
+        HolidayCalendar.removeHoliday(regularDay);
+        HolidayCalendar.addHoliday(holiday);
+        assertTrue(HolidayCalendar.getOverrides().isEmpty());
+    }
+
+    private void assertRestored(long expectedPay) {
+        assertEquals(DayType.HOLIDAY, HolidayCalendar.dayTypeOf(regularDay));
+        assertNotEquals(DayType.HOLIDAY, HolidayCalendar.dayTypeOf(holiday));
+        assertEquals(expectedPay, EmployeeDB.getEmployee(ID).getTotalPayCents());
+        assertEquals(2, HolidayCalendar.getOverrides().size());
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.data;
+
+import org.example.models.Employee;
+import org.example.models.PeriodTotals;
+import org.example.models.WorkEntryStore;
+import org.example.payroll.PayRuleSet;
+import org.example.payroll.PayRules;
+import org.example.payroll.PayrollResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link OffHeapEmployeeStore} pays every work entry, employee and period to the cent as the heap
+ * {@link Employee} does, under a rule set with weekly overtime and with the days of each week added out of
+ * order, so that adding an earlier day moves later days of the same week past the weekly threshold.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+class OffHeapEmployeeStoreTest {
+    private static final long FIRST_ID = 2_000_000L;
+    private static final int EMPLOYEES = 12;
+    private static final int WEEKS = 6;
+
+    // Each week's days, Monday = 0, in the order they are added
+    private static final int[] DAY_ORDER = {4, 0, 6, 2, 1, 5, 3};
+
+    private final OffHeapEmployeeStore store = new OffHeapEmployeeStore();
+
+    @AfterEach
+    void tearDown() {
+        store.clear();
+    }
+
+    @Test
+    void weeklyOvertimeAddedOutOfOrderMatchesHeapEmployees() {
+        PayRuleSet weekly = weeklyRules();
+        LocalDate firstMonday = LocalDate.now().minusWeeks(WEEKS + 1)
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        Random random = new Random(19);
+
+        List<Employee> heap = new ArrayList<>();
+        for (int e = 0; e < EMPLOYEES; e++) {
+            // Every third employee stays on the default rules, so both kinds share the store
+            PayRuleSet rules = e % 3 == 2 ? PayRules.getDefault() : weekly;
+            double rate = 18.0 + e * 3.37;
+            Employee employee = new Employee(FIRST_ID + e, "Employee Number", rate, rules);
+            heap.add(employee);
+            assertTrue(store.addEmployee(employee.getId(), employee.getName(), rate, rules));
+
+            for (int w = 0; w < WEEKS; w++) {
+                for (int d : DAY_ORDER) {
+                    // Skip a few days so not every week reaches the weekly threshold
+                    if (random.nextInt(7) == 0) {
+                        continue;
+                    }
+                    LocalDate date = firstMonday.plusWeeks(w).plusDays(d);
+                    double hours = (16 + random.nextInt(33)) / 4.0;  // 4 to 12 hours in quarter hours
+                    employee.addWorkEntry(date, hours);
+                    assertTrue(store.addWorkEntry(employee.getId(), date, hours), "entry on " + date);
+                }
+            }
+        }
+        assertFalse(store.addWorkEntry(FIRST_ID, firstMonday.plusDays(4), 8.0), "a duplicate date is rejected");
+
+        assertSamePay(heap);
+
+        // A payroll run recalculates every entry from the columns and must agree with the stored pay
+        PayrollResult result = store.runPayroll();
+        long expectedTotal = 0;
+        for (int e = 0; e < EMPLOYEES; e++) {
+            assertEquals(heap.get(e).getTotalPayCents(), result.getEmployeeTotalCents(e), "payroll of employee " + e);
+            expectedTotal += heap.get(e).getTotalPayCents();
+        }
+        assertEquals(expectedTotal, result.getTotalPayCents());
+
+        // Whole span, a single week, and a range that starts and ends in the middle of weeks
+        LocalDate lastSunday = firstMonday.plusWeeks(WEEKS).minusDays(1);
+        assertSamePeriod(heap, firstMonday, lastSunday);
+        assertSamePeriod(heap, firstMonday.plusWeeks(2), firstMonday.plusWeeks(2).plusDays(6));
+        assertSamePeriod(heap, firstMonday.plusDays(3), lastSunday.minusDays(4));
+    }
+
+    // Method to compare each employee's total and every one of its entries between the heap and the store
+    private void assertSamePay(List<Employee> heap) {
+        assertEquals(heap.size(), store.size());
+        EmployeeRecord record = store.newEmployeeRecord();
+        WorkEntryRecord entry = store.newWorkEntryRecord();
+        for (Employee employee : heap) {
+            assertTrue(store.find(employee.getId(), record));
+            assertEquals(employee.getTotalPayCents(), record.getTotalPayCents(), "pay of " + employee.getId());
+
+            WorkEntryStore entries = employee.getWorkEntryStore();
+            assertEquals(entries.size(), record.getWorkEntryCount());
+            for (boolean more = record.firstWorkEntry(entry); more; more = entry.next()) {
+                int index = employee.indexOfWorkEntry(entry.getEpochDay());
+                assertEquals(entries.getDailyPayCents(index), entry.getDailyPayCents(),
+                        "pay of " + employee.getId() + " on " + entry.getWorkDate());
+            }
+        }
+    }
+
+    private void assertSamePeriod(List<Employee> heap, LocalDate from, LocalDate to) {
+        long hours = 0;
+        long pay = 0;
+        long overtime = 0;
+        for (Employee employee : heap) {
+            PeriodTotals totals = employee.getPeriodTotals(from, to);
+            hours += totals.getHoursHundredths();
+            pay += totals.getPayCents();
+            overtime += totals.getOvertimeHundredths();
+        }
+        PeriodTotals actual = store.getPeriodTotals(from, to);
+        String period = from + " to " + to;
+        assertEquals(hours, actual.getHoursHundredths(), "hours " + period);
+        assertEquals(pay, actual.getPayCents(), "pay " + period);
+        assertEquals(overtime, actual.getOvertimeHundredths(), "overtime " + period);
+    }
+
+    private static PayRuleSet weeklyRules() {
+        Properties config = new Properties();
+        config.setProperty("ruleset.weekly.daily.tiers", "8:1.5,11:2");
+        config.setProperty("ruleset.weekly.weekly.threshold", "30");
+        config.setProperty("ruleset.weekly.weekly.multiplier", "1.5");
+        config.setProperty("ruleset.weekly.weekend.multiplier", "1.25");
+        config.setProperty("ruleset.weekly.holiday.multiplier", "2");
+        config.setProperty("ruleset.weekly.weekend.premium", "0.75");
+        PayRuleSet rules = PayRuleSet.parse("weekly", config);
+        assertTrue(rules.hasWeeklyOvertime());
+        return rules;
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.payroll;
+
+import org.example.models.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a {@link ResumablePayrollRun} interrupted part way through and run again ends with the totals and
+ * digest of an uninterrupted run, and that a checkpoint file it cannot resume from is discarded rather than
+ * failing every attempt.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+class ResumablePayrollRunTest {
+    private static final int EMPLOYEES = 1_000;
+    private static final int CHECKPOINT_EVERY = 64;
+
+    @TempDir
+    Path directory;
+
+    private List<Employee> employees;
+    private PayrollCheckpoint uninterrupted;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        employees = new ArrayList<>();
+        Random random = new Random(20);
+        LocalDate first = LocalDate.now().minusYears(1);
+        for (int e = 0; e < EMPLOYEES; e++) {
+            Employee employee = new Employee(e + 1, "Employee " + e, (1_500 + random.nextInt(4_000)) / 100.0);
+            for (int d = 0; d < 20; d++) {
+                employee.addWorkEntry(first.plusDays(random.nextInt(360)), (1 + random.nextInt(1_200)) / 100.0);
+            }
+            employees.add(employee);
+        }
+        uninterrupted = new ResumablePayrollRun(directory.resolve("reference.bin"), CHECKPOINT_EVERY).run(employees);
+    }
+
+    @Test
+    void resumedRunMatchesUninterruptedRun() throws IOException {
+        Path file = directory.resolve("checkpoint.bin");
+        interrupt(file, 5);
+        PayrollCheckpoint saved = PayrollCheckpoint.read(file);
+        assertEquals(5 * CHECKPOINT_EVERY, saved.getPosition());
+
+        PayrollCheckpoint resumed = new ResumablePayrollRun(file, CHECKPOINT_EVERY).run(employees);
+        assertEquals(5 * CHECKPOINT_EVERY, resumed.getResumedAt());
+        assertSameRun(resumed);
+        assertFalse(Files.exists(file), "the checkpoint is deleted once the run is finished");
+    }
+
+    @Test
+    void runInterruptedRepeatedlyStillMatches() throws IOException {
+        Path file = directory.resolve("checkpoint.bin");
+        for (int attempt = 0; attempt < 3; attempt++) {
+            interrupt(file, 2);
+        }
+        PayrollCheckpoint resumed = new ResumablePayrollRun(file, CHECKPOINT_EVERY).run(employees);
+        assertEquals(6 * CHECKPOINT_EVERY, resumed.getResumedAt());
+        assertSameRun(resumed);
+    }
+
+    @Test
+    void truncatedCheckpointIsDiscarded() throws IOException {
+        Path file = directory.resolve("checkpoint.bin");
+        interrupt(file, 3);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+        assertStartsOver(file);
+    }
+
+    @Test
+    void checkpointWithBadChecksumIsDiscarded() throws IOException {
+        Path file = directory.resolve("checkpoint.bin");
+        interrupt(file, 3);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[20] ^= 1;
+        Files.write(file, bytes);
+        assertStartsOver(file);
+    }
+
+    @Test
+    void fileThatIsNotACheckpointIsDiscarded() throws IOException {
+        Path file = directory.resolve("checkpoint.bin");
+        Files.writeString(file, "employeeId,date,hours\n");
+        assertStartsOver(file);
+    }
+
+    @Test
+    void checkpointForOtherEmployeesIsDiscarded() throws IOException {
+        Path file = directory.resolve("checkpoint.bin");
+        interrupt(file, 3);
+        employees.get(0).addWorkEntry(LocalDate.now(), 8.0);
+        PayrollCheckpoint result = new ResumablePayrollRun(file, CHECKPOINT_EVERY).run(employees);
+        assertEquals(0, result.getResumedAt());
+        assertTrue(result.getTotalPayCents() > uninterrupted.getTotalPayCents());
+    }
+
+    // Method to start a run that is killed after paying a number of partitions, leaving its checkpoint behind
+    private void interrupt(Path file, int partitions) {
+        PayrollEngine failing = new PayrollEngine() {
+            private int remaining = partitions;
+
+            @Override
+            public PayrollResult run(List<Employee> partition) {
+                if (remaining-- == 0) {
+                    throw new IllegalStateException("Killed");
+                }
+                return super.run(partition);
+            }
+        };
+        assertThrows(IllegalStateException.class,
+                () -> new ResumablePayrollRun(file, CHECKPOINT_EVERY, failing).run(employees));
+        assertTrue(Files.exists(file), "the interrupted run left a checkpoint");
+    }
+
+    // Method to check that a run over an unusable checkpoint file starts from the first employee and finishes
+    private void assertStartsOver(Path file) throws IOException {
+        assertNull(PayrollCheckpoint.read(file));
+        PayrollCheckpoint result = new ResumablePayrollRun(file, CHECKPOINT_EVERY).run(employees);
+        assertEquals(0, result.getResumedAt());
+        assertSameRun(result);
+    }
+
+    private void assertSameRun(PayrollCheckpoint result) {
+        assertTrue(result.isComplete());
+        assertEquals(uninterrupted.getTotalPayCents(), result.getTotalPayCents());
+        assertEquals(uninterrupted.getEntryCount(), result.getEntryCount());
+        assertEquals(uninterrupted.getDigest(), result.getDigest());
+        assertEquals(uninterrupted.getLastEmployeeId(), result.getLastEmployeeId());
+    }
+}
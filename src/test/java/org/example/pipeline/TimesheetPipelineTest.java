@@ -0,0 +1,96 @@
+package org.example.pipeline;
+
+import org.example.BatchPayroll;
+import org.example.data.EmployeeDB;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that {@link TimesheetPipeline} accepts and rejects exactly the rows {@link BatchPayroll} does, with
+ * batches small enough that they are cut between almost every employee.
+ *
+ * @author Neil Adavan
+ * @version 1.0
+ * @since 2024-09
+ */
+class TimesheetPipelineTest {
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        EmployeeDB.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        EmployeeDB.clear();
+    }
+
+    @Test
+    void pipelineMatchesBatchPayrollOnMalformedRows() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("Employee,Rate,Date,Hours");
+        lines.add(row("Olivia Smith", "25.00", 1, "8"));
+        lines.add(row("Olivia Smith", "25.00", 2, "9.5"));
+        lines.add(row(" Olivia Smith ", "25.00", 3, "7.25"));  // Same employee once trimmed
+        lines.add(row("Olivia Smith", "25.00", 2, "8"));       // Duplicate date
+        lines.add("Olivia Smith,25.00," + LocalDate.now().minusDays(4));  // Three columns
+        lines.add(row("Olivia Smith", "25.00", 5, "8") + ",extra");
+        lines.add(row("Olivia Smith", "25.0x", 6, "8"));      // Unparseable rate
+        lines.add(row("Olivia Smith", "25.00", 7, "twenty"));  // Unparseable hours
+        lines.add("Olivia Smith,25.00,2024-02-30,8");           // No such date
+        lines.add(row("Olivia Smith", "30.00", 8, "8"));       // Rate change starts a new employee
+        lines.add(row("Olivia Smith", "300.00", 9, "8"));      // Rate out of range
+        lines.add(row("Liam Brown", "20.00", 1, "17"));        // Hours out of range
+        lines.add(row("Liam Brown", "20.00", 1, "0.5"));
+        lines.add(row("L1am", "20.00", 1, "8"));               // Invalid name
+        lines.add(row("Liam Brown", "20.00", -3, "8"));        // Future date
+        lines.add(row("Liam Brown", "20.00", 1, "12"));
+        lines.add(row("Liam Brown", "20.00", 2, "16"));
+        lines.add("");
+        lines.add(row("Emma Tremblay", "33.33", 10, "7.49"));
+        lines.add(row("Emma Tremblay", "33.33", 11, "7.51"));
+        lines.add(row("Name Roy", "21.50", 12, "8"));
+        BatchPayroll.Result batch = assertSameResult(lines);
+        assertEquals(11, batch.getRejected(), "every malformed row is rejected");
+        assertEquals(5, batch.getEmployees());
+    }
+
+    @Test
+    void firstRowIsOnlySkippedWhenItIsAHeader() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(row("Name Roy", "21.50", 1, "8"));
+        lines.add(row("Name Roy", "21.50", 2, "8"));
+        BatchPayroll.Result batch = assertSameResult(lines);
+        assertEquals(2, batch.getEntries(), "a first row for an employee called Name is paid");
+    }
+
+    // Method to run the rows through both loaders and check they agree, returning the batch payroll's result
+    private BatchPayroll.Result assertSameResult(List<String> lines) throws IOException {
+        Path input = Files.write(directory.resolve("timesheet.csv"), lines);
+        BatchPayroll.Result batch = BatchPayroll.run(input, directory.resolve("report.txt"));
+        TimesheetPipeline.Result pipeline = new TimesheetPipeline(2, 2, 1, 2).run(input);
+
+        assertEquals(batch.getEmployees(), pipeline.getEmployees(), "employees");
+        assertEquals(batch.getEntries(), pipeline.getEntries(), "entries");
+        assertEquals(batch.getRejected(), pipeline.getRejected(), "rejected rows");
+        assertEquals(batch.getTotalPayCents(), pipeline.getTotalPayCents(), "total pay");
+        return batch;
+    }
+
+    private static String row(String name, String rate, int daysAgo, String hours) {
+        return name + "," + rate + "," + LocalDate.now().minusDays(daysAgo) + "," + hours;
+    }
+}